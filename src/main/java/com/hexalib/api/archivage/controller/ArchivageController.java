@@ -0,0 +1,39 @@
+package com.hexalib.api.archivage.controller;
+
+import com.hexalib.api.archivage.dto.PeriodeArchiveeResponse;
+import com.hexalib.api.archivage.service.ArchivageService;
+import com.hexalib.api.common.dto.ApiResponse;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/archivage")
+@RequiredArgsConstructor
+@Tag(name = "Archivage", description = "Archivage mensuel des ventes et mouvements de stock")
+@SecurityRequirement(name = "bearerAuth")
+@PreAuthorize("hasRole('ADMIN')")
+public class ArchivageController {
+
+    private final ArchivageService archivageService;
+
+    @GetMapping
+    @Operation(summary = "Lister les mois archivés")
+    public ResponseEntity<ApiResponse<List<PeriodeArchiveeResponse>>> getPeriodes() {
+        return ResponseEntity.ok(ApiResponse.success(archivageService.getPeriodes()));
+    }
+
+    @PostMapping("/executer")
+    @Operation(summary = "Lancer l'archivage des mois clos",
+               description = "Archive les mois antérieurs à la période de rétention (traitement par lots)")
+    public ResponseEntity<ApiResponse<List<PeriodeArchiveeResponse>>> executer() {
+        List<PeriodeArchiveeResponse> periodes = archivageService.archiverMoisClos();
+        return ResponseEntity.ok(ApiResponse.success(periodes.size() + " mois archivés", periodes));
+    }
+}
@@ -0,0 +1,37 @@
+package com.hexalib.api.archivage.dto;
+
+import com.hexalib.api.archivage.model.PeriodeArchivee;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class PeriodeArchiveeResponse {
+
+    private String id;
+    private LocalDate mois;
+    private PeriodeArchivee.Statut statut;
+    private Long ventesArchivees;
+    private Long lignesArchivees;
+    private Long mouvementsArchives;
+    private LocalDateTime dateFinArchivage;
+
+    public static PeriodeArchiveeResponse fromEntity(PeriodeArchivee p) {
+        return PeriodeArchiveeResponse.builder()
+                .id(p.getId())
+                .mois(p.getMois())
+                .statut(p.getStatut())
+                .ventesArchivees(p.getVentesArchivees())
+                .lignesArchivees(p.getLignesArchivees())
+                .mouvementsArchives(p.getMouvementsArchives())
+                .dateFinArchivage(p.getDateFinArchivage())
+                .build();
+    }
+}
@@ -0,0 +1,44 @@
+package com.hexalib.api.archivage.dto;
+
+import com.hexalib.api.vente.model.Vente;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Vente telle que lue par les rapports comptables, chaude ou archivée.
+ * Les lignes archivées n'ont pas de clés étrangères : pas d'entité ni de
+ * proxy, le nom du vendeur et le nombre d'articles sont lus par la requête.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class VenteHistorique {
+
+    private String id;
+    private String numeroFacture;
+    private LocalDateTime dateVente;
+    private String vendeurNom;
+    private BigDecimal montantHT;
+    private BigDecimal montantReductions;
+    private BigDecimal montantTTC;
+    private Integer nombreArticles;
+
+    public static VenteHistorique fromEntity(Vente v) {
+        return VenteHistorique.builder()
+                .id(v.getId())
+                .numeroFacture(v.getNumeroFacture())
+                .dateVente(v.getDateVente())
+                .vendeurNom(v.getVendeur().getNomComplet())
+                .montantHT(v.getMontantHT())
+                .montantReductions(v.getMontantReductions())
+                .montantTTC(v.getMontantTTC())
+                .nombreArticles(v.getLignes().size())
+                .build();
+    }
+}
@@ -0,0 +1,62 @@
+package com.hexalib.api.archivage.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.UpdateTimestamp;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Mois clos déplacé (ou en cours de déplacement) vers les tables d'archive.
+ * Les mois sont archivés dans l'ordre : la limite d'archive est le premier
+ * jour du mois suivant le dernier mois enregistré ici.
+ */
+@Entity
+@Table(name = "periodes_archivees")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PeriodeArchivee {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.UUID)
+    @Column(columnDefinition = "VARCHAR(36)")
+    private String id;
+
+    // Premier jour du mois archivé
+    @Column(nullable = false, unique = true)
+    private LocalDate mois;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private Statut statut = Statut.EN_COURS;
+
+    @Column(name = "ventes_archivees", nullable = false)
+    private Long ventesArchivees = 0L;
+
+    @Column(name = "lignes_archivees", nullable = false)
+    private Long lignesArchivees = 0L;
+
+    @Column(name = "mouvements_archives", nullable = false)
+    private Long mouvementsArchives = 0L;
+
+    @Column(name = "date_fin_archivage")
+    private LocalDateTime dateFinArchivage;
+
+    @CreationTimestamp
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    @UpdateTimestamp
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    public enum Statut {
+        EN_COURS,  // résumés construits, déplacement des lignes en cours
+        TERMINEE
+    }
+}
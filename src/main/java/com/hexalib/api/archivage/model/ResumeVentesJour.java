@@ -0,0 +1,58 @@
+package com.hexalib.api.archivage.model;
+
+import com.hexalib.api.auth.model.User;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Agrégats journaliers des ventes VALIDEE par vendeur, construits avant le
+ * déplacement d'un mois vers l'archive. Sert les statistiques du passé archivé
+ * sans relire ventes_archive.
+ */
+@Entity
+@Table(name = "resume_ventes_jour",
+       uniqueConstraints = @UniqueConstraint(name = "uk_resume_ventes_jour", columnNames = {"jour", "vendeur_id"}),
+       indexes = @Index(name = "idx_resume_ventes_jour", columnList = "jour"))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ResumeVentesJour {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.UUID)
+    @Column(columnDefinition = "VARCHAR(36)")
+    private String id;
+
+    @Column(nullable = false)
+    private LocalDate jour;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "vendeur_id", nullable = false)
+    private User vendeur;
+
+    @Column(name = "nombre_ventes", nullable = false)
+    private Long nombreVentes;
+
+    @Column(name = "nombre_ventes_avec_reduction", nullable = false)
+    private Long nombreVentesAvecReduction;
+
+    @Column(name = "montant_ht", nullable = false, precision = 14, scale = 2)
+    private BigDecimal montantHT;
+
+    @Column(name = "montant_reductions", nullable = false, precision = 14, scale = 2)
+    private BigDecimal montantReductions;
+
+    @Column(name = "montant_ttc", nullable = false, precision = 14, scale = 2)
+    private BigDecimal montantTTC;
+
+    @Column(name = "quantite_livres", nullable = false)
+    private Long quantiteLivres;
+
+    @Column(name = "reduction_max", precision = 10, scale = 2)
+    private BigDecimal reductionMax;
+}
@@ -0,0 +1,59 @@
+package com.hexalib.api.archivage.model;
+
+import com.hexalib.api.auth.model.User;
+import com.hexalib.api.livre.model.Livre;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Agrégats journaliers des lignes de ventes VALIDEE par vendeur et par livre.
+ * montantBrut = Σ prix_unitaire × quantité : la marge se recalcule avec le
+ * prix d'achat courant du livre, comme pour les ventes non archivées.
+ */
+@Entity
+@Table(name = "resume_ventes_livres_jour",
+       uniqueConstraints = @UniqueConstraint(name = "uk_resume_livres_jour",
+                                             columnNames = {"jour", "vendeur_id", "livre_id"}),
+       indexes = {
+           @Index(name = "idx_resume_livres_jour", columnList = "jour"),
+           @Index(name = "idx_resume_livres_livre", columnList = "livre_id")
+       })
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ResumeVentesLivreJour {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.UUID)
+    @Column(columnDefinition = "VARCHAR(36)")
+    private String id;
+
+    @Column(nullable = false)
+    private LocalDate jour;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "vendeur_id", nullable = false)
+    private User vendeur;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "livre_id", nullable = false)
+    private Livre livre;
+
+    @Column(nullable = false)
+    private Long quantite;
+
+    @Column(name = "montant_brut", nullable = false, precision = 14, scale = 2)
+    private BigDecimal montantBrut;
+
+    @Column(name = "sous_total", nullable = false, precision = 14, scale = 2)
+    private BigDecimal sousTotal;
+
+    // Une vente n'a qu'un jour et qu'un vendeur : la somme reste un COUNT(DISTINCT)
+    @Column(name = "nombre_ventes", nullable = false)
+    private Long nombreVentes;
+}
@@ -0,0 +1,182 @@
+package com.hexalib.api.archivage.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * SQL natif de l'archivage : tables *_archive, résumés journaliers et
+ * déplacement par lots. Les colonnes sont listées explicitement pour que
+ * l'ajout d'une colonne dans une table chaude ne casse pas le déplacement.
+ */
+@Repository
+public class ArchivageRepository {
+
+    public static final String COLONNES_VENTES =
+            "id, numero_facture, date_vente, vendeur_id, montant_ht, montant_reductions, " +
+            "montant_ttc, statut, motif_annulation, created_at, updated_at";
+
+    public static final String COLONNES_LIGNES =
+            "id, vente_id, livre_id, titre_livre, code_livre, prix_unitaire, quantite, " +
+            "reduction_id, montant_reduction, sous_total, created_at";
+
+    public static final String COLONNES_MOUVEMENTS =
+            "id, livre_id, type_mouvement, quantite, stock_avant, stock_apres, motif, " +
+            "reference, user_id, date_mouvement";
+
+    @PersistenceContext
+    private EntityManager em;
+
+    // ==================== TABLES D'ARCHIVE ====================
+
+    /**
+     * Même structure et mêmes index que les tables chaudes, sans clés étrangères
+     * (un livre ou un utilisateur supprimé ne bloque pas l'archive).
+     */
+    public void creerTablesArchive() {
+        em.createNativeQuery("CREATE TABLE IF NOT EXISTS ventes_archive LIKE ventes").executeUpdate();
+        em.createNativeQuery("CREATE TABLE IF NOT EXISTS lignes_vente_archive LIKE lignes_vente").executeUpdate();
+        em.createNativeQuery("CREATE TABLE IF NOT EXISTS mouvements_stock_archive LIKE mouvements_stock").executeUpdate();
+    }
+
+    public LocalDateTime findPlusAncienneDateChaude() {
+        Object ventes = em.createNativeQuery("SELECT MIN(date_vente) FROM ventes").getSingleResult();
+        Object mouvements = em.createNativeQuery("SELECT MIN(date_mouvement) FROM mouvements_stock").getSingleResult();
+        LocalDateTime v = toLocalDateTime(ventes);
+        LocalDateTime m = toLocalDateTime(mouvements);
+        if (v == null) return m;
+        if (m == null) return v;
+        return v.isBefore(m) ? v : m;
+    }
+
+    // ==================== RÉSUMÉS ====================
+
+    /**
+     * (Re)construit les résumés journaliers des ventes VALIDEE de [debut, fin)
+     * à partir des tables chaudes.
+     */
+    public void construireResumes(LocalDateTime debut, LocalDateTime fin) {
+        LocalDate jourDebut = debut.toLocalDate();
+        LocalDate jourFin   = fin.toLocalDate();
+
+        em.createNativeQuery("DELETE FROM resume_ventes_jour WHERE jour >= :debut AND jour < :fin")
+                .setParameter("debut", jourDebut)
+                .setParameter("fin", jourFin)
+                .executeUpdate();
+        em.createNativeQuery("DELETE FROM resume_ventes_livres_jour WHERE jour >= :debut AND jour < :fin")
+                .setParameter("debut", jourDebut)
+                .setParameter("fin", jourFin)
+                .executeUpdate();
+
+        em.createNativeQuery("""
+                INSERT INTO resume_ventes_jour
+                    (id, jour, vendeur_id, nombre_ventes, nombre_ventes_avec_reduction,
+                     montant_ht, montant_reductions, montant_ttc, quantite_livres, reduction_max)
+                SELECT UUID(), DATE(v.date_vente), v.vendeur_id, COUNT(*),
+                       SUM(CASE WHEN v.montant_reductions > 0 THEN 1 ELSE 0 END),
+                       SUM(v.montant_ht), SUM(COALESCE(v.montant_reductions, 0)), SUM(v.montant_ttc),
+                       SUM(COALESCE(q.quantite, 0)), MAX(v.montant_reductions)
+                FROM ventes v
+                LEFT JOIN (
+                    SELECT lv.vente_id, SUM(lv.quantite) AS quantite
+                    FROM lignes_vente lv
+                    JOIN ventes v2 ON v2.id = lv.vente_id
+                    WHERE v2.date_vente >= :debut AND v2.date_vente < :fin
+                    GROUP BY lv.vente_id
+                ) q ON q.vente_id = v.id
+                WHERE v.statut = 'VALIDEE'
+                  AND v.date_vente >= :debut AND v.date_vente < :fin
+                GROUP BY DATE(v.date_vente), v.vendeur_id
+                """)
+                .setParameter("debut", debut)
+                .setParameter("fin", fin)
+                .executeUpdate();
+
+        em.createNativeQuery("""
+                INSERT INTO resume_ventes_livres_jour
+                    (id, jour, vendeur_id, livre_id, quantite, montant_brut, sous_total, nombre_ventes)
+                SELECT UUID(), DATE(v.date_vente), v.vendeur_id, lv.livre_id,
+                       SUM(lv.quantite), SUM(lv.prix_unitaire * lv.quantite), SUM(lv.sous_total),
+                       COUNT(DISTINCT v.id)
+                FROM lignes_vente lv
+                JOIN ventes v ON v.id = lv.vente_id
+                WHERE v.statut = 'VALIDEE'
+                  AND v.date_vente >= :debut AND v.date_vente < :fin
+                GROUP BY DATE(v.date_vente), v.vendeur_id, lv.livre_id
+                """)
+                .setParameter("debut", debut)
+                .setParameter("fin", fin)
+                .executeUpdate();
+    }
+
+    // ==================== DÉPLACEMENT PAR LOTS ====================
+
+    @SuppressWarnings("unchecked")
+    public List<String> findIdsVentes(LocalDateTime debut, LocalDateTime fin, int taille) {
+        return em.createNativeQuery(
+                "SELECT id FROM ventes WHERE date_vente >= :debut AND date_vente < :fin " +
+                "ORDER BY date_vente LIMIT :taille")
+                .setParameter("debut", debut)
+                .setParameter("fin", fin)
+                .setParameter("taille", taille)
+                .getResultList();
+    }
+
+    /**
+     * Copie puis supprime les ventes et leurs lignes.
+     * @return nombre de lignes de vente déplacées
+     */
+    public int deplacerVentes(List<String> ids) {
+        int lignes = em.createNativeQuery(
+                "INSERT INTO lignes_vente_archive (" + COLONNES_LIGNES + ") " +
+                "SELECT " + COLONNES_LIGNES + " FROM lignes_vente WHERE vente_id IN (:ids)")
+                .setParameter("ids", ids)
+                .executeUpdate();
+        em.createNativeQuery(
+                "INSERT INTO ventes_archive (" + COLONNES_VENTES + ") " +
+                "SELECT " + COLONNES_VENTES + " FROM ventes WHERE id IN (:ids)")
+                .setParameter("ids", ids)
+                .executeUpdate();
+        em.createNativeQuery("DELETE FROM lignes_vente WHERE vente_id IN (:ids)")
+                .setParameter("ids", ids)
+                .executeUpdate();
+        em.createNativeQuery("DELETE FROM ventes WHERE id IN (:ids)")
+                .setParameter("ids", ids)
+                .executeUpdate();
+        return lignes;
+    }
+
+    @SuppressWarnings("unchecked")
+    public List<String> findIdsMouvements(LocalDateTime debut, LocalDateTime fin, int taille) {
+        return em.createNativeQuery(
+                "SELECT id FROM mouvements_stock WHERE date_mouvement >= :debut AND date_mouvement < :fin " +
+                "ORDER BY date_mouvement LIMIT :taille")
+                .setParameter("debut", debut)
+                .setParameter("fin", fin)
+                .setParameter("taille", taille)
+                .getResultList();
+    }
+
+    public int deplacerMouvements(List<String> ids) {
+        int copies = em.createNativeQuery(
+                "INSERT INTO mouvements_stock_archive (" + COLONNES_MOUVEMENTS + ") " +
+                "SELECT " + COLONNES_MOUVEMENTS + " FROM mouvements_stock WHERE id IN (:ids)")
+                .setParameter("ids", ids)
+                .executeUpdate();
+        em.createNativeQuery("DELETE FROM mouvements_stock WHERE id IN (:ids)")
+                .setParameter("ids", ids)
+                .executeUpdate();
+        return copies;
+    }
+
+    private static LocalDateTime toLocalDateTime(Object value) {
+        if (value == null) return null;
+        if (value instanceof LocalDateTime ldt) return ldt;
+        return ((Timestamp) value).toLocalDateTime();
+    }
+}
@@ -0,0 +1,188 @@
+package com.hexalib.api.archivage.repository;
+
+import com.hexalib.api.archivage.dto.VenteHistorique;
+import com.hexalib.api.stock.dto.MouvementStockResponse;
+import com.hexalib.api.stock.model.TypeMouvement;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Query;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static com.hexalib.api.archivage.repository.ArchivageRepository.COLONNES_MOUVEMENTS;
+
+/**
+ * Lectures ligne à ligne sur tables chaudes + tables d'archive (UNION ALL).
+ * Utilisé uniquement quand la demande atteint des données archivées. Les
+ * tables d'archive n'ont pas de clés étrangères (livre ou vendeur supprimé
+ * depuis) : les lignes sont remontées en projections, jamais en entités.
+ */
+@Repository
+public class HistoriqueRepository {
+
+    /** L'archive ne change qu'au passage du job mensuel : ses comptages sont gardés 5 min. */
+    private static final long TTL_COMPTES_MS = 5 * 60_000L;
+    private static final int  MAX_COMPTES    = 1_000;
+
+    @PersistenceContext
+    private EntityManager em;
+
+    private record Compte(long valeur, long calculeLe) {}
+
+    private final Map<String, Compte> comptesArchive = new ConcurrentHashMap<>();
+
+    // ==================== MOUVEMENTS ====================
+
+    /**
+     * Même contrat que MouvementStockRepository.findWithFilters.
+     * Chaque branche est bornée à offset + size avant la fusion triée ;
+     * titre, code du livre et nom de l'utilisateur sont joints après la
+     * pagination. totalChaud : comptage déjà fait sur mouvements_stock.
+     */
+    @SuppressWarnings("unchecked")
+    public Page<MouvementStockResponse> findMouvementsWithFilters(
+            String livreId, TypeMouvement type, String userId,
+            LocalDateTime debut, LocalDateTime fin, Pageable pageable, long totalChaud) {
+
+        Map<String, Object> params = new LinkedHashMap<>();
+        String where = filtresMouvements(livreId, type, userId, debut, fin, params);
+
+        long borne = pageable.getOffset() + pageable.getPageSize();
+        String branche = " ORDER BY date_mouvement DESC LIMIT " + borne;
+
+        String sql = "SELECT m.id, m.livre_id, l.titre, l.code, m.type_mouvement, m.quantite, " +
+                "m.stock_avant, m.stock_apres, m.motif, m.reference, m.user_id, u.nom_complet, m.date_mouvement " +
+                "FROM (SELECT * FROM (" +
+                "(SELECT " + COLONNES_MOUVEMENTS + " FROM mouvements_stock" + where + branche + ") " +
+                "UNION ALL " +
+                "(SELECT " + COLONNES_MOUVEMENTS + " FROM mouvements_stock_archive" + where + branche + ")" +
+                ") f ORDER BY f.date_mouvement DESC LIMIT :size OFFSET :offset) m " +
+                "LEFT JOIN livres l ON l.id = m.livre_id " +
+                "LEFT JOIN users u ON u.id = m.user_id " +
+                "ORDER BY m.date_mouvement DESC";
+
+        Query query = em.createNativeQuery(sql);
+        params.forEach(query::setParameter);
+        List<Object[]> rows = query
+                .setParameter("size", pageable.getPageSize())
+                .setParameter("offset", pageable.getOffset())
+                .getResultList();
+
+        List<MouvementStockResponse> contenu = rows.stream()
+                .map(row -> MouvementStockResponse.builder()
+                        .id((String) row[0])
+                        .livreId((String) row[1])
+                        .titreLivre((String) row[2])
+                        .codeLivre((String) row[3])
+                        .typeMouvement(TypeMouvement.valueOf((String) row[4]))
+                        .quantite(((Number) row[5]).intValue())
+                        .stockAvant(((Number) row[6]).intValue())
+                        .stockApres(((Number) row[7]).intValue())
+                        .motif((String) row[8])
+                        .reference((String) row[9])
+                        .userId(row[10] != null ? UUID.fromString((String) row[10]) : null)
+                        .userName((String) row[11])
+                        .dateMouvement(dateHeure(row[12]))
+                        .build())
+                .toList();
+
+        long total = totalChaud + countMouvementsArchives(livreId, type, userId, debut, fin);
+        return new PageImpl<>(contenu, pageable, total);
+    }
+
+    /**
+     * Nombre de mouvements archivés répondant aux filtres. Gardé en cache
+     * quelques minutes : une liste paginée qui reste dans les lignes
+     * chaudes n'interroge pas la table d'archive à chaque page.
+     */
+    public long countMouvementsArchives(String livreId, TypeMouvement type, String userId,
+                                        LocalDateTime debut, LocalDateTime fin) {
+        Map<String, Object> params = new LinkedHashMap<>();
+        String where = filtresMouvements(livreId, type, userId, debut, fin, params);
+        String cle = where + params.values();
+
+        long maintenant = System.currentTimeMillis();
+        Compte compte = comptesArchive.get(cle);
+        if (compte != null && maintenant - compte.calculeLe() <= TTL_COMPTES_MS) {
+            return compte.valeur();
+        }
+
+        Query query = em.createNativeQuery("SELECT COUNT(*) FROM mouvements_stock_archive" + where);
+        params.forEach(query::setParameter);
+        long valeur = ((Number) query.getSingleResult()).longValue();
+
+        if (comptesArchive.size() >= MAX_COMPTES) {
+            comptesArchive.clear();
+        }
+        comptesArchive.put(cle, new Compte(valeur, maintenant));
+        return valeur;
+    }
+
+    // ==================== VENTES ====================
+
+    /**
+     * Même contrat que VenteRepository.findByPeriode (VALIDEE, date décroissante),
+     * chaque vente avec son nombre de lignes, lu dans la table de lignes
+     * correspondante.
+     */
+    @SuppressWarnings("unchecked")
+    public List<VenteHistorique> findVentesByPeriode(LocalDateTime debut, LocalDateTime fin) {
+        String filtre = " WHERE statut = 'VALIDEE' AND date_vente BETWEEN :debut AND :fin";
+        String colonnes = "id, numero_facture, date_vente, vendeur_id, montant_ht, montant_reductions, montant_ttc";
+        List<Object[]> rows = em.createNativeQuery(
+                "SELECT v.id, v.numero_facture, v.date_vente, u.nom_complet, " +
+                "v.montant_ht, v.montant_reductions, v.montant_ttc, v.nb_articles FROM (" +
+                "SELECT " + colonnes + ", (SELECT COUNT(*) FROM lignes_vente lv WHERE lv.vente_id = ventes.id) nb_articles " +
+                "FROM ventes" + filtre +
+                " UNION ALL " +
+                "SELECT " + colonnes + ", (SELECT COUNT(*) FROM lignes_vente_archive lv WHERE lv.vente_id = ventes_archive.id) " +
+                "FROM ventes_archive" + filtre +
+                ") v LEFT JOIN users u ON u.id = v.vendeur_id ORDER BY v.date_vente DESC")
+                .setParameter("debut", debut)
+                .setParameter("fin", fin)
+                .getResultList();
+
+        return rows.stream()
+                .map(row -> VenteHistorique.builder()
+                        .id((String) row[0])
+                        .numeroFacture((String) row[1])
+                        .dateVente(dateHeure(row[2]))
+                        .vendeurNom((String) row[3])
+                        .montantHT((BigDecimal) row[4])
+                        .montantReductions((BigDecimal) row[5])
+                        .montantTTC((BigDecimal) row[6])
+                        .nombreArticles(((Number) row[7]).intValue())
+                        .build())
+                .toList();
+    }
+
+    // ==================== HELPERS ====================
+
+    private static String filtresMouvements(String livreId, TypeMouvement type, String userId,
+                                            LocalDateTime debut, LocalDateTime fin,
+                                            Map<String, Object> params) {
+        StringBuilder where = new StringBuilder(" WHERE 1 = 1");
+        if (livreId != null) { where.append(" AND livre_id = :livreId");        params.put("livreId", livreId); }
+        if (type != null)    { where.append(" AND type_mouvement = :type");      params.put("type", type.name()); }
+        if (userId != null)  { where.append(" AND user_id = :userId");           params.put("userId", userId); }
+        if (debut != null)   { where.append(" AND date_mouvement >= :debut");    params.put("debut", debut); }
+        if (fin != null)     { where.append(" AND date_mouvement <= :fin");      params.put("fin", fin); }
+        return where.toString();
+    }
+
+    private static LocalDateTime dateHeure(Object valeur) {
+        if (valeur instanceof Timestamp ts) return ts.toLocalDateTime();
+        return (LocalDateTime) valeur;
+    }
+}
@@ -0,0 +1,22 @@
+package com.hexalib.api.archivage.repository;
+
+import com.hexalib.api.archivage.model.PeriodeArchivee;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface PeriodeArchiveeRepository extends JpaRepository<PeriodeArchivee, String> {
+
+    Optional<PeriodeArchivee> findByMois(LocalDate mois);
+
+    List<PeriodeArchivee> findAllByOrderByMoisDesc();
+
+    // Dernier mois archivé ou en cours d'archivage
+    @Query("SELECT MAX(p.mois) FROM PeriodeArchivee p")
+    Optional<LocalDate> findDernierMois();
+}
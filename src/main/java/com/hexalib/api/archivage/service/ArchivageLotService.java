@@ -0,0 +1,80 @@
+package com.hexalib.api.archivage.service;
+
+import com.hexalib.api.archivage.model.PeriodeArchivee;
+import com.hexalib.api.archivage.repository.ArchivageRepository;
+import com.hexalib.api.archivage.repository.PeriodeArchiveeRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.List;
+
+/**
+ * Étapes de l'archivage d'un mois, chacune dans sa propre transaction :
+ * aucun verrou n'est tenu au-delà d'un lot.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ArchivageLotService {
+
+    private final ArchivageRepository       archivageRepository;
+    private final PeriodeArchiveeRepository periodeRepository;
+
+    @Transactional
+    public void creerTablesArchive() {
+        archivageRepository.creerTablesArchive();
+    }
+
+    @Transactional(readOnly = true)
+    public LocalDateTime findPlusAncienneDateChaude() {
+        return archivageRepository.findPlusAncienneDateChaude();
+    }
+
+    /**
+     * Construit les résumés du mois et l'enregistre EN_COURS.
+     * Un mois déjà EN_COURS (archivage interrompu) garde ses résumés :
+     * une partie de ses ventes est déjà dans l'archive.
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public PeriodeArchivee preparer(YearMonth mois) {
+        return periodeRepository.findByMois(mois.atDay(1)).orElseGet(() -> {
+            archivageRepository.construireResumes(
+                    mois.atDay(1).atStartOfDay(), mois.plusMonths(1).atDay(1).atStartOfDay());
+            PeriodeArchivee periode = new PeriodeArchivee();
+            periode.setMois(mois.atDay(1));
+            return periodeRepository.save(periode);
+        });
+    }
+
+    /** @return {ventes déplacées, lignes déplacées} */
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public int[] deplacerLotVentes(LocalDateTime debut, LocalDateTime fin, int taille) {
+        List<String> ids = archivageRepository.findIdsVentes(debut, fin, taille);
+        if (ids.isEmpty()) return new int[] {0, 0};
+        int lignes = archivageRepository.deplacerVentes(ids);
+        return new int[] {ids.size(), lignes};
+    }
+
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public int deplacerLotMouvements(LocalDateTime debut, LocalDateTime fin, int taille) {
+        List<String> ids = archivageRepository.findIdsMouvements(debut, fin, taille);
+        if (ids.isEmpty()) return 0;
+        return archivageRepository.deplacerMouvements(ids);
+    }
+
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public PeriodeArchivee terminer(String periodeId, long ventes, long lignes, long mouvements) {
+        PeriodeArchivee periode = periodeRepository.findById(periodeId).orElseThrow();
+        periode.setVentesArchivees(periode.getVentesArchivees() + ventes);
+        periode.setLignesArchivees(periode.getLignesArchivees() + lignes);
+        periode.setMouvementsArchives(periode.getMouvementsArchives() + mouvements);
+        periode.setStatut(PeriodeArchivee.Statut.TERMINEE);
+        periode.setDateFinArchivage(LocalDateTime.now());
+        return periodeRepository.save(periode);
+    }
+}
@@ -0,0 +1,117 @@
+package com.hexalib.api.archivage.service;
+
+import com.hexalib.api.archivage.dto.PeriodeArchiveeResponse;
+import com.hexalib.api.archivage.model.PeriodeArchivee;
+import com.hexalib.api.archivage.repository.PeriodeArchiveeRepository;
+import com.hexalib.api.common.exception.BadRequestException;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Archivage mensuel de ventes, lignes_vente et mouvements_stock.
+ *
+ * Pour chaque mois clos plus ancien que la rétention :
+ *  1. résumés journaliers construits depuis les tables chaudes, mois EN_COURS ;
+ *  2. limite d'archive avancée — les lectures du mois passent sur résumés/archive ;
+ *  3. déplacement par lots de tailleLot lignes, une transaction par lot ;
+ *  4. mois TERMINEE.
+ * Un archivage interrompu reprend au lot suivant lors de l'exécution suivante.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ArchivageService {
+
+    private final ArchivageLotService       lotService;
+    private final PeriodeArchiveeRepository periodeRepository;
+    private final LimiteArchive             limiteArchive;
+
+    @Value("${archivage.retention-mois:12}")
+    private int retentionMois;
+
+    @Value("${archivage.taille-lot:1000}")
+    private int tailleLot;
+
+    private final AtomicBoolean enCours = new AtomicBoolean(false);
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void initialiser() {
+        lotService.creerTablesArchive();
+        periodeRepository.findDernierMois().ifPresent(mois ->
+                limiteArchive.avancer(mois.plusMonths(1).atStartOfDay()));
+        log.info("Limite d'archive : {}", limiteArchive.getLimite());
+    }
+
+    @Scheduled(cron = "${archivage.cron:0 30 2 2 * *}")
+    public void archiverPlanifie() {
+        try {
+            archiverMoisClos();
+        } catch (BadRequestException e) {
+            log.warn("Archivage planifié ignoré : {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Archive tous les mois antérieurs à (mois courant - rétention).
+     */
+    public List<PeriodeArchiveeResponse> archiverMoisClos() {
+        if (!enCours.compareAndSet(false, true)) {
+            throw new BadRequestException("Un archivage est déjà en cours");
+        }
+        try {
+            List<PeriodeArchiveeResponse> result = new ArrayList<>();
+            LocalDateTime plusAncienne = lotService.findPlusAncienneDateChaude();
+            if (plusAncienne == null) return result;
+
+            YearMonth borne = YearMonth.now().minusMonths(retentionMois);
+            for (YearMonth mois = YearMonth.from(plusAncienne); mois.isBefore(borne); mois = mois.plusMonths(1)) {
+                result.add(PeriodeArchiveeResponse.fromEntity(archiverMois(mois)));
+            }
+            return result;
+        } finally {
+            enCours.set(false);
+        }
+    }
+
+    public List<PeriodeArchiveeResponse> getPeriodes() {
+        return periodeRepository.findAllByOrderByMoisDesc().stream()
+                .map(PeriodeArchiveeResponse::fromEntity)
+                .toList();
+    }
+
+    private PeriodeArchivee archiverMois(YearMonth mois) {
+        LocalDateTime debut = mois.atDay(1).atStartOfDay();
+        LocalDateTime fin   = mois.plusMonths(1).atDay(1).atStartOfDay();
+        long debutMs = System.currentTimeMillis();
+
+        PeriodeArchivee periode = lotService.preparer(mois);
+        limiteArchive.avancer(fin);
+
+        long ventes = 0, lignes = 0, mouvements = 0;
+        int[] lot;
+        while ((lot = lotService.deplacerLotVentes(debut, fin, tailleLot))[0] > 0) {
+            ventes += lot[0];
+            lignes += lot[1];
+        }
+        int n;
+        while ((n = lotService.deplacerLotMouvements(debut, fin, tailleLot)) > 0) {
+            mouvements += n;
+        }
+
+        PeriodeArchivee terminee = lotService.terminer(periode.getId(), ventes, lignes, mouvements);
+        log.info("Mois {} archivé : {} ventes, {} lignes, {} mouvements en {} ms",
+                mois, ventes, lignes, mouvements, System.currentTimeMillis() - debutMs);
+        return terminee;
+    }
+}
@@ -0,0 +1,62 @@
+package com.hexalib.api.archivage.service;
+
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Limite entre données chaudes et archivées : premier instant non archivé
+ * (minuit du 1er d'un mois), null tant qu'aucun mois n'a été archivé.
+ *
+ * Avant la limite, les statistiques sont servies par les résumés journaliers
+ * et les listes par les tables *_archive ; à partir de la limite, par les tables
+ * chaudes. Le passé archivé est donc agrégé à la journée.
+ */
+@Component
+public class LimiteArchive {
+
+    /**
+     * Découpage d'une période [debut, fin] de part et d'autre de la limite.
+     * jourDebut/jourFin : jours servis par les résumés (null = aucun).
+     * debutChaud : début de la partie servie par les tables chaudes (null = aucune).
+     */
+    public record Tranches(LocalDate jourDebut, LocalDate jourFin, LocalDateTime debutChaud) {
+        public boolean archive() { return jourDebut != null; }
+        public boolean chaud()   { return debutChaud != null; }
+    }
+
+    private volatile LocalDateTime limite;
+
+    public LocalDateTime getLimite() {
+        return limite;
+    }
+
+    /** La limite ne recule jamais. */
+    public synchronized void avancer(LocalDateTime nouvelle) {
+        if (limite == null || nouvelle.isAfter(limite)) {
+            limite = nouvelle;
+        }
+    }
+
+    /** Vrai si une période commençant à debut (null = sans borne) touche l'archive. */
+    public boolean atteint(LocalDateTime debut) {
+        LocalDateTime l = limite;
+        return l != null && (debut == null || debut.isBefore(l));
+    }
+
+    public boolean estArchive(LocalDateTime date) {
+        LocalDateTime l = limite;
+        return l != null && date.isBefore(l);
+    }
+
+    public Tranches decouper(LocalDateTime debut, LocalDateTime fin) {
+        LocalDateTime l = limite;
+        if (l == null || !debut.isBefore(l)) {
+            return new Tranches(null, null, debut);
+        }
+        LocalDate jourFin = fin.isBefore(l) ? fin.toLocalDate() : l.toLocalDate().minusDays(1);
+        LocalDateTime debutChaud = fin.isBefore(l) ? null : l;
+        return new Tranches(debut.toLocalDate(), jourFin, debutChaud);
+    }
+}
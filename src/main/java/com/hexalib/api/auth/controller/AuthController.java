@@ -28,8 +28,9 @@ public class AuthController {
     /** Connexion */
     @PostMapping("/login")
     public ResponseEntity<ApiResponse<LoginResponse>> login(
-            @Valid @RequestBody LoginRequest request) {
-        LoginResponse response = authService.login(request);
+            @Valid @RequestBody LoginRequest request,
+            HttpServletRequest httpRequest) {
+        LoginResponse response = authService.login(request, httpRequest.getRemoteAddr());
         return ResponseEntity.ok(ApiResponse.success("Connexion réussie", response));
     }
 
@@ -44,8 +45,9 @@ public class AuthController {
     /** Rafraîchir l'access token via le refresh token */
     @PostMapping("/refresh-token")
     public ResponseEntity<ApiResponse<LoginResponse>> refreshToken(
-            @Valid @RequestBody RefreshTokenRequest request) {
-        LoginResponse response = authService.refreshToken(request.getRefreshToken());
+            @Valid @RequestBody RefreshTokenRequest request,
+            HttpServletRequest httpRequest) {
+        LoginResponse response = authService.refreshToken(request.getRefreshToken(), httpRequest.getRemoteAddr());
         return ResponseEntity.ok(ApiResponse.success("Token rafraîchi avec succès", response));
     }
 
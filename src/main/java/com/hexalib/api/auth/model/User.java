@@ -53,6 +53,13 @@ private LocalDateTime derniereConnexion;
 @Column(name = "mot_de_passe_temporaire", columnDefinition = "TINYINT(1) DEFAULT 0")
 private Boolean motDePasseTemporaire = false;
 
+    /**
+     * Incrémentée à chaque changement de mot de passe, de rôle, d'email ou de
+     * statut : les access tokens émis avec une version antérieure sont refusés.
+     */
+    @Column(name = "version_securite", nullable = false, columnDefinition = "INT DEFAULT 0")
+    private Integer versionSecurite = 0;
+
     // Enum Role
     public enum Role {
         ADMIN, VENDEUR
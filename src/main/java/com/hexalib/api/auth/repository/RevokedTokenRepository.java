@@ -0,0 +1,21 @@
+package com.hexalib.api.auth.repository;
+
+import com.hexalib.api.auth.model.RevokedToken;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface RevokedTokenRepository extends JpaRepository<RevokedToken, String> {
+
+    List<RevokedToken> findByExpiresAtAfter(LocalDateTime date);
+
+    @Modifying
+    @Query("DELETE FROM RevokedToken rt WHERE rt.expiresAt <= :date")
+    int deleteExpired(@Param("date") LocalDateTime date);
+}
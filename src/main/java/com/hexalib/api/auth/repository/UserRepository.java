@@ -8,6 +8,7 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
 import java.util.Optional;
 
 @Repository
@@ -17,6 +18,10 @@ public interface UserRepository extends JpaRepository<User, String> {
 
     boolean existsByEmail(String email);
 
+    // Version de sécurité et statut, pour la validation des access tokens
+    @Query("SELECT u.versionSecurite, u.statut FROM User u WHERE u.id = :id")
+    List<Object[]> findEtatSecurite(@Param("id") String id);
+
     // Recherche + filtres combinés
     @Query("""
         SELECT u FROM User u
@@ -0,0 +1,110 @@
+package com.hexalib.api.auth.security;
+
+import com.hexalib.api.common.exception.TooManyRequestsException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Encodeur de mots de passe dont les hachages et vérifications (BCrypt,
+ * ~250 ms de CPU chacun au coût 12) s'exécutent sur un pool dédié et borné.
+ *
+ * Le thread HTTP attend le résultat mais le CPU consommé par
+ * l'authentification ne dépasse pas {@code threads} cœurs : un pic de
+ * connexions ou une attaque par dictionnaire ne ralentit pas les ventes.
+ * Au-delà de la file d'attente, la demande est refusée (429) immédiatement.
+ *
+ * Les appelants hachent hors transaction ({@code CompteEcritureService}
+ * enregistre ensuite le résultat) : l'attente ne tient pas de connexion.
+ *
+ * Métriques : {@code hexalib.bcrypt.duree} (tag operation), {@code hexalib.bcrypt.file},
+ * {@code hexalib.bcrypt.rejets}.
+ */
+public class EncodeurMotDePasseBorne implements PasswordEncoder {
+
+    private final PasswordEncoder   delegue;
+    private final ThreadPoolExecutor executor;
+    private final Counter rejets;
+    private final Timer   dureeEncodage;
+    private final Timer   dureeVerification;
+
+    public EncodeurMotDePasseBorne(PasswordEncoder delegue, int threads, int fileAttente,
+                                   MeterRegistry meterRegistry) {
+        this.delegue = delegue;
+
+        AtomicInteger compteur = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(fileAttente),
+                r -> {
+                    Thread t = new Thread(r, "bcrypt-" + compteur.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                });
+
+        Gauge.builder("hexalib.bcrypt.file", executor, e -> e.getQueue().size())
+                .description("Hachages de mots de passe en attente")
+                .register(meterRegistry);
+        this.rejets = Counter.builder("hexalib.bcrypt.rejets")
+                .description("Demandes refusées, file de hachage pleine")
+                .register(meterRegistry);
+        this.dureeEncodage = Timer.builder("hexalib.bcrypt.duree")
+                .description("Durée des hachages de mots de passe")
+                .tag("operation", "encode")
+                .register(meterRegistry);
+        this.dureeVerification = Timer.builder("hexalib.bcrypt.duree")
+                .description("Durée des hachages de mots de passe")
+                .tag("operation", "matches")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return executer(() -> dureeEncodage.recordCallable(() -> delegue.encode(rawPassword)));
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return executer(() -> dureeVerification.recordCallable(() -> delegue.matches(rawPassword, encodedPassword)));
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        return delegue.upgradeEncoding(encodedPassword);
+    }
+
+    public void arreter() {
+        executor.shutdownNow();
+    }
+
+    private <T> T executer(Callable<T> tache) {
+        Future<T> resultat;
+        try {
+            resultat = executor.submit(tache);
+        } catch (RejectedExecutionException e) {
+            rejets.increment();
+            throw new TooManyRequestsException("Trop de demandes d'authentification en cours, réessayez dans un instant");
+        }
+
+        try {
+            return resultat.get();
+        } catch (InterruptedException e) {
+            resultat.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Hachage du mot de passe interrompu", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException re) throw re;
+            throw new IllegalStateException("Erreur lors du hachage du mot de passe", e.getCause());
+        }
+    }
+}
@@ -1,7 +1,9 @@
 package com.hexalib.api.auth.security;
 
 import com.hexalib.api.auth.service.TokenBlacklistService;
-import com.hexalib.api.auth.service.UserDetailsServiceImpl;
+import com.hexalib.api.auth.service.VersionSecuriteService;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -10,7 +12,6 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
 import org.springframework.util.StringUtils;
@@ -24,7 +25,7 @@ import java.io.IOException;
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
     private final JwtTokenProvider       tokenProvider;
-    private final UserDetailsServiceImpl userDetailsService;
+    private final VersionSecuriteService versionSecuriteService;
     private final TokenBlacklistService  tokenBlacklistService;
 
     @Override
@@ -35,27 +36,19 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
             String jwt = getJwtFromRequest(request);
 
             if (StringUtils.hasText(jwt)) {
-                // Vérifier si le token est blacklisté (logout)
-                if (tokenBlacklistService.isBlacklisted(jwt)) {
-                    log.debug("Token blacklisté refusé");
-                    filterChain.doFilter(request, response);
-                    return;
-                }
-
-                if (tokenProvider.validateToken(jwt)) {
-                    String username     = tokenProvider.getUsernameFromToken(jwt);
-                    UserDetails userDetails = userDetailsService.loadUserByUsername(username);
-
-                    UsernamePasswordAuthenticationToken authentication =
-                            new UsernamePasswordAuthenticationToken(
-                                    userDetails, null, userDetails.getAuthorities());
+                // Une seule analyse du token ; le principal vient des claims, sans requête
+                Claims claims = tokenProvider.parseAndValidate(jwt);
 
-                    authentication.setDetails(
-                            new WebAuthenticationDetailsSource().buildDetails(request));
-
-                    SecurityContextHolder.getContext().setAuthentication(authentication);
+                // Vérifier si le token est blacklisté (logout) ; sans jti il ne pourrait pas l'être
+                if (claims.getId() == null || tokenBlacklistService.isBlacklisted(claims.getId())) {
+                    log.debug("Token blacklisté refusé");
+                } else {
+                    authentifier(claims, request);
                 }
             }
+        } catch (JwtException | IllegalArgumentException ex) {
+            // Token invalide ou expiré : la requête continue sans authentification
+            log.debug("Token refusé : {}", ex.getMessage());
         } catch (Exception ex) {
             log.error("Impossible d'authentifier l'utilisateur : {}", ex.getMessage());
         }
@@ -63,6 +56,25 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         filterChain.doFilter(request, response);
     }
 
+    private void authentifier(Claims claims, HttpServletRequest request) {
+        UtilisateurConnecte principal = tokenProvider.getPrincipal(claims);
+
+        // Mot de passe, rôle ou statut changé depuis l'émission : token révoqué
+        if (!versionSecuriteService.estAJour(principal.id(), tokenProvider.getVersion(claims))) {
+            log.debug("Token révoqué refusé pour {}", principal.email());
+            return;
+        }
+
+        UsernamePasswordAuthenticationToken authentication =
+                new UsernamePasswordAuthenticationToken(
+                        principal, null, principal.authorities());
+
+        authentication.setDetails(
+                new WebAuthenticationDetailsSource().buildDetails(request));
+
+        SecurityContextHolder.getContext().setAuthentication(authentication);
+    }
+
     private String getJwtFromRequest(HttpServletRequest request) {
         String bearerToken = request.getHeader("Authorization");
         if (StringUtils.hasText(bearerToken) && bearerToken.startsWith("Bearer ")) {
@@ -5,10 +5,9 @@ import com.hexalib.api.auth.model.User;
 import com.hexalib.api.auth.repository.RefreshTokenRepository;
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.security.core.Authentication;
-import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Component;
 
 import javax.crypto.SecretKey;
@@ -32,33 +31,41 @@ public class JwtTokenProvider {
 
     private final RefreshTokenRepository refreshTokenRepository;
 
-    // ── Signing key ───────────────────────────────────────────────────────────
+    // ── Signing key et parser ─────────────────────────────────────────────────
 
-    private SecretKey getSigningKey() {
-        byte[] keyBytes = jwtSecret.getBytes(StandardCharsets.UTF_8);
-        return Keys.hmacShaKeyFor(keyBytes);
+    // Dérivés une fois du secret : le parser est immuable et thread-safe,
+    // il sert à toutes les requêtes au lieu d'être reconstruit à chaque validation
+    private SecretKey signingKey;
+    private JwtParser parser;
+
+    @PostConstruct
+    void initialiser() {
+        signingKey = Keys.hmacShaKeyFor(jwtSecret.getBytes(StandardCharsets.UTF_8));
+        parser     = Jwts.parser()
+                .verifyWith(signingKey)
+                .build();
     }
 
     // ── Access Token ──────────────────────────────────────────────────────────
 
-    public String generateToken(Authentication authentication) {
-        UserDetails userDetails = (UserDetails) authentication.getPrincipal();
-        return buildToken(userDetails.getUsername());
-    }
-
-    public String generateToken(String email) {
-        return buildToken(email);
-    }
+    /** Claims portés par l'access token, en plus du sujet (email). */
+    public static final String CLAIM_USER_ID = "uid";
+    public static final String CLAIM_ROLE    = "role";
+    public static final String CLAIM_VERSION = "ver";
 
-    private String buildToken(String email) {
+    public String generateToken(User user) {
         Date now        = new Date();
         Date expiration = new Date(now.getTime() + jwtExpirationMs);
 
         return Jwts.builder()
-                .subject(email)
+                .id(UUID.randomUUID().toString())   // jti : clé de la blacklist au logout
+                .subject(user.getEmail())
+                .claim(CLAIM_USER_ID, user.getId())
+                .claim(CLAIM_ROLE, user.getRole().name())
+                .claim(CLAIM_VERSION, user.getVersionSecurite())
                 .issuedAt(now)
                 .expiration(expiration)
-                .signWith(getSigningKey())
+                .signWith(signingKey)
                 .compact();
     }
 
@@ -81,25 +88,33 @@ public class JwtTokenProvider {
 
     // ── Validation ────────────────────────────────────────────────────────────
 
-    public String getUsernameFromToken(String token) {
-        return Jwts.parser()
-                .verifyWith(getSigningKey())
-                .build()
-                .parseSignedClaims(token)
-                .getPayload()
-                .getSubject();
+    /**
+     * Vérifie la signature et l'expiration et renvoie les claims, en une
+     * seule analyse du token.
+     *
+     * @throws JwtException si le token est invalide ou expiré
+     */
+    public Claims parseAndValidate(String token) {
+        return parser.parseSignedClaims(token).getPayload();
+    }
+
+    /** Principal construit à partir des claims, sans lecture de la base. */
+    public UtilisateurConnecte getPrincipal(Claims claims) {
+        String userId = claims.get(CLAIM_USER_ID, String.class);
+        String role   = claims.get(CLAIM_ROLE, String.class);
+        if (userId == null || role == null) {
+            throw new MalformedJwtException("Claims utilisateur absents");
+        }
+        return new UtilisateurConnecte(userId, claims.getSubject(), User.Role.valueOf(role));
     }
 
-    public boolean validateToken(String token) {
-        try {
-            Jwts.parser()
-                    .verifyWith(getSigningKey())
-                    .build()
-                    .parseSignedClaims(token);
-            return true;
-        } catch (JwtException | IllegalArgumentException e) {
-            return false;
+    /** Version de sécurité de l'utilisateur à l'émission du token. */
+    public int getVersion(Claims claims) {
+        Integer version = claims.get(CLAIM_VERSION, Integer.class);
+        if (version == null) {
+            throw new MalformedJwtException("Version de sécurité absente");
         }
+        return version;
     }
 
     public long getExpirationMs() {
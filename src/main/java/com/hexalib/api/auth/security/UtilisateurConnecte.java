@@ -0,0 +1,38 @@
+package com.hexalib.api.auth.security;
+
+import com.hexalib.api.auth.model.User;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.security.Principal;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Principal des requêtes authentifiées par access token, construit à partir
+ * des claims du token sans lecture de la table {@code users}.
+ *
+ * {@link #getName()} renvoie l'email : {@code authentication.getName()} reste
+ * utilisable par les services qui rechargent l'utilisateur courant.
+ */
+public record UtilisateurConnecte(String id, String email, User.Role role) implements Principal {
+
+    /** Autorités partagées, une liste par rôle. */
+    private static final Map<User.Role, List<GrantedAuthority>> AUTORITES = new EnumMap<>(User.Role.class);
+
+    static {
+        for (User.Role r : User.Role.values()) {
+            AUTORITES.put(r, List.of(new SimpleGrantedAuthority("ROLE_" + r.name())));
+        }
+    }
+
+    @Override
+    public String getName() {
+        return email;
+    }
+
+    public List<GrantedAuthority> authorities() {
+        return AUTORITES.get(role);
+    }
+}
@@ -10,6 +10,7 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.*;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.util.StringUtils;
 
@@ -26,6 +27,7 @@ public class AdminUserService {
     private final UserRepository  userRepository;
     private final PasswordEncoder passwordEncoder;
     private final UserService     userService; // pour generateSecurePassword()
+    private final VersionSecuriteService versionSecuriteService;
 
     // ── Liste paginée + recherche ─────────────────────────────────────────────
 
@@ -62,6 +64,8 @@ public class AdminUserService {
 
     // ── Créer un utilisateur ──────────────────────────────────────────────────
 
+    // Pas de transaction autour du hachage : save() ouvre la sienne
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public UserDto createUser(CreateUserRequest request) {
         if (userRepository.existsByEmail(request.getEmail())) {
             throw new BadRequestException("Cet email est déjà utilisé");
@@ -119,6 +123,9 @@ public class AdminUserService {
             user.setStatut(request.getStatut());
         }
 
+        // Email, rôle ou statut peuvent avoir changé : les access tokens en cours sont révoqués
+        versionSecuriteService.incrementer(user);
+
         User updated = userRepository.save(user);
         log.info("Utilisateur modifié par admin : {}", updated.getEmail());
         return UserDto.fromEntity(updated);
@@ -135,6 +142,7 @@ public class AdminUserService {
                 : User.Statut.ACTIF;
 
         user.setStatut(newStatut);
+        versionSecuriteService.incrementer(user);
         User updated = userRepository.save(user);
 
         log.info("Statut utilisateur {} changé → {}", updated.getEmail(), newStatut);
@@ -152,10 +160,12 @@ public class AdminUserService {
         boolean hasVentes = userRepository.hasVentes(id);
         if (hasVentes) {
             user.setStatut(User.Statut.INACTIF);
+            versionSecuriteService.incrementer(user);
             userRepository.save(user);
             log.info("Utilisateur {} désactivé (a des ventes associées)", user.getEmail());
         } else {
             userRepository.delete(user);
+            versionSecuriteService.invalider(id);
             log.info("Utilisateur {} supprimé définitivement", user.getEmail());
         }
     }
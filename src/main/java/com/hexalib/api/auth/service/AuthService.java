@@ -10,6 +10,8 @@ import com.hexalib.api.auth.repository.RefreshTokenRepository;
 import com.hexalib.api.auth.repository.UserRepository;
 import com.hexalib.api.auth.security.JwtTokenProvider;
 import com.hexalib.api.common.exception.BadRequestException;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -36,10 +38,11 @@ public class AuthService {
     private final RefreshTokenRepository refreshTokenRepository;
     private final LoginAttemptService    loginAttemptService;
     private final TokenBlacklistService  tokenBlacklistService;
+    private final CompteEcritureService  compteEcritureService;
 
     // ── Register ──────────────────────────────────────────────────────────────
 
-    @Transactional
+    // Pas de transaction autour du hachage : save() ouvre la sienne
     public UserDto register(RegisterRequest request) {
         if (userRepository.existsByEmail(request.getEmail())) {
             throw new BadRequestException("Cet email est déjà utilisé");
@@ -62,11 +65,16 @@ public class AuthService {
 
     // ── Login ─────────────────────────────────────────────────────────────────
 
-    @Transactional
-    public LoginResponse login(LoginRequest request) {
+    /**
+     * Sans transaction : la vérification BCrypt attend sur le pool borné de
+     * l'encodeur sans tenir de connexion. Seules les écritures de fin de
+     * connexion passent par une transaction courte.
+     */
+    public LoginResponse login(LoginRequest request, String clientIp) {
         String email = request.getEmail().toLowerCase().trim();
 
-        // 1. Vérifier si le compte est bloqué
+        // 1. Débit par adresse IP (429), puis blocage du compte
+        loginAttemptService.checkLoginRate(clientIp);
         if (loginAttemptService.isBlocked(email)) {
             LocalDateTime until = loginAttemptService.getBlockedUntil(email);
             throw new BadRequestException(
@@ -96,18 +104,13 @@ public class AuthService {
         loginAttemptService.loginSucceeded(email);
         SecurityContextHolder.getContext().setAuthentication(authentication);
 
-        // 4. Générer access token
-        String accessToken = tokenProvider.generateToken(authentication);
-
-        // 5. Récupérer l'utilisateur et mettre à jour dernière connexion
-        User user = userRepository.findByEmail(email)
-            .orElseThrow(() -> new BadRequestException("Utilisateur non trouvé"));
-
-        user.setDerniereConnexion(LocalDateTime.now());
-        userRepository.save(user);
+        // 4. Utilisateur chargé par l'authentification : dernière connexion et
+        //    refresh token, dans une transaction courte
+        User user = (User) authentication.getPrincipal();
+        RefreshToken refreshToken = compteEcritureService.enregistrerConnexion(user);
 
-        // 6. Créer refresh token
-        RefreshToken refreshToken = tokenProvider.createRefreshToken(user);
+        // 5. Générer access token (id, rôle et version de sécurité en claims)
+        String accessToken = tokenProvider.generateToken(user);
 
         log.info("Connexion réussie : {}", email);
 
@@ -123,7 +126,9 @@ public class AuthService {
     // ── Refresh Token ─────────────────────────────────────────────────────────
 
     @Transactional
-    public LoginResponse refreshToken(String refreshTokenStr) {
+    public LoginResponse refreshToken(String refreshTokenStr, String clientIp) {
+        loginAttemptService.checkRefreshRate(clientIp);
+
         RefreshToken refreshToken = refreshTokenRepository.findByToken(refreshTokenStr)
             .orElseThrow(() -> new BadRequestException("Refresh token invalide ou expiré"));
 
@@ -138,7 +143,7 @@ public class AuthService {
         }
 
         // Générer un nouveau access token
-        String newAccessToken = tokenProvider.generateToken(user.getEmail());
+        String newAccessToken = tokenProvider.generateToken(user);
 
         // Rotation du refresh token (sécurité)
         refreshTokenRepository.revokeAllUserTokens(user);
@@ -159,8 +164,15 @@ public class AuthService {
 
     @Transactional
     public void logout(String accessToken) {
-        // Blacklister l'access token
-        tokenBlacklistService.blacklist(accessToken);
+        // Blacklister l'access token (par jti) jusqu'à son expiration
+        if (accessToken != null) {
+            try {
+                Claims claims = tokenProvider.parseAndValidate(accessToken);
+                tokenBlacklistService.blacklist(claims.getId(), claims.getExpiration());
+            } catch (JwtException | IllegalArgumentException e) {
+                log.debug("Logout avec un token invalide ou expiré : rien à blacklister");
+            }
+        }
 
         // Révoquer tous les refresh tokens de l'utilisateur connecté
         Authentication auth = SecurityContextHolder.getContext().getAuthentication();
@@ -0,0 +1,63 @@
+package com.hexalib.api.auth.service;
+
+import com.hexalib.api.auth.model.RefreshToken;
+import com.hexalib.api.auth.model.User;
+import com.hexalib.api.auth.repository.UserRepository;
+import com.hexalib.api.auth.security.JwtTokenProvider;
+import com.hexalib.api.common.exception.ResourceNotFoundException;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+
+/**
+ * Écritures courtes sur les comptes, appelées une fois les vérifications et
+ * hachages BCrypt terminés.
+ *
+ * Un hachage attend son tour sur le pool borné de l'encodeur (~250 ms de CPU
+ * chacun) : l'appelant le fait hors transaction, puis passe ici le résultat.
+ * La connexion n'est prise que pour la durée des écritures.
+ */
+@Service
+@RequiredArgsConstructor
+public class CompteEcritureService {
+
+    private final UserRepository         userRepository;
+    private final JwtTokenProvider       tokenProvider;
+    private final VersionSecuriteService versionSecuriteService;
+
+    /**
+     * Connexion réussie : date de dernière connexion et nouveau refresh token
+     * (les précédents sont révoqués). {@code user} est le principal de
+     * l'authentification, mis à jour pour la réponse.
+     */
+    @Transactional
+    public RefreshToken enregistrerConnexion(User user) {
+        LocalDateTime maintenant = LocalDateTime.now();
+        User gere = userRepository.findById(user.getId())
+                .orElseThrow(() -> new ResourceNotFoundException("Utilisateur non trouvé"));
+        gere.setDerniereConnexion(maintenant);
+        user.setDerniereConnexion(maintenant);
+
+        return tokenProvider.createRefreshToken(gere);
+    }
+
+    /**
+     * Enregistre un mot de passe déjà haché. Un mot de passe temporaire
+     * (réinitialisation) impose d'en changer à la prochaine connexion.
+     * Les tokens en cours de l'utilisateur sont révoqués.
+     */
+    @Transactional
+    public User enregistrerMotDePasse(String userId, String motDePasseHache, boolean temporaire) {
+        User user = userRepository.findById(userId)
+                .orElseThrow(() -> new ResourceNotFoundException("Utilisateur non trouvé"));
+
+        user.setPassword(motDePasseHache);
+        user.setMotDePasseTemporaire(temporaire);
+        user.setPremiereConnexion(temporaire);
+        versionSecuriteService.incrementer(user);
+
+        return userRepository.save(user);
+    }
+}
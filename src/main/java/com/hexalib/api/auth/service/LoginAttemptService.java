@@ -1,72 +1,107 @@
 package com.hexalib.api.auth.service;
 
+import com.hexalib.api.common.exception.TooManyRequestsException;
+import com.hexalib.api.common.limitation.LimiteurFenetreGlissante;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import java.time.Duration;
+import java.time.Instant;
 import java.time.LocalDateTime;
-import java.util.concurrent.ConcurrentHashMap;
+import java.time.ZoneId;
 
 /**
- * Gère la limitation des tentatives de connexion (5 max, blocage 15 min).
- * Stockage en mémoire — suffisant pour un seul serveur.
+ * Gère la limitation des tentatives de connexion :
+ * - par email, 5 échecs sur 15 min bloquent le compte 15 min ;
+ * - par adresse IP, un nombre de requêtes par minute sur /login et
+ *   /refresh-token, au-delà duquel la réponse est 429.
+ * Stockage en mémoire, borné (clés les plus anciennes évincées) — suffisant
+ * pour un seul serveur.
  */
 @Service
+@RequiredArgsConstructor
 @Slf4j
 public class LoginAttemptService {
 
-    private static final int MAX_ATTEMPTS      = 5;
+    private static final int MAX_ATTEMPTS       = 5;
     private static final int BLOCK_DURATION_MIN = 15;
 
-    // email → [nbTentatives, heureDernierEchec]
-    private final ConcurrentHashMap<String, int[]>            attempts   = new ConcurrentHashMap<>();
-    private final ConcurrentHashMap<String, LocalDateTime>    blockedUntil = new ConcurrentHashMap<>();
+    private final MeterRegistry meterRegistry;
+
+    @Value("${auth.limitation.capacite:10000}")
+    private int capacite;
+
+    @Value("${auth.limitation.ip.login-par-minute:30}")
+    private int loginParMinuteIp;
+
+    @Value("${auth.limitation.ip.refresh-par-minute:30}")
+    private int refreshParMinuteIp;
+
+    private LimiteurFenetreGlissante echecsParEmail;
+    private LimiteurFenetreGlissante loginParIp;
+    private LimiteurFenetreGlissante refreshParIp;
+
+    @PostConstruct
+    void initialiser() {
+        Duration blocage = Duration.ofMinutes(BLOCK_DURATION_MIN);
+        echecsParEmail = new LimiteurFenetreGlissante("login-email", MAX_ATTEMPTS,
+                blocage, blocage, capacite, meterRegistry);
+        loginParIp = new LimiteurFenetreGlissante("login-ip", loginParMinuteIp,
+                Duration.ofMinutes(1), Duration.ofMinutes(1), capacite, meterRegistry);
+        refreshParIp = new LimiteurFenetreGlissante("refresh-ip", refreshParMinuteIp,
+                Duration.ofMinutes(1), Duration.ofMinutes(1), capacite, meterRegistry);
+    }
+
+    /** Appelé avant chaque tentative de connexion — 429 si l'IP dépasse son débit */
+    public void checkLoginRate(String ip) {
+        if (!loginParIp.tenter(ip)) {
+            log.warn("Trop de tentatives de connexion depuis {}", ip);
+            throw new TooManyRequestsException("Trop de tentatives de connexion, réessayez dans une minute");
+        }
+    }
+
+    /** Appelé avant chaque rafraîchissement de token — 429 si l'IP dépasse son débit */
+    public void checkRefreshRate(String ip) {
+        if (!refreshParIp.tenter(ip)) {
+            log.warn("Trop de rafraîchissements de token depuis {}", ip);
+            throw new TooManyRequestsException("Trop de requêtes, réessayez dans une minute");
+        }
+    }
 
     /** Appelé après un échec d'authentification */
     public void loginFailed(String email) {
         String key = email.toLowerCase();
+        echecsParEmail.enregistrer(key);
 
-        int[] count = attempts.getOrDefault(key, new int[]{0});
-        count[0]++;
-        attempts.put(key, count);
-
-        if (count[0] >= MAX_ATTEMPTS) {
-            LocalDateTime unblockTime = LocalDateTime.now().plusMinutes(BLOCK_DURATION_MIN);
-            blockedUntil.put(key, unblockTime);
-            log.warn("Compte bloqué suite à {} tentatives échouées : {} — débloqué à {}", MAX_ATTEMPTS, email, unblockTime);
+        if (echecsParEmail.restants(key) == 0) {
+            log.warn("Compte bloqué suite à {} tentatives échouées : {} — débloqué à {}",
+                    MAX_ATTEMPTS, email, getBlockedUntil(email));
         }
     }
 
     /** Appelé après une connexion réussie — réinitialise le compteur */
     public void loginSucceeded(String email) {
-        String key = email.toLowerCase();
-        attempts.remove(key);
-        blockedUntil.remove(key);
+        echecsParEmail.reinitialiser(email.toLowerCase());
     }
 
     /** Vérifie si le compte est actuellement bloqué */
     public boolean isBlocked(String email) {
-        String key = email.toLowerCase();
-        LocalDateTime until = blockedUntil.get(key);
-
-        if (until == null) return false;
-
-        if (LocalDateTime.now().isAfter(until)) {
-            // Déblocage automatique après expiration
-            attempts.remove(key);
-            blockedUntil.remove(key);
-            return false;
-        }
-        return true;
+        return echecsParEmail.estBloque(email.toLowerCase());
     }
 
     /** Retourne le nombre de tentatives restantes */
     public int getRemainingAttempts(String email) {
-        int used = attempts.getOrDefault(email.toLowerCase(), new int[]{0})[0];
-        return Math.max(0, MAX_ATTEMPTS - used);
+        return echecsParEmail.restants(email.toLowerCase());
     }
 
-    /** Retourne l'heure de déblocage si bloqué */
+    /** Retourne l'heure de déblocage si le compte est bloqué, null sinon */
     public LocalDateTime getBlockedUntil(String email) {
-        return blockedUntil.get(email.toLowerCase());
+        long until = echecsParEmail.bloqueJusqua(email.toLowerCase());
+        if (until == 0) return null;
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(until), ZoneId.systemDefault());
     }
-}
\ No newline at end of file
+}
@@ -1,38 +1,86 @@
 package com.hexalib.api.auth.service;
 
+import com.hexalib.api.auth.model.RevokedToken;
+import com.hexalib.api.auth.repository.RevokedTokenRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
-import java.util.Collections;
-import java.util.LinkedHashMap;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Date;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
- * Blacklist des access tokens invalidés (logout).
- * Stockage en mémoire avec nettoyage automatique (max 10 000 entrées).
+ * Blacklist des access tokens invalidés (logout), par identifiant de token (jti).
+ *
+ * Chaque entrée vit jusqu'à l'expiration du token : au-delà, le token est
+ * refusé de toute façon et l'entrée est purgée. La mémoire suit donc le
+ * nombre de tokens révoqués encore valides, sans plafond qui ferait
+ * ressortir un token révoqué. Les révocations sont enregistrées en base et
+ * rechargées au démarrage. La lecture, faite à chaque requête, est un simple
+ * accès à une ConcurrentHashMap, sans verrou.
  */
 @Service
+@RequiredArgsConstructor
 @Slf4j
 public class TokenBlacklistService {
 
-    private static final int MAX_SIZE = 10_000;
+    private final RevokedTokenRepository revokedTokenRepository;
 
-    // LRU cache — supprime automatiquement les entrées les plus anciennes
-    private final Map<String, Boolean> blacklist = Collections.synchronizedMap(
-        new LinkedHashMap<>(MAX_SIZE, 0.75f, false) {
-            @Override
-            protected boolean removeEldestEntry(Map.Entry<String, Boolean> eldest) {
-                return size() > MAX_SIZE;
-            }
+    // jti → expiration du token (epoch ms)
+    private final Map<String, Long> blacklist = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    void charger() {
+        List<RevokedToken> actifs = revokedTokenRepository.findByExpiresAtAfter(LocalDateTime.now());
+        for (RevokedToken t : actifs) {
+            blacklist.put(t.getJti(), versEpochMs(t.getExpiresAt()));
+        }
+        log.info("Blacklist des tokens rechargée : {} token(s) révoqué(s)", actifs.size());
+    }
+
+    /** Révoque le token jusqu'à son expiration ; à appeler dans une transaction. */
+    public void blacklist(String jti, Date expiration) {
+        if (jti == null || expiration == null || expiration.getTime() <= System.currentTimeMillis()) {
+            return; // token déjà expiré : rien à retenir
         }
-    );
+        blacklist.put(jti, expiration.getTime());
+        revokedTokenRepository.save(new RevokedToken(jti,
+                LocalDateTime.ofInstant(expiration.toInstant(), ZoneId.systemDefault())));
+        log.debug("Token {} ajouté à la blacklist", jti);
+    }
 
-    public void blacklist(String token) {
-        blacklist.put(token, Boolean.TRUE);
-        log.debug("Token ajouté à la blacklist");
+    public boolean isBlacklisted(String jti) {
+        Long expiration = blacklist.get(jti);
+        return expiration != null && expiration > System.currentTimeMillis();
+    }
+
+    public int size() {
+        return blacklist.size();
+    }
+
+    // ══════════════════════════════════════════════════════════════════
+    // PURGE
+    // ══════════════════════════════════════════════════════════════════
+
+    @Scheduled(fixedDelayString = "${jwt.blacklist.purge-interval-ms:600000}")
+    @Transactional
+    public void purgerExpires() {
+        long maintenant = System.currentTimeMillis();
+        blacklist.values().removeIf(expiration -> expiration <= maintenant);
+        int supprimes = revokedTokenRepository.deleteExpired(LocalDateTime.now());
+        if (supprimes > 0) {
+            log.debug("{} token(s) révoqué(s) expiré(s) purgé(s)", supprimes);
+        }
     }
 
-    public boolean isBlacklisted(String token) {
-        return blacklist.containsKey(token);
+    private static long versEpochMs(LocalDateTime date) {
+        return date.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
     }
-}
\ No newline at end of file
+}
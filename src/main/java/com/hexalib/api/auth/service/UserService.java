@@ -12,6 +12,7 @@ import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 
@@ -31,6 +32,8 @@ public class UserService {
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
     private final VenteRepository venteRepository;
+    private final VersionSecuriteService versionSecuriteService;
+    private final CompteEcritureService compteEcritureService;
 
     private static final String CHARACTERS = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789@#$%&*";
     private static final SecureRandom RANDOM = new SecureRandom();
@@ -51,6 +54,10 @@ public class UserService {
         }
 
         user.setNomComplet(request.getNomComplet());
+        if (!user.getEmail().equals(request.getEmail())) {
+            // L'email est le sujet des access tokens : ceux en cours sont révoqués
+            versionSecuriteService.incrementer(user);
+        }
         user.setEmail(request.getEmail());
 
         User updated = userRepository.save(user);
@@ -58,8 +65,10 @@ public class UserService {
     }
 
     /**
-     * Changer son mot de passe
+     * Changer son mot de passe. Vérifications et hachage hors transaction,
+     * enregistrement dans une transaction courte.
      */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public void changePassword(ChangePasswordRequest request) {
         User user = getCurrentUser();
         
@@ -81,17 +90,16 @@ public class UserService {
         }
 
         // Changer le mot de passe
-        user.setPassword(passwordEncoder.encode(request.getNouveauMotDePasse()));
-        user.setPremiereConnexion(false);
-        user.setMotDePasseTemporaire(false);
-
-        userRepository.save(user);
+        String hache = passwordEncoder.encode(request.getNouveauMotDePasse());
+        compteEcritureService.enregistrerMotDePasse(user.getId(), hache, false);
         log.info("Mot de passe changé avec succès pour: {}", user.getEmail());
     }
 
     /**
-     * Réinitialiser le mot de passe d'un utilisateur (Admin uniquement)
+     * Réinitialiser le mot de passe d'un utilisateur (Admin uniquement).
+     * Hachage hors transaction, comme {@link #changePassword}.
      */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public ResetPasswordResponse resetPassword(String userId) {
         log.info("Réinitialisation du mot de passe pour l'utilisateur ID: {}", userId);
 
@@ -101,11 +109,8 @@ public class UserService {
         // Générer un nouveau mot de passe temporaire
         String motDePasseTemp = generateSecurePassword();
 
-        user.setPassword(passwordEncoder.encode(motDePasseTemp));
-        user.setMotDePasseTemporaire(true);
-        user.setPremiereConnexion(true);
-
-        userRepository.save(user);
+        String hache = passwordEncoder.encode(motDePasseTemp);
+        compteEcritureService.enregistrerMotDePasse(user.getId(), hache, true);
 
         log.info("Mot de passe réinitialisé pour: {}", user.getEmail());
 
@@ -0,0 +1,138 @@
+package com.hexalib.api.auth.service;
+
+import com.hexalib.api.auth.model.User;
+import com.hexalib.api.auth.repository.RefreshTokenRepository;
+import com.hexalib.api.auth.repository.UserRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Révocation des access tokens par version de sécurité.
+ *
+ * Chaque token porte la version de l'utilisateur au moment de son émission ;
+ * elle est comparée à la version courante, gardée en cache. Le cache est
+ * invalidé à chaque incrémentation (mot de passe, rôle, email, statut) :
+ * dans le cas courant, une requête authentifiée ne lit pas la table
+ * {@code users}. La durée de vie des entrées borne le délai de prise en
+ * compte d'un changement fait sur une autre instance.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class VersionSecuriteService {
+
+    private static final int MAX_SIZE = 5_000;
+
+    private final UserRepository         userRepository;
+    private final RefreshTokenRepository refreshTokenRepository;
+
+    @Value("${jwt.version-cache.ttl-ms:300000}") // 5 min par défaut
+    private long ttlMs;
+
+    /** Version courante et statut d'un utilisateur, lus à {@code chargeLe}. */
+    private record Etat(int version, boolean actif, long chargeLe) {}
+
+    private final Map<String, Etat> cache = new ConcurrentHashMap<>();
+
+    /**
+     * Tampon de la dernière invalidation de chaque utilisateur. Un chargement
+     * n'est mis en cache que si le tampon n'a pas bougé depuis son début : il
+     * a pu lire l'ancienne version avant le commit de la modification.
+     */
+    private final Map<String, Long> invalidations = new ConcurrentHashMap<>();
+    private final AtomicLong sequence = new AtomicLong();
+    /** Tampon des utilisateurs absents de {@code invalidations} (après vidage). */
+    private volatile long plancher;
+
+    /**
+     * Le token de version {@code version} est-il encore valable pour cet
+     * utilisateur ? Faux si l'utilisateur a été supprimé ou désactivé.
+     */
+    public boolean estAJour(String userId, int version) {
+        long maintenant = System.currentTimeMillis();
+        Etat etat = cache.get(userId);
+        if (etat == null || maintenant - etat.chargeLe() > ttlMs) {
+            etat = charger(userId, maintenant);
+            if (etat == null) {
+                return false;
+            }
+        }
+        return etat.actif() && etat.version() == version;
+    }
+
+    /**
+     * Incrémente la version de l'utilisateur (à sauvegarder par l'appelant) :
+     * ses access tokens en cours ne sont plus acceptés une fois la transaction
+     * commitée. Ses refresh tokens sont révoqués dans la même transaction,
+     * sans quoi /refresh-token en émettrait de nouveaux à la nouvelle version.
+     */
+    public void incrementer(User user) {
+        user.setVersionSecurite(user.getVersionSecurite() + 1);
+        refreshTokenRepository.revokeAllUserTokens(user);
+        invalider(user.getId());
+    }
+
+    /**
+     * Retire l'utilisateur du cache, tout de suite puis après le commit. Le
+     * tampon avance à chaque fois : un chargement en cours, qui a pu lire
+     * l'ancienne version, ne remet pas son résultat en cache.
+     */
+    public void invalider(String userId) {
+        if (userId == null) return;
+        retirer(userId);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    retirer(userId);
+                }
+            });
+        }
+    }
+
+    // ══════════════════════════════════════════════════════════════════
+    // HELPERS
+    // ══════════════════════════════════════════════════════════════════
+
+    private Etat charger(String userId, long maintenant) {
+        long tampon = tampon(userId);
+        List<Object[]> lignes = userRepository.findEtatSecurite(userId);
+        if (lignes.isEmpty()) {
+            cache.remove(userId);
+            return null;
+        }
+        Object[] ligne = lignes.get(0);
+        Etat etat = new Etat((Integer) ligne[0], ligne[1] == User.Statut.ACTIF, maintenant);
+
+        // Quelques dizaines d'utilisateurs en pratique : vidage complet si la borne est atteinte
+        if (cache.size() >= MAX_SIZE) {
+            log.debug("Cache des versions de sécurité vidé ({} entrées)", cache.size());
+            cache.clear();
+        }
+        // Sous le verrou de l'entrée : ordonné avec le retrait fait par invalider()
+        cache.compute(userId, (id, actuel) -> tampon(id) == tampon ? etat : actuel);
+        return etat;
+    }
+
+    private void retirer(String userId) {
+        if (invalidations.size() >= MAX_SIZE) {
+            plancher = sequence.get();
+            invalidations.clear();
+        }
+        invalidations.put(userId, sequence.incrementAndGet());
+        cache.remove(userId);
+    }
+
+    private long tampon(String userId) {
+        return invalidations.getOrDefault(userId, plancher);
+    }
+}
@@ -4,11 +4,14 @@ import com.hexalib.api.categorie.model.Categorie;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
-
+import jakarta.persistence.LockModeType;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
@@ -32,4 +35,11 @@ public interface CategorieRepository extends JpaRepository<Categorie, String> {
     Page<Categorie> findByStatut(Categorie.Statut statut, Pageable pageable);
 
     Optional<Categorie> findByNomIgnoreCase(String nom);
+
+    // Verrou de ligne tenu jusqu'au commit de l'import : les codes CODECAT-NNN
+    // d'une catégorie sont attribués par un seul lot à la fois, tous jobs confondus.
+    // Triés par id pour que deux lots verrouillent dans le même ordre.
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT c FROM Categorie c WHERE c.id IN :ids ORDER BY c.id")
+    List<Categorie> findAllByIdPourMiseAJour(@Param("ids") Collection<String> ids);
 }
\ No newline at end of file
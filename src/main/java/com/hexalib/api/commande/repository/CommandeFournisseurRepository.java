@@ -18,6 +18,14 @@ public interface CommandeFournisseurRepository extends JpaRepository<CommandeFou
     
     boolean existsByNumeroCommande(String numeroCommande);
     
+    /**
+     * Commande avec fournisseur, créateur et lignes (livres compris), en une requête
+     */
+    @Query("SELECT DISTINCT c FROM CommandeFournisseur c JOIN FETCH c.fournisseur " +
+           "LEFT JOIN FETCH c.createdBy LEFT JOIN FETCH c.lignes l LEFT JOIN FETCH l.livre " +
+           "WHERE c.id = :id")
+    Optional<CommandeFournisseur> findAvecLignes(@Param("id") String id);
+    
     /**
      * Recherche par numéro de commande ou fournisseur
      */
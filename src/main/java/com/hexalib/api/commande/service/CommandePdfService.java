@@ -4,13 +4,11 @@ import com.hexalib.api.commande.model.CommandeFournisseur;
 import com.hexalib.api.commande.model.LigneCommandeFournisseur;
 import com.hexalib.api.commande.repository.CommandeFournisseurRepository;
 import com.hexalib.api.common.exception.ResourceNotFoundException;
+import com.hexalib.api.common.pdf.PdfMoteur;
+import com.itextpdf.kernel.colors.Color;
 import com.itextpdf.kernel.colors.ColorConstants;
 import com.itextpdf.kernel.colors.DeviceRgb;
 import com.itextpdf.kernel.font.PdfFont;
-import com.itextpdf.kernel.font.PdfFontFactory;
-import com.itextpdf.kernel.geom.PageSize;
-import com.itextpdf.kernel.pdf.PdfDocument;
-import com.itextpdf.kernel.pdf.PdfWriter;
 import com.itextpdf.layout.Document;
 import com.itextpdf.layout.borders.Border;
 import com.itextpdf.layout.borders.SolidBorder;
@@ -22,47 +20,36 @@ import com.itextpdf.layout.properties.UnitValue;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 
-import java.io.ByteArrayOutputStream;
-import java.math.BigDecimal;
-import java.text.NumberFormat;
 import java.time.format.DateTimeFormatter;
-import java.util.Locale;
 
 @Service
 @RequiredArgsConstructor
 public class CommandePdfService {
 
     private final CommandeFournisseurRepository commandeRepository;
+    private final PdfMoteur pdfMoteur;
 
     // Couleurs modernes
     private static final DeviceRgb PRIMARY_COLOR = new DeviceRgb(99, 102, 241); // Indigo
     private static final DeviceRgb SECONDARY_COLOR = new DeviceRgb(75, 85, 99); // Gray
     private static final DeviceRgb LIGHT_GRAY = new DeviceRgb(249, 250, 251);
     private static final DeviceRgb BORDER_COLOR = new DeviceRgb(229, 231, 235);
-    private static final DeviceRgb WHITE = new DeviceRgb(255, 255, 255);
 
     // Formatters
     private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("dd/MM/yyyy");
-    private static final NumberFormat CURRENCY_FORMATTER = NumberFormat.getInstance(Locale.FRANCE);
-
-    static {
-        CURRENCY_FORMATTER.setMinimumFractionDigits(0);
-        CURRENCY_FORMATTER.setMaximumFractionDigits(0);
-    }
 
+    /**
+     * Les données sont chargées ici (une requête, dans la transaction courte
+     * du repository), la mise en page passe par le pool du {@link PdfMoteur}
+     * sans tenir de connexion pendant l'attente.
+     */
     public byte[] generateCommandePdf(String commandeId) {
-        CommandeFournisseur commande = commandeRepository.findById(commandeId)
+        CommandeFournisseur commande = commandeRepository.findAvecLignes(commandeId)
                 .orElseThrow(() -> new ResourceNotFoundException("Commande", "id", commandeId));
 
-        try (ByteArrayOutputStream baos = new ByteArrayOutputStream()) {
-            PdfWriter writer = new PdfWriter(baos);
-            PdfDocument pdfDoc = new PdfDocument(writer);
-            Document document = new Document(pdfDoc, PageSize.A4);
-            document.setMargins(40, 40, 40, 40);
-
-            // Polices
-            PdfFont boldFont = PdfFontFactory.createFont("Helvetica-Bold");
-            PdfFont regularFont = PdfFontFactory.createFont("Helvetica");
+        return pdfMoteur.rendre("commande", (document, polices) -> {
+            PdfFont boldFont = polices.gras();
+            PdfFont regularFont = polices.normal();
 
             // En-tête
             addHeader(document, commande, boldFont, regularFont);
@@ -81,13 +68,7 @@ public class CommandePdfService {
 
             // Pied de page
             addFooter(document, commande, regularFont);
-
-            document.close();
-            return baos.toByteArray();
-
-        } catch (Exception e) {
-            throw new RuntimeException("Erreur lors de la génération du PDF", e);
-        }
+        });
     }
 
     private void addHeader(Document document, CommandeFournisseur commande, PdfFont boldFont, PdfFont regularFont) {
@@ -240,27 +221,19 @@ public class CommandePdfService {
         // En-tête du tableau
         String[] headers = {"Code", "Désignation", "Qté", "P.U (FCFA)", "Total (FCFA)"};
         for (String header : headers) {
-            table.addHeaderCell(new Cell()
-                    .add(new Paragraph(header)
-                            .setFont(boldFont)
-                            .setFontSize(10)
-                            .setFontColor(ColorConstants.WHITE))
-                    .setBackgroundColor(PRIMARY_COLOR)
-                    .setTextAlignment(TextAlignment.CENTER)
-                    .setPadding(8)
-                    .setBorder(Border.NO_BORDER));
+            table.addHeaderCell(PdfMoteur.celluleEntete(header, boldFont, PRIMARY_COLOR));
         }
 
         // Lignes du tableau
         boolean alternate = false;
 for (LigneCommandeFournisseur ligne : commande.getLignes()) {
-            DeviceRgb bgColor = alternate ? LIGHT_GRAY : WHITE;
+            Color bgColor = PdfMoteur.fondLigne(alternate);
             
-            table.addCell(createTableCell(ligne.getLivre().getCode(), regularFont, TextAlignment.CENTER, bgColor));
-            table.addCell(createTableCell(ligne.getLivre().getTitre(), regularFont, TextAlignment.LEFT, bgColor));
-            table.addCell(createTableCell(String.valueOf(ligne.getQuantite()), regularFont, TextAlignment.CENTER, bgColor));
-            table.addCell(createTableCell(formatCurrency(ligne.getPrixAchatUnitaire()), regularFont, TextAlignment.RIGHT, bgColor));
-            table.addCell(createTableCell(formatCurrency(ligne.getSousTotal()), regularFont, TextAlignment.RIGHT, bgColor));
+            table.addCell(PdfMoteur.celluleDonnee(ligne.getLivre().getCode(), regularFont, TextAlignment.CENTER, bgColor).setPadding(8));
+            table.addCell(PdfMoteur.celluleDonnee(ligne.getLivre().getTitre(), regularFont, TextAlignment.LEFT, bgColor).setPadding(8));
+            table.addCell(PdfMoteur.celluleDonnee(String.valueOf(ligne.getQuantite()), regularFont, TextAlignment.CENTER, bgColor).setPadding(8));
+            table.addCell(PdfMoteur.celluleDonnee(PdfMoteur.montant(ligne.getPrixAchatUnitaire()), regularFont, TextAlignment.RIGHT, bgColor).setPadding(8));
+            table.addCell(PdfMoteur.celluleDonnee(PdfMoteur.montant(ligne.getSousTotal()), regularFont, TextAlignment.RIGHT, bgColor).setPadding(8));
 
             alternate = !alternate;
         }
@@ -291,7 +264,7 @@ for (LigneCommandeFournisseur ligne : commande.getLignes()) {
                 .setBackgroundColor(PRIMARY_COLOR)
                 .setBorder(Border.NO_BORDER)
                 .setTextAlignment(TextAlignment.CENTER)
-                .add(new Paragraph(formatCurrency(commande.getMontantTotal()) + " FCFA")
+                .add(new Paragraph(PdfMoteur.montant(commande.getMontantTotal()) + " FCFA")
                         .setFont(boldFont)
                         .setFontSize(14)
                         .setFontColor(ColorConstants.WHITE))
@@ -357,21 +330,6 @@ for (LigneCommandeFournisseur ligne : commande.getLignes()) {
                         .setFontSize(11));
     }
 
-    private Cell createTableCell(String text, PdfFont font, TextAlignment alignment, DeviceRgb bgColor) {
-        return new Cell()
-                .add(new Paragraph(text)
-                        .setFont(font)
-                        .setFontSize(9))
-                .setTextAlignment(alignment)
-                .setBackgroundColor(bgColor)
-                .setPadding(8)
-                .setBorder(new SolidBorder(BORDER_COLOR, 0.5f));
-    }
-
-    private String formatCurrency(BigDecimal amount) {
-        return CURRENCY_FORMATTER.format(amount);
-    }
-
     private String getStatutColor(CommandeFournisseur.Statut statut) {
         switch (statut) {
             case EN_ATTENTE:
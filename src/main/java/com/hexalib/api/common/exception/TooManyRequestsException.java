@@ -0,0 +1,7 @@
+package com.hexalib.api.common.exception;
+
+public class TooManyRequestsException extends RuntimeException {
+    public TooManyRequestsException(String message) {
+        super(message);
+    }
+}
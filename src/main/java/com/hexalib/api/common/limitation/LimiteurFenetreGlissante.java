@@ -0,0 +1,185 @@
+package com.hexalib.api.common.limitation;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Limiteur de débit par clé (email, adresse IP…) à fenêtre glissante, avec
+ * un budget mémoire fixe.
+ *
+ * Le nombre d'événements d'une clé est estimé sur la dernière fenêtre à
+ * partir de deux compteurs (fenêtre en cours et précédente, pondérée par
+ * la part encore couverte). Une clé qui atteint la limite est bloquée pour
+ * la durée de blocage.
+ *
+ * Les clés sont gardées dans une table LRU d'au plus {@code capacite}
+ * entrées : une rafale de clés aléatoires évince les plus anciennes au lieu
+ * de faire grossir le tas. Toutes les opérations se font sous un seul verrou,
+ * le temps de quelques affectations ; elles sont atomiques par clé.
+ *
+ * Métriques : {@code hexalib.limitation.rejets} (tentatives refusées) et
+ * {@code hexalib.limitation.entrees} (clés suivies), tag {@code limiteur}.
+ */
+public class LimiteurFenetreGlissante {
+
+    private final int  limite;
+    private final long fenetreMs;
+    private final long blocageMs;
+
+    private final Map<String, Compteur> compteurs;
+    private final Counter rejets;
+
+    /** État d'une clé ; modifié uniquement sous le verrou de {@code compteurs}. */
+    private static final class Compteur {
+        long debutFenetre;
+        int  courant;
+        int  precedent;
+        long bloqueJusqua;
+        long dernierAcces;
+    }
+
+    /**
+     * @param nom      tag des métriques
+     * @param limite   événements tolérés sur une fenêtre
+     * @param fenetre  durée de la fenêtre glissante
+     * @param blocage  durée du blocage une fois la limite atteinte
+     * @param capacite nombre maximal de clés suivies
+     */
+    public LimiteurFenetreGlissante(String nom, int limite, Duration fenetre, Duration blocage,
+                                    int capacite, MeterRegistry meterRegistry) {
+        this.limite    = limite;
+        this.fenetreMs = fenetre.toMillis();
+        this.blocageMs = blocage.toMillis();
+
+        this.compteurs = new LinkedHashMap<>(Math.min(capacite, 1024), 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Compteur> eldest) {
+                return size() > capacite;
+            }
+        };
+
+        this.rejets = Counter.builder("hexalib.limitation.rejets")
+                .description("Tentatives refusées par le limiteur de débit")
+                .tag("limiteur", nom)
+                .register(meterRegistry);
+        Gauge.builder("hexalib.limitation.entrees", this, LimiteurFenetreGlissante::taille)
+                .description("Clés suivies par le limiteur de débit")
+                .tag("limiteur", nom)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Enregistre un événement pour la clé s'il est autorisé.
+     *
+     * @return faux si la clé est bloquée ou si l'événement dépasse la limite
+     */
+    public boolean tenter(String cle) {
+        long maintenant = System.currentTimeMillis();
+        synchronized (compteurs) {
+            Compteur c = obtenir(cle, maintenant);
+            if (c.bloqueJusqua > maintenant || estimer(c, maintenant) >= limite) {
+                if (c.bloqueJusqua <= maintenant) {
+                    c.bloqueJusqua = maintenant + blocageMs;
+                }
+                rejets.increment();
+                return false;
+            }
+            c.courant++;
+            return true;
+        }
+    }
+
+    /** Enregistre un événement (échec de connexion…) ; bloque la clé si la limite est atteinte. */
+    public void enregistrer(String cle) {
+        long maintenant = System.currentTimeMillis();
+        synchronized (compteurs) {
+            Compteur c = obtenir(cle, maintenant);
+            c.courant++;
+            if (estimer(c, maintenant) >= limite && c.bloqueJusqua <= maintenant) {
+                c.bloqueJusqua = maintenant + blocageMs;
+            }
+        }
+    }
+
+    /** Vrai si la clé est bloquée ; compte alors comme un rejet. */
+    public boolean estBloque(String cle) {
+        if (bloqueJusqua(cle) == 0) return false;
+        rejets.increment();
+        return true;
+    }
+
+    /** Fin du blocage en epoch ms, 0 si la clé n'est pas bloquée. */
+    public long bloqueJusqua(String cle) {
+        long maintenant = System.currentTimeMillis();
+        synchronized (compteurs) {
+            Compteur c = compteurs.get(cle);
+            if (c == null || c.bloqueJusqua <= maintenant) return 0;
+            return c.bloqueJusqua;
+        }
+    }
+
+    /** Événements encore tolérés avant blocage. */
+    public int restants(String cle) {
+        long maintenant = System.currentTimeMillis();
+        synchronized (compteurs) {
+            Compteur c = compteurs.get(cle);
+            if (c == null) return limite;
+            if (c.bloqueJusqua > maintenant) return 0;
+            return Math.max(0, limite - estimer(c, maintenant));
+        }
+    }
+
+    /** Oublie la clé (connexion réussie). */
+    public void reinitialiser(String cle) {
+        synchronized (compteurs) {
+            compteurs.remove(cle);
+        }
+    }
+
+    public int taille() {
+        synchronized (compteurs) {
+            return compteurs.size();
+        }
+    }
+
+    // ══════════════════════════════════════════════════════════════════
+    // HELPERS
+    // ══════════════════════════════════════════════════════════════════
+
+    /** Compteur de la clé, créé au besoin, fenêtres décalées à l'instant présent. */
+    private Compteur obtenir(String cle, long maintenant) {
+        Compteur c = compteurs.get(cle);
+        // Clé inactive depuis plus d'une fenêtre et non bloquée : repart de zéro
+        if (c == null || (maintenant - c.dernierAcces > fenetreMs && c.bloqueJusqua <= maintenant)) {
+            c = new Compteur();
+            c.debutFenetre = maintenant;
+            compteurs.put(cle, c);
+        }
+        long ecoule = maintenant - c.debutFenetre;
+        if (ecoule >= 2 * fenetreMs) {
+            c.precedent = 0;
+            c.courant = 0;
+            c.debutFenetre = maintenant;
+        } else if (ecoule >= fenetreMs) {
+            c.precedent = c.courant;
+            c.courant = 0;
+            c.debutFenetre += fenetreMs;
+        }
+        c.dernierAcces = maintenant;
+        return c;
+    }
+
+    /** Événements estimés sur la dernière fenêtre glissante. */
+    private int estimer(Compteur c, long maintenant) {
+        long ecoule = maintenant - c.debutFenetre;
+        if (ecoule >= 2 * fenetreMs) return 0;
+        if (ecoule >= fenetreMs) return c.courant;
+        double partPrecedente = 1.0 - (double) ecoule / fenetreMs;
+        return (int) (c.precedent * partPrecedente) + c.courant;
+    }
+}
@@ -0,0 +1,284 @@
+package com.hexalib.api.common.pdf;
+
+import com.hexalib.api.common.exception.TooManyRequestsException;
+import com.itextpdf.io.font.FontProgram;
+import com.itextpdf.io.font.FontProgramFactory;
+import com.itextpdf.io.font.PdfEncodings;
+import com.itextpdf.io.font.constants.StandardFonts;
+import com.itextpdf.kernel.colors.Color;
+import com.itextpdf.kernel.colors.ColorConstants;
+import com.itextpdf.kernel.colors.DeviceRgb;
+import com.itextpdf.kernel.font.PdfFont;
+import com.itextpdf.kernel.font.PdfFontFactory;
+import com.itextpdf.kernel.font.PdfFontFactory.EmbeddingStrategy;
+import com.itextpdf.kernel.geom.PageSize;
+import com.itextpdf.kernel.pdf.PdfDocument;
+import com.itextpdf.kernel.pdf.PdfWriter;
+import com.itextpdf.layout.Document;
+import com.itextpdf.layout.Style;
+import com.itextpdf.layout.borders.Border;
+import com.itextpdf.layout.borders.SolidBorder;
+import com.itextpdf.layout.element.Cell;
+import com.itextpdf.layout.element.Paragraph;
+import com.itextpdf.layout.properties.TextAlignment;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.NumberFormat;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Moteur de rendu commun aux documents PDF (factures, rapports, bons de
+ * commande).
+ *
+ * Les programmes de police Helvetica sont chargés une fois ; chaque document
+ * n'en reçoit qu'une instance {@link PdfFont} légère (iText lie une PdfFont
+ * au document qui l'utilise). Les styles de cellule, qui ne dépendent pas
+ * des polices, sont partagés. Le tampon de sortie est dimensionné d'après
+ * le dernier document du même type.
+ *
+ * Les grands documents sont mis en page dans un fichier temporaire au lieu
+ * d'être assemblés en mémoire, puis recopiés dans le flux de sortie par
+ * l'appelant.
+ *
+ * Le rendu s'exécute sur un pool borné : les données sont chargées par
+ * l'appelant, seule la mise en page passe par le pool. Un pic de demandes
+ * attend dans une file bornée puis est refusé (429) au lieu d'occuper tous
+ * les threads HTTP.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class PdfMoteur {
+
+    /** Écrit le contenu du document ; les données sont déjà chargées. */
+    @FunctionalInterface
+    public interface Contenu {
+        void ecrire(Document document, Polices polices) throws Exception;
+    }
+
+    /** Polices liées au document en cours. */
+    public record Polices(PdfFont gras, PdfFont normal) {}
+
+    // ─── COULEURS ET STYLES PARTAGÉS ─────────────────────────────────────────────
+
+    public static final DeviceRgb GRIS_FONCE = new DeviceRgb(75, 85, 99);
+    public static final DeviceRgb GRIS_CLAIR = new DeviceRgb(249, 250, 251);
+    public static final DeviceRgb BORDURE    = new DeviceRgb(229, 231, 235);
+    public static final DeviceRgb BLANC      = new DeviceRgb(255, 255, 255);
+
+    private static final Style STYLE_CELLULE = new Style()
+            .setBorder(new SolidBorder(BORDURE, 0.5f))
+            .setPadding(6);
+
+    private static final Style STYLE_ENTETE = new Style()
+            .setBorder(Border.NO_BORDER)
+            .setFontColor(ColorConstants.WHITE)
+            .setTextAlignment(TextAlignment.CENTER)
+            .setPadding(8);
+
+    /** NumberFormat n'est pas thread-safe : une instance par thread de rendu. */
+    private static final ThreadLocal<NumberFormat> MONTANT_FMT = ThreadLocal.withInitial(() -> {
+        NumberFormat nf = NumberFormat.getInstance(Locale.FRANCE);
+        nf.setMinimumFractionDigits(0);
+        nf.setMaximumFractionDigits(0);
+        return nf;
+    });
+
+    private static final int TAILLE_TAMPON_INITIALE = 32 * 1024;
+
+    private final MeterRegistry meterRegistry;
+
+    @Value("${pdf.rendu.threads:2}")
+    private int threads;
+
+    @Value("${pdf.rendu.file-attente:50}")
+    private int fileAttente;
+
+    private FontProgram programmeGras;
+    private FontProgram programmeNormal;
+    private ThreadPoolExecutor executor;
+    private Counter rejets;
+
+    /** Taille du dernier document rendu, par type. */
+    private final Map<String, Integer> dernieresTailles = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    void initialiser() throws IOException {
+        programmeGras   = FontProgramFactory.createFont(StandardFonts.HELVETICA_BOLD);
+        programmeNormal = FontProgramFactory.createFont(StandardFonts.HELVETICA);
+
+        AtomicInteger compteur = new AtomicInteger();
+        executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(fileAttente),
+                r -> {
+                    Thread t = new Thread(r, "rendu-pdf-" + compteur.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                });
+
+        Gauge.builder("hexalib.pdf.file", executor, e -> e.getQueue().size())
+                .description("Documents PDF en attente de rendu")
+                .register(meterRegistry);
+        rejets = Counter.builder("hexalib.pdf.rejets")
+                .description("Demandes de PDF refusées, file de rendu pleine")
+                .register(meterRegistry);
+    }
+
+    @PreDestroy
+    void arreterExecutor() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Rend un document A4 (marges 40) sur le pool de rendu et attend le résultat.
+     *
+     * @param type "facture", "rapport-journalier"… (tag des métriques, taille du tampon)
+     */
+    public byte[] rendre(String type, Contenu contenu) {
+        int taille = dernieresTailles.getOrDefault(type, TAILLE_TAMPON_INITIALE);
+        ByteArrayOutputStream baos = new ByteArrayOutputStream(taille + taille / 8);
+        executer(type, () -> {
+            ecrireDocument(type, baos, contenu);
+            dernieresTailles.put(type, baos.size());
+        });
+        return baos.toByteArray();
+    }
+
+    /**
+     * Variante pour les grands documents : les pages sont écrites dans un
+     * fichier temporaire au fil de la mise en page, puis le fichier est
+     * recopié dans {@code out} sur le thread appelant. Un client lent
+     * n'occupe donc pas un thread de rendu au détriment des factures et
+     * bons de commande. Le flux n'est pas fermé.
+     */
+    public void rendre(String type, OutputStream out, Contenu contenu) throws IOException {
+        Path fichier = Files.createTempFile("hexalib-" + type + "-", ".pdf");
+        try {
+            try {
+                executer(type, () -> {
+                    try (OutputStream fos = new BufferedOutputStream(Files.newOutputStream(fichier))) {
+                        ecrireDocument(type, fos, contenu);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+            Files.copy(fichier, out);
+        } finally {
+            Files.deleteIfExists(fichier);
+        }
+    }
+
+    private void executer(String type, Runnable rendu) {
+        Future<?> resultat;
+        try {
+            resultat = executor.submit(rendu);
+        } catch (RejectedExecutionException e) {
+            rejets.increment();
+            throw new TooManyRequestsException("Trop de documents PDF en cours de génération, réessayez dans un instant");
+        }
+
+        try {
+            resultat.get();
+        } catch (InterruptedException e) {
+            resultat.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Génération du PDF interrompue", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException re) throw re;
+            throw new RuntimeException("Erreur lors de la génération du PDF " + type, e.getCause());
+        }
+    }
+
+    private void ecrireDocument(String type, OutputStream out, Contenu contenu) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        try {
+            PdfWriter writer = new PdfWriter(out);
+            writer.setCloseStream(false);
+            PdfDocument pdfDoc   = new PdfDocument(writer);
+            Document    document = new Document(pdfDoc, PageSize.A4);
+            document.setMargins(40, 40, 40, 40);
+
+            contenu.ecrire(document, new Polices(
+                    PdfFontFactory.createFont(programmeGras, PdfEncodings.WINANSI, EmbeddingStrategy.PREFER_NOT_EMBEDDED),
+                    PdfFontFactory.createFont(programmeNormal, PdfEncodings.WINANSI, EmbeddingStrategy.PREFER_NOT_EMBEDDED)));
+
+            document.close();
+
+        } catch (IOException e) {
+            log.error("Erreur lors de la génération du PDF {}", type, e);
+            throw new UncheckedIOException(e);
+        } catch (RuntimeException e) {
+            log.error("Erreur lors de la génération du PDF {}", type, e);
+            throw e;
+        } catch (Exception e) {
+            log.error("Erreur lors de la génération du PDF {}", type, e);
+            throw new RuntimeException("Erreur lors de la génération du PDF", e);
+        } finally {
+            sample.stop(Timer.builder("hexalib.pdf.rendu")
+                    .description("Durée de mise en page des documents PDF")
+                    .tag("type", type)
+                    .register(meterRegistry));
+        }
+    }
+
+    // ══════════════════════════════════════════════════════════════════
+    // ÉLÉMENTS COMMUNS
+    // ══════════════════════════════════════════════════════════════════
+
+    /** Cellule de tableau : texte 9 pt, bordure fine ; « — » si la valeur manque. */
+    public static Cell celluleDonnee(String texte, PdfFont police, TextAlignment alignement, Color fond) {
+        return new Cell()
+                .addStyle(STYLE_CELLULE)
+                .add(new Paragraph(texte != null ? texte : "—").setFont(police).setFontSize(9))
+                .setTextAlignment(alignement)
+                .setBackgroundColor(fond);
+    }
+
+    /** En-tête de colonne : texte blanc 10 pt en gras sur la couleur du document. */
+    public static Cell celluleEntete(String texte, PdfFont gras, Color fond) {
+        return new Cell()
+                .addStyle(STYLE_ENTETE)
+                .add(new Paragraph(texte).setFont(gras).setFontSize(10))
+                .setBackgroundColor(fond);
+    }
+
+    /** Fond des lignes de tableau alternées. */
+    public static Color fondLigne(boolean alterne) {
+        return alterne ? GRIS_CLAIR : BLANC;
+    }
+
+    /** Montant arrondi à l'unité, séparateur de milliers français. */
+    public static String montant(BigDecimal valeur) {
+        if (valeur == null) return "0";
+        return MONTANT_FMT.get().format(valeur);
+    }
+}
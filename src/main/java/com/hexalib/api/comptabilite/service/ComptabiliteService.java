@@ -1,10 +1,13 @@
 package com.hexalib.api.comptabilite.service;
 
+import com.hexalib.api.archivage.dto.VenteHistorique;
+import com.hexalib.api.archivage.repository.HistoriqueRepository;
+import com.hexalib.api.archivage.service.LimiteArchive;
 import com.hexalib.api.comptabilite.dto.*;
 import com.hexalib.api.comptabilite.repository.DepenseRepository;
 import com.hexalib.api.livre.model.Livre;
 import com.hexalib.api.livre.repository.LivreRepository;
-import com.hexalib.api.vente.model.Vente;
+import com.hexalib.api.rapport.repository.RapportRepository;
 import com.hexalib.api.vente.repository.VenteRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -31,6 +34,9 @@ public class ComptabiliteService {
     private final VenteRepository   venteRepository;
     private final DepenseRepository depenseRepository;
     private final LivreRepository   livreRepository;
+    private final RapportRepository    rapportRepository;
+    private final HistoriqueRepository historiqueRepository;
+    private final LimiteArchive        limiteArchive;
 
     // ══════════════════════════════════════════════════
     // DASHBOARD
@@ -42,11 +48,10 @@ public class ComptabiliteService {
         LocalDateTime debutDT = debut.atStartOfDay();
         LocalDateTime finDT   = fin.atTime(LocalTime.MAX);
 
-        BigDecimal totalEntrees   = venteRepository.sumMontantByPeriode(debutDT, finDT);
-        if (totalEntrees == null) totalEntrees = BigDecimal.ZERO;
+        BigDecimal totalEntrees   = rapportRepository.sumCAByPeriode(debutDT, finDT);
 
-        BigDecimal totalReductions = getSumReductionsByPeriode(debutDT, finDT);
-        long       nombreVentes    = venteRepository.countByPeriode(debutDT, finDT);
+        BigDecimal totalReductions = rapportRepository.sumReductionsByPeriode(debutDT, finDT);
+        long       nombreVentes    = rapportRepository.countVentesByPeriode(debutDT, finDT);
 
         BigDecimal totalSorties = depenseRepository.sumMontantByPeriode(debut, fin);
         if (totalSorties == null) totalSorties = BigDecimal.ZERO;
@@ -90,36 +95,36 @@ public class ComptabiliteService {
         LocalDateTime debutDT = debut.atStartOfDay();
         LocalDateTime finDT   = fin.atTime(LocalTime.MAX);
 
-        List<Vente> toutesVentes = venteRepository.findByPeriode(debutDT, finDT);
+        List<VenteHistorique> toutesVentes = findVentesByPeriode(debutDT, finDT);
 
-        List<Vente> ventesAvec = toutesVentes.stream()
+        List<VenteHistorique> ventesAvec = toutesVentes.stream()
                 .filter(v -> v.getMontantReductions().compareTo(BigDecimal.ZERO) > 0)
                 .collect(Collectors.toList());
 
-        List<Vente> ventesSans = toutesVentes.stream()
+        List<VenteHistorique> ventesSans = toutesVentes.stream()
                 .filter(v -> v.getMontantReductions().compareTo(BigDecimal.ZERO) == 0)
                 .collect(Collectors.toList());
 
-        List<Vente> ventesAffichees = switch (typeRapport) {
+        List<VenteHistorique> ventesAffichees = switch (typeRapport) {
             case "AVEC_REDUCTION" -> ventesAvec;
             case "SANS_REDUCTION" -> ventesSans;
             default               -> toutesVentes;
         };
 
-        BigDecimal caTotal         = sum(toutesVentes, Vente::getMontantTTC);
-        BigDecimal totalReductions = sum(toutesVentes, Vente::getMontantReductions);
-        BigDecimal caAvec          = sum(ventesAvec,   Vente::getMontantTTC);
-        BigDecimal caSans          = sum(ventesSans,   Vente::getMontantTTC);
+        BigDecimal caTotal         = sum(toutesVentes, VenteHistorique::getMontantTTC);
+        BigDecimal totalReductions = sum(toutesVentes, VenteHistorique::getMontantReductions);
+        BigDecimal caAvec          = sum(ventesAvec,   VenteHistorique::getMontantTTC);
+        BigDecimal caSans          = sum(ventesSans,   VenteHistorique::getMontantTTC);
 
         List<RapportVentesDTO.LigneVenteRapport> lignes = ventesAffichees.stream()
                 .map(v -> RapportVentesDTO.LigneVenteRapport.builder()
                         .numeroFacture(v.getNumeroFacture())
                         .dateVente(v.getDateVente())
-                        .vendeurNom(v.getVendeur().getNomComplet())
+                        .vendeurNom(v.getVendeurNom())
                         .montantHT(v.getMontantHT())
                         .montantReduction(v.getMontantReductions())
                         .montantTTC(v.getMontantTTC())
-                        .nombreArticles(v.getLignes().size())
+                        .nombreArticles(v.getNombreArticles())
                         .aReduction(v.getMontantReductions().compareTo(BigDecimal.ZERO) > 0)
                         .build())
                 .collect(Collectors.toList());
@@ -151,11 +156,9 @@ public class ComptabiliteService {
         LocalDateTime debutDT = debut.atStartOfDay();
         LocalDateTime finDT   = fin.atTime(LocalTime.MAX);
 
-        BigDecimal caVentes = venteRepository.sumMontantByPeriode(debutDT, finDT);
-        if (caVentes == null) caVentes = BigDecimal.ZERO;
+        BigDecimal caVentes = rapportRepository.sumCAByPeriode(debutDT, finDT);
 
-        BigDecimal reductions = getSumReductionsByPeriode(debutDT, finDT);
-        if (reductions == null) reductions = BigDecimal.ZERO;
+        BigDecimal reductions = rapportRepository.sumReductionsByPeriode(debutDT, finDT);
 
         BigDecimal caNet = caVentes.subtract(reductions);
 
@@ -211,8 +214,8 @@ public class ComptabiliteService {
         List<RapportTresorerieDTO.FluxTresorerie> flux = new ArrayList<>();
 
         // Entrées : ventes
-        List<Vente> ventes = venteRepository.findByPeriode(debutDT, finDT);
-        for (Vente v : ventes) {
+        List<VenteHistorique> ventes = findVentesByPeriode(debutDT, finDT);
+        for (VenteHistorique v : ventes) {
             flux.add(RapportTresorerieDTO.FluxTresorerie.builder()
                     .date(v.getDateVente().toLocalDate())
                     .type("ENTREE")
@@ -220,7 +223,7 @@ public class ComptabiliteService {
                     .categorie("Ventes")
                     .montant(v.getMontantTTC())
                     .reference(v.getNumeroFacture())
-                    .enregistrePar(v.getVendeur().getNomComplet())
+                    .enregistrePar(v.getVendeurNom())
                     .build());
         }
 
@@ -330,16 +333,18 @@ public class ComptabiliteService {
     // HELPERS
     // ══════════════════════════════════════════════════
 
-    private BigDecimal sum(List<Vente> ventes,
-                           java.util.function.Function<Vente, BigDecimal> mapper) {
+    private BigDecimal sum(List<VenteHistorique> ventes,
+                           java.util.function.Function<VenteHistorique, BigDecimal> mapper) {
         return ventes.stream().map(mapper).reduce(BigDecimal.ZERO, BigDecimal::add);
     }
 
-    private BigDecimal getSumReductionsByPeriode(LocalDateTime debut, LocalDateTime fin) {
-        List<Vente> ventes = venteRepository.findByPeriode(debut, fin);
-        return ventes.stream()
-                .map(Vente::getMontantReductions)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
+    // Ventes chaudes + archivées si la période atteint un mois archivé
+    private List<VenteHistorique> findVentesByPeriode(LocalDateTime debut, LocalDateTime fin) {
+        return limiteArchive.atteint(debut)
+                ? historiqueRepository.findVentesByPeriode(debut, fin)
+                : venteRepository.findByPeriode(debut, fin).stream()
+                        .map(VenteHistorique::fromEntity)
+                        .toList();
     }
 
     // Lit toujours 3 colonnes : row[0]=nom, row[1]=montant, row[2]=count
@@ -1,8 +1,12 @@
 package com.hexalib.api.config;
 
+import com.hexalib.api.auth.security.EncodeurMotDePasseBorne;
 import com.hexalib.api.auth.security.JwtAuthenticationFilter;
 import com.hexalib.api.auth.service.UserDetailsServiceImpl;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.DispatcherType;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -14,7 +18,6 @@ import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 import org.springframework.security.web.header.writers.ReferrerPolicyHeaderWriter;
@@ -32,11 +35,30 @@ public class SecurityConfig {
 
     private final UserDetailsServiceImpl   userDetailsService;
     private final JwtAuthenticationFilter  jwtAuthenticationFilter;
-
-    @Bean
-    public PasswordEncoder passwordEncoder() {
-        // Cost factor 12 — conforme au cahier des charges
-        return new BCryptPasswordEncoder(12);
+    private final MeterRegistry            meterRegistry;
+
+    @Value("${auth.bcrypt.threads:2}")
+    private int bcryptThreads;
+
+    @Value("${auth.bcrypt.file-attente:6}")
+    private int bcryptFileAttente;
+
+    @Value("${spring.datasource.hikari.maximum-pool-size:10}")
+    private int taillePoolConnexions;
+
+    @Bean(destroyMethod = "arreter")
+    public EncodeurMotDePasseBorne passwordEncoder() {
+        // Une requête en attente de hachage peut tenir une connexion (open-in-view) :
+        // les hachages en cours et en file doivent en laisser aux ventes
+        if (bcryptThreads + bcryptFileAttente >= taillePoolConnexions) {
+            throw new IllegalStateException("auth.bcrypt.threads + auth.bcrypt.file-attente ("
+                    + (bcryptThreads + bcryptFileAttente) + ") doit rester inférieur à la taille du pool de connexions ("
+                    + taillePoolConnexions + ")");
+        }
+        // Cost factor 12 — conforme au cahier des charges ; hachages sur un pool borné,
+        // à l'écart des threads HTTP qui servent les ventes
+        return new EncodeurMotDePasseBorne(new BCryptPasswordEncoder(12),
+                bcryptThreads, bcryptFileAttente, meterRegistry);
     }
 
     @Bean
@@ -114,6 +136,8 @@ public class SecurityConfig {
                 ).permitAll()
                 .requestMatchers("/actuator/health").permitAll()
                 .requestMatchers("/", "/index.html", "/favicon.ico").permitAll()
+                // Fin des réponses asynchrones (SSE) : la requête initiale est déjà autorisée
+                .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
                 .anyRequest().authenticated()
             )
 
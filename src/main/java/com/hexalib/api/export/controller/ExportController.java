@@ -0,0 +1,78 @@
+package com.hexalib.api.export.controller;
+
+import com.hexalib.api.common.exception.BadRequestException;
+import com.hexalib.api.export.repository.ExportRepository;
+import com.hexalib.api.export.service.ExportService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.Locale;
+
+@RestController
+@RequestMapping("/api/exports")
+@RequiredArgsConstructor
+@Tag(name = "Exports", description = "Exports de données brutes (CSV, NDJSON) pour la BI")
+@SecurityRequirement(name = "bearerAuth")
+@PreAuthorize("hasRole('ADMIN')")
+public class ExportController {
+
+    private final ExportService exportService;
+
+    /**
+     * Export en flux d'un jeu de données : livres, ventes (une ligne par
+     * ligne de vente), mouvements ou depenses.
+     *
+     * GET /api/exports/{jeu}?format=csv|ndjson&debut=&fin=&gzip=
+     */
+    @GetMapping("/{jeu}")
+    @Operation(summary = "Exporter un jeu de données",
+               description = "jeu : livres | ventes | mouvements | depenses — format : csv | ndjson. " +
+                             "debut/fin filtrent sur la date du jeu (mise à jour pour les livres)")
+    public ResponseEntity<StreamingResponseBody> exporter(
+            @PathVariable String jeu,
+            @RequestParam(defaultValue = "csv") String format,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate debut,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate fin,
+            @RequestParam(defaultValue = "false") boolean gzip) {
+
+        ExportRepository.Jeu j = parser(ExportRepository.Jeu.class, jeu, "Jeu de données inconnu : " + jeu);
+        ExportService.Format f = parser(ExportService.Format.class, format, "Format inconnu : " + format);
+        if (debut != null && fin != null && debut.isAfter(fin)) {
+            throw new BadRequestException("La date de début doit précéder la date de fin");
+        }
+
+        String filename = "hexalib_" + j.name().toLowerCase(Locale.ROOT) + "_" +
+                LocalDate.now().format(DateTimeFormatter.ofPattern("yyyyMMdd")) + "." + f.getExtension() +
+                (gzip ? ".gz" : "");
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(gzip
+                ? MediaType.parseMediaType("application/gzip")
+                : MediaType.parseMediaType(f.getContentType() + ";charset=UTF-8"));
+        headers.setContentDispositionFormData("attachment", filename);
+        headers.setCacheControl("no-store");
+
+        StreamingResponseBody corps = out -> exportService.exporter(j, f, debut, fin, gzip, out);
+        return new ResponseEntity<>(corps, headers, HttpStatus.OK);
+    }
+
+    private static <E extends Enum<E>> E parser(Class<E> type, String valeur, String message) {
+        try {
+            return Enum.valueOf(type, valeur.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException(message);
+        }
+    }
+}
@@ -0,0 +1,191 @@
+package com.hexalib.api.export.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.Session;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Curseurs JDBC en avant seule pour les exports de données brutes, et
+ * filigranes des exports mis en cache.
+ *
+ * Chaque jeu est une requête SQL à plat (jointures comprises) ; le filtre
+ * de dates porte sur sa colonne de date, borne de fin incluse. Ventes et
+ * mouvements relisent aussi les tables d'archive quand la période atteint
+ * un mois archivé. Les lignes sont lues au fil de l'eau et jamais
+ * rassemblées en mémoire.
+ */
+@Repository
+public class ExportRepository {
+
+    /**
+     * Avec MySQL Connector/J, seule cette taille de fetch fait streamer le
+     * résultat ligne à ligne au lieu de le charger entièrement côté client.
+     */
+    private static final int FETCH_STREAMING = Integer.MIN_VALUE;
+
+    public enum Jeu {
+        LIVRES("""
+                SELECT l.id, l.code, l.titre, l.auteur, l.maison_edition, l.isbn, l.langue,
+                       c.nom AS categorie, l.prix_vente, l.prix_achat, l.quantite_stock,
+                       l.seuil_minimal, l.emplacement, l.statut, l.created_at, l.updated_at
+                FROM livres l
+                LEFT JOIN categories c ON c.id = l.categorie_id
+                """, null, "l.updated_at", "l.code"),
+
+        // Tables d'archive sans clés étrangères : vendeur ou livre peut avoir disparu
+        VENTES("""
+                SELECT v.id AS vente_id, v.numero_facture, v.date_vente, u.email AS vendeur,
+                       v.statut, v.montant_ht, v.montant_reductions, v.montant_ttc,
+                       lv.id AS ligne_id, lv.code_livre, lv.titre_livre, lv.prix_unitaire,
+                       lv.quantite, lv.montant_reduction, lv.sous_total
+                FROM ventes v
+                JOIN users u ON u.id = v.vendeur_id
+                JOIN lignes_vente lv ON lv.vente_id = v.id
+                """, """
+                SELECT v.id AS vente_id, v.numero_facture, v.date_vente, u.email AS vendeur,
+                       v.statut, v.montant_ht, v.montant_reductions, v.montant_ttc,
+                       lv.id AS ligne_id, lv.code_livre, lv.titre_livre, lv.prix_unitaire,
+                       lv.quantite, lv.montant_reduction, lv.sous_total
+                FROM ventes_archive v
+                LEFT JOIN users u ON u.id = v.vendeur_id
+                JOIN lignes_vente_archive lv ON lv.vente_id = v.id
+                """, "v.date_vente", "date_vente, vente_id, ligne_id"),
+
+        MOUVEMENTS("""
+                SELECT m.id, m.date_mouvement, l.code AS code_livre, l.titre AS titre_livre,
+                       m.type_mouvement, m.quantite, m.stock_avant, m.stock_apres,
+                       m.motif, m.reference, u.email AS utilisateur
+                FROM mouvements_stock m
+                JOIN livres l ON l.id = m.livre_id
+                LEFT JOIN users u ON u.id = m.user_id
+                """, """
+                SELECT m.id, m.date_mouvement, l.code AS code_livre, l.titre AS titre_livre,
+                       m.type_mouvement, m.quantite, m.stock_avant, m.stock_apres,
+                       m.motif, m.reference, u.email AS utilisateur
+                FROM mouvements_stock_archive m
+                LEFT JOIN livres l ON l.id = m.livre_id
+                LEFT JOIN users u ON u.id = m.user_id
+                """, "m.date_mouvement", "date_mouvement, id"),
+
+        DEPENSES("""
+                SELECT d.id, d.date_depense, d.description, d.montant, c.nom AS categorie,
+                       d.reference, u.email AS enregistre_par, d.created_at
+                FROM depenses d
+                JOIN categories_depenses c ON c.id = d.categorie_id
+                JOIN users u ON u.id = d.enregistre_par
+                """, null, "d.date_depense", "d.date_depense, d.id");
+
+        private final String select;
+        private final String archive;       // même requête sur les tables *_archive, null si aucune
+        private final String colonneDate;
+        private final String tri;           // libellés de sortie quand le jeu a une archive
+
+        Jeu(String select, String archive, String colonneDate, String tri) {
+            this.select = select;
+            this.archive = archive;
+            this.colonneDate = colonneDate;
+            this.tri = tri;
+        }
+
+        public boolean aUneArchive() {
+            return archive != null;
+        }
+    }
+
+    /** Reçoit les libellés de colonnes, puis chaque ligne du curseur. */
+    public interface Visiteur {
+        void entete(List<String> colonnes) throws SQLException;
+        void ligne(ResultSet rs) throws SQLException;
+    }
+
+    @PersistenceContext
+    private EntityManager em;
+
+    // ══════════════════════════════════════════════════════════════════
+    // FILIGRANES (version des données d'un export mis en cache)
+    // ══════════════════════════════════════════════════════════════════
+
+    /** Dernière modification et nombre de lignes des livres et des catégories. */
+    public String filigraneCatalogue() {
+        Object[] r = (Object[]) em.createNativeQuery("""
+                SELECT (SELECT MAX(updated_at) FROM livres),     (SELECT COUNT(*) FROM livres),
+                       (SELECT MAX(updated_at) FROM categories), (SELECT COUNT(*) FROM categories)
+                """).getSingleResult();
+        return r[0] + "/" + r[1] + "/" + r[2] + "/" + r[3];
+    }
+
+    /** Dernière modification et nombre des ventes datées dans [debut, fin[. */
+    public String filigraneVentes(LocalDateTime debut, LocalDateTime fin) {
+        Object[] r = (Object[]) em.createNativeQuery("""
+                SELECT MAX(COALESCE(updated_at, created_at)), COUNT(*)
+                FROM ventes
+                WHERE date_vente >= :debut AND date_vente < :fin
+                """)
+                .setParameter("debut", debut)
+                .setParameter("fin", fin)
+                .getSingleResult();
+        return r[0] + "/" + r[1];
+    }
+
+    /**
+     * Parcourt le jeu dans la transaction courante (connexion tenue pendant
+     * tout le parcours). Avec {@code avecArchive}, les lignes des tables
+     * d'archive sont ajoutées par UNION ALL, même filtre de dates.
+     *
+     * @return nombre de lignes transmises
+     */
+    public long parcourir(Jeu jeu, LocalDate debut, LocalDate fin, boolean avecArchive, Visiteur visiteur) {
+        StringBuilder filtre = new StringBuilder("WHERE 1 = 1");
+        List<Object> params = new ArrayList<>(4);
+        if (debut != null) {
+            filtre.append(" AND ").append(jeu.colonneDate).append(" >= ?");
+            params.add(debut.atStartOfDay());
+        }
+        if (fin != null) {
+            filtre.append(" AND ").append(jeu.colonneDate).append(" < ?");
+            params.add(fin.plusDays(1).atStartOfDay());
+        }
+
+        StringBuilder sql = new StringBuilder();
+        if (avecArchive && jeu.aUneArchive()) {
+            sql.append('(').append(jeu.select).append(filtre).append(") UNION ALL (")
+               .append(jeu.archive).append(filtre).append(')');
+            params.addAll(List.copyOf(params));
+        } else {
+            sql.append(jeu.select).append(filtre);
+        }
+        sql.append(" ORDER BY ").append(jeu.tri);
+
+        long[] n = {0};
+        em.unwrap(Session.class).doWork(connection -> {
+            try (PreparedStatement ps = connection.prepareStatement(sql.toString(),
+                    ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+                ps.setFetchSize(FETCH_STREAMING);
+                for (int i = 0; i < params.size(); i++) ps.setObject(i + 1, params.get(i));
+
+                try (ResultSet rs = ps.executeQuery()) {
+                    ResultSetMetaData meta = rs.getMetaData();
+                    List<String> colonnes = new ArrayList<>(meta.getColumnCount());
+                    for (int i = 1; i <= meta.getColumnCount(); i++) colonnes.add(meta.getColumnLabel(i));
+                    visiteur.entete(colonnes);
+
+                    while (rs.next()) {
+                        visiteur.ligne(rs);
+                        n[0]++;
+                    }
+                }
+            }
+        });
+        return n[0];
+    }
+}
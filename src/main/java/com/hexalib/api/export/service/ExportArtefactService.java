@@ -0,0 +1,94 @@
+package com.hexalib.api.export.service;
+
+import com.hexalib.api.export.repository.ExportRepository;
+import com.hexalib.api.livre.service.LivreExportService;
+import com.hexalib.api.rapport.service.RapportPdfService;
+import com.hexalib.api.rapport.service.RapportService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDate;
+
+/**
+ * Exports servis depuis le cache disque, avec leur filigrane :
+ *  - inventaire : livres et catégories (dernière modification, nombre) ;
+ *    chaque vente modifie le stock, donc le catalogue : une version de moins
+ *    de {@code export.inventaire.fraicheur-minutes} est resservie telle quelle ;
+ *  - rapports PDF : ventes de la période et de la période de comparaison.
+ *    Tant que la période est en cours, le catalogue (alertes de stock,
+ *    marges, rotation) compte aussi ; une fois close, ces sections sont un
+ *    instantané pris à la génération et seules les ventes de la période
+ *    (annulations comprises) invalident le rapport.
+ *
+ * Optionnellement, l'inventaire et les rapports de la veille sont
+ * pré-générés la nuit pour que les premiers téléchargements du matin
+ * soient servis directement depuis le disque.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ExportArtefactService {
+
+    private final ExportCacheService cache;
+    private final ExportRepository   exportRepository;
+    private final LivreExportService livreExportService;
+    private final RapportService     rapportService;
+    private final RapportPdfService  rapportPdfService;
+
+    @Value("${export.precalcul.actif:false}")
+    private boolean precalculActif;
+
+    @Value("${export.inventaire.fraicheur-minutes:10}")
+    private long fraicheurInventaireMinutes;
+
+    public Path inventaire() throws IOException {
+        return cache.obtenir("inventaire", null, exportRepository.filigraneCatalogue(), ".xlsx",
+                Duration.ofMinutes(fraicheurInventaireMinutes), livreExportService::exportLivres);
+    }
+
+    public Path rapportJournalier(LocalDate date) throws IOException {
+        String filigrane = exportRepository.filigraneVentes(date.atStartOfDay(), date.plusDays(1).atStartOfDay())
+                + filigraneEtatCourant(date);
+        return cache.obtenir("rapport-journalier", date.toString(), filigrane, ".pdf",
+                out -> out.write(rapportPdfService.genererRapportJournalierPDF(
+                        rapportService.getRapportJournalier(date))));
+    }
+
+    /** Semaine finissant à {@code dateFin} ; comparée à la semaine précédente. */
+    public Path rapportHebdomadaire(LocalDate dateFin) throws IOException {
+        String filigrane = exportRepository.filigraneVentes(
+                        dateFin.minusDays(13).atStartOfDay(), dateFin.plusDays(1).atStartOfDay())
+                + filigraneEtatCourant(dateFin);
+        return cache.obtenir("rapport-hebdomadaire", dateFin.toString(), filigrane, ".pdf",
+                out -> rapportPdfService.genererRapportPeriodiquePDF(
+                        rapportService.getRapportHebdomadaire(dateFin), out));
+    }
+
+    /** Catalogue pris en compte seulement tant que la période n'est pas close. */
+    private String filigraneEtatCourant(LocalDate finPeriode) {
+        return finPeriode.isBefore(LocalDate.now()) ? "" : "|" + exportRepository.filigraneCatalogue();
+    }
+
+    // Heures creuses : après l'archivage (2h30), avant l'ouverture
+    @Scheduled(cron = "${export.precalcul.cron:0 0 4 * * *}")
+    public void precalculer() {
+        if (!precalculActif) return;
+
+        LocalDate veille = LocalDate.now().minusDays(1);
+        long debutMs = System.currentTimeMillis();
+        try {
+            inventaire();
+            rapportJournalier(veille);
+            rapportHebdomadaire(veille);
+            log.info("Exports de la nuit pré-générés en {} ms", System.currentTimeMillis() - debutMs);
+        } catch (Exception e) {
+            log.error("Pré-génération des exports en échec : {}", e.getMessage(), e);
+        }
+    }
+}
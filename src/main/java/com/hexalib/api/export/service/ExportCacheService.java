@@ -0,0 +1,227 @@
+package com.hexalib.api.export.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+/**
+ * Cache disque des fichiers d'export (inventaire, rapports).
+ *
+ * Un artefact est identifié par sa clé (famille + période éventuelle) et par
+ * le filigrane des données qu'il contient : tant que le filigrane ne change
+ * pas, le fichier déjà généré est resservi tel quel. Une famille peut aussi
+ * tolérer un état un peu ancien : la dernière version est alors resservie
+ * tant qu'elle a moins que la fraîcheur demandée, même si le filigrane a
+ * bougé entre-temps.
+ *
+ * Les versions remplacées ne sont pas supprimées à la génération — un
+ * téléchargement peut être en train de les lire — mais par la purge
+ * périodique, une heure après leur dernier accès. Les fichiers non relus
+ * depuis le TTL sont supprimés.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ExportCacheService {
+
+    /** Écrit le contenu de l'artefact. */
+    @FunctionalInterface
+    public interface Generateur {
+        void ecrire(OutputStream out) throws IOException;
+    }
+
+    private final MeterRegistry meterRegistry;
+
+    @Value("${export.cache.repertoire:${java.io.tmpdir}/hexalib-exports}")
+    private String repertoire;
+
+    @Value("${export.cache.ttl-jours:7}")
+    private long ttlJours;
+
+    private Path racine;
+
+    /** Version remplacée conservée au moins ce temps après son dernier accès. */
+    private static final Duration DELAI_ANCIENNES_VERSIONS = Duration.ofHours(1);
+
+    private final Map<String, Object> verrous = new ConcurrentHashMap<>();
+
+    /** Dernière version générée par clé, avec son instant de génération. */
+    private record Version(Path fichier, Instant generee) {}
+
+    private final Map<String, Version> dernieres = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    void initialiser() throws IOException {
+        racine = Paths.get(repertoire);
+        Files.createDirectories(racine);
+    }
+
+    /**
+     * Renvoie l'artefact à jour, généré si besoin. Deux demandes simultanées
+     * de la même clé ne le génèrent qu'une fois.
+     *
+     * @param famille   "inventaire", "rapport-journalier"… (tag des métriques)
+     * @param periode   date ou période couverte, null pour un état courant
+     * @param filigrane version des données sources
+     */
+    public Path obtenir(String famille, String periode, String filigrane, String extension,
+                        Generateur generateur) throws IOException {
+        return obtenir(famille, periode, filigrane, extension, Duration.ZERO, generateur);
+    }
+
+    /**
+     * Idem, en resservant la dernière version générée tant qu'elle a moins de
+     * {@code fraicheur}, même si le filigrane a changé depuis.
+     */
+    public Path obtenir(String famille, String periode, String filigrane, String extension,
+                        Duration fraicheur, Generateur generateur) throws IOException {
+        String cle = periode != null ? famille + "-" + periode : famille;
+        Path fichier = racine.resolve(cle + "_" + empreinte(filigrane) + extension);
+
+        if (servir(famille, fichier)) {
+            return fichier;
+        }
+        Version derniere = dernieres.get(cle);
+        if (derniere != null && derniere.generee().plus(fraicheur).isAfter(Instant.now())
+                && servir(famille, derniere.fichier())) {
+            return derniere.fichier();
+        }
+
+        synchronized (verrous.computeIfAbsent(cle, k -> new Object())) {
+            if (servir(famille, fichier)) {
+                return fichier;
+            }
+            compteur(famille, "miss").increment();
+            long debutMs = System.currentTimeMillis();
+
+            // Écriture complète dans un .tmp puis renommage : jamais de fichier partiel servi
+            Path tmp = Files.createTempFile(racine, cle + "_", ".tmp");
+            try {
+                try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(tmp), 64 * 1024)) {
+                    generateur.ecrire(out);
+                }
+                Files.move(tmp, fichier, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } finally {
+                Files.deleteIfExists(tmp);
+            }
+            dernieres.put(cle, new Version(fichier, Instant.now()));
+
+            log.info("Export {} généré en {} ms ({} Ko)", fichier.getFileName(),
+                    System.currentTimeMillis() - debutMs, Files.size(fichier) / 1024);
+            return fichier;
+        }
+    }
+
+    @Scheduled(fixedDelay = 3_600_000)
+    public void purgerExpires() {
+        Instant maintenant = Instant.now();
+        Instant limite = maintenant.minus(Duration.ofDays(ttlJours));
+        Instant limiteAnciennes = maintenant.minus(DELAI_ANCIENNES_VERSIONS);
+
+        // Version la plus récemment lue de chaque clé : la seule gardée jusqu'au TTL
+        Map<String, Path> courantes = new HashMap<>();
+        Map<Path, Instant> acces = new HashMap<>();
+        for (Path p : lister()) {
+            String nom = p.getFileName().toString();
+            int sep = nom.lastIndexOf('_');
+            if (sep < 0 || nom.endsWith(".tmp")) continue;
+            try {
+                acces.put(p, Files.getLastModifiedTime(p).toInstant());
+            } catch (IOException e) {
+                continue;
+            }
+            courantes.merge(nom.substring(0, sep), p,
+                    (a, b) -> acces.get(a).isAfter(acces.get(b)) ? a : b);
+        }
+        Set<Path> aGarder = new HashSet<>(courantes.values());
+        dernieres.values().forEach(v -> aGarder.add(v.fichier()));
+
+        acces.forEach((p, dernierAcces) -> {
+            boolean expire   = dernierAcces.isBefore(limite);
+            boolean remplace = !aGarder.contains(p) && dernierAcces.isBefore(limiteAnciennes);
+            if (expire || remplace) {
+                try {
+                    // Relu juste avant : un téléchargement a pu y accéder depuis le listage
+                    if (!Files.getLastModifiedTime(p).toInstant().equals(dernierAcces)) return;
+                    Files.deleteIfExists(p);
+                    log.debug("Export en cache {} : {}", expire ? "expiré" : "remplacé", p.getFileName());
+                } catch (IOException e) {
+                    log.warn("Export en cache {} non supprimé : {}", p.getFileName(), e.getMessage());
+                }
+            }
+        });
+        dernieres.values().removeIf(v -> !Files.exists(v.fichier()));
+    }
+
+    // ══════════════════════════════════════════════════════════════════
+    // HELPERS
+    // ══════════════════════════════════════════════════════════════════
+
+    /**
+     * Marque l'accès (date de modification, lue par la purge) et compte un hit ;
+     * faux si le fichier n'existe pas.
+     */
+    private boolean servir(String famille, Path fichier) throws IOException {
+        try {
+            Files.setLastModifiedTime(fichier, FileTime.from(Instant.now()));
+        } catch (NoSuchFileException e) {
+            return false;
+        }
+        compteur(famille, "hit").increment();
+        return true;
+    }
+
+    private List<Path> lister() {
+        try (Stream<Path> fichiers = Files.list(racine)) {
+            return fichiers.filter(Files::isRegularFile).toList();
+        } catch (IOException e) {
+            log.warn("Cache d'exports illisible : {}", e.getMessage());
+            return List.of();
+        }
+    }
+
+    private Counter compteur(String famille, String resultat) {
+        return Counter.builder("hexalib.export.cache")
+                .description("Demandes d'export servies depuis le cache (hit) ou générées (miss)")
+                .tag("famille", famille)
+                .tag("resultat", resultat)
+                .register(meterRegistry);
+    }
+
+    private static String empreinte(String filigrane) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(filigrane.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(hash, 0, 8);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,215 @@
+package com.hexalib.api.export.service;
+
+import com.hexalib.api.archivage.service.LimiteArchive;
+import com.hexalib.api.export.repository.ExportRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Exports de données brutes (CSV ou NDJSON) pour les outils de BI.
+ *
+ * Chaque ligne du curseur est écrite aussitôt dans le flux de la réponse,
+ * éventuellement compressé en gzip : la mémoire utilisée ne dépend que de
+ * la taille des tampons, pas du nombre de lignes.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ExportService {
+
+    private static final int TAILLE_TAMPON = 64 * 1024;
+
+    private final ExportRepository exportRepository;
+    private final LimiteArchive    limiteArchive;
+
+    public enum Format {
+        CSV("text/csv", "csv"),
+        NDJSON("application/x-ndjson", "ndjson");
+
+        private final String contentType;
+        private final String extension;
+
+        Format(String contentType, String extension) {
+            this.contentType = contentType;
+            this.extension = extension;
+        }
+
+        public String getContentType() { return contentType; }
+        public String getExtension()   { return extension; }
+    }
+
+    @Transactional(readOnly = true)
+    public void exporter(ExportRepository.Jeu jeu, Format format, LocalDate debut, LocalDate fin,
+                         boolean gzip, OutputStream out) throws IOException {
+        long debutMs = System.currentTimeMillis();
+        GZIPOutputStream compression = gzip ? new GZIPOutputStream(out, TAILLE_TAMPON) : null;
+        Writer writer = new BufferedWriter(
+                new OutputStreamWriter(compression != null ? compression : out, StandardCharsets.UTF_8),
+                TAILLE_TAMPON);
+
+        // Période touchant un mois archivé : tables chaudes + tables d'archive
+        boolean avecArchive = limiteArchive.atteint(debut != null ? debut.atStartOfDay() : null);
+
+        long lignes;
+        try {
+            lignes = exportRepository.parcourir(jeu, debut, fin, avecArchive,
+                    format == Format.CSV ? new EcrivainCsv(writer) : new EcrivainNdjson(writer));
+        } catch (UncheckedIOException e) {
+            throw e.getCause();   // client déconnecté en cours d'export
+        }
+        writer.flush();
+        if (compression != null) compression.finish();
+
+        log.info("Export {} ({}{}) : {} lignes en {} ms", jeu, format, gzip ? ", gzip" : "",
+                lignes, System.currentTimeMillis() - debutMs);
+    }
+
+    // ══════════════════════════════════════════════════════════════════
+    // ÉCRIVAINS
+    // ══════════════════════════════════════════════════════════════════
+
+    /** CSV RFC 4180 : séparateur virgule, guillemets seulement si nécessaire. */
+    private static final class EcrivainCsv implements ExportRepository.Visiteur {
+
+        private final Writer writer;
+        private int nbColonnes;
+
+        EcrivainCsv(Writer writer) {
+            this.writer = writer;
+        }
+
+        @Override
+        public void entete(List<String> colonnes) {
+            nbColonnes = colonnes.size();
+            try {
+                for (int i = 0; i < nbColonnes; i++) {
+                    if (i > 0) writer.write(',');
+                    ecrireChamp(colonnes.get(i));
+                }
+                writer.write("\r\n");
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        @Override
+        public void ligne(ResultSet rs) throws SQLException {
+            try {
+                for (int i = 1; i <= nbColonnes; i++) {
+                    if (i > 1) writer.write(',');
+                    String valeur = texte(rs.getObject(i));
+                    if (valeur != null) ecrireChamp(valeur);
+                }
+                writer.write("\r\n");
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        private void ecrireChamp(String valeur) throws IOException {
+            boolean guillemets = false;
+            for (int i = 0; i < valeur.length() && !guillemets; i++) {
+                char c = valeur.charAt(i);
+                guillemets = c == ',' || c == '"' || c == '\n' || c == '\r';
+            }
+            if (!guillemets) {
+                writer.write(valeur);
+                return;
+            }
+            writer.write('"');
+            for (int i = 0; i < valeur.length(); i++) {
+                char c = valeur.charAt(i);
+                if (c == '"') writer.write('"');
+                writer.write(c);
+            }
+            writer.write('"');
+        }
+    }
+
+    /** Un objet JSON par ligne ; nombres non quotés, null explicites. */
+    private static final class EcrivainNdjson implements ExportRepository.Visiteur {
+
+        private final Writer writer;
+        private String[] cles;   // "\"colonne\":" pré-encodés
+
+        EcrivainNdjson(Writer writer) {
+            this.writer = writer;
+        }
+
+        @Override
+        public void entete(List<String> colonnes) {
+            cles = new String[colonnes.size()];
+            for (int i = 0; i < cles.length; i++) {
+                StringBuilder sb = new StringBuilder();
+                echapper(sb, colonnes.get(i));
+                cles[i] = sb.append(':').toString();
+            }
+        }
+
+        @Override
+        public void ligne(ResultSet rs) throws SQLException {
+            StringBuilder sb = new StringBuilder(256).append('{');
+            for (int i = 0; i < cles.length; i++) {
+                if (i > 0) sb.append(',');
+                sb.append(cles[i]);
+                Object valeur = rs.getObject(i + 1);
+                if (valeur == null)                       sb.append("null");
+                else if (valeur instanceof BigDecimal bd) sb.append(bd.toPlainString());
+                else if (valeur instanceof Number n)      sb.append(n);
+                else if (valeur instanceof Boolean b)     sb.append(b);
+                else                                      echapper(sb, texte(valeur));
+            }
+            sb.append("}\n");
+            try {
+                writer.write(sb.toString());
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        private static void echapper(StringBuilder sb, String s) {
+            sb.append('"');
+            for (int i = 0; i < s.length(); i++) {
+                char c = s.charAt(i);
+                switch (c) {
+                    case '"'  -> sb.append("\\\"");
+                    case '\\' -> sb.append("\\\\");
+                    case '\n' -> sb.append("\\n");
+                    case '\r' -> sb.append("\\r");
+                    case '\t' -> sb.append("\\t");
+                    default -> {
+                        if (c < 0x20) sb.append(String.format("\\u%04x", (int) c));
+                        else          sb.append(c);
+                    }
+                }
+            }
+            sb.append('"');
+        }
+    }
+
+    /** Représentation texte d'une valeur JDBC : dates ISO-8601, décimaux sans exposant. */
+    private static String texte(Object valeur) {
+        if (valeur == null)                           return null;
+        if (valeur instanceof Timestamp ts)           return ts.toLocalDateTime().toString();
+        if (valeur instanceof java.sql.Date d)        return d.toLocalDate().toString();
+        if (valeur instanceof BigDecimal bd)          return bd.toPlainString();
+        return valeur.toString();
+    }
+}
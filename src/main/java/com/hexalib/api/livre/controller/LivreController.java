@@ -1,7 +1,7 @@
 package com.hexalib.api.livre.controller;
 
 import com.hexalib.api.livre.dto.ImportJobDTO;
-import com.hexalib.api.livre.service.LivreExportService;
+import com.hexalib.api.export.service.ExportArtefactService;
 import com.hexalib.api.livre.service.LivreImportService;
 import org.springframework.http.MediaType;
 import org.springframework.web.multipart.MultipartFile;
@@ -21,7 +21,10 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
 
+import java.io.IOException;
 import java.util.List;
 
 @RestController
@@ -31,9 +34,9 @@ import java.util.List;
 @SecurityRequirement(name = "bearerAuth")
 public class LivreController {
 
-    private final LivreService        livreService;
-    private final LivreImportService  livreImportService;
-    private final LivreExportService  livreExportService;
+    private final LivreService          livreService;
+    private final LivreImportService    livreImportService;
+    private final ExportArtefactService exportArtefactService;
 
     @PostMapping
     @PreAuthorize("hasRole('ADMIN')")
@@ -141,8 +144,9 @@ public class LivreController {
     @GetMapping("/export")
     @PreAuthorize("hasRole('ADMIN')")
     @Operation(summary = "Exporter l'inventaire", description = "Exporter tous les livres au format Excel (Admin uniquement)")
-    public ResponseEntity<byte[]> exportLivres() {
-        byte[] excelBytes = livreExportService.exportLivres();
+    public ResponseEntity<Resource> exportLivres() throws IOException {
+        // Régénéré seulement si le catalogue a changé depuis le dernier export
+        Resource fichier = new FileSystemResource(exportArtefactService.inventaire());
 
         String filename = "Inventaire_Hexalib_" +
                 java.time.LocalDate.now()
@@ -154,6 +158,6 @@ public class LivreController {
         headers.setContentDispositionFormData("attachment", filename);
         headers.setCacheControl("must-revalidate, post-check=0, pre-check=0");
 
-        return new ResponseEntity<>(excelBytes, headers, HttpStatus.OK);
+        return new ResponseEntity<>(fichier, headers, HttpStatus.OK);
     }
 }
\ No newline at end of file
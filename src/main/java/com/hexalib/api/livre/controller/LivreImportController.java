@@ -3,82 +3,135 @@ package com.hexalib.api.livre.controller;
 import com.hexalib.api.common.dto.ApiResponse;
 import com.hexalib.api.livre.dto.ImportJobDTO;
 import com.hexalib.api.livre.service.LivreImportService;
+import com.hexalib.api.livre.service.LivreImportValidationService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
 
 @RestController
 @RequestMapping("/api/livres/import")
 @RequiredArgsConstructor
-@Tag(name = "Import Livres", description = "Import Excel avec progression par batch")
+@Tag(name = "Import Livres", description = "Import Excel/CSV exécuté côté serveur avec suivi de progression")
 public class LivreImportController {
 
-    private final LivreImportService importService;
+    private final LivreImportService           importService;
+    private final LivreImportValidationService validationService;
 
     /**
-     * ÉTAPE 1 — Upload du fichier Excel.
-     * Parse toutes les lignes, crée le job en mémoire.
-     * Retourne le jobId et le nombre total de batches.
+     * Upload du catalogue (Excel, ou CSV/TSV avec une ligne d'en-tête).
+     * Crée le job et le met en file : l'analyse et l'insertion se font
+     * côté serveur, sans autre appel du client.
      *
      * POST /api/livres/import/upload
      */
     @PostMapping(value = "/upload", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
     @PreAuthorize("hasRole('ADMIN')")
-    @Operation(summary = "Uploader un fichier Excel",
-               description = "Parse le fichier et crée un job d'import. Retourne le jobId.")
+    @Operation(summary = "Uploader un catalogue (.xlsx, .csv, .tsv)",
+               description = "Crée un job d'import et le démarre. Retourne le jobId.")
     public ResponseEntity<ApiResponse<ImportJobDTO.ImportJobStarted>> upload(
-            @RequestParam("file") MultipartFile file) {
-        try {
-            if (file.isEmpty()) {
-                return ResponseEntity.badRequest()
-                        .body(ApiResponse.error("Fichier vide"));
-            }
-            String filename = file.getOriginalFilename();
-            if (filename == null ||
-                    (!filename.toLowerCase().endsWith(".xlsx") &&
-                     !filename.toLowerCase().endsWith(".xls"))) {
-                return ResponseEntity.badRequest()
-                        .body(ApiResponse.error("Format invalide — utilisez un fichier .xlsx"));
-            }
+            @RequestParam("file") MultipartFile file) throws IOException {
+        String erreur = verifierFichier(file);
+        if (erreur != null) {
+            return ResponseEntity.badRequest().body(ApiResponse.error(erreur));
+        }
 
-            ImportJobDTO.ImportJobStarted result = importService.parseEtCreerJob(file);
-            return ResponseEntity.ok(
-                    ApiResponse.success("Fichier parsé — " + result.getTotalLignes() + " lignes détectées", result));
+        ImportJobDTO.ImportJobStarted result = importService.demarrer(file);
+        return ResponseEntity.status(HttpStatus.ACCEPTED)
+                .body(ApiResponse.success("Import démarré", result));
+    }
 
-        } catch (Exception e) {
-            return ResponseEntity.internalServerError()
-                    .body(ApiResponse.error("Erreur lors du parsing : " + e.getMessage()));
+    /**
+     * Validation à blanc : rapport de ce que donnerait l'import (ajouts,
+     * doublons, erreurs par ligne, catégories à créer) sans rien écrire.
+     *
+     * POST /api/livres/import/validate
+     */
+    @PostMapping(value = "/validate", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Valider un catalogue sans l'importer",
+               description = "Lecture, catégories et doublons contrôlés contre le catalogue actuel ; aucune écriture")
+    public ResponseEntity<ApiResponse<ImportJobDTO.ImportValidation>> valider(
+            @RequestParam("file") MultipartFile file) throws IOException {
+        String erreur = verifierFichier(file);
+        if (erreur != null) {
+            return ResponseEntity.badRequest().body(ApiResponse.error(erreur));
         }
+        return ResponseEntity.ok(ApiResponse.success(validationService.valider(file)));
     }
 
     /**
-     * ÉTAPE 2 — Traiter un batch.
-     * Le frontend appelle cet endpoint répétitivement (batch 1, 2, 3…)
-     * jusqu'à ce que termine = true dans la réponse.
+     * Progression du job (polling).
      *
-     * POST /api/livres/import/{jobId}/batch/{batchNumero}
+     * GET /api/livres/import/{jobId}
      */
-    @PostMapping("/{jobId}/batch/{batchNumero}")
+    @GetMapping("/{jobId}")
     @PreAuthorize("hasRole('ADMIN')")
-    @Operation(summary = "Traiter un batch d'import",
-               description = "Appeler séquentiellement batch/1, batch/2… jusqu'à termine=true")
-    public ResponseEntity<ApiResponse<ImportJobDTO.ImportBatchResult>> traiterBatch(
-            @PathVariable String jobId,
-            @PathVariable int batchNumero) {
-        try {
-            ImportJobDTO.ImportBatchResult result = importService.traiterBatch(jobId, batchNumero);
-            return ResponseEntity.ok(ApiResponse.success("Batch " + batchNumero + " traité", result));
-        } catch (RuntimeException e) {
-            return ResponseEntity.badRequest()
-                    .body(ApiResponse.error(e.getMessage()));
-        } catch (Exception e) {
-            return ResponseEntity.internalServerError()
-                    .body(ApiResponse.error("Erreur batch : " + e.getMessage()));
+    @Operation(summary = "Progression d'un import",
+               description = "Statut, phase, compteurs ; rapport final une fois terminé")
+    public ResponseEntity<ApiResponse<ImportJobDTO.ImportProgression>> getProgression(
+            @PathVariable String jobId) {
+        return ResponseEntity.ok(ApiResponse.success(importService.getProgression(jobId)));
+    }
+
+    /**
+     * Progression du job poussée par SSE (événement "progression" après chaque batch).
+     *
+     * GET /api/livres/import/{jobId}/events
+     */
+    @GetMapping(value = "/{jobId}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Suivre un import (SSE)",
+               description = "Flux d'événements fermé à la fin du job")
+    public SseEmitter suivre(@PathVariable String jobId) {
+        return importService.suivre(jobId);
+    }
+
+    /**
+     * Annulation : prend effet à la fin du batch en cours.
+     *
+     * POST /api/livres/import/{jobId}/annuler
+     */
+    @PostMapping("/{jobId}/annuler")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Annuler un import",
+               description = "Les batches déjà commités sont conservés")
+    public ResponseEntity<ApiResponse<ImportJobDTO.ImportProgression>> annuler(
+            @PathVariable String jobId) {
+        return ResponseEntity.ok(ApiResponse.success("Annulation demandée", importService.annuler(jobId)));
+    }
+
+    /**
+     * Reprise d'un job annulé ou en échec au premier batch non commité.
+     *
+     * POST /api/livres/import/{jobId}/reprendre
+     */
+    @PostMapping("/{jobId}/reprendre")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Reprendre un import",
+               description = "Reprend un job annulé ou en échec là où il s'est arrêté")
+    public ResponseEntity<ApiResponse<ImportJobDTO.ImportProgression>> reprendre(
+            @PathVariable String jobId) {
+        return ResponseEntity.ok(ApiResponse.success("Import repris", importService.reprendre(jobId)));
+    }
+
+    private static String verifierFichier(MultipartFile file) {
+        if (file.isEmpty()) return "Fichier vide";
+        String filename = file.getOriginalFilename();
+        if (filename == null ||
+                (!filename.toLowerCase().endsWith(".xlsx") &&
+                 !filename.toLowerCase().endsWith(".xls") &&
+                 !LivreImportService.estFormatTexte(filename))) {
+            return "Format invalide — utilisez un fichier .xlsx, .csv ou .tsv";
         }
+        return null;
     }
-}
\ No newline at end of file
+}
@@ -16,17 +16,23 @@ public class ImportJobDTO {
         private int    batchSize;
     }
 
-    // ── Réponse après chaque batch ─────────────────────────────────
+    // ── Progression du pipeline (suivi par polling ou SSE) ─────────
     @Data @Builder
-    public static class ImportBatchResult {
+    public static class ImportProgression {
         private String  jobId;
-        private int     batchNumero;
+        private String  statut;         // EN_ATTENTE, EN_COURS, TERMINE, ANNULE, ECHEC
+        private String  phase;          // ANALYSE, CATEGORIES, INSERTION
+        private int     totalLignes;
+        private int     traites;        // lignes des batches commités
+        private int     batchesTraites;
         private int     totalBatches;
-        private int     traites;        // lignes traitées jusqu'ici
-        private int     total;          // total de lignes
         private int     pourcentage;    // 0-100
-        private boolean termine;
-        // Présent uniquement quand termine = true
+        private int     livresAjoutes;
+        private int     doublons;
+        private int     nombreErreurs;
+        private long    lignesParSeconde;
+        private String  messageErreur;
+        // Présent uniquement quand statut = TERMINE
         private ImportRapportFinal rapport;
     }
 
@@ -39,6 +45,22 @@ public class ImportJobDTO {
         private int              livresAjoutes;
         private int              livresIgnores;      // doublons
         private int              lignesIgnorees;     // sans titre
+        private long             dureeInsertionMs;
+        private long             lignesParSeconde;
+        private int              clesIndexDoublons;
+        private long             memoireIndexDoublonsKo;
+        private List<LigneErreur> erreurs;
+    }
+
+    // ── Validation à blanc (rien n'est écrit) ──────────────────────
+    @Data @Builder
+    public static class ImportValidation {
+        private int               totalLignesLues;
+        private int               livresAjoutes;      // lignes qui seraient insérées
+        private int               livresIgnores;      // doublons (catalogue ou fichier)
+        private int               categoriesExistantes;
+        private List<String>      nouvellesCategories;
+        private long              dureeMs;
         private List<LigneErreur> erreurs;
     }
 
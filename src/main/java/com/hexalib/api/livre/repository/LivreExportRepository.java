@@ -0,0 +1,78 @@
+package com.hexalib.api.livre.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.ScrollMode;
+import org.hibernate.ScrollableResults;
+import org.hibernate.jpa.HibernateHints;
+import org.hibernate.query.SelectionQuery;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.util.function.Consumer;
+
+/**
+ * Lectures en flux pour les exports : projections scalaires parcourues par
+ * curseur, sans entité chargée dans le contexte de persistance.
+ */
+@Repository
+public class LivreExportRepository {
+
+    /**
+     * Avec MySQL Connector/J, seule cette taille de fetch fait streamer le
+     * résultat ligne à ligne au lieu de le charger entièrement côté client.
+     */
+    private static final int FETCH_STREAMING = Integer.MIN_VALUE;
+
+    @PersistenceContext
+    private EntityManager em;
+
+    /** Une ligne de l'inventaire, catégorie comprise. */
+    public record LigneInventaire(
+            String     code,
+            String     titre,
+            String     auteur,
+            String     maisonEdition,
+            String     categorie,
+            String     langue,
+            BigDecimal prixVente,
+            BigDecimal prixAchat,
+            int        quantiteStock,
+            int        seuilMinimal,
+            String     emplacement,
+            String     statut
+    ) {}
+
+    /**
+     * Parcourt l'inventaire trié par code et transmet chaque ligne au
+     * consumer. Doit être appelé dans une transaction (connexion ouverte
+     * pendant tout le parcours).
+     *
+     * @return nombre de lignes transmises
+     */
+    public int parcourirInventaire(Consumer<LigneInventaire> consumer) {
+        SelectionQuery<Object[]> query = em.createQuery("""
+                SELECT l.code, l.titre, l.auteur, l.maisonEdition, c.nom, l.langue,
+                       l.prixVente, l.prixAchat, l.quantiteStock, l.seuilMinimal,
+                       l.emplacement, l.statut
+                FROM Livre l LEFT JOIN l.categorie c
+                ORDER BY l.code
+                """, Object[].class)
+                .setHint(HibernateHints.HINT_FETCH_SIZE, FETCH_STREAMING)
+                .setHint(HibernateHints.HINT_READ_ONLY, true)
+                .unwrap(SelectionQuery.class);
+
+        int n = 0;
+        try (ScrollableResults<Object[]> curseur = query.scroll(ScrollMode.FORWARD_ONLY)) {
+            while (curseur.next()) {
+                Object[] r = curseur.get();
+                consumer.accept(new LigneInventaire(
+                        (String) r[0], (String) r[1], (String) r[2], (String) r[3], (String) r[4],
+                        (String) r[5], (BigDecimal) r[6], (BigDecimal) r[7],
+                        (Integer) r[8], (Integer) r[9], (String) r[10], String.valueOf(r[11])));
+                n++;
+            }
+        }
+        return n;
+    }
+}
@@ -0,0 +1,132 @@
+package com.hexalib.api.livre.repository;
+
+import com.hexalib.api.livre.model.Livre;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.Session;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Savepoint;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Écritures de l'import de catalogue : lectures groupées par lot et INSERT
+ * JDBC en batch dans la transaction courante.
+ */
+@Repository
+public class LivreImportRepository {
+
+    private static final String INSERT_LIVRE =
+            "INSERT INTO livres (id, code, titre, description, auteur, maison_edition, langue, " +
+            "quantite_stock, seuil_minimal, prix_vente, prix_achat, categorie_id, statut, " +
+            "created_at, updated_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    @PersistenceContext
+    private EntityManager em;
+
+    /** (id, nom) de toutes les catégories, pour la validation à blanc. */
+    public List<Object[]> findCategories() {
+        return em.createQuery("SELECT c.id, c.nom FROM Categorie c", Object[].class)
+                .getResultList();
+    }
+
+    /** (titre, auteur) des livres d'une catégorie, pour l'index de doublons de l'import. */
+    public List<Object[]> findTitresAuteursByCategorie(String categorieId) {
+        return em.createQuery(
+                "SELECT l.titre, l.auteur FROM Livre l WHERE l.categorie.id = :categorieId", Object[].class)
+                .setParameter("categorieId", categorieId)
+                .getResultList();
+    }
+
+    /**
+     * Plus grand numéro séquentiel des codes livre "CODECAT-NNN" d'une
+     * catégorie (0 si aucun). Les codes suivants sont garantis libres.
+     */
+    public int findDernierNumero(String codeCategorie) {
+        Object max = em.createNativeQuery("""
+                SELECT MAX(CAST(SUBSTRING(code, :debut) AS UNSIGNED))
+                FROM livres
+                WHERE code LIKE :motif
+                """)
+                .setParameter("debut", codeCategorie.length() + 2)
+                .setParameter("motif", codeCategorie + "-%")
+                .getSingleResult();
+        return max != null ? ((Number) max).intValue() : 0;
+    }
+
+    /**
+     * Insère le lot en un seul batch JDBC. Si le batch échoue, il est annulé
+     * jusqu'au savepoint puis rejoué ligne par ligne, chacune sous son propre
+     * savepoint : seules les lignes fautives sont écartées.
+     *
+     * @return index dans {@code livres} → raison, pour chaque ligne rejetée
+     */
+    public Map<Integer, String> inserer(List<Livre> livres) {
+        Map<Integer, String> rejets = new HashMap<>();
+        if (livres.isEmpty()) return rejets;
+
+        // Catégories éventuellement créées dans la transaction : visibles avant le JDBC direct
+        em.flush();
+
+        em.unwrap(Session.class).doWork(connection -> {
+            try (PreparedStatement ps = connection.prepareStatement(INSERT_LIVRE)) {
+                Savepoint lot = connection.setSavepoint();
+                try {
+                    for (Livre livre : livres) {
+                        lier(ps, livre);
+                        ps.addBatch();
+                    }
+                    ps.executeBatch();
+                    connection.releaseSavepoint(lot);
+                    return;
+                } catch (SQLException e) {
+                    connection.rollback(lot);
+                    ps.clearBatch();
+                }
+
+                for (int i = 0; i < livres.size(); i++) {
+                    Savepoint ligne = connection.setSavepoint();
+                    try {
+                        lier(ps, livres.get(i));
+                        ps.executeUpdate();
+                        connection.releaseSavepoint(ligne);
+                    } catch (SQLException e) {
+                        connection.rollback(ligne);
+                        rejets.put(i, e.getMessage());
+                    }
+                }
+            }
+        });
+        return rejets;
+    }
+
+    private static void lier(PreparedStatement ps, Livre livre) throws SQLException {
+        ps.setString(1, livre.getId());
+        ps.setString(2, livre.getCode());
+        ps.setString(3, livre.getTitre());
+        ps.setString(4, livre.getDescription());
+        ps.setString(5, livre.getAuteur());
+        ps.setString(6, livre.getMaisonEdition());
+        ps.setString(7, livre.getLangue());
+        ps.setInt(8, livre.getQuantiteStock());
+        ps.setInt(9, livre.getSeuilMinimal());
+        ps.setBigDecimal(10, livre.getPrixVente());
+        setDecimal(ps, 11, livre.getPrixAchat());
+        ps.setString(12, livre.getCategorie().getId());
+        ps.setString(13, livre.getStatut().name());
+        ps.setTimestamp(14, Timestamp.valueOf(livre.getCreatedAt()));
+        ps.setTimestamp(15, Timestamp.valueOf(livre.getUpdatedAt()));
+    }
+
+    private static void setDecimal(PreparedStatement ps, int index, BigDecimal valeur) throws SQLException {
+        if (valeur != null) ps.setBigDecimal(index, valeur);
+        else                ps.setNull(index, Types.DECIMAL);
+    }
+}
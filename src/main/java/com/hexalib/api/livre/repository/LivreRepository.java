@@ -1,14 +1,17 @@
 package com.hexalib.api.livre.repository;
 
 import com.hexalib.api.livre.model.Livre;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.math.BigDecimal;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -113,6 +116,25 @@ boolean existsByTitreAndAuteurAndCategorieId(
 // Compter les livres d'une catégorie par son code (pour le code séquentiel)
 @Query("SELECT COUNT(l) FROM Livre l WHERE l.categorie.code = :codeCategorie")
 int countByCategorieCode(@Param("codeCategorie") String codeCategorie);
- 
+
+// Résolution code → id en une requête (colonnes : id, code)
+@Query("SELECT l.id, l.code FROM Livre l WHERE l.code IN :codes")
+List<Object[]> findIdsByCodeIn(@Param("codes") Collection<String> codes);
+
+// Lecture du seul stock, sans charger l'entité
+@Query("SELECT l.quantiteStock FROM Livre l WHERE l.id = :id")
+Optional<Integer> findQuantiteStockById(@Param("id") String id);
+
+// Livres verrouillés (SELECT … FOR UPDATE) jusqu'à la fin de la transaction : ventes,
+// annulations et réservations d'un même livre passent l'une après l'autre.
+// Triés par id pour que deux paniers qui se recoupent verrouillent dans le même ordre.
+@Lock(LockModeType.PESSIMISTIC_WRITE)
+@Query("SELECT l FROM Livre l WHERE l.id IN :ids ORDER BY l.id")
+List<Livre> findAllByIdPourMiseAJour(@Param("ids") Collection<String> ids);
+
+@Lock(LockModeType.PESSIMISTIC_WRITE)
+@Query("SELECT l FROM Livre l WHERE l.id = :id")
+Optional<Livre> findByIdPourMiseAJour(@Param("id") String id);
+
 
 }
\ No newline at end of file
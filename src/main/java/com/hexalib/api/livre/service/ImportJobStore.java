@@ -1,13 +1,63 @@
 package com.hexalib.api.livre.service;
 
+import com.hexalib.api.livre.dto.ImportJobDTO;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.Setter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
 
+/**
+ * Jobs d'import persistés sur disque.
+ *
+ * Chaque job a son répertoire : fichier source (jusqu'à la fin de l'analyse),
+ * un fichier binaire par lot de lignes (chaque lot appartient à une seule
+ * catégorie), la table lot → partition, les erreurs et un état relu au
+ * démarrage. Les lots restent en mémoire tant que le budget global le
+ * permet, sont relus du disque sinon, et supprimés une fois commités.
+ * Les jobs arrêtés sont évincés après un TTL d'inactivité.
+ */
 @Component
+@RequiredArgsConstructor
+@Slf4j
 public class ImportJobStore {
 
     public record LigneParsee(
@@ -22,24 +72,179 @@ public class ImportJobStore {
             String           description
     ) {}
 
-    public record JobData(
-            String              jobId,
-            List<LigneParsee>   lignes,
-            int                 batchSize,
-            Map<String, String> cacheCategories
-    ) {}
+    public enum Statut { EN_ATTENTE, EN_COURS, TERMINE, ANNULE, ECHEC }
+
+    public enum Phase { ANALYSE, CATEGORIES, INSERTION }
+
+    private static final String FICHIER_ETAT       = "etat.properties";
+    private static final String FICHIER_ERREURS    = "erreurs.bin";
+    private static final String FICHIER_PARTITIONS = "partitions.bin";
+    private static final String PREFIXE_LOT        = "lot-";
+    private static final String PREFIXE_SOURCE     = "source";
+    private static final String SEPARATEUR         = "\u001F";
+
+    /**
+     * État d'un import. Écrit par le pipeline et ses workers de partition,
+     * lu par les requêtes de suivi : compteurs atomiques, champs volatils.
+     * Le bilan d'un lot est enregistré sous le verrou du job, le même que
+     * celui de la sauvegarde : l'état persisté est toujours cohérent.
+     */
+    @Getter
+    public static class JobData {
+        private final String              jobId;
+        private final int                 batchSize;
+        private final Path                repertoire;
+        private final Map<String, String> cacheCategories = new ConcurrentHashMap<>();
+        private final IndexDoublons       indexDoublons   = new IndexDoublons();
+        private final LocalDateTime       createdAt;
+
+        // Noms de catégorie distincts du fichier, relevés à l'analyse
+        private final Set<String> categoriesFichier = Collections.synchronizedSet(new LinkedHashSet<>());
+        // Partitions (catégories en minuscules, ordre d'apparition) et partition de chaque lot
+        private final List<String>  partitions      = Collections.synchronizedList(new ArrayList<>());
+        private final List<Integer> partitionDuLot  = Collections.synchronizedList(new ArrayList<>());
+        // Lots commités — plus un préfixe : les partitions avancent en parallèle
+        private final BitSet        lotsCommites    = new BitSet();
+        // Lots gardés en mémoire (sous le budget global) ; les autres sont relus du disque
+        private final Map<Integer, List<LigneParsee>> lotsEnMemoire = new ConcurrentHashMap<>();
+
+        @Setter private volatile Path              fichier;      // source, supprimé après analyse
+        @Setter private volatile boolean           analyseTerminee;
+        @Setter private volatile boolean           categoriesResolues;
+        @Setter private volatile int               totalLignes;
+        @Setter private volatile Statut            statut = Statut.EN_ATTENTE;
+        @Setter private volatile Phase             phase  = Phase.ANALYSE;
+        @Setter private volatile boolean           annulationDemandee;
+        @Setter private volatile String            messageErreur;
+        @Setter private volatile LocalDateTime     termineAt;
+        private volatile LocalDateTime             derniereActivite = LocalDateTime.now();
+
+        private final AtomicInteger lignesTraitees       = new AtomicInteger();
+        private final AtomicInteger livresAjoutes        = new AtomicInteger();
+        private final AtomicInteger doublons             = new AtomicInteger();
+        private final AtomicInteger categoriesCrees      = new AtomicInteger();
+        private final AtomicInteger categoriesExistantes = new AtomicInteger();
+        private final AtomicLong    dureeInsertionMs     = new AtomicLong();
+        private final List<ImportJobDTO.LigneErreur> erreurs =
+                Collections.synchronizedList(new ArrayList<>());
+        private int erreursPersistees;   // erreurs déjà écrites sur disque
+
+        JobData(String jobId, int batchSize, Path repertoire, LocalDateTime createdAt) {
+            this.jobId      = jobId;
+            this.batchSize  = batchSize;
+            this.repertoire = repertoire;
+            this.createdAt  = createdAt;
+        }
+
+        public int totalLignes() {
+            return totalLignes;
+        }
+
+        public int totalBatches() {
+            return partitionDuLot.size();
+        }
+
+        public int batchesTraites() {
+            synchronized (lotsCommites) {
+                return lotsCommites.cardinality();
+            }
+        }
+
+        public boolean estCommite(int numero) {
+            synchronized (lotsCommites) {
+                return lotsCommites.get(numero);
+            }
+        }
+
+        /** Bilan d'un lot, enregistré après son commit. */
+        public synchronized void enregistrerLot(int numero, int lignes, int ajoutes, int doublonsLot,
+                                                List<ImportJobDTO.LigneErreur> erreursLot) {
+            livresAjoutes.addAndGet(ajoutes);
+            doublons.addAndGet(doublonsLot);
+            erreurs.addAll(erreursLot);
+            lignesTraitees.addAndGet(lignes);
+            synchronized (lotsCommites) {
+                lotsCommites.set(numero);
+            }
+        }
+
+        /** Débit de la phase INSERTION (temps écoulé, toutes partitions confondues). */
+        public long lignesParSeconde() {
+            long ms = dureeInsertionMs.get();
+            return ms > 0 ? lignesTraitees.get() * 1000L / ms : 0;
+        }
+
+        public boolean estActif() {
+            return statut == Statut.EN_ATTENTE || statut == Statut.EN_COURS;
+        }
+    }
+
+    private final MeterRegistry meterRegistry;
+
+    @Value("${livre.import.repertoire:${java.io.tmpdir}/hexalib-imports}")
+    private String repertoire;
+
+    @Value("${livre.import.memoire-max-mo:64}")
+    private long memoireMaxMo;
+
+    @Value("${livre.import.ttl-heures:24}")
+    private long ttlHeures;
 
     private final Map<String, JobData> jobs = new ConcurrentHashMap<>();
+    private final AtomicLong lignesEnMemoire = new AtomicLong();
+    private final AtomicLong octetsEnMemoire = new AtomicLong();
+    private final AtomicLong octetsSurDisque = new AtomicLong();
+    private final List<JobData> interrompus  = new ArrayList<>();
+
+    private Path racine;
 
-    public String creerJob(List<LigneParsee> lignes, int batchSize) {
+    @PostConstruct
+    void initialiser() throws IOException {
+        racine = Paths.get(repertoire);
+        Files.createDirectories(racine);
+        charger();
+
+        Gauge.builder("hexalib.import.jobs", jobs, Map::size)
+                .description("Jobs d'import conservés (actifs ou reprenables)")
+                .register(meterRegistry);
+        Gauge.builder("hexalib.import.jobs.actifs", jobs,
+                        j -> j.values().stream().filter(JobData::estActif).count())
+                .description("Jobs d'import en attente ou en cours")
+                .register(meterRegistry);
+        Gauge.builder("hexalib.import.lignes.memoire", lignesEnMemoire, AtomicLong::get)
+                .description("Lignes parsées gardées en mémoire")
+                .register(meterRegistry);
+        Gauge.builder("hexalib.import.octets.memoire", octetsEnMemoire, AtomicLong::get)
+                .description("Empreinte estimée des lignes en mémoire")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        Gauge.builder("hexalib.import.octets.disque", octetsSurDisque, AtomicLong::get)
+                .description("Taille des fichiers de jobs sur disque")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+    }
+
+    // ══════════════════════════════════════════════════════════════════
+    // CYCLE DE VIE
+    // ══════════════════════════════════════════════════════════════════
+
+    /** Crée le job et y copie le fichier uploadé (l'extension est conservée). */
+    public JobData creerJob(InputStream contenu, String nomFichier, int batchSize) throws IOException {
         String jobId = UUID.randomUUID().toString();
-        jobs.put(jobId, new JobData(
-                jobId,
-                lignes,
-                batchSize,
-                new ConcurrentHashMap<>()
-        ));
-        return jobId;
+        Path dir = racine.resolve(jobId);
+        Files.createDirectories(dir);
+
+        String extension = nomFichier != null && nomFichier.lastIndexOf('.') >= 0
+                ? nomFichier.substring(nomFichier.lastIndexOf('.')).toLowerCase()
+                : "";
+        Path source = dir.resolve(PREFIXE_SOURCE + extension);
+        octetsSurDisque.addAndGet(Files.copy(contenu, source, StandardCopyOption.REPLACE_EXISTING));
+
+        JobData job = new JobData(jobId, batchSize, dir, LocalDateTime.now());
+        job.setFichier(source);
+        jobs.put(jobId, job);
+        sauvegarder(job);
+        return job;
     }
 
     public JobData getJob(String jobId) {
@@ -47,6 +252,327 @@ public class ImportJobStore {
     }
 
     public void supprimerJob(String jobId) {
-        jobs.remove(jobId);
+        JobData job = jobs.remove(jobId);
+        if (job == null) return;
+        libererMemoire(job);
+        supprimerRepertoire(job.getRepertoire());
+    }
+
+    /** Jobs actifs au moment de l'arrêt précédent, à relancer (rendus une seule fois). */
+    public synchronized List<JobData> recupererInterrompus() {
+        List<JobData> liste = new ArrayList<>(interrompus);
+        interrompus.clear();
+        return liste;
+    }
+
+    // ══════════════════════════════════════════════════════════════════
+    // LOTS DE LIGNES
+    // ══════════════════════════════════════════════════════════════════
+
+    /** Repart d'une analyse vierge (utile si la précédente a été interrompue). */
+    public void commencerAnalyse(JobData job) throws IOException {
+        libererMemoire(job);
+        try (Stream<Path> fichiers = Files.list(job.getRepertoire())) {
+            for (Path p : fichiers.filter(f -> f.getFileName().toString().startsWith(PREFIXE_LOT)).toList()) {
+                octetsSurDisque.addAndGet(-Files.size(p));
+                Files.delete(p);
+            }
+        }
+        job.getCategoriesFichier().clear();
+        job.getPartitions().clear();
+        job.getPartitionDuLot().clear();
+        job.setTotalLignes(0);
+    }
+
+    /**
+     * Écrit le lot suivant d'une partition ; il reste aussi en mémoire si le
+     * budget global le permet.
+     * @return numéro du lot
+     */
+    public int ajouterLot(JobData job, int partition, List<LigneParsee> lot) {
+        List<LigneParsee> copie = List.copyOf(lot);
+        int numero = job.getPartitionDuLot().size();
+        job.getPartitionDuLot().add(partition);
+        Path fichier = fichierLot(job, numero);
+        try {
+            try (DataOutputStream out = new DataOutputStream(
+                    new BufferedOutputStream(Files.newOutputStream(fichier)))) {
+                ImportLotCodec.ecrireLot(out, copie);
+            }
+            octetsSurDisque.addAndGet(Files.size(fichier));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Écriture du lot " + numero + " impossible", e);
+        }
+
+        long taille = octets(copie);
+        if (octetsEnMemoire.addAndGet(taille) <= memoireMaxMo * 1024 * 1024) {
+            job.getLotsEnMemoire().put(numero, copie);
+            lignesEnMemoire.addAndGet(copie.size());
+        } else {
+            octetsEnMemoire.addAndGet(-taille);
+        }
+        return numero;
+    }
+
+    /** Fin d'analyse : la source n'est plus utile, les lots font foi. */
+    public void terminerAnalyse(JobData job, int totalLignes) throws IOException {
+        job.setTotalLignes(totalLignes);
+
+        Path partitions = job.getRepertoire().resolve(FICHIER_PARTITIONS);
+        try (DataOutputStream out = new DataOutputStream(
+                new BufferedOutputStream(Files.newOutputStream(partitions)))) {
+            synchronized (job.getPartitions()) {
+                out.writeInt(job.getPartitions().size());
+                for (String nom : job.getPartitions()) out.writeUTF(nom);
+            }
+            synchronized (job.getPartitionDuLot()) {
+                out.writeInt(job.getPartitionDuLot().size());
+                for (int partition : job.getPartitionDuLot()) out.writeInt(partition);
+            }
+        }
+        octetsSurDisque.addAndGet(Files.size(partitions));
+
+        job.setAnalyseTerminee(true);
+        Path source = job.getFichier();
+        if (source != null && Files.exists(source)) {
+            octetsSurDisque.addAndGet(-Files.size(source));
+            Files.delete(source);
+        }
+        job.setFichier(null);
+        sauvegarder(job);
+    }
+
+    /**
+     * Relit un lot à insérer. Son fichier n'est supprimé qu'une fois le lot
+     * marqué commité dans l'état sauvegardé : s'il manque, le job est corrompu.
+     */
+    public List<LigneParsee> lireLot(JobData job, int numero) throws IOException {
+        List<LigneParsee> lot = job.getLotsEnMemoire().get(numero);
+        if (lot != null) return lot;
+        Path fichier = fichierLot(job, numero);
+        if (!Files.exists(fichier)) {
+            throw new IllegalStateException("Lot " + numero + " non commité et introuvable sur disque — relancez l'upload");
+        }
+        try (DataInputStream in = new DataInputStream(
+                new BufferedInputStream(Files.newInputStream(fichier)))) {
+            return ImportLotCodec.lireLot(in);
+        }
+    }
+
+    /** Lot commité : ni la mémoire ni le disque n'en ont plus besoin. */
+    public void libererLot(JobData job, int numero) {
+        List<LigneParsee> lot = job.getLotsEnMemoire().remove(numero);
+        if (lot != null) {
+            lignesEnMemoire.addAndGet(-lot.size());
+            octetsEnMemoire.addAndGet(-octets(lot));
+        }
+        try {
+            Path fichier = fichierLot(job, numero);
+            if (Files.exists(fichier)) {
+                octetsSurDisque.addAndGet(-Files.size(fichier));
+                Files.delete(fichier);
+            }
+        } catch (IOException e) {
+            log.warn("Lot {} du job {} non supprimé : {}", numero, job.getJobId(), e.getMessage());
+        }
+    }
+
+    // ══════════════════════════════════════════════════════════════════
+    // PERSISTANCE DE L'ÉTAT
+    // ══════════════════════════════════════════════════════════════════
+
+    /**
+     * Point de reprise : nouvelles erreurs ajoutées au fichier, puis état
+     * réécrit atomiquement. Un job arrêté libère ses lots en mémoire.
+     */
+    public void sauvegarder(JobData job) {
+        synchronized (job) {
+            ecrireEtat(job);
+        }
+        if (!job.estActif()) libererMemoire(job);
+    }
+
+    private void ecrireEtat(JobData job) {
+        job.derniereActivite = LocalDateTime.now();
+        try {
+            List<ImportJobDTO.LigneErreur> nouvelles;
+            synchronized (job.getErreurs()) {
+                nouvelles = new ArrayList<>(
+                        job.getErreurs().subList(job.erreursPersistees, job.getErreurs().size()));
+            }
+            if (!nouvelles.isEmpty()) {
+                Path fichier = job.getRepertoire().resolve(FICHIER_ERREURS);
+                try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+                        Files.newOutputStream(fichier, StandardOpenOption.CREATE, StandardOpenOption.APPEND)))) {
+                    for (ImportJobDTO.LigneErreur e : nouvelles) ImportLotCodec.ecrireErreur(out, e);
+                }
+                job.erreursPersistees += nouvelles.size();
+            }
+
+            Properties p = new Properties();
+            p.setProperty("batchSize", String.valueOf(job.getBatchSize()));
+            p.setProperty("createdAt", job.getCreatedAt().toString());
+            p.setProperty("derniereActivite", job.getDerniereActivite().toString());
+            p.setProperty("statut", job.getStatut().name());
+            p.setProperty("phase", job.getPhase().name());
+            p.setProperty("analyseTerminee", String.valueOf(job.isAnalyseTerminee()));
+            p.setProperty("totalLignes", String.valueOf(job.getTotalLignes()));
+            p.setProperty("categoriesResolues", String.valueOf(job.isCategoriesResolues()));
+            p.setProperty("lignesTraitees", String.valueOf(job.getLignesTraitees().get()));
+            synchronized (job.getLotsCommites()) {
+                p.setProperty("lotsCommites",
+                        Base64.getEncoder().encodeToString(job.getLotsCommites().toByteArray()));
+            }
+            p.setProperty("livresAjoutes", String.valueOf(job.getLivresAjoutes().get()));
+            p.setProperty("doublons", String.valueOf(job.getDoublons().get()));
+            p.setProperty("categoriesCrees", String.valueOf(job.getCategoriesCrees().get()));
+            p.setProperty("categoriesExistantes", String.valueOf(job.getCategoriesExistantes().get()));
+            p.setProperty("dureeInsertionMs", String.valueOf(job.getDureeInsertionMs().get()));
+            p.setProperty("nombreErreurs", String.valueOf(job.erreursPersistees));
+            synchronized (job.getCategoriesFichier()) {
+                p.setProperty("categoriesFichier", String.join(SEPARATEUR, job.getCategoriesFichier()));
+            }
+            if (job.getFichier() != null)       p.setProperty("fichier", job.getFichier().getFileName().toString());
+            if (job.getMessageErreur() != null) p.setProperty("messageErreur", job.getMessageErreur());
+            if (job.getTermineAt() != null)     p.setProperty("termineAt", job.getTermineAt().toString());
+
+            Path tmp = job.getRepertoire().resolve(FICHIER_ETAT + ".tmp");
+            try (Writer w = Files.newBufferedWriter(tmp, StandardCharsets.UTF_8)) {
+                p.store(w, "Job d'import " + job.getJobId());
+            }
+            Files.move(tmp, job.getRepertoire().resolve(FICHIER_ETAT),
+                    StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            log.warn("État du job {} non sauvegardé : {}", job.getJobId(), e.getMessage());
+        }
+    }
+
+    private void charger() throws IOException {
+        try (DirectoryStream<Path> dirs = Files.newDirectoryStream(racine, Files::isDirectory)) {
+            for (Path dir : dirs) {
+                try {
+                    JobData job = lire(dir);
+                    jobs.put(job.getJobId(), job);
+                    if (job.estActif()) interrompus.add(job);
+                } catch (Exception e) {
+                    log.warn("Job d'import illisible supprimé ({}) : {}", dir.getFileName(), e.getMessage());
+                    supprimerRepertoire(dir);
+                }
+            }
+        }
+        if (!jobs.isEmpty()) {
+            log.info("{} job(s) d'import rechargé(s), {} à reprendre — {} octets sur disque",
+                    jobs.size(), interrompus.size(), octetsSurDisque.get());
+        }
+    }
+
+    private JobData lire(Path dir) throws IOException {
+        Properties p = new Properties();
+        try (Reader r = Files.newBufferedReader(dir.resolve(FICHIER_ETAT), StandardCharsets.UTF_8)) {
+            p.load(r);
+        }
+        JobData job = new JobData(dir.getFileName().toString(),
+                Integer.parseInt(p.getProperty("batchSize")), dir,
+                LocalDateTime.parse(p.getProperty("createdAt")));
+        job.derniereActivite = LocalDateTime.parse(p.getProperty("derniereActivite"));
+        job.setStatut(Statut.valueOf(p.getProperty("statut")));
+        job.setPhase(Phase.valueOf(p.getProperty("phase")));
+        job.setAnalyseTerminee(Boolean.parseBoolean(p.getProperty("analyseTerminee")));
+        job.setTotalLignes(Integer.parseInt(p.getProperty("totalLignes")));
+        job.setCategoriesResolues(Boolean.parseBoolean(p.getProperty("categoriesResolues")));
+        job.getLignesTraitees().set(Integer.parseInt(p.getProperty("lignesTraitees")));
+        job.getLotsCommites().or(BitSet.valueOf(Base64.getDecoder().decode(p.getProperty("lotsCommites"))));
+        job.getLivresAjoutes().set(Integer.parseInt(p.getProperty("livresAjoutes")));
+        job.getDoublons().set(Integer.parseInt(p.getProperty("doublons")));
+        job.getCategoriesCrees().set(Integer.parseInt(p.getProperty("categoriesCrees")));
+        job.getCategoriesExistantes().set(Integer.parseInt(p.getProperty("categoriesExistantes")));
+        job.getDureeInsertionMs().set(Long.parseLong(p.getProperty("dureeInsertionMs")));
+        job.setMessageErreur(p.getProperty("messageErreur"));
+        if (p.getProperty("termineAt") != null) job.setTermineAt(LocalDateTime.parse(p.getProperty("termineAt")));
+        if (p.getProperty("fichier") != null)   job.setFichier(dir.resolve(p.getProperty("fichier")));
+        String categories = p.getProperty("categoriesFichier", "");
+        if (!categories.isEmpty()) job.getCategoriesFichier().addAll(List.of(categories.split(SEPARATEUR)));
+
+        // Seules les erreurs couvertes par le dernier état font foi
+        int nombreErreurs = Integer.parseInt(p.getProperty("nombreErreurs"));
+        if (nombreErreurs > 0) {
+            try (DataInputStream in = new DataInputStream(new BufferedInputStream(
+                    Files.newInputStream(dir.resolve(FICHIER_ERREURS))))) {
+                for (int i = 0; i < nombreErreurs; i++) job.getErreurs().add(ImportLotCodec.lireErreur(in));
+            }
+        }
+        job.erreursPersistees = nombreErreurs;
+
+        if (job.isAnalyseTerminee()) {
+            try (DataInputStream in = new DataInputStream(new BufferedInputStream(
+                    Files.newInputStream(dir.resolve(FICHIER_PARTITIONS))))) {
+                int n = in.readInt();
+                for (int i = 0; i < n; i++) job.getPartitions().add(in.readUTF());
+                int lots = in.readInt();
+                for (int i = 0; i < lots; i++) job.getPartitionDuLot().add(in.readInt());
+            }
+        }
+
+        // Lots commités dont le fichier a survécu à un arrêt : jamais relus
+        for (int n = job.getLotsCommites().nextSetBit(0); n >= 0; n = job.getLotsCommites().nextSetBit(n + 1)) {
+            Files.deleteIfExists(fichierLot(job, n));
+        }
+
+        try (Stream<Path> fichiers = Files.list(dir)) {
+            for (Path f : fichiers.toList()) octetsSurDisque.addAndGet(Files.size(f));
+        }
+        return job;
+    }
+
+    // ══════════════════════════════════════════════════════════════════
+    // ÉVICTION
+    // ══════════════════════════════════════════════════════════════════
+
+    // Les jobs arrêtés restent consultables (et reprenables) pendant le TTL
+    @Scheduled(fixedDelay = 600_000)
+    public void purgerJobsTermines() {
+        LocalDateTime limite = LocalDateTime.now().minusHours(ttlHeures);
+        for (JobData job : List.copyOf(jobs.values())) {
+            if (!job.estActif() && job.getDerniereActivite().isBefore(limite)) {
+                log.info("Job d'import {} ({}) évincé après {} h d'inactivité",
+                        job.getJobId(), job.getStatut(), ttlHeures);
+                supprimerJob(job.getJobId());
+            }
+        }
+    }
+
+    // ══════════════════════════════════════════════════════════════════
+    // HELPERS
+    // ══════════════════════════════════════════════════════════════════
+
+    private void libererMemoire(JobData job) {
+        for (Integer numero : List.copyOf(job.getLotsEnMemoire().keySet())) {
+            List<LigneParsee> lot = job.getLotsEnMemoire().remove(numero);
+            if (lot != null) {
+                lignesEnMemoire.addAndGet(-lot.size());
+                octetsEnMemoire.addAndGet(-octets(lot));
+            }
+        }
+    }
+
+    private void supprimerRepertoire(Path dir) {
+        try (Stream<Path> fichiers = Files.walk(dir)) {
+            for (Path p : fichiers.sorted(Comparator.reverseOrder()).toList()) {
+                if (Files.isRegularFile(p)) octetsSurDisque.addAndGet(-Files.size(p));
+                Files.delete(p);
+            }
+        } catch (IOException e) {
+            log.warn("Répertoire d'import {} non supprimé : {}", dir, e.getMessage());
+        }
+    }
+
+    private static Path fichierLot(JobData job, int numero) {
+        return job.getRepertoire().resolve(String.format("%s%05d.bin", PREFIXE_LOT, numero));
+    }
+
+    private static long octets(List<LigneParsee> lot) {
+        long total = 0;
+        for (LigneParsee l : lot) total += ImportLotCodec.octetsEstimes(l);
+        return total;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,103 @@
+package com.hexalib.api.livre.service;
+
+import com.hexalib.api.livre.dto.ImportJobDTO;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Format binaire des fichiers d'un job d'import (lots de lignes, erreurs).
+ *
+ * Lot : [int n] puis n × [int numéro][chaînes…][prix…][boolean inactif].
+ * Chaîne : [int longueur, -1 si null][octets UTF-8].
+ * Prix : chaîne de {@link BigDecimal#toPlainString()}.
+ */
+final class ImportLotCodec {
+
+    private ImportLotCodec() {}
+
+    static void ecrireLot(DataOutputStream out, List<ImportJobStore.LigneParsee> lot) throws IOException {
+        out.writeInt(lot.size());
+        for (ImportJobStore.LigneParsee l : lot) {
+            out.writeInt(l.numeroLigne());
+            ecrireTexte(out, l.categorie());
+            ecrireTexte(out, l.titre());
+            ecrireTexte(out, l.auteur());
+            ecrireTexte(out, l.maisonEdition());
+            ecrireTexte(out, l.prixVente() != null ? l.prixVente().toPlainString() : null);
+            ecrireTexte(out, l.prixAchat() != null ? l.prixAchat().toPlainString() : null);
+            out.writeBoolean(l.inactif());
+            ecrireTexte(out, l.description());
+        }
+    }
+
+    static List<ImportJobStore.LigneParsee> lireLot(DataInputStream in) throws IOException {
+        int n = in.readInt();
+        List<ImportJobStore.LigneParsee> lot = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            int numero          = in.readInt();
+            String categorie    = lireTexte(in);
+            String titre        = lireTexte(in);
+            String auteur       = lireTexte(in);
+            String editeur      = lireTexte(in);
+            String prixVente    = lireTexte(in);
+            String prixAchat    = lireTexte(in);
+            boolean inactif     = in.readBoolean();
+            String description  = lireTexte(in);
+            lot.add(new ImportJobStore.LigneParsee(numero, categorie, titre, auteur, editeur,
+                    prixVente != null ? new BigDecimal(prixVente) : null,
+                    prixAchat != null ? new BigDecimal(prixAchat) : null,
+                    inactif, description));
+        }
+        return lot;
+    }
+
+    static void ecrireErreur(DataOutputStream out, ImportJobDTO.LigneErreur erreur) throws IOException {
+        out.writeInt(erreur.getNumeroLigne());
+        ecrireTexte(out, erreur.getTitre());
+        ecrireTexte(out, erreur.getRaison());
+    }
+
+    static ImportJobDTO.LigneErreur lireErreur(DataInputStream in) throws IOException {
+        return ImportJobDTO.LigneErreur.builder()
+                .numeroLigne(in.readInt())
+                .titre(lireTexte(in))
+                .raison(lireTexte(in))
+                .build();
+    }
+
+    /** Empreinte mémoire approximative d'une ligne parsée (objets + chaînes latines). */
+    static long octetsEstimes(ImportJobStore.LigneParsee l) {
+        return 48
+                + octets(l.categorie()) + octets(l.titre()) + octets(l.auteur())
+                + octets(l.maisonEdition()) + octets(l.description())
+                + (l.prixVente() != null ? 40 : 0) + (l.prixAchat() != null ? 40 : 0);
+    }
+
+    private static long octets(String s) {
+        return s != null ? 40 + s.length() : 0;
+    }
+
+    private static void ecrireTexte(DataOutputStream out, String s) throws IOException {
+        if (s == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] b = s.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(b.length);
+        out.write(b);
+    }
+
+    private static String lireTexte(DataInputStream in) throws IOException {
+        int len = in.readInt();
+        if (len < 0) return null;
+        byte[] b = new byte[len];
+        in.readFully(b);
+        return new String(b, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,120 @@
+package com.hexalib.api.livre.service;
+
+import com.hexalib.api.livre.dto.ImportJobDTO;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Suivi des imports : instantané de progression (polling) et diffusion
+ * des mêmes instantanés aux abonnés SSE d'un job.
+ */
+@Service
+@Slf4j
+public class ImportSuiviService {
+
+    private static final long SSE_TIMEOUT_MS = 30 * 60 * 1000L;
+
+    private final Map<String, List<SseEmitter>> abonnes = new ConcurrentHashMap<>();
+
+    public ImportJobDTO.ImportProgression progression(ImportJobStore.JobData job) {
+        int total = job.totalLignes();
+        int batches, traites;
+        synchronized (job) {   // lots enregistrés en parallèle : compteurs lus ensemble
+            batches = job.batchesTraites();
+            traites = Math.min(job.getLignesTraitees().get(), total);
+        }
+        boolean termine = job.getStatut() == ImportJobStore.Statut.TERMINE;
+
+        return ImportJobDTO.ImportProgression.builder()
+                .jobId(job.getJobId())
+                .statut(job.getStatut().name())
+                .phase(job.getPhase().name())
+                .totalLignes(total)
+                .traites(traites)
+                .batchesTraites(batches)
+                .totalBatches(job.totalBatches())
+                .pourcentage(total > 0 ? (int) Math.round((double) traites / total * 100) : (termine ? 100 : 0))
+                .livresAjoutes(job.getLivresAjoutes().get())
+                .doublons(job.getDoublons().get())
+                .nombreErreurs(job.getErreurs().size())
+                .lignesParSeconde(job.lignesParSeconde())
+                .messageErreur(job.getMessageErreur())
+                .rapport(termine ? rapportFinal(job) : null)
+                .build();
+    }
+
+    public ImportJobDTO.ImportRapportFinal rapportFinal(ImportJobStore.JobData job) {
+        List<ImportJobDTO.LigneErreur> erreurs;
+        synchronized (job.getErreurs()) {
+            erreurs = new ArrayList<>(job.getErreurs());
+        }
+        return ImportJobDTO.ImportRapportFinal.builder()
+                .totalLignesLues(job.totalLignes())
+                .categoriesCrees(job.getCategoriesCrees().get())
+                .categoriesExistantes(job.getCategoriesExistantes().get())
+                .livresAjoutes(job.getLivresAjoutes().get())
+                .livresIgnores(job.getDoublons().get())
+                .dureeInsertionMs(job.getDureeInsertionMs().get())
+                .lignesParSeconde(job.lignesParSeconde())
+                .clesIndexDoublons(job.getIndexDoublons().taille())
+                .memoireIndexDoublonsKo(job.getIndexDoublons().octetsEstimes() / 1024)
+                .erreurs(erreurs)
+                .build();
+    }
+
+    // ══════════════════════════════════════════════════════════════════
+    // SSE
+    // ══════════════════════════════════════════════════════════════════
+
+    public SseEmitter abonner(ImportJobStore.JobData job) {
+        SseEmitter emitter = new SseEmitter(SSE_TIMEOUT_MS);
+        String jobId = job.getJobId();
+        abonnes.computeIfAbsent(jobId, k -> new CopyOnWriteArrayList<>()).add(emitter);
+        emitter.onCompletion(() -> retirer(jobId, emitter));
+        emitter.onTimeout(() -> retirer(jobId, emitter));
+        emitter.onError(e -> retirer(jobId, emitter));
+
+        // État courant immédiatement, puis à chaque batch
+        envoyer(jobId, emitter, progression(job), !job.estActif());
+        return emitter;
+    }
+
+    /** Diffuse l'état du job ; ferme les flux quand le job n'est plus actif. */
+    public void publier(ImportJobStore.JobData job) {
+        List<SseEmitter> emitters = abonnes.get(job.getJobId());
+        if (emitters == null || emitters.isEmpty()) return;
+
+        ImportJobDTO.ImportProgression progression = progression(job);
+        boolean fin = !job.estActif();
+        for (SseEmitter emitter : emitters) {
+            envoyer(job.getJobId(), emitter, progression, fin);
+        }
+        if (fin) abonnes.remove(job.getJobId());
+    }
+
+    private void envoyer(String jobId, SseEmitter emitter,
+                         ImportJobDTO.ImportProgression progression, boolean fin) {
+        try {
+            emitter.send(SseEmitter.event().name("progression").data(progression));
+            if (fin) emitter.complete();
+        } catch (IOException | IllegalStateException e) {
+            log.debug("Abonné SSE du job {} déconnecté : {}", jobId, e.getMessage());
+            retirer(jobId, emitter);
+        }
+    }
+
+    private void retirer(String jobId, SseEmitter emitter) {
+        abonnes.computeIfPresent(jobId, (k, list) -> {
+            list.remove(emitter);
+            return list.isEmpty() ? null : list;
+        });
+    }
+}
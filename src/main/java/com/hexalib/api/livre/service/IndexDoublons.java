@@ -0,0 +1,96 @@
+package com.hexalib.api.livre.service;
+
+import java.text.Normalizer;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+import java.util.regex.Pattern;
+
+/**
+ * Clés (titre, auteur) normalisées des livres existants, par catégorie,
+ * pour la détection des doublons d'un import sans requête par ligne.
+ *
+ * Une catégorie est chargée au premier lot qui la rencontre ; les livres
+ * insérés y sont ajoutés après commit, ce qui couvre aussi les doublons
+ * internes au fichier.
+ */
+public class IndexDoublons {
+
+    /** Clé d'un livre dans sa catégorie. */
+    public record Cle(String categorieId, String valeur) {}
+
+    /** Accents et autres signes combinants, une fois le texte décomposé (NFD). */
+    private static final Pattern DIACRITIQUES = Pattern.compile("\\p{M}+");
+
+    private final Map<String, Set<String>> parCategorie = new ConcurrentHashMap<>();
+
+    /**
+     * Charge la catégorie si ce n'est pas déjà fait ; {@code lecteur} renvoie (titre, auteur).
+     * La requête s'exécute hors de la table : un computeIfAbsent la garderait
+     * verrouillée pendant l'aller-retour JDBC.
+     */
+    public void chargerSiAbsent(String categorieId, Supplier<List<Object[]>> lecteur) {
+        if (parCategorie.containsKey(categorieId)) {
+            return;
+        }
+        Set<String> cles = ConcurrentHashMap.newKeySet();
+        for (Object[] row : lecteur.get()) {
+            cles.add(normaliser((String) row[0], (String) row[1]));
+        }
+        Set<String> existantes = parCategorie.putIfAbsent(categorieId, cles);
+        if (existantes != null) {
+            existantes.addAll(cles);
+        }
+    }
+
+    public boolean contient(Cle cle) {
+        Set<String> cles = parCategorie.get(cle.categorieId());
+        return cles != null && cles.contains(cle.valeur());
+    }
+
+    public void ajouter(Collection<Cle> cles) {
+        for (Cle cle : cles) {
+            parCategorie.computeIfAbsent(cle.categorieId(), id -> ConcurrentHashMap.newKeySet())
+                    .add(cle.valeur());
+        }
+    }
+
+    public int taille() {
+        int total = 0;
+        for (Set<String> cles : parCategorie.values()) total += cles.size();
+        return total;
+    }
+
+    /**
+     * Estimation de l'empreinte mémoire : par clé, un nœud de table (~32 o),
+     * l'objet String (24 o) et son tableau d'octets (16 o + 1 o/caractère latin).
+     */
+    public long octetsEstimes() {
+        long total = 0;
+        for (Set<String> cles : parCategorie.values()) {
+            for (String cle : cles) total += 72 + cle.length();
+        }
+        return total;
+    }
+
+    public static Cle cle(String titre, String auteur, String categorieId) {
+        return new Cle(categorieId, normaliser(titre, auteur));
+    }
+
+    /**
+     * Insensible à la casse et aux accents, comme la collation des colonnes
+     * (utf8mb4_0900_ai_ci) : « Élan » et « elan » sont la même clé.
+     */
+    private static String normaliser(String titre, String auteur) {
+        return plier(titre) + '\u0000' + plier(auteur != null ? auteur : "");
+    }
+
+    private static String plier(String texte) {
+        String decompose = Normalizer.normalize(texte, Normalizer.Form.NFD);
+        return DIACRITIQUES.matcher(decompose).replaceAll("").toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,173 @@
+package com.hexalib.api.livre.service;
+
+import org.apache.poi.ss.usermodel.CellType;
+import org.springframework.stereotype.Component;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.function.Consumer;
+
+/**
+ * Lecture en flux d'un catalogue CSV (séparateur ; ou ,) ou TSV.
+ *
+ * Mêmes colonnes que l'Excel : A catégorie, B titre, C auteur/ISBN,
+ * D éditeur, E prix de vente, F prix net (achat), G remarque.
+ * La première ligne est l'en-tête. Les champs entre guillemets suivent
+ * RFC 4180 ("" pour un guillemet, retours à la ligne autorisés).
+ *
+ * Le fichier est parcouru caractère par caractère dans un tampon fixe ;
+ * seules les 7 premières colonnes sont copiées, dans des tampons réutilisés
+ * d'une ligne à l'autre. Chaque valeur devient une cellule texte et passe
+ * par les mêmes règles de prix que l'Excel
+ * ({@link LivreXlsxReader#construireLigne}).
+ */
+@Component
+public class LivreCsvReader {
+
+    private static final int NB_COLONNES = 7;
+    private static final int TAILLE_TAMPON = 64 * 1024;
+
+    /**
+     * Parcourt le fichier et transmet chaque ligne valide (titre non vide).
+     * @return nombre de lignes transmises
+     */
+    public int lire(File fichier, Consumer<ImportJobStore.LigneParsee> consumer) throws IOException {
+        char separateur = fichier.getName().toLowerCase().endsWith(".tsv") ? '\t' : detecterSeparateur(fichier);
+        try (Reader reader = new InputStreamReader(Files.newInputStream(fichier.toPath()), StandardCharsets.UTF_8)) {
+            return new Analyseur(reader, separateur, consumer).executer();
+        }
+    }
+
+    /** ";" (export Excel français) sauf si la première ligne compte plus de ",". */
+    private static char detecterSeparateur(File fichier) throws IOException {
+        int pointsVirgules = 0, virgules = 0;
+        try (Reader reader = new InputStreamReader(Files.newInputStream(fichier.toPath()), StandardCharsets.UTF_8)) {
+            int c;
+            while ((c = reader.read()) != -1 && c != '\n') {
+                if (c == ';') pointsVirgules++;
+                else if (c == ',') virgules++;
+            }
+        }
+        return virgules > pointsVirgules ? ',' : ';';
+    }
+
+    private static final class Analyseur {
+
+        private final Reader reader;
+        private final char separateur;
+        private final Consumer<ImportJobStore.LigneParsee> consumer;
+
+        private final char[] tampon = new char[TAILLE_TAMPON];
+        private int position;
+        private int fin;
+
+        private final StringBuilder[] champs = new StringBuilder[NB_COLONNES];
+        private final LivreXlsxReader.Cellule[] cellules = new LivreXlsxReader.Cellule[NB_COLONNES];
+
+        private int ligneCourante = 1;   // 1-indexé, comme dans un tableur
+        private int lignesTransmises;
+
+        Analyseur(Reader reader, char separateur, Consumer<ImportJobStore.LigneParsee> consumer) {
+            this.reader = reader;
+            this.separateur = separateur;
+            this.consumer = consumer;
+            for (int i = 0; i < NB_COLONNES; i++) champs[i] = new StringBuilder(64);
+        }
+
+        int executer() throws IOException {
+            int c = lire();
+            if (c == '\uFEFF') c = lire();   // BOM UTF-8
+
+            boolean entete = true;
+            while (c != -1) {
+                int debutEnregistrement = ligneCourante;
+                c = lireEnregistrement(c);
+                if (entete) {
+                    entete = false;
+                    continue;
+                }
+                for (int i = 0; i < NB_COLONNES; i++) {
+                    cellules[i] = champs[i].isEmpty()
+                            ? LivreXlsxReader.Cellule.VIDE
+                            : new LivreXlsxReader.Cellule(CellType.STRING, champs[i].toString());
+                }
+                ImportJobStore.LigneParsee ligne = LivreXlsxReader.construireLigne(debutEnregistrement, cellules);
+                if (ligne != null) {
+                    consumer.accept(ligne);
+                    lignesTransmises++;
+                }
+            }
+            return lignesTransmises;
+        }
+
+        /**
+         * Lit un enregistrement à partir du caractère {@code c} et renvoie le
+         * premier caractère du suivant (-1 en fin de fichier).
+         */
+        private int lireEnregistrement(int c) throws IOException {
+            for (StringBuilder champ : champs) champ.setLength(0);
+            int colonne = 0;
+
+            while (true) {
+                StringBuilder champ = colonne < NB_COLONNES ? champs[colonne] : null;
+
+                if (c == '"') {
+                    // Champ entre guillemets
+                    while (true) {
+                        c = lire();
+                        if (c == -1) break;                  // guillemet non fermé
+                        if (c == '"') {
+                            c = lire();
+                            if (c != '"') break;          // fin du champ
+                        } else if (c == '\n') {
+                            ligneCourante++;
+                        }
+                        if (champ != null) champ.append((char) c);
+                    }
+                    // Caractères parasites entre le guillemet fermant et le séparateur : ignorés
+                    while (c != -1 && c != separateur && c != '\n' && c != '\r') c = lire();
+                } else {
+                    while (c != -1 && c != separateur && c != '\n' && c != '\r') {
+                        if (champ != null) champ.append((char) c);
+                        c = lire();
+                    }
+                }
+
+                if (c == separateur) {
+                    colonne++;
+                    c = lire();
+                    continue;
+                }
+                // Fin de ligne : \n, \r\n, \r ou fin de fichier
+                if (c == '\r') {
+                    c = lire();
+                    if (c != '\n') {
+                        ligneCourante++;
+                        return c;
+                    }
+                }
+                if (c == '\n') {
+                    ligneCourante++;
+                    c = lire();
+                }
+                return c;
+            }
+        }
+
+        private int lire() throws IOException {
+            if (position == fin) {
+                fin = reader.read(tampon, 0, tampon.length);
+                position = 0;
+                if (fin <= 0) {
+                    fin = 0;
+                    return -1;
+                }
+            }
+            return tampon[position++];
+        }
+    }
+}
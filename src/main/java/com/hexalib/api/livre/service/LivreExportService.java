@@ -1,33 +1,46 @@
 package com.hexalib.api.livre.service;
 
 import com.hexalib.api.livre.model.Livre;
-import com.hexalib.api.livre.repository.LivreRepository;
+import com.hexalib.api.livre.repository.LivreExportRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.poi.ss.usermodel.*;
-import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.apache.poi.ss.util.CellRangeAddress;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
-import java.util.List;
 
+/**
+ * Export de l'inventaire en Excel.
+ *
+ * Les livres sont lus par curseur (projection avec le nom de catégorie) et
+ * écrits dans un classeur SXSSF : seules {@value #FENETRE_LIGNES} lignes
+ * restent en mémoire, les autres partent dans un fichier temporaire
+ * compressé. Le classeur est écrit directement dans le flux de la réponse,
+ * sans tableau d'octets intermédiaire.
+ */
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class LivreExportService {
 
-    private final LivreRepository livreRepository;
+    private static final int FENETRE_LIGNES = 200;
 
-    public byte[] exportLivres() {
-        log.info("Export inventaire livres");
-        List<Livre> livres = livreRepository.findAll();
+    private final LivreExportRepository livreExportRepository;
 
-        try (Workbook workbook = new XSSFWorkbook();
-             ByteArrayOutputStream baos = new ByteArrayOutputStream()) {
+    @Transactional(readOnly = true)
+    public void exportLivres(OutputStream out) throws IOException {
+        log.info("Export inventaire livres");
+        long debutMs = System.currentTimeMillis();
 
+        SXSSFWorkbook workbook = new SXSSFWorkbook(FENETRE_LIGNES);
+        workbook.setCompressTempFiles(true);
+        try {
             Sheet sheet = workbook.createSheet("Inventaire");
 
             // Styles
@@ -61,7 +74,7 @@ public class LivreExportService {
             titleFont.setFontHeightInPoints((short) 13);
             titleStyle.setFont(titleFont);
             titleCell.setCellStyle(titleStyle);
-            sheet.addMergedRegion(new org.apache.poi.ss.util.CellRangeAddress(0, 0, 0, 12));
+            sheet.addMergedRegion(new CellRangeAddress(0, 0, 0, 12));
             titleRow.setHeightInPoints(25);
 
             // ── Ligne 2 : En-têtes ──
@@ -81,52 +94,58 @@ public class LivreExportService {
                 sheet.setColumnWidth(i, colWidths[i] * 256);
             }
 
-            // ── Données ──
-            int rowIdx = 2;
-            for (Livre livre : livres) {
-                Row row = sheet.createRow(rowIdx++);
+            // ── Données (parcours du curseur) ──
+            int[] rowIdx = {2};
+            int total = livreExportRepository.parcourirInventaire(livre -> {
+                Row row = sheet.createRow(rowIdx[0]++);
                 row.setHeightInPoints(16);
 
-                boolean stockCritique = livre.isStockCritique();
-
-                setCell(row, 0,  livre.getCode(),                         workbook, stockCritique ? criticalStyle : normalStyle);
-                setCell(row, 1,  livre.getTitre(),                        workbook, normalStyle);
-                setCell(row, 2,  livre.getAuteur(),                       workbook, normalStyle);
-                setCell(row, 3,  livre.getMaisonEdition(),                workbook, normalStyle);
-                setCell(row, 4,  livre.getCategorie() != null ? livre.getCategorie().getNom() : "", workbook, normalStyle);
-                setCell(row, 5,  livre.getLangue(),                       workbook, normalStyle);
-                setCellNum(row, 6,  livre.getPrixVente() != null ? livre.getPrixVente().doubleValue() : 0, workbook, normalStyle);
-                setCellNum(row, 7,  livre.getPrixAchat() != null ? livre.getPrixAchat().doubleValue() : 0, workbook, normalStyle);
-                setCellNum(row, 8,  livre.getQuantiteStock(),             workbook, stockCritique ? criticalStyle : normalStyle);
-                setCellNum(row, 9,  livre.getSeuilMinimal(),              workbook, normalStyle);
-                setCell(row, 10, livre.getStatutStock().name(),           workbook, stockCritique ? criticalStyle : normalStyle);
-                setCell(row, 11, livre.getEmplacement() != null ? livre.getEmplacement() : "", workbook, normalStyle);
-                setCell(row, 12, livre.getStatut().name(),                workbook, normalStyle);
-            }
+                boolean stockCritique = livre.quantiteStock() <= livre.seuilMinimal();
+
+                setCell(row, 0,  livre.code(),                            stockCritique ? criticalStyle : normalStyle);
+                setCell(row, 1,  livre.titre(),                           normalStyle);
+                setCell(row, 2,  livre.auteur(),                          normalStyle);
+                setCell(row, 3,  livre.maisonEdition(),                   normalStyle);
+                setCell(row, 4,  livre.categorie(),                       normalStyle);
+                setCell(row, 5,  livre.langue(),                          normalStyle);
+                setCellNum(row, 6,  livre.prixVente() != null ? livre.prixVente().doubleValue() : 0, normalStyle);
+                setCellNum(row, 7,  livre.prixAchat() != null ? livre.prixAchat().doubleValue() : 0, normalStyle);
+                setCellNum(row, 8,  livre.quantiteStock(),                stockCritique ? criticalStyle : normalStyle);
+                setCellNum(row, 9,  livre.seuilMinimal(),                 normalStyle);
+                setCell(row, 10, statutStock(livre).name(),               stockCritique ? criticalStyle : normalStyle);
+                setCell(row, 11, livre.emplacement(),                     normalStyle);
+                setCell(row, 12, livre.statut(),                          normalStyle);
+            });
 
             // Figer la ligne d'en-têtes
             sheet.createFreezePane(0, 2);
-            sheet.setAutoFilter(new org.apache.poi.ss.util.CellRangeAddress(1, 1, 0, headers.length - 1));
-
-            workbook.write(baos);
-            log.info("Export terminé : {} livres exportés", livres.size());
-            return baos.toByteArray();
-
-        } catch (IOException e) {
-            log.error("Erreur export Excel", e);
-            throw new RuntimeException("Erreur lors de l'export Excel", e);
+            sheet.setAutoFilter(new CellRangeAddress(1, 1, 0, headers.length - 1));
+
+            workbook.write(out);
+            out.flush();
+            log.info("Export terminé : {} livres exportés en {} ms", total, System.currentTimeMillis() - debutMs);
+        } finally {
+            workbook.dispose();   // fichiers temporaires SXSSF
+            workbook.close();
         }
     }
 
-    private void setCell(Row row, int col, String value, Workbook wb, CellStyle style) {
+    /** Même règle que {@link Livre#getStatutStock()}. */
+    private static Livre.StatutStock statutStock(LivreExportRepository.LigneInventaire livre) {
+        if (livre.quantiteStock() == 0)                     return Livre.StatutStock.RUPTURE;
+        if (livre.quantiteStock() <= livre.seuilMinimal())  return Livre.StatutStock.STOCK_CRITIQUE;
+        return Livre.StatutStock.DISPONIBLE;
+    }
+
+    private void setCell(Row row, int col, String value, CellStyle style) {
         Cell cell = row.createCell(col);
         cell.setCellValue(value != null ? value : "");
         cell.setCellStyle(style);
     }
 
-    private void setCellNum(Row row, int col, double value, Workbook wb, CellStyle style) {
+    private void setCellNum(Row row, int col, double value, CellStyle style) {
         Cell cell = row.createCell(col);
         cell.setCellValue(value);
         cell.setCellStyle(style);
     }
-}
\ No newline at end of file
+}
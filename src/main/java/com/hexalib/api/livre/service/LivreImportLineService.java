@@ -3,8 +3,9 @@ package com.hexalib.api.livre.service;
 import com.hexalib.api.categorie.model.Categorie;
 import com.hexalib.api.categorie.repository.CategorieRepository;
 import com.hexalib.api.common.util.CodeGenerator;
+import com.hexalib.api.livre.dto.ImportJobDTO;
 import com.hexalib.api.livre.model.Livre;
-import com.hexalib.api.livre.repository.LivreRepository;
+import com.hexalib.api.livre.repository.LivreImportRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
@@ -12,79 +13,222 @@ import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.UUID;
 
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class LivreImportLineService {
 
-    private final CategorieRepository categorieRepository;
-    private final LivreRepository     livreRepository;
+    private final CategorieRepository   categorieRepository;
+    private final LivreImportRepository livreImportRepository;
 
+    /**
+     * Bilan d'un lot : chaque ligne est comptée exactement une fois.
+     * {@code inserees} n'est ajouté à l'index de doublons qu'après commit.
+     */
+    public record ResultatLot(int ajoutes, int doublons, List<ImportJobDTO.LigneErreur> erreurs,
+                              List<IndexDoublons.Cle> inserees) {}
+
+    /**
+     * Insère un lot de lignes dans une seule transaction.
+     *
+     * Doublons vérifiés en mémoire contre l'index du job, numéros de code lus
+     * une fois par catégorie sous verrou de la catégorie, puis les livres partent en un batch JDBC ; une
+     * ligne rejetée par la base est isolée par savepoint sans perdre le reste
+     * du lot. Les catégories doivent déjà être dans le cache : aucune n'est
+     * créée ici, pour que deux lots concurrents ne se marchent pas dessus.
+     */
     @Transactional(propagation = Propagation.REQUIRES_NEW)
-    public boolean traiterLigne(ImportJobStore.LigneParsee ligne,
-                                Map<String, String> cacheCategories) {
-
-        // 1. Obtenir ou créer la catégorie
-        String categorieId = obtenirOuCreerCategorieId(ligne.categorie(), cacheCategories);
-
-        // 2. Recharger l'entité dans la session courante
-        Categorie categorie = categorieRepository.findById(categorieId)
-                .orElseThrow(() -> new RuntimeException(
-                        "Catégorie introuvable : " + categorieId));
-
-        // 3. Vérifier doublon (même titre + auteur + catégorie)
-        String auteur = ligne.auteur() != null ? ligne.auteur() : "";
-        boolean existe = livreRepository
-                .existsByTitreAndAuteurAndCategorieId(ligne.titre(), auteur, categorieId);
-        if (existe) {
-            log.debug("Doublon ignoré : '{}' / '{}'", ligne.titre(), auteur);
-            return false;
+    public ResultatLot insererLot(List<ImportJobStore.LigneParsee> lot,
+                                  Map<String, String> cacheCategories,
+                                  IndexDoublons index) {
+
+        // 1. Catégories (résolues avant le lot : lecture du cache)
+        List<String> categorieIds = new ArrayList<>(lot.size());
+        for (ImportJobStore.LigneParsee ligne : lot) {
+            String id = cacheCategories.get(cleCategorie(ligne.categorie()));
+            if (id == null) {
+                throw new IllegalStateException("Catégorie non résolue : " + ligne.categorie());
+            }
+            categorieIds.add(id);
+        }
+        // Verrouillées avant toute autre lecture : findDernierNumero voit les
+        // codes commités par un autre job sur la même catégorie
+        Map<String, Categorie> categories = new HashMap<>();
+        for (Categorie c : categorieRepository.findAllByIdPourMiseAJour(new HashSet<>(categorieIds))) {
+            categories.put(c.getId(), c);
         }
 
-        // 4. Créer le livre — tous ACTIF, sans exception de catégorie
-        Livre livre = new Livre();
-        livre.setTitre(ligne.titre());
-        livre.setAuteur(ligne.auteur() != null ? ligne.auteur() : "Inconnu");
-        livre.setMaisonEdition(ligne.maisonEdition() != null ? ligne.maisonEdition() : "");
-        livre.setDescription(ligne.description());
-        livre.setPrixVente(ligne.prixVente() != null ? ligne.prixVente() : BigDecimal.ZERO);
-        livre.setPrixAchat(ligne.prixAchat());   // null si non renseigné — c'est OK
-        livre.setCategorie(categorie);
-        livre.setQuantiteStock(0);
-        livre.setSeuilMinimal(5);
-        livre.setLangue(detecterLangue(ligne.categorie()));
-        livre.setStatut(Livre.Statut.ACTIF);     // Toujours ACTIF, toutes catégories incluses
-        livre.setCode(genererCodeLivre(categorie.getCode()));
-
-        livreRepository.save(livre);
-        return true;
+        // 2. Index de doublons : une requête par catégorie, la première fois qu'elle apparaît
+        for (String categorieId : categories.keySet()) {
+            index.chargerSiAbsent(categorieId,
+                    () -> livreImportRepository.findTitresAuteursByCategorie(categorieId));
+        }
+        Set<IndexDoublons.Cle> duLot = new HashSet<>();
+
+        // 3. Construire les livres — tous ACTIF, sans exception de catégorie
+        Map<String, Integer> derniersNumeros = new HashMap<>();
+        List<Livre> livres = new ArrayList<>();
+        List<ImportJobStore.LigneParsee> sources = new ArrayList<>();
+        List<IndexDoublons.Cle> cles = new ArrayList<>();
+        int doublons = 0;
+
+        List<ImportJobDTO.LigneErreur> erreurs = new ArrayList<>();
+
+        for (int i = 0; i < lot.size(); i++) {
+            ImportJobStore.LigneParsee ligne = lot.get(i);
+            String categorieId = categorieIds.get(i);
+
+            String raison = verifierLigne(ligne);
+            if (raison != null) {
+                erreurs.add(erreur(ligne, raison));
+                continue;
+            }
+            Categorie categorie = categories.get(categorieId);
+            if (categorie == null) {
+                throw new RuntimeException("Catégorie introuvable : " + categorieId);
+            }
+
+            // Clé sur l'auteur tel qu'il sera enregistré : un livre sans auteur
+            // importé deux fois est bien reconnu comme doublon
+            String auteur = auteur(ligne);
+            IndexDoublons.Cle cle = IndexDoublons.cle(ligne.titre(), auteur, categorieId);
+            if (index.contient(cle) || !duLot.add(cle)) {
+                log.debug("Doublon ignoré : '{}' / '{}'", ligne.titre(), auteur);
+                doublons++;
+                continue;
+            }
+
+            Livre livre = new Livre();
+            livre.setId(UUID.randomUUID().toString());
+            livre.setTitre(ligne.titre());
+            livre.setAuteur(auteur);
+            livre.setMaisonEdition(ligne.maisonEdition() != null ? ligne.maisonEdition() : "");
+            livre.setDescription(ligne.description());
+            livre.setPrixVente(ligne.prixVente() != null ? ligne.prixVente() : BigDecimal.ZERO);
+            livre.setPrixAchat(ligne.prixAchat());   // null si non renseigné — c'est OK
+            livre.setCategorie(categorie);
+            livre.setQuantiteStock(0);
+            livre.setSeuilMinimal(5);
+            livre.setLangue(detecterLangue(ligne.categorie()));
+            livre.setStatut(Livre.Statut.ACTIF);     // Toujours ACTIF, toutes catégories incluses
+            livre.setCode(genererCodeLivre(categorie.getCode(), derniersNumeros));
+
+            cles.add(cle);
+            livres.add(livre);
+            sources.add(ligne);
+        }
+
+        // 4. Insertion en batch ; rejets isolés ligne par ligne
+        Map<Integer, String> rejets = livreImportRepository.inserer(livres);
+        for (Map.Entry<Integer, String> rejet : new TreeMap<>(rejets).entrySet()) {
+            ImportJobStore.LigneParsee ligne = sources.get(rejet.getKey());
+            log.warn("Ligne {} ignorée : {}", ligne.numeroLigne(), rejet.getValue());
+            erreurs.add(erreur(ligne, rejet.getValue()));
+        }
+        erreurs.sort(Comparator.comparingInt(ImportJobDTO.LigneErreur::getNumeroLigne));
+
+        List<IndexDoublons.Cle> inserees = new ArrayList<>(cles.size() - rejets.size());
+        for (int i = 0; i < cles.size(); i++) {
+            if (!rejets.containsKey(i)) inserees.add(cles.get(i));
+        }
+        return new ResultatLot(livres.size() - rejets.size(), doublons, erreurs, inserees);
+    }
+
+    // ══════════════════════════════════════════════════════════════════
+    // CONTRÔLE DES LIGNES
+    // Règles connues d'avance (tailles de colonnes, précision des prix) :
+    // appliquées à l'import comme à la validation à blanc.
+    // ══════════════════════════════════════════════════════════════════
+
+    private static final int TITRE_MAX     = 255;
+    private static final int AUTEUR_MAX    = 100;
+    private static final int EDITEUR_MAX   = 100;
+    private static final int CATEGORIE_MAX = 100;
+    private static final int PRIX_ENTIERS_MAX = 8;   // DECIMAL(10,2)
+
+    /** @return la raison du rejet, ou null si la ligne est insérable */
+    public static String verifierLigne(ImportJobStore.LigneParsee ligne) {
+        if (ligne.titre().length() > TITRE_MAX)
+            return "Titre trop long (" + ligne.titre().length() + " > " + TITRE_MAX + " caractères)";
+        if (auteur(ligne).length() > AUTEUR_MAX)
+            return "Auteur trop long (" + auteur(ligne).length() + " > " + AUTEUR_MAX + " caractères)";
+        if (ligne.maisonEdition() != null && ligne.maisonEdition().length() > EDITEUR_MAX)
+            return "Éditeur trop long (" + ligne.maisonEdition().length() + " > " + EDITEUR_MAX + " caractères)";
+        if (nomCategorie(ligne.categorie()).length() > CATEGORIE_MAX)
+            return "Catégorie trop longue (" + nomCategorie(ligne.categorie()).length() + " > " + CATEGORIE_MAX + " caractères)";
+        if (prixHorsLimite(ligne.prixVente())) return "Prix de vente hors limite : " + ligne.prixVente().toPlainString();
+        if (prixHorsLimite(ligne.prixAchat())) return "Prix d'achat hors limite : " + ligne.prixAchat().toPlainString();
+        return null;
+    }
+
+    /** Auteur tel qu'il sera enregistré (et utilisé pour la clé de doublon). */
+    public static String auteur(ImportJobStore.LigneParsee ligne) {
+        return ligne.auteur() != null ? ligne.auteur() : "Inconnu";
+    }
+
+    private static boolean prixHorsLimite(BigDecimal prix) {
+        return prix != null && prix.precision() - prix.scale() > PRIX_ENTIERS_MAX;
+    }
+
+    private static ImportJobDTO.LigneErreur erreur(ImportJobStore.LigneParsee ligne, String raison) {
+        return ImportJobDTO.LigneErreur.builder()
+                .numeroLigne(ligne.numeroLigne())
+                .titre(ligne.titre())
+                .raison(raison)
+                .build();
     }
 
     // ══════════════════════════════════════════════════════════════════
     // CATÉGORIE
     // ══════════════════════════════════════════════════════════════════
 
-    private String obtenirOuCreerCategorieId(String nomCategorie,
-                                              Map<String, String> cache) {
-        if (nomCategorie == null || nomCategorie.isBlank()) {
-            nomCategorie = "Non classé";
+    /**
+     * Résout (ou crée) une catégorie du fichier avant l'insertion des livres.
+     * L'appelant sérialise les appels par nom : la transaction est commitée
+     * avant qu'un autre import ne cherche la même catégorie.
+     * @return true si la catégorie a été créée
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public boolean resoudreCategorie(String nomCategorie, Map<String, String> cache) {
+        String cle = cleCategorie(nomCategorie);
+        if (cache.containsKey(cle)) return false;
+
+        Optional<Categorie> existante = categorieRepository.findByNomIgnoreCase(nomCategorie(nomCategorie));
+        if (existante.isPresent()) {
+            cache.put(cle, existante.get().getId());
+            return false;
         }
-        final String nom = nomCategorie;
-
-        return cache.computeIfAbsent(nom.toLowerCase(), k ->
-            categorieRepository.findByNomIgnoreCase(nom)
-                    .map(Categorie::getId)
-                    .orElseGet(() -> {
-                        log.info("Création catégorie : {}", nom);
-                        Categorie cat = new Categorie();
-                        cat.setNom(nom);
-                        cat.setStatut(Categorie.Statut.ACTIF);
-                        cat.setCode(genererCodeCategorieUnique(nom));
-                        return categorieRepository.save(cat).getId();
-                    })
-        );
+        cache.put(cle, creerCategorie(nomCategorie(nomCategorie)));
+        return true;
+    }
+
+    /** Clé du cache de catégories d'un job (et du verrou de création). */
+    public static String cleCategorie(String nomCategorie) {
+        return nomCategorie(nomCategorie).toLowerCase();
+    }
+
+    public static String nomCategorie(String nomCategorie) {
+        return (nomCategorie == null || nomCategorie.isBlank()) ? "Non classé" : nomCategorie;
+    }
+
+    private String creerCategorie(String nom) {
+        log.info("Création catégorie : {}", nom);
+        Categorie cat = new Categorie();
+        cat.setNom(nom);
+        cat.setStatut(Categorie.Statut.ACTIF);
+        cat.setCode(genererCodeCategorieUnique(nom));
+        return categorieRepository.save(cat).getId();
     }
 
     private String genererCodeCategorieUnique(String nom) {
@@ -105,17 +249,15 @@ public class LivreImportLineService {
     // CODE LIVRE
     // ══════════════════════════════════════════════════════════════════
 
-    private String genererCodeLivre(String codeCategorie) {
-        int suivant = livreRepository.countByCategorieCode(codeCategorie) + 1;
-        String code = String.format("%s-%03d", codeCategorie, suivant);
-        // Sécurité : si le code existe déjà (import parallèle ou compteur désynchronisé)
-        int tentatives = 0;
-        while (livreRepository.existsByCode(code) && tentatives < 500) {
-            suivant++;
-            tentatives++;
-            code = String.format("%s-%03d", codeCategorie, suivant);
-        }
-        return code;
+    /**
+     * Code séquentiel "CODECAT-NNN" : le dernier numéro de la catégorie est lu
+     * une fois par lot puis incrémenté en mémoire.
+     */
+    private String genererCodeLivre(String codeCategorie, Map<String, Integer> derniersNumeros) {
+        Integer dernier = derniersNumeros.get(codeCategorie);
+        int suivant = (dernier != null ? dernier : livreImportRepository.findDernierNumero(codeCategorie)) + 1;
+        derniersNumeros.put(codeCategorie, suivant);
+        return String.format("%s-%03d", codeCategorie, suivant);
     }
 
     // ══════════════════════════════════════════════════════════════════
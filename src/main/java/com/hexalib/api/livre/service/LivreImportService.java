@@ -1,281 +1,412 @@
 package com.hexalib.api.livre.service;
 
+import com.hexalib.api.common.exception.BadRequestException;
+import com.hexalib.api.common.exception.ResourceNotFoundException;
 import com.hexalib.api.livre.dto.ImportJobDTO;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.apache.poi.ss.usermodel.*;
-import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.io.File;
 import java.io.IOException;
-import java.math.BigDecimal;
+import java.io.InputStream;
+import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-
+import java.util.TreeMap;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Import de catalogues (Excel, CSV ou TSV) exécuté côté serveur.
+ *
+ * L'upload crée un job et le soumet à un exécuteur borné ; le pipeline
+ * enchaîne ANALYSE (lecture en flux) → CATEGORIES (résolution/création)
+ * → INSERTION (batches, doublons ignorés) sans intervention du client.
+ * Les lignes sont partitionnées par catégorie et les partitions insérées en
+ * parallèle sur un pool de workers borné (livre.import.workers) ; les codes
+ * livre d'une catégorie sont attribués sous verrou de sa ligne en base.
+ * Le client suit la progression par polling ou SSE, peut annuler entre deux
+ * batches et reprendre sur les seuls batches non commités. Les jobs étant
+ * persistés par {@link ImportJobStore}, ceux interrompus par un arrêt du
+ * serveur sont relancés au démarrage.
+ */
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class LivreImportService {
 
-    private static final int DATA_START_ROW = 4; // ligne 5 dans Excel (0-indexé)
-    private static final int BATCH_SIZE     = 50;
+    private static final int BATCH_SIZE = 50;
 
     private final ImportJobStore         jobStore;
     private final LivreImportLineService lineService;
+    private final LivreXlsxReader        xlsxReader;
+    private final LivreCsvReader         csvReader;
+    private final ImportSuiviService     suiviService;
+
+    @Value("${livre.import.threads:2}")
+    private int threads;
+
+    @Value("${livre.import.file-attente:10}")
+    private int fileAttente;
+
+    @Value("${livre.import.workers:4}")
+    private int nombreWorkers;
+
+    private ThreadPoolExecutor executor;
+    private ThreadPoolExecutor workers;   // partitions de catégorie, tous jobs confondus
+
+    private final Map<String, Object> verrousCategories = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    void demarrerExecutor() {
+        AtomicInteger compteur = new AtomicInteger();
+        executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(fileAttente),
+                r -> {
+                    Thread t = new Thread(r, "import-livres-" + compteur.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                });
+        AtomicInteger compteurWorkers = new AtomicInteger();
+        workers = new ThreadPoolExecutor(nombreWorkers, nombreWorkers, 0L, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(),
+                r -> {
+                    Thread t = new Thread(r, "import-partition-" + compteurWorkers.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                });
+    }
 
-    // ══════════════════════════════════════════════════════════════════
-    // ÉTAPE 1 : Upload + parsing → création du job
-    // ══════════════════════════════════════════════════════════════════
+    @PreDestroy
+    void arreterExecutor() {
+        executor.shutdownNow();
+        workers.shutdownNow();
+    }
 
-    public ImportJobDTO.ImportJobStarted parseEtCreerJob(MultipartFile file) throws IOException {
-        log.info("Parsing du fichier Excel : {}", file.getOriginalFilename());
-
-        List<ImportJobStore.LigneParsee> lignes = new ArrayList<>();
-
-        try (Workbook wb = new XSSFWorkbook(file.getInputStream())) {
-            Sheet sheet = wb.getSheetAt(0);
-
-            for (int i = DATA_START_ROW; i <= sheet.getLastRowNum(); i++) {
-                Row row = sheet.getRow(i);
-                if (row == null) continue;
-
-                String categorie  = getCellString(row, 0).trim();
-                String titre      = getCellString(row, 1).trim();
-                String auteurIsbn = getCellString(row, 2).trim();
-                String editeur    = getCellString(row, 3).trim();
-                String remarque   = getCellString(row, 6).trim();
-
-                // Ignorer les lignes sans titre
-                if (titre.isBlank()) continue;
-
-                // ── Colonne E : prix de vente ─────────────────────────────
-                BigDecimal prixVente = parsePrixVente(row.getCell(4), titre, remarque);
-                // remarque peut avoir été enrichie dans parsePrixVente via StringBuilder
-                // → on la récupère via le holder
-                String[] descriptionHolder = { remarque.isBlank() ? null : remarque };
-                prixVente = parsePrixVenteAvecDesc(row.getCell(4), descriptionHolder);
-                String descriptionFinale = descriptionHolder[0];
-
-                // ── Colonne F : prix net → prix d'achat ───────────────────
-                BigDecimal prixAchat = parsePrixAchat(row.getCell(5));
-
-                lignes.add(new ImportJobStore.LigneParsee(
-                        i + 1,
-                        categorie.isBlank() ? "Non classé" : categorie,
-                        titre,
-                        auteurIsbn.isBlank() ? null : auteurIsbn,
-                        editeur.isBlank()    ? null : editeur,
-                        prixVente,
-                        prixAchat,
-                        false,           // inactif : toujours false, toutes les catégories sont ACTIF
-                        descriptionFinale
-                ));
+    /** Relance les jobs qui étaient en cours lors de l'arrêt précédent. */
+    @EventListener(ApplicationReadyEvent.class)
+    public void reprendreJobsInterrompus() {
+        for (ImportJobStore.JobData job : jobStore.recupererInterrompus()) {
+            log.info("Reprise du job d'import {} interrompu ({}/{} batches commités)",
+                    job.getJobId(), job.batchesTraites(), job.totalBatches());
+            job.setStatut(ImportJobStore.Statut.EN_ATTENTE);
+            try {
+                soumettre(job);
+            } catch (BadRequestException e) {
+                job.setMessageErreur("Interrompu par un redémarrage — à reprendre manuellement");
+                job.setTermineAt(LocalDateTime.now());
+                jobStore.sauvegarder(job);
             }
         }
+    }
 
-        log.info("{} lignes valides parsées", lignes.size());
+    // ══════════════════════════════════════════════════════════════════
+    // DÉMARRAGE / SUIVI / CONTRÔLE
+    // ══════════════════════════════════════════════════════════════════
 
-        String jobId        = jobStore.creerJob(lignes, BATCH_SIZE);
-        int    totalBatches = (int) Math.ceil((double) lignes.size() / BATCH_SIZE);
+    public ImportJobDTO.ImportJobStarted demarrer(MultipartFile file) throws IOException {
+        log.info("Import du fichier : {}", file.getOriginalFilename());
+
+        // Copie dans le répertoire du job : le multipart est supprimé à la fin de l'upload
+        ImportJobStore.JobData job;
+        try (InputStream in = file.getInputStream()) {
+            job = jobStore.creerJob(in, file.getOriginalFilename(), BATCH_SIZE);
+        }
+        try {
+            soumettre(job);
+        } catch (BadRequestException e) {
+            jobStore.supprimerJob(job.getJobId());
+            throw e;
+        }
 
         return ImportJobDTO.ImportJobStarted.builder()
-                .jobId(jobId)
-                .totalLignes(lignes.size())
-                .totalBatches(totalBatches)
+                .jobId(job.getJobId())
+                .totalLignes(0)           // connu après la phase ANALYSE
+                .totalBatches(0)
                 .batchSize(BATCH_SIZE)
                 .build();
     }
 
-    // ══════════════════════════════════════════════════════════════════
-    // ÉTAPE 2 : Traitement d'un batch
-    // ══════════════════════════════════════════════════════════════════
+    public ImportJobDTO.ImportProgression getProgression(String jobId) {
+        return suiviService.progression(getJob(jobId));
+    }
 
-    public ImportJobDTO.ImportBatchResult traiterBatch(String jobId, int batchNumero) {
-        ImportJobStore.JobData job = jobStore.getJob(jobId);
-        if (job == null) throw new RuntimeException("Job introuvable : " + jobId);
+    public SseEmitter suivre(String jobId) {
+        return suiviService.abonner(getJob(jobId));
+    }
 
-        List<ImportJobStore.LigneParsee> toutesLignes = job.lignes();
-        int total        = toutesLignes.size();
-        int totalBatches = (int) Math.ceil((double) total / BATCH_SIZE);
-        int debut        = (batchNumero - 1) * BATCH_SIZE;
-        int fin          = Math.min(debut + BATCH_SIZE, total);
+    /** L'annulation prend effet à la fin du batch en cours. */
+    public ImportJobDTO.ImportProgression annuler(String jobId) {
+        ImportJobStore.JobData job = getJob(jobId);
+        if (!job.estActif()) {
+            throw new BadRequestException("Ce job n'est plus en cours (" + job.getStatut() + ")");
+        }
+        job.setAnnulationDemandee(true);
+        return suiviService.progression(job);
+    }
 
-        if (debut >= total) {
-            throw new RuntimeException("Batch " + batchNumero + " hors limites");
+    /** Reprend un job annulé ou en échec au premier batch non commité. */
+    public ImportJobDTO.ImportProgression reprendre(String jobId) {
+        ImportJobStore.JobData job = getJob(jobId);
+        if (job.getStatut() != ImportJobStore.Statut.ANNULE && job.getStatut() != ImportJobStore.Statut.ECHEC) {
+            throw new BadRequestException("Seul un job annulé ou en échec peut être repris");
         }
+        if (!job.isAnalyseTerminee() && job.getFichier() == null) {
+            throw new BadRequestException("Fichier non analysé — relancez l'upload");
+        }
+        job.setAnnulationDemandee(false);
+        job.setMessageErreur(null);
+        job.setTermineAt(null);
+        job.setStatut(ImportJobStore.Statut.EN_ATTENTE);
+        soumettre(job);
+        return suiviService.progression(job);
+    }
 
-        List<ImportJobStore.LigneParsee> batch = toutesLignes.subList(debut, fin);
-        Map<String, String> cacheCategories    = job.cacheCategories();
+    // ══════════════════════════════════════════════════════════════════
+    // PIPELINE
+    // ══════════════════════════════════════════════════════════════════
 
-        int livresAjoutes = 0;
-        int livresIgnores = 0;
-        List<ImportJobDTO.LigneErreur> erreurs = new ArrayList<>();
+    private void soumettre(ImportJobStore.JobData job) {
+        try {
+            executor.execute(() -> executer(job));
+        } catch (RejectedExecutionException e) {
+            job.setStatut(ImportJobStore.Statut.ECHEC);
+            throw new BadRequestException("Trop d'imports en cours, réessayez plus tard");
+        }
+    }
 
-        for (ImportJobStore.LigneParsee ligne : batch) {
-            try {
-                boolean ajoute = lineService.traiterLigne(ligne, cacheCategories);
-                if (ajoute) livresAjoutes++;
-                else        livresIgnores++;
-            } catch (Exception e) {
-                log.warn("Ligne {} ignorée : {}", ligne.numeroLigne(), e.getMessage());
-                erreurs.add(ImportJobDTO.LigneErreur.builder()
-                        .numeroLigne(ligne.numeroLigne())
-                        .titre(ligne.titre())
-                        .raison(e.getMessage())
-                        .build());
-                livresIgnores++;
-            }
+    private void executer(ImportJobStore.JobData job) {
+        job.setStatut(ImportJobStore.Statut.EN_COURS);
+        long debutMs = System.currentTimeMillis();
+        try {
+            if (arreterSiAnnule(job)) return;
+
+            if (!job.isAnalyseTerminee()) analyser(job);
+            if (arreterSiAnnule(job)) return;
+
+            resoudreCategories(job);
+            if (arreterSiAnnule(job)) return;
+
+            inserer(job);
+            if (arreterSiAnnule(job)) return;
+
+            job.setStatut(ImportJobStore.Statut.TERMINE);
+            job.setTermineAt(LocalDateTime.now());
+            log.info("Import {} terminé en {} ms : {} ajoutés, {} doublons, {} erreurs — insertion {} lignes/s",
+                    job.getJobId(), System.currentTimeMillis() - debutMs,
+                    job.getLivresAjoutes().get(), job.getDoublons().get(), job.getErreurs().size(),
+                    job.lignesParSeconde());
+            log.info("Import {} : index de doublons {} clés, ~{} Ko",
+                    job.getJobId(), job.getIndexDoublons().taille(),
+                    job.getIndexDoublons().octetsEstimes() / 1024);
+        } catch (Exception e) {
+            log.error("Import {} en échec : {}", job.getJobId(), e.getMessage(), e);
+            job.setMessageErreur(e.getMessage());
+            job.setStatut(ImportJobStore.Statut.ECHEC);
+            job.setTermineAt(LocalDateTime.now());
+        } finally {
+            jobStore.sauvegarder(job);
+            suiviService.publier(job);
         }
+    }
 
-        int traites     = fin;
-        int pourcentage = (int) Math.round((double) traites / total * 100);
-        boolean termine = (batchNumero >= totalBatches);
-
-        ImportJobDTO.ImportBatchResult.ImportBatchResultBuilder builder =
-                ImportJobDTO.ImportBatchResult.builder()
-                        .jobId(jobId)
-                        .batchNumero(batchNumero)
-                        .totalBatches(totalBatches)
-                        .traites(traites)
-                        .total(total)
-                        .pourcentage(pourcentage)
-                        .termine(termine);
-
-        if (termine) {
-            builder.rapport(construireRapportFinal(total, erreurs));
-            jobStore.supprimerJob(jobId);
+    private void analyser(ImportJobStore.JobData job) throws IOException {
+        job.setPhase(ImportJobStore.Phase.ANALYSE);
+        suiviService.publier(job);
+
+        long debutMs = System.currentTimeMillis();
+        jobStore.commencerAnalyse(job);
+
+        // Lignes réparties par catégorie (une partition = une catégorie) ;
+        // chaque partition part sur disque par lots au fil de la lecture
+        Map<String, Integer> partitions = new HashMap<>();
+        List<List<ImportJobStore.LigneParsee>> tampons = new ArrayList<>();
+        File source = job.getFichier().toFile();
+        boolean texte = estFormatTexte(source.getName());
+        Consumer<ImportJobStore.LigneParsee> consumer = ligne -> {
+            job.getCategoriesFichier().add(ligne.categorie());
+            int partition = partitions.computeIfAbsent(LivreImportLineService.cleCategorie(ligne.categorie()), cle -> {
+                job.getPartitions().add(cle);
+                tampons.add(new ArrayList<>(BATCH_SIZE));
+                return tampons.size() - 1;
+            });
+            List<ImportJobStore.LigneParsee> tampon = tampons.get(partition);
+            tampon.add(ligne);
+            if (tampon.size() == BATCH_SIZE) {
+                jobStore.ajouterLot(job, partition, tampon);
+                tampon.clear();
+            }
+        };
+        int total = texte ? csvReader.lire(source, consumer) : xlsxReader.lire(source, consumer);
+        for (int partition = 0; partition < tampons.size(); partition++) {
+            if (!tampons.get(partition).isEmpty()) jobStore.ajouterLot(job, partition, tampons.get(partition));
         }
+        jobStore.terminerAnalyse(job, total);
 
-        return builder.build();
+        long dureeMs = Math.max(1, System.currentTimeMillis() - debutMs);
+        Runtime rt = Runtime.getRuntime();
+        log.info("Job {} : {} lignes valides parsées ({}) en {} ms, {} lignes/s, {} catégories — heap utilisé {} Mo",
+                job.getJobId(), total, texte ? "CSV" : "XLSX", dureeMs, total * 1000L / dureeMs,
+                tampons.size(), (rt.totalMemory() - rt.freeMemory()) / (1024 * 1024));
     }
 
-    // ══════════════════════════════════════════════════════════════════
-    // PARSING DES PRIX
-    // ══════════════════════════════════════════════════════════════════
-
     /**
-     * Parse le prix de vente (colonne E).
-     *
-     * Règles :
-     * - Numérique → valeur brute en XAF (PAS de division par 100)
-     * - "xx" ou vide → 0 XAF
-     * - "1.000/100" ou "2.000/100" → prendre la partie avant "/" (ex: 1000)
-     *   et enrichir la description avec "1000 FCFA pour 100 unités"
-     *
-     * @param cell             cellule Excel
-     * @param descriptionHolder tableau[0] contenant la description existante ;
-     *                          modifié en place si format X/100 détecté
+     * Résout les catégories du fichier. Rejouée à chaque reprise pour remplir
+     * le cache (perdu au redémarrage) ; les compteurs ne sont tenus qu'au
+     * premier passage.
      */
-    private BigDecimal parsePrixVenteAvecDesc(Cell cell, String[] descriptionHolder) {
-        if (cell == null) return BigDecimal.ZERO;
+    private void resoudreCategories(ImportJobStore.JobData job) {
+        job.setPhase(ImportJobStore.Phase.CATEGORIES);
+        suiviService.publier(job);
 
-        if (cell.getCellType() == CellType.NUMERIC) {
-            double val = cell.getNumericCellValue();
-            // Valeur 0 → prix inconnu, on met 0 (le livre reste ACTIF)
-            return BigDecimal.valueOf(val).setScale(2);
+        List<String> noms;
+        synchronized (job.getCategoriesFichier()) {
+            noms = new ArrayList<>(job.getCategoriesFichier());
+        }
+        boolean compter = !job.isCategoriesResolues();
+        Map<String, String> cache = job.getCacheCategories();
+        for (String nom : noms) {
+            if (cache.containsKey(LivreImportLineService.cleCategorie(nom))) continue;
+            boolean creee = resoudreCategorie(nom, cache);
+            if (!compter) continue;
+            if (creee) job.getCategoriesCrees().incrementAndGet();
+            else       job.getCategoriesExistantes().incrementAndGet();
         }
+        job.setCategoriesResolues(true);
+        jobStore.sauvegarder(job);
+    }
 
-        if (cell.getCellType() == CellType.STRING) {
-            String raw = cell.getStringCellValue().trim();
+    /**
+     * Création de catégorie sérialisée par nom, tous imports confondus. Le
+     * verrou englobe l'appel transactionnel : la catégorie est commitée avant
+     * qu'un autre job ne la cherche, sans quoi il la créerait une seconde fois.
+     */
+    private boolean resoudreCategorie(String nom, Map<String, String> cache) {
+        Object verrou = verrousCategories.computeIfAbsent(LivreImportLineService.cleCategorie(nom), k -> new Object());
+        synchronized (verrou) {
+            return lineService.resoudreCategorie(nom, cache);
+        }
+    }
 
-            // Cas "xx" ou vide → 0
-            if (raw.isEmpty() || raw.equalsIgnoreCase("xx")) {
-                return BigDecimal.ZERO;
-            }
+    /**
+     * Les partitions sont traitées en parallèle sur le pool de workers, une
+     * par catégorie résolue : deux noms du fichier menant à la même catégorie
+     * (« Fulfulde » et « Fulfuldé », la base ignorant les accents) passent
+     * dans le même worker. Dans une partition, les lots passent dans l'ordre
+     * du fichier, ce qui garde les codes livre déterministes. Une partition
+     * en échec n'arrête pas les autres : le job passe ensuite en ECHEC et la
+     * reprise ne rejoue que les lots non commités.
+     */
+    private void inserer(ImportJobStore.JobData job) throws Exception {
+        job.setPhase(ImportJobStore.Phase.INSERTION);
+
+        // Lots numérotés dans l'ordre du fichier : chaque liste reste triée
+        Map<String, List<Integer>> lotsParPartition = new TreeMap<>();
+        for (int n = 0; n < job.totalBatches(); n++) {
+            if (job.estCommite(n)) continue;
+            String cle = job.getPartitions().get(job.getPartitionDuLot().get(n));
+            String categorieId = job.getCacheCategories().getOrDefault(cle, cle);
+            lotsParPartition.computeIfAbsent(categorieId, k -> new ArrayList<>()).add(n);
+        }
+
+        long debutMs = System.currentTimeMillis();
+        List<Future<?>> partitions = new ArrayList<>();
+        for (List<Integer> lots : lotsParPartition.values()) {
+            partitions.add(workers.submit(() -> {
+                traiterPartition(job, lots);
+                return null;
+            }));
+        }
 
-            // Cas "1.000/100" ou "2.000/100" → prix par paquet de 100
-            if (raw.contains("/")) {
-                String avant = raw.split("/")[0].trim();
-                // Supprimer les séparateurs de milliers (point ou espace)
-                avant = avant.replace(".", "").replace(" ", "").replace(",", "");
+        Exception echec = null;
+        try {
+            for (Future<?> partition : partitions) {
                 try {
-                    BigDecimal prixPaquet = new BigDecimal(avant).setScale(2);
-                    // Enrichir la description
-                    String noteParquet = prixPaquet.toPlainString().replace(".00", "")
-                            + " FCFA pour 100 unités";
-                    if (descriptionHolder[0] != null && !descriptionHolder[0].isBlank()) {
-                        descriptionHolder[0] = descriptionHolder[0] + " | " + noteParquet;
-                    } else {
-                        descriptionHolder[0] = noteParquet;
-                    }
-                    return prixPaquet;
-                } catch (NumberFormatException e) {
-                    log.warn("Prix invalide ignoré : '{}'", raw);
-                    return BigDecimal.ZERO;
+                    partition.get();
+                } catch (ExecutionException e) {
+                    if (echec == null) echec = e.getCause() instanceof Exception cause ? cause : e;
                 }
             }
-
-            // Autre chaîne numérique simple (ex: "3000")
-            String cleaned = raw.replace(".", "").replace(",", "").replace(" ", "");
-            try {
-                return new BigDecimal(cleaned).setScale(2);
-            } catch (NumberFormatException e) {
-                log.warn("Prix non parseable : '{}'", raw);
-                return BigDecimal.ZERO;
-            }
+        } finally {
+            job.getDureeInsertionMs().addAndGet(System.currentTimeMillis() - debutMs);
         }
-
-        return BigDecimal.ZERO;
+        if (echec != null) throw echec;
     }
 
-    // Méthode legacy conservée pour compatibilité — délègue vers la version avec desc
-    private BigDecimal parsePrixVente(Cell cell, String titre, String remarque) {
-        String[] holder = { remarque };
-        return parsePrixVenteAvecDesc(cell, holder);
-    }
+    private void traiterPartition(ImportJobStore.JobData job, List<Integer> lots) throws IOException {
+        for (int n : lots) {
+            if (job.isAnnulationDemandee()) return;
 
-    /**
-     * Parse le prix d'achat (colonne F = "prix net").
-     * Même logique que prixVente mais sans la gestion du format X/100.
-     */
-    private BigDecimal parsePrixAchat(Cell cell) {
-        if (cell == null) return null;
+            List<ImportJobStore.LigneParsee> lot = jobStore.lireLot(job, n);
+            traiterBatch(job, n, lot);
 
-        if (cell.getCellType() == CellType.NUMERIC) {
-            double val = cell.getNumericCellValue();
-            if (val == 0.0) return null;
-            return BigDecimal.valueOf(val).setScale(2);
+            // Lot marqué commité sur disque avant d'en supprimer le fichier :
+            // un arrêt entre les deux laisse au pire un fichier orphelin
+            jobStore.sauvegarder(job);
+            jobStore.libererLot(job, n);
+            suiviService.publier(job);
         }
+    }
 
-        if (cell.getCellType() == CellType.STRING) {
-            String raw = cell.getStringCellValue().trim();
-            if (raw.isEmpty() || raw.equalsIgnoreCase("xx")) return null;
-            String cleaned = raw.replace(".", "").replace(",", "").replace(" ", "");
-            try {
-                BigDecimal val = new BigDecimal(cleaned).setScale(2);
-                return val.compareTo(BigDecimal.ZERO) == 0 ? null : val;
-            } catch (NumberFormatException e) {
-                return null;
+    /**
+     * Un batch = une transaction. Si elle échoue en bloc (base indisponible…),
+     * rien n'est compté : le job passe en ECHEC et la reprise rejoue ce batch.
+     */
+    private void traiterBatch(ImportJobStore.JobData job, int numero, List<ImportJobStore.LigneParsee> batch) {
+        // Filet de sécurité : catégorie absente du cache (ne devrait pas arriver après CATEGORIES)
+        for (ImportJobStore.LigneParsee ligne : batch) {
+            if (!job.getCacheCategories().containsKey(LivreImportLineService.cleCategorie(ligne.categorie()))) {
+                resoudreCategorie(ligne.categorie(), job.getCacheCategories());
             }
         }
 
-        return null;
+        LivreImportLineService.ResultatLot resultat =
+                lineService.insererLot(batch, job.getCacheCategories(), job.getIndexDoublons());
+
+        // Transaction commitée : les livres insérés deviennent des doublons pour la suite
+        job.getIndexDoublons().ajouter(resultat.inserees());
+        job.enregistrerLot(numero, batch.size(), resultat.ajoutes(), resultat.doublons(), resultat.erreurs());
     }
 
     // ══════════════════════════════════════════════════════════════════
     // HELPERS
     // ══════════════════════════════════════════════════════════════════
 
-    private ImportJobDTO.ImportRapportFinal construireRapportFinal(
-            int totalLignes, List<ImportJobDTO.LigneErreur> erreurs) {
-        return ImportJobDTO.ImportRapportFinal.builder()
-                .totalLignesLues(totalLignes)
-                .livresAjoutes(totalLignes - erreurs.size())
-                .livresIgnores(erreurs.size())
-                .erreurs(erreurs)
-                .build();
+    /** CSV / TSV : lecteur texte ; tout le reste passe par le lecteur XLSX. */
+    public static boolean estFormatTexte(String nomFichier) {
+        String nom = nomFichier.toLowerCase();
+        return nom.endsWith(".csv") || nom.endsWith(".tsv");
     }
 
-    private String getCellString(Row row, int col) {
-        Cell cell = row.getCell(col);
-        if (cell == null) return "";
-        return switch (cell.getCellType()) {
-            case STRING  -> cell.getStringCellValue();
-            case NUMERIC -> String.valueOf((long) cell.getNumericCellValue());
-            case BOOLEAN -> String.valueOf(cell.getBooleanCellValue());
-            default      -> "";
-        };
+    private boolean arreterSiAnnule(ImportJobStore.JobData job) {
+        if (!job.isAnnulationDemandee()) return false;
+        job.setStatut(ImportJobStore.Statut.ANNULE);
+        job.setTermineAt(LocalDateTime.now());
+        log.info("Import {} annulé après {} batches", job.getJobId(), job.batchesTraites());
+        return true;
+    }
+
+    private ImportJobStore.JobData getJob(String jobId) {
+        ImportJobStore.JobData job = jobStore.getJob(jobId);
+        if (job == null) throw new ResourceNotFoundException("Job d'import", "id", jobId);
+        return job;
     }
-}
\ No newline at end of file
+}
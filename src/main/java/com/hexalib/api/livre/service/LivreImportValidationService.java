@@ -0,0 +1,134 @@
+package com.hexalib.api.livre.service;
+
+import com.hexalib.api.livre.dto.ImportJobDTO;
+import com.hexalib.api.livre.repository.LivreImportRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Validation à blanc d'un catalogue : même lecture, mêmes règles de ligne et
+ * même détection de doublons que l'import, sans rien écrire.
+ *
+ * Les catégories sont lues en une requête, puis les clés (titre, auteur) de
+ * chaque catégorie existante du fichier au premier passage ; chaque ligne ne
+ * coûte ensuite que des recherches dans des ensembles en mémoire.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class LivreImportValidationService {
+
+    private static final String PREFIXE_NOUVELLE = "nouvelle:";
+
+    private final LivreXlsxReader       xlsxReader;
+    private final LivreCsvReader        csvReader;
+    private final LivreImportRepository livreImportRepository;
+
+    public ImportJobDTO.ImportValidation valider(MultipartFile file) throws IOException {
+        long debutMs = System.currentTimeMillis();
+        String nom = file.getOriginalFilename();
+
+        // Les lecteurs travaillent sur un fichier : copie temporaire, supprimée en sortie
+        Path copie = Files.createTempFile("hexalib-validation-", nom.substring(nom.lastIndexOf('.')));
+        try {
+            file.transferTo(copie);
+            Analyse analyse = new Analyse(chargerCategories());
+            File source = copie.toFile();
+            int total = LivreImportService.estFormatTexte(nom)
+                    ? csvReader.lire(source, analyse)
+                    : xlsxReader.lire(source, analyse);
+
+            long dureeMs = System.currentTimeMillis() - debutMs;
+            log.info("Validation de {} : {} lignes en {} ms — {} à ajouter, {} doublons, {} erreurs",
+                    nom, total, dureeMs, analyse.ajoutes, analyse.doublons, analyse.erreurs.size());
+
+            return ImportJobDTO.ImportValidation.builder()
+                    .totalLignesLues(total)
+                    .livresAjoutes(analyse.ajoutes)
+                    .livresIgnores(analyse.doublons)
+                    .categoriesExistantes(analyse.categoriesExistantes)
+                    .nouvellesCategories(new ArrayList<>(analyse.nouvellesCategories.values()))
+                    .dureeMs(dureeMs)
+                    .erreurs(analyse.erreurs)
+                    .build();
+        } finally {
+            Files.deleteIfExists(copie);
+        }
+    }
+
+    /** Clé normalisée du nom → id, pour toutes les catégories du catalogue. */
+    private Map<String, String> chargerCategories() {
+        Map<String, String> categories = new HashMap<>();
+        for (Object[] row : livreImportRepository.findCategories()) {
+            categories.put(LivreImportLineService.cleCategorie((String) row[1]), (String) row[0]);
+        }
+        return categories;
+    }
+
+    /** Bilan construit au fil de la lecture, une ligne à la fois. */
+    private final class Analyse implements Consumer<ImportJobStore.LigneParsee> {
+
+        private final Map<String, String> categories;
+        private final IndexDoublons index = new IndexDoublons();
+        private final Map<String, String> nouvellesCategories = new LinkedHashMap<>();
+        private final List<ImportJobDTO.LigneErreur> erreurs = new ArrayList<>();
+        private int categoriesExistantes;
+        private int ajoutes;
+        private int doublons;
+
+        Analyse(Map<String, String> categories) {
+            this.categories = categories;
+        }
+
+        @Override
+        public void accept(ImportJobStore.LigneParsee ligne) {
+            String raison = LivreImportLineService.verifierLigne(ligne);
+            if (raison != null) {
+                erreurs.add(ImportJobDTO.LigneErreur.builder()
+                        .numeroLigne(ligne.numeroLigne())
+                        .titre(ligne.titre())
+                        .raison(raison)
+                        .build());
+                return;
+            }
+
+            IndexDoublons.Cle cle = IndexDoublons.cle(ligne.titre(), LivreImportLineService.auteur(ligne),
+                    categorieId(ligne.categorie()));
+            if (index.contient(cle)) {
+                doublons++;
+                return;
+            }
+            // Une ligne acceptée devient un doublon pour la suite du fichier, comme à l'import
+            index.ajouter(List.of(cle));
+            ajoutes++;
+        }
+
+        /** Id de la catégorie existante, ou id fictif d'une catégorie qui serait créée. */
+        private String categorieId(String nomCategorie) {
+            String cle = LivreImportLineService.cleCategorie(nomCategorie);
+            String id = categories.get(cle);
+            if (id == null) {
+                nouvellesCategories.putIfAbsent(cle, LivreImportLineService.nomCategorie(nomCategorie));
+                return PREFIXE_NOUVELLE + cle;
+            }
+            index.chargerSiAbsent(id, () -> {
+                categoriesExistantes++;
+                return livreImportRepository.findTitresAuteursByCategorie(id);
+            });
+            return id;
+        }
+    }
+}
@@ -0,0 +1,303 @@
+package com.hexalib.api.livre.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.apache.poi.openxml4j.exceptions.OpenXML4JException;
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackageAccess;
+import org.apache.poi.ss.usermodel.CellType;
+import org.apache.poi.ss.util.CellReference;
+import org.apache.poi.util.XMLHelper;
+import org.apache.poi.xssf.eventusermodel.ReadOnlySharedStringsTable;
+import org.apache.poi.xssf.eventusermodel.XSSFReader;
+import org.springframework.stereotype.Component;
+import org.xml.sax.Attributes;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+import org.xml.sax.XMLReader;
+import org.xml.sax.helpers.DefaultHandler;
+
+import javax.xml.parsers.ParserConfigurationException;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.function.Consumer;
+
+/**
+ * Lecture en flux (SAX) de la première feuille d'un catalogue XLSX.
+ *
+ * Le XML de la feuille est parcouru sans construire le classeur : seules les
+ * 7 premières cellules de la ligne courante sont en mémoire, chaque ligne
+ * valide est transmise au consommateur dès sa fin de balise.
+ * Les types de cellule reproduisent ceux de XSSFWorkbook (NUMERIC, STRING,
+ * BOOLEAN, FORMULA…) pour garder exactement les règles de parsing des prix.
+ *
+ * Colonnes : A catégorie, B titre, C auteur/ISBN, D éditeur,
+ *            E prix de vente, F prix net (achat), G remarque.
+ */
+@Component
+@Slf4j
+public class LivreXlsxReader {
+
+    static final int DATA_START_ROW = 4; // ligne 5 dans Excel (0-indexé)
+    private static final int NB_COLONNES = 7;
+
+    /** Valeur brute d'une cellule : type POI + texte (valeur numérique non formatée). */
+    record Cellule(CellType type, String valeur) {
+        static final Cellule VIDE = new Cellule(CellType.BLANK, "");
+    }
+
+    /**
+     * Parcourt le fichier et transmet chaque ligne valide (titre non vide).
+     * @return nombre de lignes transmises
+     */
+    public int lire(File fichier, Consumer<ImportJobStore.LigneParsee> consumer) throws IOException {
+        try (OPCPackage pkg = OPCPackage.open(fichier, PackageAccess.READ)) {
+            ReadOnlySharedStringsTable strings = new ReadOnlySharedStringsTable(pkg);
+            XSSFReader xssfReader = new XSSFReader(pkg);
+
+            Iterator<InputStream> feuilles = xssfReader.getSheetsData();
+            if (!feuilles.hasNext()) return 0;
+
+            FeuilleHandler handler = new FeuilleHandler(strings, consumer);
+            try (InputStream feuille = feuilles.next()) {
+                XMLReader parser = XMLHelper.newXMLReader();
+                parser.setContentHandler(handler);
+                parser.parse(new InputSource(feuille));
+            }
+            return handler.lignesTransmises;
+
+        } catch (OpenXML4JException | SAXException | ParserConfigurationException e) {
+            throw new IOException("Fichier Excel illisible : " + e.getMessage(), e);
+        }
+    }
+
+    // ══════════════════════════════════════════════════════════════════
+    // CONSTRUCTION D'UNE LIGNE
+    // ══════════════════════════════════════════════════════════════════
+
+    static ImportJobStore.LigneParsee construireLigne(int numeroLigne, Cellule[] cellules) {
+        String categorie  = texte(cellules[0]).trim();
+        String titre      = texte(cellules[1]).trim();
+        String auteurIsbn = texte(cellules[2]).trim();
+        String editeur    = texte(cellules[3]).trim();
+        String remarque   = texte(cellules[6]).trim();
+
+        // Ignorer les lignes sans titre
+        if (titre.isBlank()) return null;
+
+        // ── Colonne E : prix de vente (peut enrichir la remarque) ─────
+        String[] descriptionHolder = { remarque.isBlank() ? null : remarque };
+        BigDecimal prixVente = parsePrixVenteAvecDesc(cellules[4], descriptionHolder);
+
+        // ── Colonne F : prix net → prix d'achat ───────────────────────
+        BigDecimal prixAchat = parsePrixAchat(cellules[5]);
+
+        return new ImportJobStore.LigneParsee(
+                numeroLigne,
+                categorie.isBlank() ? "Non classé" : categorie,
+                titre,
+                auteurIsbn.isBlank() ? null : auteurIsbn,
+                editeur.isBlank()    ? null : editeur,
+                prixVente,
+                prixAchat,
+                false,           // inactif : toujours false, toutes les catégories sont ACTIF
+                descriptionHolder[0]
+        );
+    }
+
+    // ══════════════════════════════════════════════════════════════════
+    // PARSING DES PRIX
+    // ══════════════════════════════════════════════════════════════════
+
+    /**
+     * Parse le prix de vente (colonne E).
+     *
+     * Règles :
+     * - Numérique → valeur brute en XAF (PAS de division par 100)
+     * - "xx" ou vide → 0 XAF
+     * - "1.000/100" ou "2.000/100" → prendre la partie avant "/" (ex: 1000)
+     *   et enrichir la description avec "1000 FCFA pour 100 unités"
+     *
+     * @param cell              cellule lue
+     * @param descriptionHolder tableau[0] contenant la description existante ;
+     *                          modifié en place si format X/100 détecté
+     */
+    static BigDecimal parsePrixVenteAvecDesc(Cellule cell, String[] descriptionHolder) {
+        if (cell.type() == CellType.NUMERIC) {
+            double val = Double.parseDouble(cell.valeur());
+            // Valeur 0 → prix inconnu, on met 0 (le livre reste ACTIF)
+            return BigDecimal.valueOf(val).setScale(2);
+        }
+
+        if (cell.type() == CellType.STRING) {
+            String raw = cell.valeur().trim();
+
+            // Cas "xx" ou vide → 0
+            if (raw.isEmpty() || raw.equalsIgnoreCase("xx")) {
+                return BigDecimal.ZERO;
+            }
+
+            // Cas "1.000/100" ou "2.000/100" → prix par paquet de 100
+            if (raw.contains("/")) {
+                String avant = raw.split("/")[0].trim();
+                // Supprimer les séparateurs de milliers (point ou espace)
+                avant = avant.replace(".", "").replace(" ", "").replace(",", "");
+                try {
+                    BigDecimal prixPaquet = new BigDecimal(avant).setScale(2);
+                    // Enrichir la description
+                    String noteParquet = prixPaquet.toPlainString().replace(".00", "")
+                            + " FCFA pour 100 unités";
+                    if (descriptionHolder[0] != null && !descriptionHolder[0].isBlank()) {
+                        descriptionHolder[0] = descriptionHolder[0] + " | " + noteParquet;
+                    } else {
+                        descriptionHolder[0] = noteParquet;
+                    }
+                    return prixPaquet;
+                } catch (NumberFormatException e) {
+                    log.warn("Prix invalide ignoré : '{}'", raw);
+                    return BigDecimal.ZERO;
+                }
+            }
+
+            // Autre chaîne numérique simple (ex: "3000")
+            String cleaned = raw.replace(".", "").replace(",", "").replace(" ", "");
+            try {
+                return new BigDecimal(cleaned).setScale(2);
+            } catch (NumberFormatException e) {
+                log.warn("Prix non parseable : '{}'", raw);
+                return BigDecimal.ZERO;
+            }
+        }
+
+        return BigDecimal.ZERO;
+    }
+
+    /**
+     * Parse le prix d'achat (colonne F = "prix net").
+     * Même logique que prixVente mais sans la gestion du format X/100.
+     */
+    static BigDecimal parsePrixAchat(Cellule cell) {
+        if (cell.type() == CellType.NUMERIC) {
+            double val = Double.parseDouble(cell.valeur());
+            if (val == 0.0) return null;
+            return BigDecimal.valueOf(val).setScale(2);
+        }
+
+        if (cell.type() == CellType.STRING) {
+            String raw = cell.valeur().trim();
+            if (raw.isEmpty() || raw.equalsIgnoreCase("xx")) return null;
+            String cleaned = raw.replace(".", "").replace(",", "").replace(" ", "");
+            try {
+                BigDecimal val = new BigDecimal(cleaned).setScale(2);
+                return val.compareTo(BigDecimal.ZERO) == 0 ? null : val;
+            } catch (NumberFormatException e) {
+                return null;
+            }
+        }
+
+        return null;
+    }
+
+    private static String texte(Cellule cell) {
+        return switch (cell.type()) {
+            case STRING  -> cell.valeur();
+            case NUMERIC -> String.valueOf((long) Double.parseDouble(cell.valeur()));
+            case BOOLEAN -> String.valueOf("1".equals(cell.valeur()));
+            default      -> "";
+        };
+    }
+
+    // ══════════════════════════════════════════════════════════════════
+    // HANDLER SAX
+    // ══════════════════════════════════════════════════════════════════
+
+    /**
+     * Balises utiles de sheetN.xml :
+     * {@code <row r="5"><c r="E5" t="s"><f>…</f><v>12</v></c>…</row>},
+     * texte en ligne dans {@code <is><t>…</t></is>}.
+     */
+    private static final class FeuilleHandler extends DefaultHandler {
+
+        private final ReadOnlySharedStringsTable strings;
+        private final Consumer<ImportJobStore.LigneParsee> consumer;
+
+        private final Cellule[] cellules = new Cellule[NB_COLONNES];
+        private final StringBuilder valeur = new StringBuilder();
+
+        private int     ligne = -1;      // 0-indexé
+        private int     colonne = -1;
+        private String  typeCellule;
+        private boolean formule;
+        private boolean collecte;
+        int lignesTransmises;
+
+        FeuilleHandler(ReadOnlySharedStringsTable strings, Consumer<ImportJobStore.LigneParsee> consumer) {
+            this.strings  = strings;
+            this.consumer = consumer;
+        }
+
+        @Override
+        public void startElement(String uri, String localName, String qName, Attributes attrs) {
+            switch (localName) {
+                case "row" -> {
+                    String r = attrs.getValue("r");
+                    ligne = r != null ? Integer.parseInt(r) - 1 : ligne + 1;
+                    colonne = -1;
+                    Arrays.fill(cellules, Cellule.VIDE);
+                }
+                case "c" -> {
+                    String r = attrs.getValue("r");
+                    colonne = r != null ? new CellReference(r).getCol() : colonne + 1;
+                    typeCellule = attrs.getValue("t");
+                    formule = false;
+                    valeur.setLength(0);
+                }
+                case "f" -> formule = true;
+                case "v", "t" -> collecte = colonne < NB_COLONNES;
+                default -> { }
+            }
+        }
+
+        @Override
+        public void characters(char[] ch, int start, int length) {
+            if (collecte) valeur.append(ch, start, length);
+        }
+
+        @Override
+        public void endElement(String uri, String localName, String qName) {
+            switch (localName) {
+                case "v", "t" -> collecte = false;
+                case "c" -> {
+                    if (colonne < NB_COLONNES) cellules[colonne] = cellule();
+                }
+                case "row" -> {
+                    if (ligne < DATA_START_ROW) return;
+                    ImportJobStore.LigneParsee parsee = construireLigne(ligne + 1, cellules);
+                    if (parsee != null) {
+                        consumer.accept(parsee);
+                        lignesTransmises++;
+                    }
+                }
+                default -> { }
+            }
+        }
+
+        private Cellule cellule() {
+            if (formule) return new Cellule(CellType.FORMULA, "");
+            if (typeCellule == null || "n".equals(typeCellule)) {
+                return valeur.isEmpty() ? Cellule.VIDE : new Cellule(CellType.NUMERIC, valeur.toString());
+            }
+            return switch (typeCellule) {
+                case "s" -> new Cellule(CellType.STRING,
+                        strings.getItemAt(Integer.parseInt(valeur.toString().trim())).getString());
+                case "inlineStr", "str" -> new Cellule(CellType.STRING, valeur.toString());
+                case "b" -> new Cellule(CellType.BOOLEAN, valeur.toString());
+                case "e" -> new Cellule(CellType.ERROR, valeur.toString());
+                default  -> Cellule.VIDE;
+            };
+        }
+    }
+}
@@ -1,17 +1,21 @@
 package com.hexalib.api.rapport.controller;
 
-import com.hexalib.api.auth.model.User;
+import com.hexalib.api.auth.security.UtilisateurConnecte;
 import com.hexalib.api.common.dto.ApiResponse;
+import com.hexalib.api.export.service.ExportArtefactService;
 import com.hexalib.api.rapport.dto.DashboardAdminDTO;
 import com.hexalib.api.rapport.dto.DashboardVendeurDTO;
 import com.hexalib.api.rapport.dto.RapportJournalierDTO;
 import com.hexalib.api.rapport.dto.RapportPeriodiqueDTO;
+import com.hexalib.api.rapport.service.RapportExcelService;
 import com.hexalib.api.rapport.service.RapportPdfService;
 import com.hexalib.api.rapport.service.RapportService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
 import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
@@ -20,7 +24,9 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
 import java.time.LocalDate;
 
 @RestController
@@ -30,8 +36,10 @@ import java.time.LocalDate;
 @SecurityRequirement(name = "bearerAuth")
 public class RapportController {
 
-    private final RapportService    rapportService;
-    private final RapportPdfService rapportPdfService;
+    private final RapportService        rapportService;
+    private final RapportPdfService     rapportPdfService;
+    private final RapportExcelService   rapportExcelService;
+    private final ExportArtefactService exportArtefactService;   // PDF journalier et hebdomadaire en cache
 
     // ==================== DASHBOARDS ====================
 
@@ -63,14 +71,26 @@ public class RapportController {
 
     @GetMapping("/cloture-journaliere/pdf")
     @PreAuthorize("hasRole('ADMIN')")
-    public ResponseEntity<byte[]> downloadRapportJournalierPDF(
-            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date) {
+    public ResponseEntity<Resource> downloadRapportJournalierPDF(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date)
+            throws IOException {
         LocalDate d = date != null ? date : LocalDate.now();
         return createPdfResponse(
-            rapportPdfService.genererRapportJournalierPDF(rapportService.getRapportJournalier(d)),
+            new FileSystemResource(exportArtefactService.rapportJournalier(d)),
             "Rapport_Journalier_" + d + ".pdf");
     }
 
+    @GetMapping("/cloture-journaliere/xlsx")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Rapport journalier (Excel)", description = "Une feuille par section, classements complets")
+    public ResponseEntity<StreamingResponseBody> downloadRapportJournalierExcel(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date) {
+        LocalDate d = date != null ? date : LocalDate.now();
+        RapportJournalierDTO rapport = rapportService.getRapportJournalier(d, true);
+        return createExcelResponse(out -> rapportExcelService.genererRapportJournalierExcel(rapport, out),
+            "Rapport_Journalier_" + d + ".xlsx");
+    }
+
     // ==================== RAPPORTS PÉRIODIQUES ====================
 
     @GetMapping("/hebdomadaire")
@@ -83,14 +103,25 @@ public class RapportController {
 
     @GetMapping("/hebdomadaire/pdf")
     @PreAuthorize("hasRole('ADMIN')")
-    public ResponseEntity<byte[]> downloadRapportHebdomadairePDF(
-            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate dateFin) {
+    public ResponseEntity<Resource> downloadRapportHebdomadairePDF(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate dateFin)
+            throws IOException {
         LocalDate d = dateFin != null ? dateFin : LocalDate.now();
         return createPdfResponse(
-            rapportPdfService.genererRapportPeriodiquePDF(rapportService.getRapportHebdomadaire(d)),
+            new FileSystemResource(exportArtefactService.rapportHebdomadaire(d)),
             "Rapport_Hebdomadaire_" + d + ".pdf");
     }
 
+    @GetMapping("/hebdomadaire/xlsx")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Rapport hebdomadaire (Excel)", description = "Une feuille par section, classements complets")
+    public ResponseEntity<StreamingResponseBody> downloadRapportHebdomadaireExcel(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate dateFin) {
+        LocalDate d = dateFin != null ? dateFin : LocalDate.now();
+        return createExcelResponse(rapportService.getRapportHebdomadaire(d, true),
+            "Rapport_Hebdomadaire_" + d + ".xlsx");
+    }
+
     @GetMapping("/mensuel")
     @PreAuthorize("hasRole('ADMIN')")
     public ResponseEntity<ApiResponse<RapportPeriodiqueDTO>> getRapportMensuel(
@@ -101,13 +132,25 @@ public class RapportController {
 
     @GetMapping("/mensuel/pdf")
     @PreAuthorize("hasRole('ADMIN')")
-    public ResponseEntity<byte[]> downloadRapportMensuelPDF(
-            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date) {
+    @Operation(summary = "Rapport mensuel (PDF)", description = "complet=true : classements complets au lieu des tops")
+    public ResponseEntity<StreamingResponseBody> downloadRapportMensuelPDF(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date,
+            @RequestParam(defaultValue = "false") boolean complet) {
         LocalDate d = date != null ? date : LocalDate.now();
         String filename = "Rapport_Mensuel_" + d.getYear() + "_"
                 + String.format("%02d", d.getMonthValue()) + ".pdf";
-        return createPdfResponse(
-            rapportPdfService.genererRapportPeriodiquePDF(rapportService.getRapportMensuel(d)), filename);
+        return createPdfResponse(rapportService.getRapportMensuel(d, complet), filename);
+    }
+
+    @GetMapping("/mensuel/xlsx")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Rapport mensuel (Excel)", description = "Une feuille par section, classements complets")
+    public ResponseEntity<StreamingResponseBody> downloadRapportMensuelExcel(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date) {
+        LocalDate d = date != null ? date : LocalDate.now();
+        String filename = "Rapport_Mensuel_" + d.getYear() + "_"
+                + String.format("%02d", d.getMonthValue()) + ".xlsx";
+        return createExcelResponse(rapportService.getRapportMensuel(d, true), filename);
     }
 
     @GetMapping("/annuel")
@@ -120,12 +163,21 @@ public class RapportController {
 
     @GetMapping("/annuel/pdf")
     @PreAuthorize("hasRole('ADMIN')")
-    public ResponseEntity<byte[]> downloadRapportAnnuelPDF(
+    @Operation(summary = "Rapport annuel (PDF)", description = "complet=true : classements complets au lieu des tops")
+    public ResponseEntity<StreamingResponseBody> downloadRapportAnnuelPDF(
+            @RequestParam(required = false) Integer annee,
+            @RequestParam(defaultValue = "false") boolean complet) {
+        int y = annee != null ? annee : LocalDate.now().getYear();
+        return createPdfResponse(rapportService.getRapportAnnuel(y, complet), "Rapport_Annuel_" + y + ".pdf");
+    }
+
+    @GetMapping("/annuel/xlsx")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Rapport annuel (Excel)", description = "Une feuille par section, classements complets")
+    public ResponseEntity<StreamingResponseBody> downloadRapportAnnuelExcel(
             @RequestParam(required = false) Integer annee) {
         int y = annee != null ? annee : LocalDate.now().getYear();
-        return createPdfResponse(
-            rapportPdfService.genererRapportPeriodiquePDF(rapportService.getRapportAnnuel(y)),
-            "Rapport_Annuel_" + y + ".pdf");
+        return createExcelResponse(rapportService.getRapportAnnuel(y, true), "Rapport_Annuel_" + y + ".xlsx");
     }
 
     @GetMapping("/personnalise")
@@ -138,17 +190,29 @@ public class RapportController {
 
     @GetMapping("/personnalise/pdf")
     @PreAuthorize("hasRole('ADMIN')")
-    public ResponseEntity<byte[]> downloadRapportPersonnalisePDF(
+    @Operation(summary = "Rapport personnalisé (PDF)", description = "complet=true : classements complets au lieu des tops")
+    public ResponseEntity<StreamingResponseBody> downloadRapportPersonnalisePDF(
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate dateDebut,
-            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate dateFin) {
-        return createPdfResponse(
-            rapportPdfService.genererRapportPeriodiquePDF(rapportService.getRapportPersonnalise(dateDebut, dateFin)),
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate dateFin,
+            @RequestParam(defaultValue = "false") boolean complet) {
+        return createPdfResponse(rapportService.getRapportPersonnalise(dateDebut, dateFin, complet),
             "Rapport_" + dateDebut + "_" + dateFin + ".pdf");
     }
 
+    @GetMapping("/personnalise/xlsx")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Rapport personnalisé (Excel)", description = "Une feuille par section, classements complets")
+    public ResponseEntity<StreamingResponseBody> downloadRapportPersonnaliseExcel(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate dateDebut,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate dateFin) {
+        return createExcelResponse(rapportService.getRapportPersonnalise(dateDebut, dateFin, true),
+            "Rapport_" + dateDebut + "_" + dateFin + ".xlsx");
+    }
+
     // ==================== UTILITAIRES ====================
 
-    private ResponseEntity<byte[]> createPdfResponse(byte[] pdf, String filename) {
+    /** PDF du cache disque, copié dans la réponse sans passer par un byte[]. */
+    private ResponseEntity<Resource> createPdfResponse(Resource pdf, String filename) {
         HttpHeaders headers = new HttpHeaders();
         headers.setContentType(MediaType.APPLICATION_PDF);
         headers.setContentDispositionFormData("attachment", filename);
@@ -156,18 +220,41 @@ public class RapportController {
         return new ResponseEntity<>(pdf, headers, HttpStatus.OK);
     }
 
+    /** Rapport calculé avant la réponse ; le PDF est écrit en flux, page par page. */
+    private ResponseEntity<StreamingResponseBody> createPdfResponse(RapportPeriodiqueDTO rapport, String filename) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_PDF);
+        headers.setContentDispositionFormData("attachment", filename);
+        headers.setCacheControl("must-revalidate, post-check=0, pre-check=0");
+        StreamingResponseBody corps = out -> rapportPdfService.genererRapportPeriodiquePDF(rapport, out);
+        return new ResponseEntity<>(corps, headers, HttpStatus.OK);
+    }
+
+    /** Rapport calculé avant la réponse ; seul le classeur est écrit en flux. */
+    private ResponseEntity<StreamingResponseBody> createExcelResponse(RapportPeriodiqueDTO rapport, String filename) {
+        return createExcelResponse(out -> rapportExcelService.genererRapportPeriodiqueExcel(rapport, out), filename);
+    }
+
+    private ResponseEntity<StreamingResponseBody> createExcelResponse(StreamingResponseBody corps, String filename) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.parseMediaType(
+                "application/vnd.openxmlformats-officedocument.spreadsheetml.sheet"));
+        headers.setContentDispositionFormData("attachment", filename);
+        headers.setCacheControl("must-revalidate, post-check=0, pre-check=0");
+        return new ResponseEntity<>(corps, headers, HttpStatus.OK);
+    }
+
     /**
      * Récupère l'UUID du vendeur connecté.
-     * Le principal est directement l'entité User (via UserDetailsServiceImpl
-     * qui retourne userRepository.findByEmail(...))
+     * Le principal est construit par JwtAuthenticationFilter à partir des
+     * claims du token : l'id y figure, sans lecture de la base.
      */
     private String getVendeurId(Authentication authentication) {
         if (authentication == null || !authentication.isAuthenticated()) {
             throw new IllegalStateException("Utilisateur non authentifié");
         }
-        // Le principal EST l'entité User grâce à UserDetailsServiceImpl
-        if (authentication.getPrincipal() instanceof User user) {
-            return user.getId();
+        if (authentication.getPrincipal() instanceof UtilisateurConnecte utilisateur) {
+            return utilisateur.id();
         }
         throw new IllegalStateException("Principal inattendu : " + authentication.getPrincipal().getClass());
     }
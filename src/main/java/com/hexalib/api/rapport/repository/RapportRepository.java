@@ -1,60 +1,100 @@
 package com.hexalib.api.rapport.repository;
 
+import com.hexalib.api.archivage.service.LimiteArchive;
+import com.hexalib.api.archivage.service.LimiteArchive.Tranches;
 import com.hexalib.api.rapport.dto.*;
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Query;
+import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Repository;
 
 import java.math.BigDecimal;
+import java.math.RoundingMode;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
 import java.util.List;
-
+import java.util.Map;
+
+/**
+ * Requêtes statistiques sur les ventes.
+ *
+ * Chaque période est découpée par {@link LimiteArchive} : la partie antérieure
+ * à la limite est lue dans les résumés journaliers (resume_ventes_jour,
+ * resume_ventes_livres_jour), la partie postérieure dans les tables chaudes.
+ * Sans mois archivé, seules les requêtes chaudes sont exécutées.
+ */
 @Repository
+@RequiredArgsConstructor
 public class RapportRepository {
 
     @PersistenceContext
     private EntityManager em;
 
+    private final LimiteArchive limiteArchive;
+
     // ==================== STATISTIQUES GLOBALES ====================
 
     public long countVentesByPeriode(LocalDateTime debut, LocalDateTime fin) {
-        return (long) em.createQuery(
-                "SELECT COUNT(v) FROM Vente v WHERE v.statut = 'VALIDEE' " +
-                "AND v.dateVente BETWEEN :debut AND :fin")
-                .setParameter("debut", debut)
-                .setParameter("fin", fin)
-                .getSingleResult();
+        Tranches t = limiteArchive.decouper(debut, fin);
+        long total = t.archive() ? resumeArchive(t, null).nombreVentes() : 0L;
+        if (t.chaud()) {
+            total += (long) em.createQuery(
+                    "SELECT COUNT(v) FROM Vente v WHERE v.statut = 'VALIDEE' " +
+                    "AND v.dateVente BETWEEN :debut AND :fin")
+                    .setParameter("debut", t.debutChaud())
+                    .setParameter("fin", fin)
+                    .getSingleResult();
+        }
+        return total;
     }
 
     public BigDecimal sumCAByPeriode(LocalDateTime debut, LocalDateTime fin) {
-        BigDecimal result = (BigDecimal) em.createQuery(
-                "SELECT COALESCE(SUM(v.montantTTC), 0) FROM Vente v WHERE v.statut = 'VALIDEE' " +
-                "AND v.dateVente BETWEEN :debut AND :fin")
-                .setParameter("debut", debut)
-                .setParameter("fin", fin)
-                .getSingleResult();
-        return result != null ? result : BigDecimal.ZERO;
+        Tranches t = limiteArchive.decouper(debut, fin);
+        BigDecimal total = t.archive() ? resumeArchive(t, null).chiffreAffaires() : BigDecimal.ZERO;
+        if (t.chaud()) {
+            BigDecimal result = (BigDecimal) em.createQuery(
+                    "SELECT COALESCE(SUM(v.montantTTC), 0) FROM Vente v WHERE v.statut = 'VALIDEE' " +
+                    "AND v.dateVente BETWEEN :debut AND :fin")
+                    .setParameter("debut", t.debutChaud())
+                    .setParameter("fin", fin)
+                    .getSingleResult();
+            total = total.add(result != null ? result : BigDecimal.ZERO);
+        }
+        return total;
     }
 
     public BigDecimal sumReductionsByPeriode(LocalDateTime debut, LocalDateTime fin) {
-        BigDecimal result = (BigDecimal) em.createQuery(
-                "SELECT COALESCE(SUM(v.montantReductions), 0) FROM Vente v WHERE v.statut = 'VALIDEE' " +
-                "AND v.dateVente BETWEEN :debut AND :fin")
-                .setParameter("debut", debut)
-                .setParameter("fin", fin)
-                .getSingleResult();
-        return result != null ? result : BigDecimal.ZERO;
+        Tranches t = limiteArchive.decouper(debut, fin);
+        BigDecimal total = t.archive() ? resumeArchive(t, null).reductions() : BigDecimal.ZERO;
+        if (t.chaud()) {
+            BigDecimal result = (BigDecimal) em.createQuery(
+                    "SELECT COALESCE(SUM(v.montantReductions), 0) FROM Vente v WHERE v.statut = 'VALIDEE' " +
+                    "AND v.dateVente BETWEEN :debut AND :fin")
+                    .setParameter("debut", t.debutChaud())
+                    .setParameter("fin", fin)
+                    .getSingleResult();
+            total = total.add(result != null ? result : BigDecimal.ZERO);
+        }
+        return total;
     }
 
     public long sumQuantiteLivresVendus(LocalDateTime debut, LocalDateTime fin) {
-        Object result = em.createQuery(
-                "SELECT COALESCE(SUM(lv.quantite), 0) FROM LigneVente lv " +
-                "JOIN lv.vente v WHERE v.statut = 'VALIDEE' " +
-                "AND v.dateVente BETWEEN :debut AND :fin")
-                .setParameter("debut", debut)
-                .setParameter("fin", fin)
-                .getSingleResult();
-        return result != null ? ((Number) result).longValue() : 0L;
+        Tranches t = limiteArchive.decouper(debut, fin);
+        long total = t.archive() ? resumeArchive(t, null).quantiteLivres() : 0L;
+        if (t.chaud()) {
+            Object result = em.createQuery(
+                    "SELECT COALESCE(SUM(lv.quantite), 0) FROM LigneVente lv " +
+                    "JOIN lv.vente v WHERE v.statut = 'VALIDEE' " +
+                    "AND v.dateVente BETWEEN :debut AND :fin")
+                    .setParameter("debut", t.debutChaud())
+                    .setParameter("fin", fin)
+                    .getSingleResult();
+            total += result != null ? ((Number) result).longValue() : 0L;
+        }
+        return total;
     }
 
     // ==================== STATISTIQUES PAR VENDEUR ====================
@@ -63,59 +103,81 @@ public class RapportRepository {
      * Stats d'un vendeur spécifique sur une période
      */
     public long countVentesByVendeur(String vendeurId, LocalDateTime debut, LocalDateTime fin) {
-        return (long) em.createQuery(
-                "SELECT COUNT(v) FROM Vente v WHERE v.statut = 'VALIDEE' " +
-                "AND v.vendeur.id = :vendeurId " +
-                "AND v.dateVente BETWEEN :debut AND :fin")
-                .setParameter("vendeurId", vendeurId)
-                .setParameter("debut", debut)
-                .setParameter("fin", fin)
-                .getSingleResult();
+        Tranches t = limiteArchive.decouper(debut, fin);
+        long total = t.archive() ? resumeArchive(t, vendeurId).nombreVentes() : 0L;
+        if (t.chaud()) {
+            total += (long) em.createQuery(
+                    "SELECT COUNT(v) FROM Vente v WHERE v.statut = 'VALIDEE' " +
+                    "AND v.vendeur.id = :vendeurId " +
+                    "AND v.dateVente BETWEEN :debut AND :fin")
+                    .setParameter("vendeurId", vendeurId)
+                    .setParameter("debut", t.debutChaud())
+                    .setParameter("fin", fin)
+                    .getSingleResult();
+        }
+        return total;
     }
 
     public BigDecimal sumCAByVendeur(String vendeurId, LocalDateTime debut, LocalDateTime fin) {
-        BigDecimal result = (BigDecimal) em.createQuery(
-                "SELECT COALESCE(SUM(v.montantTTC), 0) FROM Vente v WHERE v.statut = 'VALIDEE' " +
-                "AND v.vendeur.id = :vendeurId " +
-                "AND v.dateVente BETWEEN :debut AND :fin")
-                .setParameter("vendeurId", vendeurId)
-                .setParameter("debut", debut)
-                .setParameter("fin", fin)
-                .getSingleResult();
-        return result != null ? result : BigDecimal.ZERO;
+        Tranches t = limiteArchive.decouper(debut, fin);
+        BigDecimal total = t.archive() ? resumeArchive(t, vendeurId).chiffreAffaires() : BigDecimal.ZERO;
+        if (t.chaud()) {
+            BigDecimal result = (BigDecimal) em.createQuery(
+                    "SELECT COALESCE(SUM(v.montantTTC), 0) FROM Vente v WHERE v.statut = 'VALIDEE' " +
+                    "AND v.vendeur.id = :vendeurId " +
+                    "AND v.dateVente BETWEEN :debut AND :fin")
+                    .setParameter("vendeurId", vendeurId)
+                    .setParameter("debut", t.debutChaud())
+                    .setParameter("fin", fin)
+                    .getSingleResult();
+            total = total.add(result != null ? result : BigDecimal.ZERO);
+        }
+        return total;
     }
 
     public BigDecimal sumReductionsByVendeur(String vendeurId, LocalDateTime debut, LocalDateTime fin) {
-        BigDecimal result = (BigDecimal) em.createQuery(
-                "SELECT COALESCE(SUM(v.montantReductions), 0) FROM Vente v WHERE v.statut = 'VALIDEE' " +
-                "AND v.vendeur.id = :vendeurId " +
-                "AND v.dateVente BETWEEN :debut AND :fin")
-                .setParameter("vendeurId", vendeurId)
-                .setParameter("debut", debut)
-                .setParameter("fin", fin)
-                .getSingleResult();
-        return result != null ? result : BigDecimal.ZERO;
+        Tranches t = limiteArchive.decouper(debut, fin);
+        BigDecimal total = t.archive() ? resumeArchive(t, vendeurId).reductions() : BigDecimal.ZERO;
+        if (t.chaud()) {
+            BigDecimal result = (BigDecimal) em.createQuery(
+                    "SELECT COALESCE(SUM(v.montantReductions), 0) FROM Vente v WHERE v.statut = 'VALIDEE' " +
+                    "AND v.vendeur.id = :vendeurId " +
+                    "AND v.dateVente BETWEEN :debut AND :fin")
+                    .setParameter("vendeurId", vendeurId)
+                    .setParameter("debut", t.debutChaud())
+                    .setParameter("fin", fin)
+                    .getSingleResult();
+            total = total.add(result != null ? result : BigDecimal.ZERO);
+        }
+        return total;
     }
 
     public long sumQuantiteLivresVendusByVendeur(String vendeurId, LocalDateTime debut, LocalDateTime fin) {
-        Object result = em.createQuery(
-                "SELECT COALESCE(SUM(lv.quantite), 0) FROM LigneVente lv " +
-                "JOIN lv.vente v WHERE v.statut = 'VALIDEE' " +
-                "AND v.vendeur.id = :vendeurId " +
-                "AND v.dateVente BETWEEN :debut AND :fin")
-                .setParameter("vendeurId", vendeurId)
-                .setParameter("debut", debut)
-                .setParameter("fin", fin)
-                .getSingleResult();
-        return result != null ? ((Number) result).longValue() : 0L;
+        Tranches t = limiteArchive.decouper(debut, fin);
+        long total = t.archive() ? resumeArchive(t, vendeurId).quantiteLivres() : 0L;
+        if (t.chaud()) {
+            Object result = em.createQuery(
+                    "SELECT COALESCE(SUM(lv.quantite), 0) FROM LigneVente lv " +
+                    "JOIN lv.vente v WHERE v.statut = 'VALIDEE' " +
+                    "AND v.vendeur.id = :vendeurId " +
+                    "AND v.dateVente BETWEEN :debut AND :fin")
+                    .setParameter("vendeurId", vendeurId)
+                    .setParameter("debut", t.debutChaud())
+                    .setParameter("fin", fin)
+                    .getSingleResult();
+            total += result != null ? ((Number) result).longValue() : 0L;
+        }
+        return total;
     }
 
     /**
-     * Top livres vendus par un vendeur spécifique
+     * Top livres vendus par un vendeur spécifique ({@code limite} null : tous)
      */
     @SuppressWarnings("unchecked")
-    public List<TopLivreDTO> getTopLivresByVendeur(String vendeurId, LocalDateTime debut, LocalDateTime fin) {
-        return em.createQuery(
+    public List<TopLivreDTO> getTopLivresByVendeur(String vendeurId, LocalDateTime debut, LocalDateTime fin,
+                                                   Integer limite) {
+        Tranches t = limiteArchive.decouper(debut, fin);
+        List<TopLivreDTO> chaud = !t.chaud() ? List.of() : limiter(em.createQuery(
                 "SELECT new com.hexalib.api.rapport.dto.TopLivreDTO(" +
                 "l.id, l.code, l.titre, l.auteur, c.nom, " +
                 "SUM(lv.quantite), " +
@@ -130,36 +192,60 @@ public class RapportRepository {
                 "AND v.vendeur.id = :vendeurId " +
                 "AND v.dateVente BETWEEN :debut AND :fin " +
                 "GROUP BY l.id, l.code, l.titre, l.auteur, c.nom " +
-                "ORDER BY SUM(lv.quantite) DESC")
+                "ORDER BY SUM(lv.quantite) DESC"), t, limite)
                 .setParameter("vendeurId", vendeurId)
-                .setParameter("debut", debut)
+                .setParameter("debut", t.debutChaud())
                 .setParameter("fin", fin)
                 .getResultList();
+        return t.archive() ? tronquer(fusionnerTopLivres(chaud, topLivresArchive(t, vendeurId)), limite) : chaud;
     }
 
     // ==================== ÉVOLUTION CA ====================
 
     @SuppressWarnings("unchecked")
     public List<EvolutionCADTO> getEvolutionCA(LocalDateTime debut, LocalDateTime fin) {
-        return em.createQuery(
-                "SELECT new com.hexalib.api.rapport.dto.EvolutionCADTO(" +
-                "CAST(v.dateVente AS LocalDate), " +
-                "COALESCE(SUM(v.montantTTC), 0), " +
-                "COUNT(v)) " +
-                "FROM Vente v WHERE v.statut = 'VALIDEE' " +
-                "AND v.dateVente BETWEEN :debut AND :fin " +
-                "GROUP BY CAST(v.dateVente AS LocalDate) " +
-                "ORDER BY CAST(v.dateVente AS LocalDate)")
-                .setParameter("debut", debut)
-                .setParameter("fin", fin)
-                .getResultList();
+        Tranches t = limiteArchive.decouper(debut, fin);
+        List<EvolutionCADTO> result = new ArrayList<>();
+        if (t.archive()) {
+            // Jours archivés tous antérieurs aux jours chauds : simple concaténation
+            result.addAll(parJours(em.createQuery(
+                    "SELECT new com.hexalib.api.rapport.dto.EvolutionCADTO(" +
+                    "r.jour, " +
+                    "COALESCE(SUM(r.montantTTC), 0), " +
+                    "SUM(r.nombreVentes)) " +
+                    "FROM ResumeVentesJour r " +
+                    "WHERE r.jour BETWEEN :jourDebut AND :jourFin " +
+                    "GROUP BY r.jour " +
+                    "ORDER BY r.jour"), t)
+                    .getResultList());
+        }
+        if (t.chaud()) {
+            result.addAll(em.createQuery(
+                    "SELECT new com.hexalib.api.rapport.dto.EvolutionCADTO(" +
+                    "CAST(v.dateVente AS LocalDate), " +
+                    "COALESCE(SUM(v.montantTTC), 0), " +
+                    "COUNT(v)) " +
+                    "FROM Vente v WHERE v.statut = 'VALIDEE' " +
+                    "AND v.dateVente BETWEEN :debut AND :fin " +
+                    "GROUP BY CAST(v.dateVente AS LocalDate) " +
+                    "ORDER BY CAST(v.dateVente AS LocalDate)")
+                    .setParameter("debut", t.debutChaud())
+                    .setParameter("fin", fin)
+                    .getResultList());
+        }
+        return result;
     }
 
     // ==================== TOP LIVRES ====================
 
+    /**
+     * Livres les plus vendus, les {@code limite} premiers (null : tous).
+     * Sur une période entièrement chaude, la limite est appliquée par la base.
+     */
     @SuppressWarnings("unchecked")
-    public List<TopLivreDTO> getTopLivres(LocalDateTime debut, LocalDateTime fin) {
-        return em.createQuery(
+    public List<TopLivreDTO> getTopLivres(LocalDateTime debut, LocalDateTime fin, Integer limite) {
+        Tranches t = limiteArchive.decouper(debut, fin);
+        List<TopLivreDTO> chaud = !t.chaud() ? List.of() : limiter(em.createQuery(
                 "SELECT new com.hexalib.api.rapport.dto.TopLivreDTO(" +
                 "l.id, l.code, l.titre, l.auteur, c.nom, " +
                 "SUM(lv.quantite), " +
@@ -173,17 +259,20 @@ public class RapportRepository {
                 "WHERE v.statut = 'VALIDEE' " +
                 "AND v.dateVente BETWEEN :debut AND :fin " +
                 "GROUP BY l.id, l.code, l.titre, l.auteur, c.nom " +
-                "ORDER BY SUM(lv.quantite) DESC")
-                .setParameter("debut", debut)
+                "ORDER BY SUM(lv.quantite) DESC"), t, limite)
+                .setParameter("debut", t.debutChaud())
                 .setParameter("fin", fin)
                 .getResultList();
+        return t.archive() ? tronquer(fusionnerTopLivres(chaud, topLivresArchive(t, null)), limite) : chaud;
     }
 
     // ==================== TOP CATÉGORIES ====================
 
+    /** Catégories les plus vendues, les {@code limite} premières (null : toutes). */
     @SuppressWarnings("unchecked")
-    public List<TopCategorieDTO> getTopCategories(LocalDateTime debut, LocalDateTime fin) {
-        return em.createQuery(
+    public List<TopCategorieDTO> getTopCategories(LocalDateTime debut, LocalDateTime fin, Integer limite) {
+        Tranches t = limiteArchive.decouper(debut, fin);
+        List<TopCategorieDTO> chaud = !t.chaud() ? List.of() : limiter(em.createQuery(
                 "SELECT new com.hexalib.api.rapport.dto.TopCategorieDTO(" +
                 "c.id, c.nom, c.code, " +
                 "SUM(lv.quantite), " +
@@ -197,17 +286,48 @@ public class RapportRepository {
                 "WHERE v.statut = 'VALIDEE' " +
                 "AND v.dateVente BETWEEN :debut AND :fin " +
                 "GROUP BY c.id, c.nom, c.code " +
-                "ORDER BY SUM(lv.quantite) DESC")
-                .setParameter("debut", debut)
+                "ORDER BY SUM(lv.quantite) DESC"), t, limite)
+                .setParameter("debut", t.debutChaud())
                 .setParameter("fin", fin)
                 .getResultList();
+        if (!t.archive()) return chaud;
+
+        // nombreVentes archivé : somme par livre, une vente de plusieurs livres
+        // d'une même catégorie y compte plusieurs fois
+        List<TopCategorieDTO> archive = parJours(em.createQuery(
+                "SELECT new com.hexalib.api.rapport.dto.TopCategorieDTO(" +
+                "c.id, c.nom, c.code, " +
+                "SUM(r.quantite), " +
+                "SUM(r.sousTotal), " +
+                "SUM(r.nombreVentes), " +
+                "0) " +
+                "FROM ResumeVentesLivreJour r " +
+                "JOIN r.livre l " +
+                "JOIN l.categorie c " +
+                "WHERE r.jour BETWEEN :jourDebut AND :jourFin " +
+                "GROUP BY c.id, c.nom, c.code"), t)
+                .getResultList();
+
+        Map<String, TopCategorieDTO> parId = new LinkedHashMap<>();
+        for (TopCategorieDTO dto : concat(chaud, archive)) {
+            parId.merge(dto.getCategorieId(), dto, (a, b) -> {
+                a.setQuantiteVendue(a.getQuantiteVendue() + b.getQuantiteVendue());
+                a.setChiffreAffaires(a.getChiffreAffaires().add(b.getChiffreAffaires()));
+                a.setNombreVentes(a.getNombreVentes() + b.getNombreVentes());
+                return a;
+            });
+        }
+        List<TopCategorieDTO> result = new ArrayList<>(parId.values());
+        result.sort(Comparator.comparingLong(TopCategorieDTO::getQuantiteVendue).reversed());
+        return tronquer(result, limite);
     }
 
     // ==================== PERFORMANCE VENDEURS ====================
 
     @SuppressWarnings("unchecked")
 public List<PerformanceVendeurDTO> getPerformanceVendeurs(LocalDateTime debut, LocalDateTime fin) {
-    return em.createQuery(
+    Tranches t = limiteArchive.decouper(debut, fin);
+    List<PerformanceVendeurDTO> chaud = !t.chaud() ? List.of() : em.createQuery(
             "SELECT new com.hexalib.api.rapport.dto.PerformanceVendeurDTO(" +
             "u.id, u.nomComplet, " +
             "COUNT(v.id), " +
@@ -220,9 +340,35 @@ public List<PerformanceVendeurDTO> getPerformanceVendeurs(LocalDateTime debut, L
             "AND v.dateVente BETWEEN :debut AND :fin " +
             "GROUP BY u.id, u.nomComplet " +
             "ORDER BY SUM(v.montantTTC) DESC")
-            .setParameter("debut", debut)
+            .setParameter("debut", t.debutChaud())
             .setParameter("fin", fin)
             .getResultList();
+    if (!t.archive()) return chaud;
+
+    List<PerformanceVendeurDTO> archive = parJours(em.createQuery(
+            "SELECT new com.hexalib.api.rapport.dto.PerformanceVendeurDTO(" +
+            "u.id, u.nomComplet, " +
+            "SUM(r.nombreVentes), " +
+            "SUM(r.montantTTC), " +
+            "SUM(r.quantiteLivres)) " +
+            "FROM ResumeVentesJour r " +
+            "JOIN r.vendeur u " +
+            "WHERE r.jour BETWEEN :jourDebut AND :jourFin " +
+            "GROUP BY u.id, u.nomComplet"), t)
+            .getResultList();
+
+    Map<String, PerformanceVendeurDTO> parId = new LinkedHashMap<>();
+    for (PerformanceVendeurDTO dto : concat(chaud, archive)) {
+        parId.merge(dto.getVendeurId(), dto, (a, b) -> {
+            a.setNombreVentes(a.getNombreVentes() + b.getNombreVentes());
+            a.setChiffreAffaires(a.getChiffreAffaires().add(b.getChiffreAffaires()));
+            a.setNombreLivresVendus(a.getNombreLivresVendus() + b.getNombreLivresVendus());
+            return a;
+        });
+    }
+    List<PerformanceVendeurDTO> result = new ArrayList<>(parId.values());
+    result.sort(Comparator.comparing(PerformanceVendeurDTO::getChiffreAffaires).reversed());
+    return result;
 }
 
     // ==================== STOCK CRITIQUE ====================
@@ -252,79 +398,247 @@ public List<PerformanceVendeurDTO> getPerformanceVendeurs(LocalDateTime debut, L
     // ==================== ANALYSE RÉDUCTIONS ====================
 
     public long countVentesAvecReduction(LocalDateTime debut, LocalDateTime fin) {
-        return (long) em.createQuery(
-                "SELECT COUNT(DISTINCT v.id) FROM Vente v " +
-                "WHERE v.statut = 'VALIDEE' " +
-                "AND v.montantReductions > 0 " +
-                "AND v.dateVente BETWEEN :debut AND :fin")
-                .setParameter("debut", debut)
-                .setParameter("fin", fin)
-                .getSingleResult();
+        Tranches t = limiteArchive.decouper(debut, fin);
+        long total = t.archive() ? resumeArchive(t, null).ventesAvecReduction() : 0L;
+        if (t.chaud()) {
+            total += (long) em.createQuery(
+                    "SELECT COUNT(DISTINCT v.id) FROM Vente v " +
+                    "WHERE v.statut = 'VALIDEE' " +
+                    "AND v.montantReductions > 0 " +
+                    "AND v.dateVente BETWEEN :debut AND :fin")
+                    .setParameter("debut", t.debutChaud())
+                    .setParameter("fin", fin)
+                    .getSingleResult();
+        }
+        return total;
     }
 
     public BigDecimal getReductionMoyenne(LocalDateTime debut, LocalDateTime fin) {
-        // AVG() retourne Double en JPQL/MySQL — ne pas caster en BigDecimal directement
-        Object result = em.createQuery(
-                "SELECT AVG(v.montantReductions) FROM Vente v " +
-                "WHERE v.statut = 'VALIDEE' AND v.montantReductions > 0 " +
-                "AND v.dateVente BETWEEN :debut AND :fin")
-                .setParameter("debut", debut)
-                .setParameter("fin", fin)
-                .getSingleResult();
-        if (result == null) return BigDecimal.ZERO;
-        return new BigDecimal(result.toString());
+        Tranches t = limiteArchive.decouper(debut, fin);
+        if (!t.archive()) {
+            // AVG() retourne Double en JPQL/MySQL — ne pas caster en BigDecimal directement
+            Object result = em.createQuery(
+                    "SELECT AVG(v.montantReductions) FROM Vente v " +
+                    "WHERE v.statut = 'VALIDEE' AND v.montantReductions > 0 " +
+                    "AND v.dateVente BETWEEN :debut AND :fin")
+                    .setParameter("debut", debut)
+                    .setParameter("fin", fin)
+                    .getSingleResult();
+            if (result == null) return BigDecimal.ZERO;
+            return new BigDecimal(result.toString());
+        }
+
+        // Moyenne recomposée : Σ réductions / nombre de ventes avec réduction
+        ResumeArchive archive = resumeArchive(t, null);
+        BigDecimal somme = archive.reductions();
+        long nombre = archive.ventesAvecReduction();
+        if (t.chaud()) {
+            Object[] row = (Object[]) em.createQuery(
+                    "SELECT COALESCE(SUM(v.montantReductions), 0), COUNT(v) FROM Vente v " +
+                    "WHERE v.statut = 'VALIDEE' AND v.montantReductions > 0 " +
+                    "AND v.dateVente BETWEEN :debut AND :fin")
+                    .setParameter("debut", t.debutChaud())
+                    .setParameter("fin", fin)
+                    .getSingleResult();
+            somme = somme.add(new BigDecimal(row[0].toString()));
+            nombre += ((Number) row[1]).longValue();
+        }
+        if (nombre == 0) return BigDecimal.ZERO;
+        return somme.divide(BigDecimal.valueOf(nombre), 2, RoundingMode.HALF_UP);
     }
 
     public BigDecimal getReductionMaximale(LocalDateTime debut, LocalDateTime fin) {
-        // MAX() sur DECIMAL — retirer COALESCE(..., 0) qui peut forcer un type entier
-        Object result = em.createQuery(
-                "SELECT MAX(v.montantReductions) FROM Vente v " +
-                "WHERE v.statut = 'VALIDEE' " +
-                "AND v.dateVente BETWEEN :debut AND :fin")
-                .setParameter("debut", debut)
-                .setParameter("fin", fin)
-                .getSingleResult();
-        if (result == null) return BigDecimal.ZERO;
-        return new BigDecimal(result.toString());
+        Tranches t = limiteArchive.decouper(debut, fin);
+        BigDecimal max = t.archive() ? resumeArchive(t, null).reductionMax() : null;
+        if (t.chaud()) {
+            // MAX() sur DECIMAL — retirer COALESCE(..., 0) qui peut forcer un type entier
+            Object result = em.createQuery(
+                    "SELECT MAX(v.montantReductions) FROM Vente v " +
+                    "WHERE v.statut = 'VALIDEE' " +
+                    "AND v.dateVente BETWEEN :debut AND :fin")
+                    .setParameter("debut", t.debutChaud())
+                    .setParameter("fin", fin)
+                    .getSingleResult();
+            if (result != null) {
+                BigDecimal chaud = new BigDecimal(result.toString());
+                max = max == null ? chaud : max.max(chaud);
+            }
+        }
+        return max != null ? max : BigDecimal.ZERO;
     }
 
     // ==================== ROTATION STOCK ====================
 
+    /**
+     * Ventes et stock par catégorie active. Stock et ventes sont agrégés
+     * chacun de leur côté avant la jointure : ni le stock n'est multiplié
+     * par le nombre de lignes vendues, ni les ventes hors période comptées.
+     */
     @SuppressWarnings("unchecked")
     public List<RotationStockDTO> getRotationStock(LocalDateTime debut, LocalDateTime fin) {
-        return em.createQuery(
-                "SELECT new com.hexalib.api.rapport.dto.RotationStockDTO(" +
-                "c.nom, " +
-                "COALESCE(SUM(lv.quantite), 0), " +
-                "COALESCE(SUM(l.quantiteStock), 0), " +
-                "0) " +
-                "FROM Categorie c " +
-                "LEFT JOIN Livre l ON l.categorie.id = c.id " +
-                "LEFT JOIN LigneVente lv ON lv.livre.id = l.id " +
-                "LEFT JOIN lv.vente v ON v.id = lv.vente.id AND v.statut = 'VALIDEE' " +
-                "AND v.dateVente BETWEEN :debut AND :fin " +
-                "WHERE c.statut = 'ACTIF' " +
-                "GROUP BY c.nom " +
-                "ORDER BY SUM(lv.quantite) DESC")
-                .setParameter("debut", debut)
+        Tranches t = limiteArchive.decouper(debut, fin);
+        // La requête chaude liste aussi le stock actuel de chaque catégorie :
+        // elle est toujours exécutée, sur une plage vide si tout est archivé
+        List<Object[]> rows = em.createNativeQuery("""
+                SELECT c.nom, COALESCE(vendu.quantite, 0), COALESCE(stock.quantite, 0)
+                FROM categories c
+                LEFT JOIN (SELECT categorie_id, SUM(quantite_stock) AS quantite
+                           FROM livres
+                           GROUP BY categorie_id) stock ON stock.categorie_id = c.id
+                LEFT JOIN (SELECT l.categorie_id, SUM(lv.quantite) AS quantite
+                           FROM lignes_vente lv
+                           JOIN ventes v ON v.id = lv.vente_id
+                           JOIN livres l ON l.id = lv.livre_id
+                           WHERE v.statut = 'VALIDEE'
+                             AND v.date_vente BETWEEN :debut AND :fin
+                           GROUP BY l.categorie_id) vendu ON vendu.categorie_id = c.id
+                WHERE c.statut = 'ACTIF'
+                ORDER BY 2 DESC
+                """)
+                .setParameter("debut", t.chaud() ? t.debutChaud() : fin)
                 .setParameter("fin", fin)
                 .getResultList();
+        List<RotationStockDTO> rotations = new ArrayList<>(rows.size());
+        for (Object[] row : rows) {
+            rotations.add(new RotationStockDTO((String) row[0],
+                    ((Number) row[1]).longValue(), ((Number) row[2]).longValue(), 0));
+        }
+        if (!t.archive()) return rotations;
+
+        List<Object[]> archive = parJours(em.createQuery(
+                "SELECT c.nom, SUM(r.quantite) " +
+                "FROM ResumeVentesLivreJour r " +
+                "JOIN r.livre l " +
+                "JOIN l.categorie c " +
+                "WHERE c.statut = 'ACTIF' " +
+                "AND r.jour BETWEEN :jourDebut AND :jourFin " +
+                "GROUP BY c.nom"), t)
+                .getResultList();
+        Map<String, Long> quantites = new LinkedHashMap<>();
+        for (Object[] row : archive) {
+            quantites.put((String) row[0], ((Number) row[1]).longValue());
+        }
+        rotations.forEach(r -> r.setQuantiteVendue(
+                r.getQuantiteVendue() + quantites.getOrDefault(r.getCategorieNom(), 0L)));
+        List<RotationStockDTO> result = new ArrayList<>(rotations);
+        result.sort(Comparator.comparingLong(RotationStockDTO::getQuantiteVendue).reversed());
+        return result;
     }
 
     // ==================== MARGE BÉNÉFICIAIRE ====================
 
     public BigDecimal getMargeBeneficiaire(LocalDateTime debut, LocalDateTime fin) {
-        BigDecimal result = (BigDecimal) em.createQuery(
-                "SELECT COALESCE(SUM((lv.prixUnitaire - l.prixAchat) * lv.quantite), 0) " +
-                "FROM LigneVente lv " +
-                "JOIN lv.livre l " +
-                "JOIN lv.vente v " +
-                "WHERE v.statut = 'VALIDEE' " +
-                "AND l.prixAchat IS NOT NULL " +
-                "AND v.dateVente BETWEEN :debut AND :fin")
-                .setParameter("debut", debut)
-                .setParameter("fin", fin)
+        Tranches t = limiteArchive.decouper(debut, fin);
+        BigDecimal total = BigDecimal.ZERO;
+        if (t.archive()) {
+            // Σ (pu - pa) × q = Σ pu × q - pa × Σ q, avec le prix d'achat courant
+            BigDecimal archive = (BigDecimal) parJours(em.createQuery(
+                    "SELECT COALESCE(SUM(r.montantBrut - l.prixAchat * r.quantite), 0) " +
+                    "FROM ResumeVentesLivreJour r " +
+                    "JOIN r.livre l " +
+                    "WHERE l.prixAchat IS NOT NULL " +
+                    "AND r.jour BETWEEN :jourDebut AND :jourFin"), t)
+                    .getSingleResult();
+            if (archive != null) total = total.add(archive);
+        }
+        if (t.chaud()) {
+            BigDecimal result = (BigDecimal) em.createQuery(
+                    "SELECT COALESCE(SUM((lv.prixUnitaire - l.prixAchat) * lv.quantite), 0) " +
+                    "FROM LigneVente lv " +
+                    "JOIN lv.livre l " +
+                    "JOIN lv.vente v " +
+                    "WHERE v.statut = 'VALIDEE' " +
+                    "AND l.prixAchat IS NOT NULL " +
+                    "AND v.dateVente BETWEEN :debut AND :fin")
+                    .setParameter("debut", t.debutChaud())
+                    .setParameter("fin", fin)
+                    .getSingleResult();
+            if (result != null) total = total.add(result);
+        }
+        return total;
+    }
+
+    // ==================== RÉSUMÉS ARCHIVÉS ====================
+
+    private record ResumeArchive(long nombreVentes, BigDecimal chiffreAffaires, BigDecimal reductions,
+                                 long quantiteLivres, long ventesAvecReduction, BigDecimal reductionMax) {}
+
+    private ResumeArchive resumeArchive(Tranches t, String vendeurId) {
+        Object[] row = (Object[]) parJours(em.createQuery(
+                "SELECT COALESCE(SUM(r.nombreVentes), 0), " +
+                "COALESCE(SUM(r.montantTTC), 0), " +
+                "COALESCE(SUM(r.montantReductions), 0), " +
+                "COALESCE(SUM(r.quantiteLivres), 0), " +
+                "COALESCE(SUM(r.nombreVentesAvecReduction), 0), " +
+                "MAX(r.reductionMax) " +
+                "FROM ResumeVentesJour r " +
+                "WHERE r.jour BETWEEN :jourDebut AND :jourFin " +
+                "AND (:vendeurId IS NULL OR r.vendeur.id = :vendeurId)"), t)
+                .setParameter("vendeurId", vendeurId)
                 .getSingleResult();
-        return result != null ? result : BigDecimal.ZERO;
+        return new ResumeArchive(
+                ((Number) row[0]).longValue(),
+                new BigDecimal(row[1].toString()),
+                new BigDecimal(row[2].toString()),
+                ((Number) row[3]).longValue(),
+                ((Number) row[4]).longValue(),
+                row[5] != null ? new BigDecimal(row[5].toString()) : null);
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<TopLivreDTO> topLivresArchive(Tranches t, String vendeurId) {
+        return parJours(em.createQuery(
+                "SELECT new com.hexalib.api.rapport.dto.TopLivreDTO(" +
+                "l.id, l.code, l.titre, l.auteur, c.nom, " +
+                "SUM(r.quantite), " +
+                "SUM(r.sousTotal), " +
+                "SUM(r.nombreVentes), " +
+                "0) " +
+                "FROM ResumeVentesLivreJour r " +
+                "JOIN r.livre l " +
+                "JOIN l.categorie c " +
+                "WHERE r.jour BETWEEN :jourDebut AND :jourFin " +
+                "AND (:vendeurId IS NULL OR r.vendeur.id = :vendeurId) " +
+                "GROUP BY l.id, l.code, l.titre, l.auteur, c.nom"), t)
+                .setParameter("vendeurId", vendeurId)
+                .getResultList();
+    }
+
+    private static List<TopLivreDTO> fusionnerTopLivres(List<TopLivreDTO> chaud, List<TopLivreDTO> archive) {
+        Map<String, TopLivreDTO> parId = new LinkedHashMap<>();
+        for (TopLivreDTO dto : concat(chaud, archive)) {
+            parId.merge(dto.getLivreId(), dto, (a, b) -> {
+                a.setQuantiteVendue(a.getQuantiteVendue() + b.getQuantiteVendue());
+                a.setChiffreAffaires(a.getChiffreAffaires().add(b.getChiffreAffaires()));
+                a.setNombreVentes(a.getNombreVentes() + b.getNombreVentes());
+                return a;
+            });
+        }
+        List<TopLivreDTO> result = new ArrayList<>(parId.values());
+        result.sort(Comparator.comparingLong(TopLivreDTO::getQuantiteVendue).reversed());
+        return result;
+    }
+
+    /** Limite posée par la base quand il n'y a pas de partie archivée à fusionner. */
+    private static Query limiter(Query query, Tranches t, Integer limite) {
+        return limite != null && !t.archive() ? query.setMaxResults(limite) : query;
+    }
+
+    /** Limite appliquée après fusion chaud + archive (listes déjà agrégées). */
+    private static <T> List<T> tronquer(List<T> liste, Integer limite) {
+        return limite != null && liste.size() > limite ? new ArrayList<>(liste.subList(0, limite)) : liste;
+    }
+
+    private static Query parJours(Query query, Tranches t) {
+        return query
+                .setParameter("jourDebut", t.jourDebut())
+                .setParameter("jourFin", t.jourFin());
     }
-}
\ No newline at end of file
+
+    private static <T> List<T> concat(List<T> a, List<T> b) {
+        List<T> result = new ArrayList<>(a.size() + b.size());
+        result.addAll(a);
+        result.addAll(b);
+        return result;
+    }
+}
@@ -0,0 +1,265 @@
+package com.hexalib.api.rapport.service;
+
+import com.hexalib.api.rapport.dto.*;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.poi.ss.usermodel.*;
+import org.apache.poi.ss.util.CellRangeAddress;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+
+/**
+ * Export Excel des rapports, une feuille par section (synthèse, top livres,
+ * catégories, vendeurs, rotation du stock, réductions…).
+ *
+ * Les rapports reçus contiennent les classements complets
+ * ({@code RapportService.getRapport…(…, true)}) ; le classeur SXSSF n'en
+ * garde que {@value #FENETRE_LIGNES} lignes en mémoire et s'écrit
+ * directement dans le flux de la réponse.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class RapportExcelService {
+
+    private static final int FENETRE_LIGNES = 100;
+    private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("dd/MM/yyyy");
+
+    public void genererRapportJournalierExcel(RapportJournalierDTO rapport, OutputStream out) throws IOException {
+        log.info("Génération Excel du rapport journalier pour le {}", rapport.getDate());
+        try (Classeur classeur = new Classeur()) {
+            String periode = "Rapport journalier du " + rapport.getDate().format(DATE_FORMATTER);
+
+            Feuille synthese = classeur.feuille("Synthèse", periode,
+                    new String[]{"INDICATEUR", "VALEUR"}, new int[]{35, 20});
+            synthese.ligne("Nombre de ventes", rapport.getNombreVentes());
+            synthese.ligne("Chiffre d'affaires (XAF)", rapport.getChiffreAffaires());
+            synthese.ligne("Montant des réductions (XAF)", rapport.getMontantReductions());
+            synthese.ligne("Livres vendus", rapport.getNombreLivresVendus());
+
+            topLivres(classeur, periode, rapport.getTopLivres());
+            topCategories(classeur, periode, rapport.getTopCategories());
+            vendeurs(classeur, periode, rapport.getCaParVendeur());
+
+            Feuille alertes = classeur.feuille("Alertes stock", periode,
+                    new String[]{"CODE", "TITRE", "AUTEUR", "CATÉGORIE", "STOCK", "SEUIL MIN.", "STATUT"},
+                    new int[]{18, 40, 25, 20, 10, 10, 12});
+            for (LivreStockCritiqueDTO l : liste(rapport.getAlertesStock())) {
+                alertes.ligne(l.getCode(), l.getTitre(), l.getAuteur(), l.getCategorie(),
+                        l.getQuantiteStock(), l.getSeuilMinimal(), l.getStatutStock());
+            }
+
+            classeur.ecrire(out);
+        }
+    }
+
+    public void genererRapportPeriodiqueExcel(RapportPeriodiqueDTO rapport, OutputStream out) throws IOException {
+        log.info("Génération Excel du rapport {} du {} au {}",
+                rapport.getPeriode(), rapport.getDateDebut(), rapport.getDateFin());
+        try (Classeur classeur = new Classeur()) {
+            String periode = "Rapport " + rapport.getPeriode().toLowerCase() + " du "
+                    + rapport.getDateDebut().format(DATE_FORMATTER) + " au "
+                    + rapport.getDateFin().format(DATE_FORMATTER);
+
+            Feuille synthese = classeur.feuille("Synthèse", periode,
+                    new String[]{"INDICATEUR", "VALEUR"}, new int[]{35, 20});
+            synthese.ligne("Nombre de ventes", rapport.getNombreVentes());
+            synthese.ligne("Chiffre d'affaires (XAF)", rapport.getChiffreAffaires());
+            synthese.ligne("Montant des réductions (XAF)", rapport.getMontantReductions());
+            synthese.ligne("Livres vendus", rapport.getNombreLivresVendus());
+            synthese.ligne("Marge bénéficiaire (XAF)", rapport.getMargeBeneficiaire());
+            synthese.ligne("Évolution CA / période précédente (%)", rapport.getEvolutionCA());
+            synthese.ligne("Évolution nombre de ventes", rapport.getEvolutionNombreVentes());
+
+            Feuille evolution = classeur.feuille("Évolution CA", periode,
+                    new String[]{"DATE", "CHIFFRE D'AFFAIRES (XAF)", "NOMBRE DE VENTES"}, new int[]{14, 24, 18});
+            for (EvolutionCADTO e : liste(rapport.getEvolutionCA7Jours())) {
+                evolution.ligne(e.getDate(), e.getChiffreAffaires(), e.getNombreVentes());
+            }
+
+            topLivres(classeur, periode, rapport.getTopLivres());
+            topCategories(classeur, periode, rapport.getTopCategories());
+            vendeurs(classeur, periode, rapport.getPerformanceVendeurs());
+
+            Feuille rotation = classeur.feuille("Rotation stock", periode,
+                    new String[]{"CATÉGORIE", "QUANTITÉ VENDUE", "STOCK ACTUEL", "TAUX DE ROTATION (%)"},
+                    new int[]{30, 18, 16, 22});
+            for (RotationStockDTO r : liste(rapport.getRotationStock())) {
+                rotation.ligne(r.getCategorieNom(), r.getQuantiteVendue(), r.getStockActuel(), r.getTauxRotation());
+            }
+
+            AnalyseReductionsDTO a = rapport.getAnalyseReductions();
+            Feuille reductions = classeur.feuille("Réductions", periode,
+                    new String[]{"INDICATEUR", "VALEUR"}, new int[]{35, 20});
+            if (a != null) {
+                reductions.ligne("Montant total des réductions (XAF)", a.getMontantTotalReductions());
+                reductions.ligne("Ventes avec réduction", a.getNombreVentesAvecReduction());
+                reductions.ligne("Part des ventes avec réduction (%)", a.getPourcentageVentesAvecReduction());
+                reductions.ligne("Réduction moyenne (XAF)", a.getReductionMoyenne());
+                reductions.ligne("Réduction maximale (XAF)", a.getReductionMaximale());
+            }
+
+            classeur.ecrire(out);
+        }
+    }
+
+    // ══════════════════════════════════════════════════════════════════
+    // SECTIONS COMMUNES
+    // ══════════════════════════════════════════════════════════════════
+
+    private void topLivres(Classeur classeur, String periode, List<TopLivreDTO> livres) {
+        Feuille f = classeur.feuille("Top livres", periode,
+                new String[]{"RANG", "CODE", "TITRE", "AUTEUR", "CATÉGORIE", "QUANTITÉ", "CA (XAF)", "VENTES"},
+                new int[]{8, 18, 40, 25, 20, 12, 16, 10});
+        for (TopLivreDTO l : liste(livres)) {
+            f.ligne(l.getRang(), l.getCode(), l.getTitre(), l.getAuteur(), l.getCategorie(),
+                    l.getQuantiteVendue(), l.getChiffreAffaires(), l.getNombreVentes());
+        }
+    }
+
+    private void topCategories(Classeur classeur, String periode, List<TopCategorieDTO> categories) {
+        Feuille f = classeur.feuille("Catégories", periode,
+                new String[]{"RANG", "CODE", "CATÉGORIE", "QUANTITÉ", "CA (XAF)", "VENTES"},
+                new int[]{8, 12, 30, 12, 16, 10});
+        for (TopCategorieDTO c : liste(categories)) {
+            f.ligne(c.getRang(), c.getCode(), c.getNom(), c.getQuantiteVendue(), c.getChiffreAffaires(),
+                    c.getNombreVentes());
+        }
+    }
+
+    private void vendeurs(Classeur classeur, String periode, List<PerformanceVendeurDTO> vendeurs) {
+        Feuille f = classeur.feuille("Vendeurs", periode,
+                new String[]{"RANG", "VENDEUR", "VENTES", "CA (XAF)", "LIVRES VENDUS", "PANIER MOYEN (XAF)"},
+                new int[]{8, 30, 10, 16, 14, 18});
+        for (PerformanceVendeurDTO v : liste(vendeurs)) {
+            f.ligne(v.getRang(), v.getNomComplet(), v.getNombreVentes(), v.getChiffreAffaires(),
+                    v.getNombreLivresVendus(), v.getPanierMoyen());
+        }
+    }
+
+    private static <T> List<T> liste(List<T> l) {
+        return l != null ? l : List.of();
+    }
+
+    // ══════════════════════════════════════════════════════════════════
+    // CLASSEUR SXSSF
+    // ══════════════════════════════════════════════════════════════════
+
+    private static final class Classeur implements AutoCloseable {
+
+        private final SXSSFWorkbook workbook = new SXSSFWorkbook(FENETRE_LIGNES);
+        private final CellStyle titre;
+        private final CellStyle entete;
+        private final CellStyle texte;
+        private final CellStyle entier;
+        private final CellStyle decimal;
+        private final CellStyle date;
+
+        Classeur() {
+            workbook.setCompressTempFiles(true);
+            DataFormat formats = workbook.createDataFormat();
+
+            titre = workbook.createCellStyle();
+            Font titreFont = workbook.createFont();
+            titreFont.setBold(true);
+            titreFont.setFontHeightInPoints((short) 13);
+            titre.setFont(titreFont);
+
+            entete = workbook.createCellStyle();
+            Font enteteFont = workbook.createFont();
+            enteteFont.setBold(true);
+            enteteFont.setColor(IndexedColors.WHITE.getIndex());
+            entete.setFont(enteteFont);
+            entete.setFillForegroundColor(IndexedColors.DARK_BLUE.getIndex());
+            entete.setFillPattern(FillPatternType.SOLID_FOREGROUND);
+            entete.setAlignment(HorizontalAlignment.CENTER);
+
+            texte = bordure(workbook.createCellStyle());
+            entier = bordure(workbook.createCellStyle());
+            entier.setDataFormat(formats.getFormat("#,##0"));
+            decimal = bordure(workbook.createCellStyle());
+            decimal.setDataFormat(formats.getFormat("#,##0.00"));
+            date = bordure(workbook.createCellStyle());
+            date.setDataFormat(formats.getFormat("dd/mm/yyyy"));
+        }
+
+        /** Nouvelle feuille : titre en ligne 1, en-têtes figés en ligne 2. */
+        Feuille feuille(String nom, String libelle, String[] entetes, int[] largeurs) {
+            Sheet sheet = workbook.createSheet(nom);
+            Row titreRow = sheet.createRow(0);
+            Cell titreCell = titreRow.createCell(0);
+            titreCell.setCellValue(libelle.toUpperCase() + " — HEXALIB");
+            titreCell.setCellStyle(titre);
+            if (entetes.length > 1) sheet.addMergedRegion(new CellRangeAddress(0, 0, 0, entetes.length - 1));
+
+            Row enteteRow = sheet.createRow(1);
+            for (int i = 0; i < entetes.length; i++) {
+                Cell cell = enteteRow.createCell(i);
+                cell.setCellValue(entetes[i]);
+                cell.setCellStyle(entete);
+                sheet.setColumnWidth(i, largeurs[i] * 256);
+            }
+            sheet.createFreezePane(0, 2);
+            sheet.setAutoFilter(new CellRangeAddress(1, 1, 0, entetes.length - 1));
+            return new Feuille(this, sheet);
+        }
+
+        void ecrire(OutputStream out) throws IOException {
+            workbook.write(out);
+            out.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            workbook.dispose();   // fichiers temporaires SXSSF
+            workbook.close();
+        }
+
+        private static CellStyle bordure(CellStyle style) {
+            style.setBorderBottom(BorderStyle.THIN);
+            style.setBorderLeft(BorderStyle.THIN);
+            style.setBorderRight(BorderStyle.THIN);
+            return style;
+        }
+    }
+
+    private static final class Feuille {
+
+        private final Classeur classeur;
+        private final Sheet sheet;
+        private int prochaineLigne = 2;
+
+        Feuille(Classeur classeur, Sheet sheet) {
+            this.classeur = classeur;
+            this.sheet = sheet;
+        }
+
+        void ligne(Object... valeurs) {
+            Row row = sheet.createRow(prochaineLigne++);
+            for (int i = 0; i < valeurs.length; i++) {
+                Cell cell = row.createCell(i);
+                Object v = valeurs[i];
+                if (v instanceof BigDecimal bd) {
+                    cell.setCellValue(bd.doubleValue());
+                    cell.setCellStyle(classeur.decimal);
+                } else if (v instanceof Number n) {
+                    cell.setCellValue(n.doubleValue());
+                    cell.setCellStyle(classeur.entier);
+                } else if (v instanceof LocalDate d) {
+                    cell.setCellValue(d);
+                    cell.setCellStyle(classeur.date);
+                } else {
+                    cell.setCellValue(v != null ? v.toString() : "");
+                    cell.setCellStyle(classeur.texte);
+                }
+            }
+        }
+    }
+}
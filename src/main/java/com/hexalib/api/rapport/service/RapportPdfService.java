@@ -1,15 +1,11 @@
 package com.hexalib.api.rapport.service;
 
+import com.hexalib.api.common.pdf.PdfMoteur;
 import com.hexalib.api.rapport.dto.*;
-import com.itextpdf.kernel.colors.ColorConstants;
+import com.itextpdf.kernel.colors.Color;
 import com.itextpdf.kernel.colors.DeviceRgb;
 import com.itextpdf.kernel.font.PdfFont;
-import com.itextpdf.kernel.font.PdfFontFactory;
-import com.itextpdf.kernel.geom.PageSize;
-import com.itextpdf.kernel.pdf.PdfDocument;
-import com.itextpdf.kernel.pdf.PdfWriter;
 import com.itextpdf.layout.Document;
-import com.itextpdf.layout.borders.Border;
 import com.itextpdf.layout.borders.SolidBorder;
 import com.itextpdf.layout.element.Cell;
 import com.itextpdf.layout.element.Paragraph;
@@ -20,12 +16,11 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 
-import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
 import java.math.BigDecimal;
-import java.text.NumberFormat;
 import java.time.format.DateTimeFormatter;
 import java.util.List;
-import java.util.Locale;
 
 @Service
 @RequiredArgsConstructor
@@ -37,19 +32,19 @@ public class RapportPdfService {
     private static final DeviceRgb SECONDARY_COLOR = new DeviceRgb(75, 85, 99); // Gris foncé
     private static final DeviceRgb LIGHT_GRAY = new DeviceRgb(249, 250, 251);
     private static final DeviceRgb BORDER_COLOR = new DeviceRgb(229, 231, 235);
-    private static final DeviceRgb WHITE = new DeviceRgb(255, 255, 255);
     private static final DeviceRgb SUCCESS_COLOR = new DeviceRgb(16, 185, 129); // Vert
     private static final DeviceRgb WARNING_COLOR = new DeviceRgb(245, 158, 11); // Orange
     private static final DeviceRgb DANGER_COLOR = new DeviceRgb(239, 68, 68); // Rouge
+    private static final DeviceRgb RUPTURE_BG = new DeviceRgb(254, 226, 226); // Rouge clair
+    private static final DeviceRgb ALERTE_BG = new DeviceRgb(254, 243, 199); // Orange clair
 
     // Formatters
     private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("dd/MM/yyyy");
-    private static final NumberFormat CURRENCY_FORMATTER = NumberFormat.getInstance(Locale.FRANCE);
 
-    static {
-        CURRENCY_FORMATTER.setMinimumFractionDigits(0);
-        CURRENCY_FORMATTER.setMaximumFractionDigits(0);
-    }
+    /** Grands tableaux : lignes mises en page et écrites par paquets de cette taille. */
+    private static final int LIGNES_PAR_VIDAGE = 50;
+
+    private final PdfMoteur pdfMoteur;
 
     /**
      * Générer le PDF du rapport journalier
@@ -57,15 +52,9 @@ public class RapportPdfService {
     public byte[] genererRapportJournalierPDF(RapportJournalierDTO rapport) {
         log.info("Génération du PDF du rapport journalier pour le {}", rapport.getDate());
 
-        try (ByteArrayOutputStream baos = new ByteArrayOutputStream()) {
-            PdfWriter writer = new PdfWriter(baos);
-            PdfDocument pdfDoc = new PdfDocument(writer);
-            Document document = new Document(pdfDoc, PageSize.A4);
-            document.setMargins(40, 40, 40, 40);
-
-            // Polices
-            PdfFont boldFont = PdfFontFactory.createFont("Helvetica-Bold");
-            PdfFont regularFont = PdfFontFactory.createFont("Helvetica");
+        return pdfMoteur.rendre("rapport-journalier", (document, polices) -> {
+            PdfFont boldFont = polices.gras();
+            PdfFont regularFont = polices.normal();
 
             // En-tête
             addHeaderRapport(document, "RAPPORT DE CLÔTURE JOURNALIÈRE", 
@@ -96,14 +85,7 @@ public class RapportPdfService {
 
             // Pied de page
             addFooter(document, regularFont);
-
-            document.close();
-            return baos.toByteArray();
-
-        } catch (Exception e) {
-            log.error("Erreur lors de la génération du PDF du rapport journalier", e);
-            throw new RuntimeException("Erreur lors de la génération du PDF", e);
-        }
+        });
     }
 
     /**
@@ -113,14 +95,25 @@ public class RapportPdfService {
         log.info("Génération du PDF du rapport {} du {} au {}", 
                 rapport.getPeriode(), rapport.getDateDebut(), rapport.getDateFin());
 
-        try (ByteArrayOutputStream baos = new ByteArrayOutputStream()) {
-            PdfWriter writer = new PdfWriter(baos);
-            PdfDocument pdfDoc = new PdfDocument(writer);
-            Document document = new Document(pdfDoc, PageSize.A4);
-            document.setMargins(40, 40, 40, 40);
+        return pdfMoteur.rendre("rapport-periodique", contenuPeriodique(rapport));
+    }
+
+    /**
+     * Mode grands documents : le PDF est mis en page dans un fichier
+     * temporaire puis recopié dans {@code out}. Les tableaux étant vidés par paquets de lignes, la mémoire
+     * utilisée ne dépend pas du nombre de lignes (classements complets).
+     */
+    public void genererRapportPeriodiquePDF(RapportPeriodiqueDTO rapport, OutputStream out) throws IOException {
+        log.info("Génération en flux du PDF du rapport {} du {} au {}",
+                rapport.getPeriode(), rapport.getDateDebut(), rapport.getDateFin());
 
-            PdfFont boldFont = PdfFontFactory.createFont("Helvetica-Bold");
-            PdfFont regularFont = PdfFontFactory.createFont("Helvetica");
+        pdfMoteur.rendre("rapport-periodique", out, contenuPeriodique(rapport));
+    }
+
+    private PdfMoteur.Contenu contenuPeriodique(RapportPeriodiqueDTO rapport) {
+        return (document, polices) -> {
+            PdfFont boldFont = polices.gras();
+            PdfFont regularFont = polices.normal();
 
             // En-tête
             String sousTitre = String.format("Du %s au %s", 
@@ -162,14 +155,7 @@ public class RapportPdfService {
             }
 
             addFooter(document, regularFont);
-            document.close();
-
-            return baos.toByteArray();
-
-        } catch (Exception e) {
-            log.error("Erreur lors de la génération du PDF du rapport périodique", e);
-            throw new RuntimeException("Erreur lors de la génération du PDF", e);
-        }
+        };
     }
 
     // ==================== SECTIONS DU PDF ====================
@@ -225,9 +211,9 @@ public class RapportPdfService {
         kpiTable.addCell(createKPICell("Nombre de ventes", 
                 String.valueOf(rapport.getNombreVentes()), boldFont, regularFont));
         kpiTable.addCell(createKPICell("Chiffre d'affaires", 
-                formatCurrency(rapport.getChiffreAffaires()) + " FCFA", boldFont, regularFont));
+                PdfMoteur.montant(rapport.getChiffreAffaires()) + " FCFA", boldFont, regularFont));
         kpiTable.addCell(createKPICell("Réductions accordées", 
-                formatCurrency(rapport.getMontantReductions()) + " FCFA", boldFont, regularFont));
+                PdfMoteur.montant(rapport.getMontantReductions()) + " FCFA", boldFont, regularFont));
         kpiTable.addCell(createKPICell("Livres vendus", 
                 String.valueOf(rapport.getNombreLivresVendus()), boldFont, regularFont));
 
@@ -250,21 +236,21 @@ public class RapportPdfService {
         kpiTable.addCell(createKPICell("Nombre de ventes", 
                 String.valueOf(rapport.getNombreVentes()), boldFont, regularFont));
         kpiTable.addCell(createKPICell("Chiffre d'affaires", 
-                formatCurrency(rapport.getChiffreAffaires()) + " FCFA", boldFont, regularFont));
+                PdfMoteur.montant(rapport.getChiffreAffaires()) + " FCFA", boldFont, regularFont));
         kpiTable.addCell(createKPICell("Livres vendus", 
                 String.valueOf(rapport.getNombreLivresVendus()), boldFont, regularFont));
 
         // Ligne 2
         kpiTable.addCell(createKPICell("Réductions", 
-                formatCurrency(rapport.getMontantReductions()) + " FCFA", boldFont, regularFont));
+                PdfMoteur.montant(rapport.getMontantReductions()) + " FCFA", boldFont, regularFont));
         kpiTable.addCell(createKPICell("Marge bénéficiaire", 
-                formatCurrency(rapport.getMargeBeneficiaire()) + " FCFA", boldFont, regularFont));
+                PdfMoteur.montant(rapport.getMargeBeneficiaire()) + " FCFA", boldFont, regularFont));
         
         BigDecimal panierMoyen = rapport.getNombreVentes() > 0 
                 ? rapport.getChiffreAffaires().divide(BigDecimal.valueOf(rapport.getNombreVentes()), 0, java.math.RoundingMode.HALF_UP)
                 : BigDecimal.ZERO;
         kpiTable.addCell(createKPICell("Panier moyen", 
-                formatCurrency(panierMoyen) + " FCFA", boldFont, regularFont));
+                PdfMoteur.montant(panierMoyen) + " FCFA", boldFont, regularFont));
 
         document.add(kpiTable);
     }
@@ -312,30 +298,36 @@ public class RapportPdfService {
                 .setMarginTop(10)
                 .setMarginBottom(10));
 
-        Table table = new Table(UnitValue.createPercentArray(new float[]{1, 3, 2, 2, 2}))
+        Table table = new Table(UnitValue.createPercentArray(new float[]{1, 3, 2, 2, 2}), true)
                 .useAllAvailableWidth();
 
         // En-têtes
         String[] headers = {"Rang", "Vendeur", "Ventes", "CA (FCFA)", "Panier Moyen"};
         for (String header : headers) {
-            table.addHeaderCell(createHeaderCell(header, boldFont));
+            table.addHeaderCell(PdfMoteur.celluleEntete(header, boldFont, PRIMARY_COLOR));
         }
+        document.add(table);
 
-        // Données
+        // Données (vidées vers le document par paquets de lignes)
+        int ligne = 0;
         boolean alternate = false;
         for (PerformanceVendeurDTO vendeur : vendeurs) {
-            DeviceRgb bgColor = alternate ? LIGHT_GRAY : WHITE;
+            Color bgColor = PdfMoteur.fondLigne(alternate);
             
-            table.addCell(createTableCell(String.valueOf(vendeur.getRang()), regularFont, TextAlignment.CENTER, bgColor));
-            table.addCell(createTableCell(vendeur.getNomComplet(), regularFont, TextAlignment.LEFT, bgColor));
-            table.addCell(createTableCell(String.valueOf(vendeur.getNombreVentes()), regularFont, TextAlignment.CENTER, bgColor));
-            table.addCell(createTableCell(formatCurrency(vendeur.getChiffreAffaires()), regularFont, TextAlignment.RIGHT, bgColor));
-            table.addCell(createTableCell(formatCurrency(vendeur.getPanierMoyen()), regularFont, TextAlignment.RIGHT, bgColor));
+            table.addCell(PdfMoteur.celluleDonnee(String.valueOf(vendeur.getRang()), regularFont, TextAlignment.CENTER, bgColor));
+            table.addCell(PdfMoteur.celluleDonnee(vendeur.getNomComplet(), regularFont, TextAlignment.LEFT, bgColor));
+            table.addCell(PdfMoteur.celluleDonnee(String.valueOf(vendeur.getNombreVentes()), regularFont, TextAlignment.CENTER, bgColor));
+            table.addCell(PdfMoteur.celluleDonnee(PdfMoteur.montant(vendeur.getChiffreAffaires()), regularFont, TextAlignment.RIGHT, bgColor));
+            table.addCell(PdfMoteur.celluleDonnee(PdfMoteur.montant(vendeur.getPanierMoyen()), regularFont, TextAlignment.RIGHT, bgColor));
 
             alternate = !alternate;
+
+            if (++ligne % LIGNES_PAR_VIDAGE == 0) {
+                table.flush();
+            }
         }
 
-        document.add(table);
+        table.complete();
         document.add(new Paragraph("\n"));
     }
 
@@ -348,31 +340,37 @@ public class RapportPdfService {
                 .setMarginTop(10)
                 .setMarginBottom(10));
 
-        Table table = new Table(UnitValue.createPercentArray(new float[]{1, 2, 4, 3, 2, 2}))
+        Table table = new Table(UnitValue.createPercentArray(new float[]{1, 2, 4, 3, 2, 2}), true)
                 .useAllAvailableWidth();
 
         // En-têtes
         String[] headers = {"Rang", "Code", "Titre", "Auteur", "Qté", "CA (FCFA)"};
         for (String header : headers) {
-            table.addHeaderCell(createHeaderCell(header, boldFont));
+            table.addHeaderCell(PdfMoteur.celluleEntete(header, boldFont, PRIMARY_COLOR));
         }
+        document.add(table);
 
-        // Données
+        // Données (vidées vers le document par paquets de lignes)
+        int ligne = 0;
         boolean alternate = false;
         for (TopLivreDTO livre : livres) {
-            DeviceRgb bgColor = alternate ? LIGHT_GRAY : WHITE;
+            Color bgColor = PdfMoteur.fondLigne(alternate);
             
-            table.addCell(createTableCell(String.valueOf(livre.getRang()), regularFont, TextAlignment.CENTER, bgColor));
-            table.addCell(createTableCell(livre.getCode(), regularFont, TextAlignment.CENTER, bgColor));
-            table.addCell(createTableCell(livre.getTitre(), regularFont, TextAlignment.LEFT, bgColor));
-            table.addCell(createTableCell(livre.getAuteur(), regularFont, TextAlignment.LEFT, bgColor));
-            table.addCell(createTableCell(String.valueOf(livre.getQuantiteVendue()), regularFont, TextAlignment.CENTER, bgColor));
-            table.addCell(createTableCell(formatCurrency(livre.getChiffreAffaires()), regularFont, TextAlignment.RIGHT, bgColor));
+            table.addCell(PdfMoteur.celluleDonnee(String.valueOf(livre.getRang()), regularFont, TextAlignment.CENTER, bgColor));
+            table.addCell(PdfMoteur.celluleDonnee(livre.getCode(), regularFont, TextAlignment.CENTER, bgColor));
+            table.addCell(PdfMoteur.celluleDonnee(livre.getTitre(), regularFont, TextAlignment.LEFT, bgColor));
+            table.addCell(PdfMoteur.celluleDonnee(livre.getAuteur(), regularFont, TextAlignment.LEFT, bgColor));
+            table.addCell(PdfMoteur.celluleDonnee(String.valueOf(livre.getQuantiteVendue()), regularFont, TextAlignment.CENTER, bgColor));
+            table.addCell(PdfMoteur.celluleDonnee(PdfMoteur.montant(livre.getChiffreAffaires()), regularFont, TextAlignment.RIGHT, bgColor));
 
             alternate = !alternate;
+
+            if (++ligne % LIGNES_PAR_VIDAGE == 0) {
+                table.flush();
+            }
         }
 
-        document.add(table);
+        table.complete();
         document.add(new Paragraph("\n"));
     }
 
@@ -385,29 +383,35 @@ public class RapportPdfService {
                 .setMarginTop(10)
                 .setMarginBottom(10));
 
-        Table table = new Table(UnitValue.createPercentArray(new float[]{1, 4, 2, 2}))
+        Table table = new Table(UnitValue.createPercentArray(new float[]{1, 4, 2, 2}), true)
                 .useAllAvailableWidth();
 
         // En-têtes
         String[] headers = {"Rang", "Catégorie", "Qté Vendue", "CA (FCFA)"};
         for (String header : headers) {
-            table.addHeaderCell(createHeaderCell(header, boldFont));
+            table.addHeaderCell(PdfMoteur.celluleEntete(header, boldFont, PRIMARY_COLOR));
         }
+        document.add(table);
 
-        // Données
+        // Données (vidées vers le document par paquets de lignes)
+        int ligne = 0;
         boolean alternate = false;
         for (TopCategorieDTO categorie : categories) {
-            DeviceRgb bgColor = alternate ? LIGHT_GRAY : WHITE;
+            Color bgColor = PdfMoteur.fondLigne(alternate);
             
-            table.addCell(createTableCell(String.valueOf(categorie.getRang()), regularFont, TextAlignment.CENTER, bgColor));
-            table.addCell(createTableCell(categorie.getNom(), regularFont, TextAlignment.LEFT, bgColor));
-            table.addCell(createTableCell(String.valueOf(categorie.getQuantiteVendue()), regularFont, TextAlignment.CENTER, bgColor));
-            table.addCell(createTableCell(formatCurrency(categorie.getChiffreAffaires()), regularFont, TextAlignment.RIGHT, bgColor));
+            table.addCell(PdfMoteur.celluleDonnee(String.valueOf(categorie.getRang()), regularFont, TextAlignment.CENTER, bgColor));
+            table.addCell(PdfMoteur.celluleDonnee(categorie.getNom(), regularFont, TextAlignment.LEFT, bgColor));
+            table.addCell(PdfMoteur.celluleDonnee(String.valueOf(categorie.getQuantiteVendue()), regularFont, TextAlignment.CENTER, bgColor));
+            table.addCell(PdfMoteur.celluleDonnee(PdfMoteur.montant(categorie.getChiffreAffaires()), regularFont, TextAlignment.RIGHT, bgColor));
 
             alternate = !alternate;
+
+            if (++ligne % LIGNES_PAR_VIDAGE == 0) {
+                table.flush();
+            }
         }
 
-        document.add(table);
+        table.complete();
         document.add(new Paragraph("\n"));
     }
 
@@ -420,30 +424,34 @@ public class RapportPdfService {
                 .setMarginTop(10)
                 .setMarginBottom(10));
 
-        Table table = new Table(UnitValue.createPercentArray(new float[]{2, 4, 3, 2, 2, 2}))
+        Table table = new Table(UnitValue.createPercentArray(new float[]{2, 4, 3, 2, 2, 2}), true)
                 .useAllAvailableWidth();
 
         // En-têtes
         String[] headers = {"Code", "Titre", "Auteur", "Stock", "Seuil", "Statut"};
         for (String header : headers) {
-            table.addHeaderCell(createHeaderCell(header, boldFont));
+            table.addHeaderCell(PdfMoteur.celluleEntete(header, boldFont, PRIMARY_COLOR));
         }
+        document.add(table);
 
-        // Données
+        // Données (vidées vers le document par paquets de lignes)
+        int ligne = 0;
         for (LivreStockCritiqueDTO livre : alertes) {
-            DeviceRgb bgColor = "RUPTURE".equals(livre.getStatutStock()) 
-                    ? new DeviceRgb(254, 226, 226) // Rouge clair
-                    : new DeviceRgb(254, 243, 199); // Orange clair
+            DeviceRgb bgColor = "RUPTURE".equals(livre.getStatutStock()) ? RUPTURE_BG : ALERTE_BG;
             
-            table.addCell(createTableCell(livre.getCode(), regularFont, TextAlignment.CENTER, bgColor));
-            table.addCell(createTableCell(livre.getTitre(), regularFont, TextAlignment.LEFT, bgColor));
-            table.addCell(createTableCell(livre.getAuteur(), regularFont, TextAlignment.LEFT, bgColor));
-            table.addCell(createTableCell(String.valueOf(livre.getQuantiteStock()), regularFont, TextAlignment.CENTER, bgColor));
-            table.addCell(createTableCell(String.valueOf(livre.getSeuilMinimal()), regularFont, TextAlignment.CENTER, bgColor));
-            table.addCell(createTableCell(livre.getStatutStock(), regularFont, TextAlignment.CENTER, bgColor));
+            table.addCell(PdfMoteur.celluleDonnee(livre.getCode(), regularFont, TextAlignment.CENTER, bgColor));
+            table.addCell(PdfMoteur.celluleDonnee(livre.getTitre(), regularFont, TextAlignment.LEFT, bgColor));
+            table.addCell(PdfMoteur.celluleDonnee(livre.getAuteur(), regularFont, TextAlignment.LEFT, bgColor));
+            table.addCell(PdfMoteur.celluleDonnee(String.valueOf(livre.getQuantiteStock()), regularFont, TextAlignment.CENTER, bgColor));
+            table.addCell(PdfMoteur.celluleDonnee(String.valueOf(livre.getSeuilMinimal()), regularFont, TextAlignment.CENTER, bgColor));
+            table.addCell(PdfMoteur.celluleDonnee(livre.getStatutStock(), regularFont, TextAlignment.CENTER, bgColor));
+
+            if (++ligne % LIGNES_PAR_VIDAGE == 0) {
+                table.flush();
+            }
         }
 
-        document.add(table);
+        table.complete();
         document.add(new Paragraph("\n"));
     }
 
@@ -461,15 +469,15 @@ public class RapportPdfService {
                 .setMarginBottom(20);
 
         table.addCell(createKPICell("Montant total réductions", 
-                formatCurrency(analyse.getMontantTotalReductions()) + " FCFA", boldFont, regularFont));
+                PdfMoteur.montant(analyse.getMontantTotalReductions()) + " FCFA", boldFont, regularFont));
         table.addCell(createKPICell("Ventes avec réduction", 
                 analyse.getNombreVentesAvecReduction() + " (" + 
                 analyse.getPourcentageVentesAvecReduction().setScale(1, java.math.RoundingMode.HALF_UP) + "%)", 
                 boldFont, regularFont));
         table.addCell(createKPICell("Réduction moyenne", 
-                formatCurrency(analyse.getReductionMoyenne()) + " FCFA", boldFont, regularFont));
+                PdfMoteur.montant(analyse.getReductionMoyenne()) + " FCFA", boldFont, regularFont));
         table.addCell(createKPICell("Réduction maximale", 
-                formatCurrency(analyse.getReductionMaximale()) + " FCFA", boldFont, regularFont));
+                PdfMoteur.montant(analyse.getReductionMaximale()) + " FCFA", boldFont, regularFont));
 
         document.add(table);
     }
@@ -483,30 +491,36 @@ public class RapportPdfService {
                 .setMarginTop(10)
                 .setMarginBottom(10));
 
-        Table table = new Table(UnitValue.createPercentArray(new float[]{4, 2, 2, 2}))
+        Table table = new Table(UnitValue.createPercentArray(new float[]{4, 2, 2, 2}), true)
                 .useAllAvailableWidth();
 
         // En-têtes
         String[] headers = {"Catégorie", "Qté Vendue", "Stock Actuel", "Taux Rotation (%)"};
         for (String header : headers) {
-            table.addHeaderCell(createHeaderCell(header, boldFont));
+            table.addHeaderCell(PdfMoteur.celluleEntete(header, boldFont, PRIMARY_COLOR));
         }
+        document.add(table);
 
-        // Données
+        // Données (vidées vers le document par paquets de lignes)
+        int ligne = 0;
         boolean alternate = false;
         for (RotationStockDTO rotation : rotations) {
-            DeviceRgb bgColor = alternate ? LIGHT_GRAY : WHITE;
+            Color bgColor = PdfMoteur.fondLigne(alternate);
             
-            table.addCell(createTableCell(rotation.getCategorieNom(), regularFont, TextAlignment.LEFT, bgColor));
-            table.addCell(createTableCell(String.valueOf(rotation.getQuantiteVendue()), regularFont, TextAlignment.CENTER, bgColor));
-            table.addCell(createTableCell(String.valueOf(rotation.getStockActuel()), regularFont, TextAlignment.CENTER, bgColor));
-            table.addCell(createTableCell(rotation.getTauxRotation().setScale(2, java.math.RoundingMode.HALF_UP).toString(), 
+            table.addCell(PdfMoteur.celluleDonnee(rotation.getCategorieNom(), regularFont, TextAlignment.LEFT, bgColor));
+            table.addCell(PdfMoteur.celluleDonnee(String.valueOf(rotation.getQuantiteVendue()), regularFont, TextAlignment.CENTER, bgColor));
+            table.addCell(PdfMoteur.celluleDonnee(String.valueOf(rotation.getStockActuel()), regularFont, TextAlignment.CENTER, bgColor));
+            table.addCell(PdfMoteur.celluleDonnee(rotation.getTauxRotation().setScale(2, java.math.RoundingMode.HALF_UP).toString(), 
                     regularFont, TextAlignment.CENTER, bgColor));
 
             alternate = !alternate;
+
+            if (++ligne % LIGNES_PAR_VIDAGE == 0) {
+                table.flush();
+            }
         }
 
-        document.add(table);
+        table.complete();
         document.add(new Paragraph("\n"));
     }
 
@@ -558,34 +572,4 @@ public class RapportPdfService {
                         .setFontSize(14)
                         .setFontColor(valueColor));
     }
-
-    private Cell createHeaderCell(String text, PdfFont boldFont) {
-        return new Cell()
-                .add(new Paragraph(text)
-                        .setFont(boldFont)
-                        .setFontSize(10))
-                .setBackgroundColor(PRIMARY_COLOR)
-                .setFontColor(ColorConstants.WHITE)
-                .setTextAlignment(TextAlignment.CENTER)
-                .setPadding(8)
-                .setBorder(Border.NO_BORDER);
-    }
-
-    private Cell createTableCell(String text, PdfFont font, TextAlignment alignment, DeviceRgb bgColor) {
-        return new Cell()
-                .add(new Paragraph(text)
-                        .setFont(font)
-                        .setFontSize(9))
-                .setTextAlignment(alignment)
-                .setBackgroundColor(bgColor)
-                .setPadding(6)
-                .setBorder(new SolidBorder(BORDER_COLOR, 0.5f));
-    }
-
-    private String formatCurrency(BigDecimal amount) {
-        if (amount == null) {
-            return "0";
-        }
-        return CURRENCY_FORMATTER.format(amount.doubleValue());
-    }
-}
\ No newline at end of file
+}
@@ -26,14 +26,23 @@ public class RapportService {
     // ==================== RAPPORT JOURNALIER ====================
 
     public RapportJournalierDTO getRapportJournalier(LocalDate date) {
+        return getRapportJournalier(date, false);
+    }
+
+    /**
+     * @param complet classements complets (export Excel) au lieu du top 5 livres / top 3 catégories
+     */
+    public RapportJournalierDTO getRapportJournalier(LocalDate date, boolean complet) {
+        Integer nbTopLivres     = complet ? null : 5;
+        Integer nbTopCategories = complet ? null : 3;
         log.info("Génération du rapport journalier pour le {}", date);
         LocalDateTime debut = date.atStartOfDay();
         LocalDateTime fin   = date.atTime(LocalTime.MAX);
 
         StatsPeriodiqueDTO          stats          = statistiqueService.getStatsPeriodique(debut, fin);
         List<PerformanceVendeurDTO> caParVendeur   = statistiqueService.getPerformanceVendeurs(debut, fin);
-        List<TopLivreDTO>           topLivres      = statistiqueService.getTopLivres(debut, fin, 5);
-        List<TopCategorieDTO>       topCategories  = statistiqueService.getTopCategories(debut, fin, 3);
+        List<TopLivreDTO>           topLivres      = statistiqueService.getTopLivres(debut, fin, nbTopLivres);
+        List<TopCategorieDTO>       topCategories  = statistiqueService.getTopCategories(debut, fin, nbTopCategories);
         List<LivreStockCritiqueDTO> alertesStock   = statistiqueService.getLivresStockCritique();
 
         return RapportJournalierDTO.builder()
@@ -51,28 +60,48 @@ public class RapportService {
 
     // ==================== RAPPORTS PÉRIODIQUES ====================
 
+    // complet : classements complets (export Excel) au lieu du top 10 livres / top 5 catégories
+
     public RapportPeriodiqueDTO getRapportHebdomadaire(LocalDate dateFin) {
-        return getRapportPeriodique(dateFin.minusDays(6), dateFin, "HEBDOMADAIRE");
+        return getRapportHebdomadaire(dateFin, false);
+    }
+
+    public RapportPeriodiqueDTO getRapportHebdomadaire(LocalDate dateFin, boolean complet) {
+        return getRapportPeriodique(dateFin.minusDays(6), dateFin, "HEBDOMADAIRE", complet);
     }
 
     public RapportPeriodiqueDTO getRapportMensuel(LocalDate date) {
+        return getRapportMensuel(date, false);
+    }
+
+    public RapportPeriodiqueDTO getRapportMensuel(LocalDate date, boolean complet) {
         return getRapportPeriodique(
             date.with(TemporalAdjusters.firstDayOfMonth()),
             date.with(TemporalAdjusters.lastDayOfMonth()),
-            "MENSUEL"
+            "MENSUEL",
+            complet
         );
     }
 
     public RapportPeriodiqueDTO getRapportAnnuel(int annee) {
+        return getRapportAnnuel(annee, false);
+    }
+
+    public RapportPeriodiqueDTO getRapportAnnuel(int annee, boolean complet) {
         return getRapportPeriodique(
             LocalDate.of(annee, 1, 1),
             LocalDate.of(annee, 12, 31),
-            "ANNUEL"
+            "ANNUEL",
+            complet
         );
     }
 
     public RapportPeriodiqueDTO getRapportPersonnalise(LocalDate dateDebut, LocalDate dateFin) {
-        return getRapportPeriodique(dateDebut, dateFin, "PERSONNALISE");
+        return getRapportPersonnalise(dateDebut, dateFin, false);
+    }
+
+    public RapportPeriodiqueDTO getRapportPersonnalise(LocalDate dateDebut, LocalDate dateFin, boolean complet) {
+        return getRapportPeriodique(dateDebut, dateFin, "PERSONNALISE", complet);
     }
 
     // ==================== DASHBOARDS ====================
@@ -141,7 +170,10 @@ public class RapportService {
 
     // ==================== MÉTHODES PRIVÉES ====================
 
-    private RapportPeriodiqueDTO getRapportPeriodique(LocalDate dateDebut, LocalDate dateFin, String typePeriode) {
+    private RapportPeriodiqueDTO getRapportPeriodique(LocalDate dateDebut, LocalDate dateFin, String typePeriode,
+                                                      boolean complet) {
+        Integer nbTopLivres     = complet ? null : 10;
+        Integer nbTopCategories = complet ? null : 5;
         LocalDateTime debut = dateDebut.atStartOfDay();
         LocalDateTime fin   = dateFin.atTime(LocalTime.MAX);
 
@@ -151,8 +183,8 @@ public class RapportService {
         LocalDateTime               finPrecedent        = dateDebut.minusDays(1).atTime(LocalTime.MAX);
         EvolutionComparativeDTO     evolution           = statistiqueService.comparerPeriodes(debut, fin, debutPrecedent, finPrecedent);
         List<EvolutionCADTO>        evolutionCA         = statistiqueService.getEvolutionCA(dateFin.minusDays(6), 7);
-        List<TopLivreDTO>           topLivres           = statistiqueService.getTopLivres(debut, fin, 10);
-        List<TopCategorieDTO>       topCategories       = statistiqueService.getTopCategories(debut, fin, 5);
+        List<TopLivreDTO>           topLivres           = statistiqueService.getTopLivres(debut, fin, nbTopLivres);
+        List<TopCategorieDTO>       topCategories       = statistiqueService.getTopCategories(debut, fin, nbTopCategories);
         List<PerformanceVendeurDTO> performanceVendeurs = statistiqueService.getPerformanceVendeurs(debut, fin);
         AnalyseReductionsDTO        analyseReductions   = statistiqueService.getAnalyseReductions(debut, fin);
         List<RotationStockDTO>      rotationStock       = statistiqueService.getRotationStock(debut, fin);
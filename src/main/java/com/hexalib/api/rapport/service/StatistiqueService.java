@@ -73,14 +73,7 @@ public class StatistiqueService {
      * Top livres d'un vendeur spécifique
      */
     public List<TopLivreDTO> getTopLivresVendeur(String vendeurId, LocalDateTime debut, LocalDateTime fin, int limit) {
-        List<TopLivreDTO> topLivres = rapportRepository.getTopLivresByVendeur(vendeurId, debut, fin);
-        return IntStream.range(0, Math.min(limit, topLivres.size()))
-                .mapToObj(i -> {
-                    TopLivreDTO livre = topLivres.get(i);
-                    livre.setRang(i + 1);
-                    return livre;
-                })
-                .toList();
+        return classer(rapportRepository.getTopLivresByVendeur(vendeurId, debut, fin, limit));
     }
 
     // ==================== ÉVOLUTION CA ====================
@@ -92,27 +85,21 @@ public class StatistiqueService {
     }
 
     // ==================== TOP LIVRES / CATÉGORIES ====================
+    // limit null : classement complet (export Excel)
 
-    public List<TopLivreDTO> getTopLivres(LocalDateTime debut, LocalDateTime fin, int limit) {
-        List<TopLivreDTO> topLivres = rapportRepository.getTopLivres(debut, fin);
-        return IntStream.range(0, Math.min(limit, topLivres.size()))
-                .mapToObj(i -> {
-                    TopLivreDTO livre = topLivres.get(i);
-                    livre.setRang(i + 1);
-                    return livre;
-                })
-                .toList();
+    public List<TopLivreDTO> getTopLivres(LocalDateTime debut, LocalDateTime fin, Integer limit) {
+        return classer(rapportRepository.getTopLivres(debut, fin, limit));
     }
 
-    public List<TopCategorieDTO> getTopCategories(LocalDateTime debut, LocalDateTime fin, int limit) {
-        List<TopCategorieDTO> topCategories = rapportRepository.getTopCategories(debut, fin);
-        return IntStream.range(0, Math.min(limit, topCategories.size()))
-                .mapToObj(i -> {
-                    TopCategorieDTO cat = topCategories.get(i);
-                    cat.setRang(i + 1);
-                    return cat;
-                })
-                .toList();
+    public List<TopCategorieDTO> getTopCategories(LocalDateTime debut, LocalDateTime fin, Integer limit) {
+        List<TopCategorieDTO> topCategories = rapportRepository.getTopCategories(debut, fin, limit);
+        for (int i = 0; i < topCategories.size(); i++) topCategories.get(i).setRang(i + 1);
+        return topCategories;
+    }
+
+    private static List<TopLivreDTO> classer(List<TopLivreDTO> topLivres) {
+        for (int i = 0; i < topLivres.size(); i++) topLivres.get(i).setRang(i + 1);
+        return topLivres;
     }
 
     // ==================== PERFORMANCE VENDEURS ====================
@@ -0,0 +1,109 @@
+package com.hexalib.api.stock.controller;
+
+import com.hexalib.api.common.dto.ApiResponse;
+import com.hexalib.api.common.dto.PageResponse;
+import com.hexalib.api.common.exception.BadRequestException;
+import com.hexalib.api.stock.dto.ApercuInventaireResponse;
+import com.hexalib.api.stock.dto.ComptageRequest;
+import com.hexalib.api.stock.dto.ComptageResultResponse;
+import com.hexalib.api.stock.dto.SessionInventaireResponse;
+import com.hexalib.api.stock.service.InventaireService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/inventaires")
+@RequiredArgsConstructor
+@Validated
+@Tag(name = "Inventaires", description = "Inventaire physique et rapprochement du stock")
+@SecurityRequirement(name = "bearerAuth")
+@PreAuthorize("hasRole('ADMIN')")
+public class InventaireController {
+
+    private final InventaireService inventaireService;
+
+    @PostMapping
+    @Operation(summary = "Ouvrir une session d'inventaire")
+    public ResponseEntity<ApiResponse<SessionInventaireResponse>> ouvrir(
+            @RequestParam(required = false) String motif) {
+        return ResponseEntity
+                .status(HttpStatus.CREATED)
+                .body(ApiResponse.success("Session d'inventaire ouverte", inventaireService.ouvrir(motif)));
+    }
+
+    @GetMapping
+    @Operation(summary = "Lister les sessions d'inventaire")
+    public ResponseEntity<ApiResponse<PageResponse<SessionInventaireResponse>>> getAll(
+            @RequestParam(defaultValue = "0")  int page,
+            @RequestParam(defaultValue = "20") int size) {
+        return ResponseEntity.ok(ApiResponse.success(inventaireService.getAll(page, size)));
+    }
+
+    @GetMapping("/{id}")
+    @Operation(summary = "Détail d'une session d'inventaire")
+    public ResponseEntity<ApiResponse<SessionInventaireResponse>> getById(@PathVariable String id) {
+        return ResponseEntity.ok(ApiResponse.success(inventaireService.getById(id)));
+    }
+
+    @PostMapping("/{id}/comptages")
+    @Operation(summary = "Enregistrer des comptages",
+               description = "Liste de {code, quantite}. Un code déjà compté est remplacé.")
+    public ResponseEntity<ApiResponse<ComptageResultResponse>> enregistrerComptages(
+            @PathVariable String id,
+            @RequestBody @NotEmpty(message = "Aucun comptage fourni") List<@Valid ComptageRequest> comptages) {
+        ComptageResultResponse result = inventaireService.enregistrerComptages(id, comptages);
+        return ResponseEntity.ok(ApiResponse.success(
+                result.getLignesEnregistrees() + " comptages enregistrés", result));
+    }
+
+    @PostMapping(value = "/{id}/comptages/csv", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    @Operation(summary = "Importer des comptages CSV",
+               description = "Fichier code;quantite (séparateur ; , ou tabulation, en-tête optionnel)")
+    public ResponseEntity<ApiResponse<ComptageResultResponse>> importerComptagesCsv(
+            @PathVariable String id,
+            @RequestParam("file") MultipartFile file) throws IOException {
+        if (file.isEmpty()) {
+            throw new BadRequestException("Fichier vide");
+        }
+        ComptageResultResponse result = inventaireService.enregistrerComptagesCsv(id, file);
+        return ResponseEntity.ok(ApiResponse.success(
+                result.getLignesEnregistrees() + " comptages enregistrés", result));
+    }
+
+    @GetMapping("/{id}/apercu")
+    @Operation(summary = "Aperçu des écarts",
+               description = "Écarts entre quantités comptées et stock théorique, triés par importance")
+    public ResponseEntity<ApiResponse<ApercuInventaireResponse>> apercu(
+            @PathVariable String id,
+            @RequestParam(defaultValue = "0")  int page,
+            @RequestParam(defaultValue = "50") int size) {
+        return ResponseEntity.ok(ApiResponse.success(inventaireService.apercu(id, page, size)));
+    }
+
+    @PostMapping("/{id}/valider")
+    @Operation(summary = "Valider l'inventaire",
+               description = "Aligne le stock sur les comptages et enregistre les mouvements AJUSTEMENT")
+    public ResponseEntity<ApiResponse<SessionInventaireResponse>> valider(@PathVariable String id) {
+        return ResponseEntity.ok(ApiResponse.success("Inventaire validé", inventaireService.valider(id)));
+    }
+
+    @PostMapping("/{id}/annuler")
+    @Operation(summary = "Annuler une session d'inventaire")
+    public ResponseEntity<ApiResponse<SessionInventaireResponse>> annuler(@PathVariable String id) {
+        return ResponseEntity.ok(ApiResponse.success("Session d'inventaire annulée", inventaireService.annuler(id)));
+    }
+}
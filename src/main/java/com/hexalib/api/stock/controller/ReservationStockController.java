@@ -0,0 +1,64 @@
+package com.hexalib.api.stock.controller;
+
+import com.hexalib.api.common.dto.ApiResponse;
+import com.hexalib.api.stock.dto.DisponibiliteResponse;
+import com.hexalib.api.stock.dto.ReservationRequest;
+import com.hexalib.api.stock.service.ReservationStockService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDateTime;
+
+@RestController
+@RequestMapping("/api/reservations")
+@RequiredArgsConstructor
+@Tag(name = "Réservations Stock", description = "Réservations temporaires de stock pour les paniers en caisse")
+@SecurityRequirement(name = "bearerAuth")
+public class ReservationStockController {
+
+    private final ReservationStockService reservationService;
+
+    @PutMapping
+    @Operation(summary = "Réserver des exemplaires",
+               description = "Fixe la quantité réservée d'un livre pour un panier (0 = libérer)")
+    public ResponseEntity<ApiResponse<DisponibiliteResponse>> reserver(
+            @Valid @RequestBody ReservationRequest request) {
+        return ResponseEntity.ok(ApiResponse.success("Réservation enregistrée", reservationService.reserver(request)));
+    }
+
+    @PostMapping("/{panierId}/prolonger")
+    @Operation(summary = "Prolonger les réservations d'un panier")
+    public ResponseEntity<ApiResponse<LocalDateTime>> prolonger(@PathVariable String panierId) {
+        return ResponseEntity.ok(ApiResponse.success("Réservations prolongées", reservationService.prolonger(panierId)));
+    }
+
+    @DeleteMapping("/{panierId}/livres/{livreId}")
+    @Operation(summary = "Libérer la réservation d'un livre")
+    public ResponseEntity<ApiResponse<Void>> libererLivre(
+            @PathVariable String panierId,
+            @PathVariable String livreId) {
+        reservationService.liberer(panierId, livreId);
+        return ResponseEntity.ok(ApiResponse.success("Réservation libérée", null));
+    }
+
+    @DeleteMapping("/{panierId}")
+    @Operation(summary = "Libérer toutes les réservations d'un panier")
+    public ResponseEntity<ApiResponse<Void>> libererPanier(@PathVariable String panierId) {
+        reservationService.liberer(panierId);
+        return ResponseEntity.ok(ApiResponse.success("Panier libéré", null));
+    }
+
+    @GetMapping("/disponibilite/{livreId}")
+    @Operation(summary = "Disponibilité d'un livre",
+               description = "Stock moins les réservations actives des autres paniers")
+    public ResponseEntity<ApiResponse<DisponibiliteResponse>> getDisponibilite(
+            @PathVariable String livreId,
+            @RequestParam(required = false) String panierId) {
+        return ResponseEntity.ok(ApiResponse.success(reservationService.getDisponibilite(livreId, panierId)));
+    }
+}
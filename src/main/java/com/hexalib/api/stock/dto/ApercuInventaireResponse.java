@@ -0,0 +1,41 @@
+package com.hexalib.api.stock.dto;
+
+import com.hexalib.api.common.dto.PageResponse;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ApercuInventaireResponse {
+
+    private SessionInventaireResponse session;
+
+    private long lignesComptees;
+    private long lignesEnEcart;
+    private long surplusUnites;        // somme des écarts positifs
+    private long manquantsUnites;      // somme des écarts négatifs (valeur négative)
+    private BigDecimal valeurEcart;    // écart valorisé au prix d'achat (XAF)
+    private long livresNonComptes;     // titres actifs en stock absents du comptage
+
+    private PageResponse<EcartLigne> ecarts;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @Builder
+    public static class EcartLigne {
+        private String livreId;
+        private String code;
+        private String titre;
+        private int stockTheorique;
+        private int quantiteComptee;
+        private int ecart;
+        private BigDecimal valeurEcart;
+    }
+}
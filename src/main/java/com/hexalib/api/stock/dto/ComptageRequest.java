@@ -0,0 +1,21 @@
+package com.hexalib.api.stock.dto;
+
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ComptageRequest {
+
+    @NotBlank(message = "Le code du livre est obligatoire")
+    private String code;
+
+    @NotNull(message = "La quantité comptée est obligatoire")
+    @Min(value = 0, message = "La quantité comptée ne peut pas être négative")
+    private Integer quantite;
+}
@@ -0,0 +1,20 @@
+package com.hexalib.api.stock.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ComptageResultResponse {
+
+    private int lignesRecues;
+    private int lignesEnregistrees;   // titres distincts créés ou mis à jour
+    private List<String> codesInconnus;
+    private List<String> erreurs;     // lignes CSV illisibles
+}
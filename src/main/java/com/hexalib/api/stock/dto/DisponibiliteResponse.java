@@ -0,0 +1,22 @@
+package com.hexalib.api.stock.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class DisponibiliteResponse {
+
+    private String livreId;
+    private int quantiteStock;
+    private int quantiteReservee;     // réservations actives des autres paniers
+    private int disponible;           // stock - réservations des autres paniers
+    private int reserveParPanier;     // quantité tenue par le panier demandeur
+    private LocalDateTime expiresAt;  // expiration de la réservation du panier (si présente)
+}
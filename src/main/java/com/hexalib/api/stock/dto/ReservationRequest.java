@@ -0,0 +1,27 @@
+package com.hexalib.api.stock.dto;
+
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReservationRequest {
+
+    @NotBlank(message = "L'identifiant du panier est obligatoire")
+    @Size(max = 64)
+    private String panierId;
+
+    @NotBlank(message = "L'ID du livre est obligatoire")
+    private String livreId;
+
+    // Quantité totale réservée pour ce livre dans le panier (0 = libérer)
+    @NotNull(message = "La quantité est obligatoire")
+    @Min(value = 0, message = "La quantité ne peut pas être négative")
+    private Integer quantite;
+}
@@ -0,0 +1,42 @@
+package com.hexalib.api.stock.dto;
+
+import com.hexalib.api.stock.model.SessionInventaire;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class SessionInventaireResponse {
+
+    private String id;
+    private String reference;
+    private String motif;
+    private SessionInventaire.Statut statut;
+    private String ouverteParNom;
+    private String valideeParNom;
+    private long nombreLignes;
+    private Integer nombreAjustements;
+    private LocalDateTime dateValidation;
+    private LocalDateTime createdAt;
+
+    public static SessionInventaireResponse fromEntity(SessionInventaire s, long nombreLignes) {
+        return SessionInventaireResponse.builder()
+                .id(s.getId())
+                .reference(s.getReference())
+                .motif(s.getMotif())
+                .statut(s.getStatut())
+                .ouverteParNom(s.getOuvertePar() != null ? s.getOuvertePar().getNomComplet() : null)
+                .valideeParNom(s.getValideePar() != null ? s.getValideePar().getNomComplet() : null)
+                .nombreLignes(nombreLignes)
+                .nombreAjustements(s.getNombreAjustements())
+                .dateValidation(s.getDateValidation())
+                .createdAt(s.getCreatedAt())
+                .build();
+    }
+}
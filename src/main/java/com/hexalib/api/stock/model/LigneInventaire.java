@@ -0,0 +1,44 @@
+package com.hexalib.api.stock.model;
+
+import com.hexalib.api.livre.model.Livre;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.UpdateTimestamp;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "lignes_inventaire",
+    uniqueConstraints = @UniqueConstraint(name = "uk_inventaire_livre", columnNames = {"session_id", "livre_id"}),
+    indexes = @Index(name = "idx_inventaire_session", columnList = "session_id"))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class LigneInventaire {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.UUID)
+    @Column(columnDefinition = "VARCHAR(36)")
+    private String id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "session_id", nullable = false)
+    private SessionInventaire session;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "livre_id", nullable = false)
+    private Livre livre;
+
+    @Column(name = "quantite_comptee", nullable = false)
+    private Integer quantiteComptee;
+
+    // Stock théorique figé au moment de la validation (null tant que la session est ouverte)
+    @Column(name = "stock_avant")
+    private Integer stockAvant;
+
+    @UpdateTimestamp
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,47 @@
+package com.hexalib.api.stock.model;
+
+import com.hexalib.api.livre.model.Livre;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.LocalDateTime;
+
+/**
+ * Copie persistante d'une réservation de panier.
+ * La source de vérité à chaud est la structure mémoire de ReservationStockService ;
+ * cette table permet de la reconstruire au redémarrage.
+ */
+@Entity
+@Table(name = "reservations_stock",
+    uniqueConstraints = @UniqueConstraint(name = "uk_reservation_panier_livre", columnNames = {"panier_id", "livre_id"}),
+    indexes = @Index(name = "idx_reservation_expiration", columnList = "expires_at"))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReservationStock {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.UUID)
+    @Column(columnDefinition = "VARCHAR(36)")
+    private String id;
+
+    @Column(name = "panier_id", nullable = false, length = 64)
+    private String panierId;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "livre_id", nullable = false)
+    private Livre livre;
+
+    @Column(nullable = false)
+    private Integer quantite;
+
+    @Column(name = "expires_at", nullable = false)
+    private LocalDateTime expiresAt;
+
+    @CreationTimestamp
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,78 @@
+package com.hexalib.api.stock.model;
+
+import com.hexalib.api.auth.model.User;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.UpdateTimestamp;
+
+import java.time.LocalDateTime;
+
+/**
+ * Session d'inventaire physique : regroupe les quantités comptées
+ * avant leur rapprochement avec le stock théorique.
+ */
+@Entity
+@Table(name = "sessions_inventaire", indexes = {
+    @Index(name = "idx_inventaire_statut", columnList = "statut")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SessionInventaire {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.UUID)
+    @Column(columnDefinition = "VARCHAR(36)")
+    private String id;
+
+    @Column(nullable = false, unique = true, length = 30)
+    private String reference;
+
+    @Column(length = 255)
+    private String motif;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private Statut statut = Statut.EN_COURS;
+
+    // TRUE tant que la session est EN_COURS, NULL ensuite : l'index unique
+    // (NULL non comparés) interdit deux sessions ouvertes en même temps
+    @Column(name = "en_cours", unique = true)
+    private Boolean enCours = Boolean.TRUE;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "ouverte_par", nullable = false)
+    private User ouvertePar;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "validee_par")
+    private User valideePar;
+
+    @Column(name = "date_validation")
+    private LocalDateTime dateValidation;
+
+    // Nombre de mouvements AJUSTEMENT générés à la validation
+    @Column(name = "nombre_ajustements")
+    private Integer nombreAjustements;
+
+    @CreationTimestamp
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    @UpdateTimestamp
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    @PrePersist
+    @PreUpdate
+    public void synchroniserEnCours() {
+        this.enCours = statut == Statut.EN_COURS ? Boolean.TRUE : null;
+    }
+
+    public enum Statut {
+        EN_COURS, VALIDEE, ANNULEE
+    }
+}
@@ -0,0 +1,130 @@
+package com.hexalib.api.stock.repository;
+
+import com.hexalib.api.stock.model.LigneInventaire;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Les opérations de rapprochement sont écrites en SQL natif ensembliste :
+ * une requête par étape, quel que soit le nombre de titres comptés.
+ * Le stock théorique est lu via COALESCE(li.stock_avant, l.quantite_stock)
+ * → stock courant tant que la session est ouverte, stock figé une fois validée.
+ */
+@Repository
+public interface LigneInventaireRepository extends JpaRepository<LigneInventaire, String> {
+
+    List<LigneInventaire> findBySessionId(String sessionId);
+
+    long countBySessionId(String sessionId);
+
+    @Modifying
+    @Query("DELETE FROM LigneInventaire li WHERE li.session.id = :sessionId")
+    int deleteBySessionId(@Param("sessionId") String sessionId);
+
+    // ── Aperçu des écarts ─────────────────────────────────────────────────────
+
+    // Colonnes : livre_id, code, titre, stock_theorique, quantite_comptee, prix_achat
+    @Query(value = """
+        SELECT l.id, l.code, l.titre,
+               COALESCE(li.stock_avant, l.quantite_stock) AS stock_theorique,
+               li.quantite_comptee,
+               l.prix_achat
+        FROM lignes_inventaire li
+        JOIN livres l ON l.id = li.livre_id
+        WHERE li.session_id = :sessionId
+          AND li.quantite_comptee <> COALESCE(li.stock_avant, l.quantite_stock)
+        ORDER BY ABS(li.quantite_comptee - COALESCE(li.stock_avant, l.quantite_stock)) DESC, l.code
+        """,
+        countQuery = """
+        SELECT COUNT(*)
+        FROM lignes_inventaire li
+        JOIN livres l ON l.id = li.livre_id
+        WHERE li.session_id = :sessionId
+          AND li.quantite_comptee <> COALESCE(li.stock_avant, l.quantite_stock)
+        """,
+        nativeQuery = true)
+    Page<Object[]> findEcarts(@Param("sessionId") String sessionId, Pageable pageable);
+
+    // Colonnes : lignes comptées, lignes en écart, surplus (unités), manquants (unités), valeur de l'écart
+    @Query(value = """
+        SELECT COUNT(*),
+               COALESCE(SUM(CASE WHEN li.quantite_comptee <> COALESCE(li.stock_avant, l.quantite_stock) THEN 1 ELSE 0 END), 0),
+               COALESCE(SUM(GREATEST(li.quantite_comptee - COALESCE(li.stock_avant, l.quantite_stock), 0)), 0),
+               COALESCE(SUM(LEAST(li.quantite_comptee - COALESCE(li.stock_avant, l.quantite_stock), 0)), 0),
+               COALESCE(SUM((li.quantite_comptee - COALESCE(li.stock_avant, l.quantite_stock)) * COALESCE(l.prix_achat, 0)), 0)
+        FROM lignes_inventaire li
+        JOIN livres l ON l.id = li.livre_id
+        WHERE li.session_id = :sessionId
+        """, nativeQuery = true)
+    List<Object[]> resumerEcarts(@Param("sessionId") String sessionId);
+
+    // Titres actifs ayant du stock mais absents du comptage
+    @Query(value = """
+        SELECT COUNT(*) FROM livres l
+        WHERE l.statut = 'ACTIF'
+          AND l.quantite_stock > 0
+          AND NOT EXISTS (SELECT 1 FROM lignes_inventaire li
+                          WHERE li.session_id = :sessionId AND li.livre_id = l.id)
+        """, nativeQuery = true)
+    long countLivresNonComptes(@Param("sessionId") String sessionId);
+
+    // ── Validation (3 requêtes pour toute la session) ─────────────────────────
+
+    /**
+     * Étape 1 : fige le stock théorique sur chaque ligne.
+     * Les lignes de livres lues ici restent verrouillées jusqu'au commit,
+     * une vente concurrente sur ces titres attend donc la fin de la validation.
+     */
+    @Modifying
+    @Query(value = """
+        UPDATE lignes_inventaire li
+        JOIN livres l ON l.id = li.livre_id
+        SET li.stock_avant = l.quantite_stock
+        WHERE li.session_id = :sessionId
+        """, nativeQuery = true)
+    int figerStockTheorique(@Param("sessionId") String sessionId);
+
+    // Étape 2 : un mouvement AJUSTEMENT par ligne en écart
+    @Modifying
+    @Query(value = """
+        INSERT INTO mouvements_stock
+            (id, livre_id, type_mouvement, quantite, stock_avant, stock_apres,
+             motif, reference, user_id, date_mouvement)
+        SELECT UUID(), li.livre_id, 'AJUSTEMENT',
+               li.quantite_comptee - li.stock_avant, li.stock_avant, li.quantite_comptee,
+               :motif, :reference, :userId, :date
+        FROM lignes_inventaire li
+        WHERE li.session_id = :sessionId
+          AND li.quantite_comptee <> li.stock_avant
+        """, nativeQuery = true)
+    int insererMouvementsAjustement(
+        @Param("sessionId") String sessionId,
+        @Param("motif") String motif,
+        @Param("reference") String reference,
+        @Param("userId") String userId,
+        @Param("date") LocalDateTime date
+    );
+
+    // Étape 3 : stock des livres aligné sur les quantités comptées
+    @Modifying
+    @Query(value = """
+        UPDATE livres l
+        JOIN lignes_inventaire li ON li.livre_id = l.id
+        SET l.quantite_stock = li.quantite_comptee,
+            l.updated_at = :date
+        WHERE li.session_id = :sessionId
+          AND li.quantite_comptee <> li.stock_avant
+        """, nativeQuery = true)
+    int appliquerQuantitesComptees(
+        @Param("sessionId") String sessionId,
+        @Param("date") LocalDateTime date
+    );
+}
@@ -0,0 +1,39 @@
+package com.hexalib.api.stock.repository;
+
+import com.hexalib.api.stock.model.ReservationStock;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface ReservationStockRepository extends JpaRepository<ReservationStock, String> {
+
+    Optional<ReservationStock> findByPanierIdAndLivreId(String panierId, String livreId);
+
+    // Colonnes : panier_id, livre_id, quantite, expires_at
+    @Query("SELECT r.panierId, r.livre.id, r.quantite, r.expiresAt FROM ReservationStock r " +
+           "WHERE r.expiresAt > :maintenant")
+    List<Object[]> findActives(@Param("maintenant") LocalDateTime maintenant);
+
+    @Modifying
+    @Query("DELETE FROM ReservationStock r WHERE r.panierId = :panierId AND r.livre.id = :livreId")
+    int deleteByPanierIdAndLivreId(@Param("panierId") String panierId, @Param("livreId") String livreId);
+
+    @Modifying
+    @Query("DELETE FROM ReservationStock r WHERE r.panierId = :panierId")
+    int deleteByPanierId(@Param("panierId") String panierId);
+
+    @Modifying
+    @Query("UPDATE ReservationStock r SET r.expiresAt = :expiresAt WHERE r.panierId = :panierId")
+    int prolongerPanier(@Param("panierId") String panierId, @Param("expiresAt") LocalDateTime expiresAt);
+
+    @Modifying
+    @Query("DELETE FROM ReservationStock r WHERE r.expiresAt <= :maintenant")
+    int deleteExpirees(@Param("maintenant") LocalDateTime maintenant);
+}
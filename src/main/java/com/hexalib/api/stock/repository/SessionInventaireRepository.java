@@ -0,0 +1,26 @@
+package com.hexalib.api.stock.repository;
+
+import com.hexalib.api.stock.model.SessionInventaire;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import jakarta.persistence.LockModeType;
+import java.util.Optional;
+
+@Repository
+public interface SessionInventaireRepository extends JpaRepository<SessionInventaire, String> {
+
+    boolean existsByStatut(SessionInventaire.Statut statut);
+
+    Page<SessionInventaire> findAllByOrderByCreatedAtDesc(Pageable pageable);
+
+    // Verrou exclusif : empêche deux validations simultanées de la même session
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT s FROM SessionInventaire s WHERE s.id = :id")
+    Optional<SessionInventaire> findByIdForUpdate(@Param("id") String id);
+}
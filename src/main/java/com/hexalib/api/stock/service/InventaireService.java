@@ -0,0 +1,352 @@
+package com.hexalib.api.stock.service;
+
+import com.hexalib.api.auth.model.User;
+import com.hexalib.api.auth.repository.UserRepository;
+import com.hexalib.api.common.dto.PageResponse;
+import com.hexalib.api.common.exception.BadRequestException;
+import com.hexalib.api.common.exception.ResourceNotFoundException;
+import com.hexalib.api.livre.repository.LivreRepository;
+import com.hexalib.api.stock.dto.ApercuInventaireResponse;
+import com.hexalib.api.stock.dto.ComptageRequest;
+import com.hexalib.api.stock.dto.ComptageResultResponse;
+import com.hexalib.api.stock.dto.SessionInventaireResponse;
+import com.hexalib.api.stock.model.LigneInventaire;
+import com.hexalib.api.stock.model.SessionInventaire;
+import com.hexalib.api.stock.repository.LigneInventaireRepository;
+import com.hexalib.api.stock.repository.SessionInventaireRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.*;
+import java.util.stream.Collectors;
+
+/**
+ * Inventaire physique en masse :
+ * ouverture → comptages (JSON ou CSV) → aperçu des écarts → validation.
+ *
+ * La validation applique toute la session en 3 requêtes ensemblistes
+ * (voir {@link LigneInventaireRepository}) au lieu d'un ajusterStock par titre.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+@Transactional
+public class InventaireService {
+
+    // Taille max d'une clause IN pour la résolution des codes
+    private static final int CHUNK_SIZE = 1000;
+
+    private static final DateTimeFormatter REF_FMT = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
+
+    private final SessionInventaireRepository sessionRepository;
+    private final LigneInventaireRepository   ligneRepository;
+    private final LivreRepository             livreRepository;
+    private final UserRepository              userRepository;
+
+    // ══════════════════════════════════════════════════════════════════
+    // SESSION
+    // ══════════════════════════════════════════════════════════════════
+
+    public SessionInventaireResponse ouvrir(String motif) {
+        if (sessionRepository.existsByStatut(SessionInventaire.Statut.EN_COURS)) {
+            throw new BadRequestException("Une session d'inventaire est déjà en cours");
+        }
+
+        SessionInventaire session = new SessionInventaire();
+        session.setReference("INV-" + LocalDateTime.now().format(REF_FMT));
+        session.setMotif(motif != null && !motif.isBlank() ? motif : "Inventaire physique");
+        session.setStatut(SessionInventaire.Statut.EN_COURS);
+        session.setOuvertePar(getCurrentUser());
+
+        // Deux ouvertures simultanées passent le test ci-dessus : l'index
+        // unique sur en_cours refuse la seconde
+        SessionInventaire saved;
+        try {
+            saved = sessionRepository.saveAndFlush(session);
+        } catch (DataIntegrityViolationException e) {
+            throw new BadRequestException("Une session d'inventaire est déjà en cours");
+        }
+        log.info("Session d'inventaire ouverte : {}", saved.getReference());
+        return SessionInventaireResponse.fromEntity(saved, 0);
+    }
+
+    @Transactional(readOnly = true)
+    public PageResponse<SessionInventaireResponse> getAll(int page, int size) {
+        Page<SessionInventaire> result = sessionRepository.findAllByOrderByCreatedAtDesc(PageRequest.of(page, size));
+
+        List<SessionInventaireResponse> content = result.getContent().stream()
+                .map(s -> SessionInventaireResponse.fromEntity(s, ligneRepository.countBySessionId(s.getId())))
+                .collect(Collectors.toList());
+
+        return new PageResponse<>(content, result.getNumber(), result.getSize(),
+                result.getTotalElements(), result.getTotalPages(), result.isLast());
+    }
+
+    @Transactional(readOnly = true)
+    public SessionInventaireResponse getById(String id) {
+        SessionInventaire session = findSession(id);
+        return SessionInventaireResponse.fromEntity(session, ligneRepository.countBySessionId(id));
+    }
+
+    public SessionInventaireResponse annuler(String id) {
+        SessionInventaire session = findSessionEnCours(id);
+
+        ligneRepository.deleteBySessionId(id);
+        session.setStatut(SessionInventaire.Statut.ANNULEE);
+
+        log.info("Session d'inventaire annulée : {}", session.getReference());
+        return SessionInventaireResponse.fromEntity(sessionRepository.save(session), 0);
+    }
+
+    // ══════════════════════════════════════════════════════════════════
+    // COMPTAGES
+    // ══════════════════════════════════════════════════════════════════
+
+    /**
+     * Enregistre un lot de comptages. Un code présent plusieurs fois dans le lot
+     * est cumulé (même titre rangé à plusieurs endroits) ; un code déjà compté
+     * dans un lot précédent est remplacé par la nouvelle quantité.
+     */
+    public ComptageResultResponse enregistrerComptages(String sessionId, List<ComptageRequest> comptages) {
+        return enregistrer(sessionId, comptages, new ArrayList<>());
+    }
+
+    /**
+     * Import CSV : une ligne "code;quantite" par titre.
+     * Séparateurs acceptés : ";", "," ou tabulation. Ligne d'en-tête optionnelle.
+     */
+    public ComptageResultResponse enregistrerComptagesCsv(String sessionId, MultipartFile file) throws IOException {
+        List<ComptageRequest> comptages = new ArrayList<>();
+        List<String> erreurs = new ArrayList<>();
+
+        try (BufferedReader reader = new BufferedReader(
+                new InputStreamReader(file.getInputStream(), StandardCharsets.UTF_8))) {
+            String line;
+            int numero = 0;
+            while ((line = reader.readLine()) != null) {
+                numero++;
+                if (line.isBlank()) continue;
+
+                String[] cols = line.split("[;,\t]");
+                if (cols.length < 2) {
+                    erreurs.add("Ligne " + numero + " : format attendu code;quantite");
+                    continue;
+                }
+
+                String code = cols[0].trim().replace("\uFEFF", "").replace("\"", "");
+                String qte  = cols[1].trim().replace("\"", "");
+                try {
+                    int quantite = Integer.parseInt(qte);
+                    if (quantite < 0) {
+                        erreurs.add("Ligne " + numero + " : quantité négative pour " + code);
+                        continue;
+                    }
+                    comptages.add(new ComptageRequest(code, quantite));
+                } catch (NumberFormatException e) {
+                    // Première ligne non numérique → en-tête
+                    if (numero > 1) {
+                        erreurs.add("Ligne " + numero + " : quantité invalide '" + qte + "'");
+                    }
+                }
+            }
+        }
+
+        return enregistrer(sessionId, comptages, erreurs);
+    }
+
+    private ComptageResultResponse enregistrer(String sessionId,
+                                               List<ComptageRequest> comptages,
+                                               List<String> erreurs) {
+        SessionInventaire session = findSessionEnCours(sessionId);
+
+        // Cumul des quantités par code (ordre d'apparition conservé)
+        Map<String, Integer> quantitesParCode = new LinkedHashMap<>();
+        for (ComptageRequest c : comptages) {
+            quantitesParCode.merge(c.getCode().trim(), c.getQuantite(), Integer::sum);
+        }
+
+        // Résolution code → id en quelques requêtes
+        Map<String, String> idsParCode = new HashMap<>();
+        List<String> codes = new ArrayList<>(quantitesParCode.keySet());
+        for (int i = 0; i < codes.size(); i += CHUNK_SIZE) {
+            List<String> chunk = codes.subList(i, Math.min(i + CHUNK_SIZE, codes.size()));
+            for (Object[] row : livreRepository.findIdsByCodeIn(chunk)) {
+                idsParCode.put((String) row[1], (String) row[0]);
+            }
+        }
+
+        // Lignes déjà comptées dans cette session
+        Map<String, LigneInventaire> existantes = ligneRepository.findBySessionId(sessionId).stream()
+                .collect(Collectors.toMap(li -> li.getLivre().getId(), li -> li));
+
+        List<String> codesInconnus = new ArrayList<>();
+        List<LigneInventaire> aEnregistrer = new ArrayList<>();
+
+        for (Map.Entry<String, Integer> entry : quantitesParCode.entrySet()) {
+            String livreId = idsParCode.get(entry.getKey());
+            if (livreId == null) {
+                codesInconnus.add(entry.getKey());
+                continue;
+            }
+
+            LigneInventaire ligne = existantes.get(livreId);
+            if (ligne == null) {
+                ligne = new LigneInventaire();
+                ligne.setSession(session);
+                ligne.setLivre(livreRepository.getReferenceById(livreId));
+            }
+            ligne.setQuantiteComptee(entry.getValue());
+            aEnregistrer.add(ligne);
+        }
+
+        // Insertions/mises à jour envoyées par lots (hibernate.jdbc.batch_size)
+        ligneRepository.saveAll(aEnregistrer);
+
+        log.info("Inventaire {} : {} comptages enregistrés, {} codes inconnus",
+                session.getReference(), aEnregistrer.size(), codesInconnus.size());
+
+        return ComptageResultResponse.builder()
+                .lignesRecues(comptages.size())
+                .lignesEnregistrees(aEnregistrer.size())
+                .codesInconnus(codesInconnus)
+                .erreurs(erreurs)
+                .build();
+    }
+
+    // ══════════════════════════════════════════════════════════════════
+    // APERÇU DES ÉCARTS
+    // ══════════════════════════════════════════════════════════════════
+
+    @Transactional(readOnly = true)
+    public ApercuInventaireResponse apercu(String sessionId, int page, int size) {
+        SessionInventaire session = findSession(sessionId);
+
+        Object[] resume = ligneRepository.resumerEcarts(sessionId).get(0);
+        Page<Object[]> ecarts = ligneRepository.findEcarts(sessionId, PageRequest.of(page, size));
+
+        List<ApercuInventaireResponse.EcartLigne> content = ecarts.getContent().stream()
+                .map(this::mapEcart)
+                .collect(Collectors.toList());
+
+        long lignesComptees = toLong(resume[0]);
+
+        return ApercuInventaireResponse.builder()
+                .session(SessionInventaireResponse.fromEntity(session, lignesComptees))
+                .lignesComptees(lignesComptees)
+                .lignesEnEcart(toLong(resume[1]))
+                .surplusUnites(toLong(resume[2]))
+                .manquantsUnites(toLong(resume[3]))
+                .valeurEcart(toBigDecimal(resume[4]))
+                .livresNonComptes(session.getStatut() == SessionInventaire.Statut.EN_COURS
+                        ? ligneRepository.countLivresNonComptes(sessionId) : 0)
+                .ecarts(new PageResponse<>(content, ecarts.getNumber(), ecarts.getSize(),
+                        ecarts.getTotalElements(), ecarts.getTotalPages(), ecarts.isLast()))
+                .build();
+    }
+
+    // ══════════════════════════════════════════════════════════════════
+    // VALIDATION
+    // ══════════════════════════════════════════════════════════════════
+
+    public SessionInventaireResponse valider(String sessionId) {
+        SessionInventaire session = sessionRepository.findByIdForUpdate(sessionId)
+                .orElseThrow(() -> new ResourceNotFoundException("Session d'inventaire", "id", sessionId));
+
+        if (session.getStatut() != SessionInventaire.Statut.EN_COURS) {
+            throw new BadRequestException("Cette session d'inventaire n'est plus en cours");
+        }
+
+        long nombreLignes = ligneRepository.countBySessionId(sessionId);
+        if (nombreLignes == 0) {
+            throw new BadRequestException("Aucun comptage enregistré pour cette session");
+        }
+
+        User user = getCurrentUser();
+        LocalDateTime maintenant = LocalDateTime.now();
+
+        ligneRepository.figerStockTheorique(sessionId);
+        int mouvements = ligneRepository.insererMouvementsAjustement(
+                sessionId, session.getMotif(), session.getReference(), user.getId(), maintenant);
+        int livres = ligneRepository.appliquerQuantitesComptees(sessionId, maintenant);
+
+        if (mouvements != livres) {
+            throw new IllegalStateException(String.format(
+                    "Incohérence à la validation de %s : %d mouvements pour %d livres",
+                    session.getReference(), mouvements, livres));
+        }
+
+        session.setStatut(SessionInventaire.Statut.VALIDEE);
+        session.setValideePar(user);
+        session.setDateValidation(maintenant);
+        session.setNombreAjustements(mouvements);
+
+        log.info("Inventaire {} validé : {} titres comptés, {} ajustements",
+                session.getReference(), nombreLignes, mouvements);
+        return SessionInventaireResponse.fromEntity(sessionRepository.save(session), nombreLignes);
+    }
+
+    // ══════════════════════════════════════════════════════════════════
+    // HELPERS
+    // ══════════════════════════════════════════════════════════════════
+
+    private ApercuInventaireResponse.EcartLigne mapEcart(Object[] row) {
+        int stockTheorique  = ((Number) row[3]).intValue();
+        int quantiteComptee = ((Number) row[4]).intValue();
+        int ecart           = quantiteComptee - stockTheorique;
+        BigDecimal prixAchat = row[5] != null ? toBigDecimal(row[5]) : BigDecimal.ZERO;
+
+        return ApercuInventaireResponse.EcartLigne.builder()
+                .livreId((String) row[0])
+                .code((String) row[1])
+                .titre((String) row[2])
+                .stockTheorique(stockTheorique)
+                .quantiteComptee(quantiteComptee)
+                .ecart(ecart)
+                .valeurEcart(prixAchat.multiply(BigDecimal.valueOf(ecart)))
+                .build();
+    }
+
+    private SessionInventaire findSession(String id) {
+        return sessionRepository.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Session d'inventaire", "id", id));
+    }
+
+    private SessionInventaire findSessionEnCours(String id) {
+        SessionInventaire session = findSession(id);
+        if (session.getStatut() != SessionInventaire.Statut.EN_COURS) {
+            throw new BadRequestException("Cette session d'inventaire n'est plus en cours");
+        }
+        return session;
+    }
+
+    private long toLong(Object value) {
+        return value != null ? ((Number) value).longValue() : 0L;
+    }
+
+    private BigDecimal toBigDecimal(Object value) {
+        if (value == null) return BigDecimal.ZERO;
+        if (value instanceof BigDecimal bd) return bd;
+        return new BigDecimal(value.toString());
+    }
+
+    private User getCurrentUser() {
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        return userRepository.findByEmail(auth.getName())
+                .orElseThrow(() -> new ResourceNotFoundException("Utilisateur non trouvé"));
+    }
+}
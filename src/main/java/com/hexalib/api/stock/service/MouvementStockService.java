@@ -1,5 +1,7 @@
 package com.hexalib.api.stock.service;
 
+import com.hexalib.api.archivage.repository.HistoriqueRepository;
+import com.hexalib.api.archivage.service.LimiteArchive;
 import com.hexalib.api.auth.model.User;
 import com.hexalib.api.auth.repository.UserRepository;
 import com.hexalib.api.common.exception.BadRequestException;
@@ -14,6 +16,8 @@ import com.hexalib.api.stock.repository.MouvementStockRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
@@ -34,6 +38,8 @@ public class MouvementStockService {
     private final MouvementStockRepository mouvementStockRepository;
     private final LivreRepository livreRepository;
     private final UserRepository userRepository;
+    private final HistoriqueRepository historiqueRepository;
+    private final LimiteArchive limiteArchive;
 
     /**
      * Créer un mouvement de stock manuel (Admin uniquement)
@@ -86,8 +92,11 @@ public class MouvementStockService {
      */
     @Transactional(readOnly = true)
     public Page<MouvementStockResponse> getAll(Pageable pageable) {
-        return mouvementStockRepository.findAll(pageable)
-                .map(this::mapToResponse);
+        Page<MouvementStock> chaud = mouvementStockRepository.findAll(pageable);
+        if (limiteArchive.atteint(null)) {
+            return avecArchive(chaud, null, null, null, null, null, pageable);
+        }
+        return chaud.map(this::mapToResponse);
     }
 
     /**
@@ -95,9 +104,12 @@ public class MouvementStockService {
      */
     @Transactional(readOnly = true)
     public Page<MouvementStockResponse> getByLivre(UUID livreId, Pageable pageable) {
-        return mouvementStockRepository.findByLivreIdOrderByDateMouvementDesc(
-                livreId.toString(), pageable)
-                .map(this::mapToResponse);
+        Page<MouvementStock> chaud = mouvementStockRepository.findByLivreIdOrderByDateMouvementDesc(
+                livreId.toString(), pageable);
+        if (limiteArchive.atteint(null)) {
+            return avecArchive(chaud, livreId.toString(), null, null, null, null, pageable);
+        }
+        return chaud.map(this::mapToResponse);
     }
 
     /**
@@ -105,8 +117,11 @@ public class MouvementStockService {
      */
     @Transactional(readOnly = true)
     public Page<MouvementStockResponse> getByType(TypeMouvement type, Pageable pageable) {
-        return mouvementStockRepository.findByTypeMouvementOrderByDateMouvementDesc(type, pageable)
-                .map(this::mapToResponse);
+        Page<MouvementStock> chaud = mouvementStockRepository.findByTypeMouvementOrderByDateMouvementDesc(type, pageable);
+        if (limiteArchive.atteint(null)) {
+            return avecArchive(chaud, null, type, null, null, null, pageable);
+        }
+        return chaud.map(this::mapToResponse);
     }
 
     /**
@@ -121,9 +136,13 @@ public class MouvementStockService {
             LocalDateTime fin,
             Pageable pageable) {
 
-        return mouvementStockRepository.findWithFilters(
-                livreId, type, userId, debut, fin, pageable)
-                .map(this::mapToResponse);
+        Page<MouvementStock> chaud = mouvementStockRepository.findWithFilters(
+                livreId, type, userId, debut, fin, pageable);
+        // Période touchant un mois archivé : l'archive complète la page si besoin
+        if (limiteArchive.atteint(debut)) {
+            return avecArchive(chaud, livreId, type, userId, debut, fin, pageable);
+        }
+        return chaud.map(this::mapToResponse);
     }
 
     /**
@@ -131,6 +150,12 @@ public class MouvementStockService {
      */
     @Transactional(readOnly = true)
     public List<MouvementStockResponse> getHistoriqueLivre(UUID livreId) {
+        if (limiteArchive.atteint(null)
+                && historiqueRepository.countMouvementsArchives(livreId.toString(), null, null, null, null) > 0) {
+            return historiqueRepository.findMouvementsWithFilters(
+                    livreId.toString(), null, null, null, null, PageRequest.of(0, Integer.MAX_VALUE), 0)
+                    .getContent();
+        }
         List<MouvementStock> mouvements = 
                 mouvementStockRepository.findByLivreIdOrderByDateMouvementDesc(livreId.toString());
         
@@ -141,6 +166,27 @@ public class MouvementStockService {
 
     // ==================== MÉTHODES PRIVÉES ====================
 
+    /**
+     * Page chaude complétée par l'archive. Les mouvements archivés sont tous
+     * antérieurs aux mouvements chauds : tant que la page tient dans les
+     * lignes chaudes, l'archive n'est lue que pour son comptage (en cache) ;
+     * au-delà, lecture fusionnée chaude + archive.
+     */
+    private Page<MouvementStockResponse> avecArchive(
+            Page<MouvementStock> chaud, String livreId, TypeMouvement type, String userId,
+            LocalDateTime debut, LocalDateTime fin, Pageable pageable) {
+
+        long totalChaud = chaud.getTotalElements();
+        if (totalChaud >= pageable.getOffset() + pageable.getPageSize()) {
+            long archives = historiqueRepository.countMouvementsArchives(livreId, type, userId, debut, fin);
+            return new PageImpl<>(
+                    chaud.getContent().stream().map(this::mapToResponse).toList(),
+                    pageable, totalChaud + archives);
+        }
+        return historiqueRepository.findMouvementsWithFilters(
+                livreId, type, userId, debut, fin, pageable, totalChaud);
+    }
+
     /**
      * Valider un mouvement de stock
      */
@@ -0,0 +1,303 @@
+package com.hexalib.api.stock.service;
+
+import com.hexalib.api.common.exception.BadRequestException;
+import com.hexalib.api.common.exception.ResourceNotFoundException;
+import com.hexalib.api.livre.repository.LivreRepository;
+import com.hexalib.api.stock.dto.DisponibiliteResponse;
+import com.hexalib.api.stock.dto.ReservationRequest;
+import com.hexalib.api.stock.model.ReservationStock;
+import com.hexalib.api.stock.repository.ReservationStockRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Réservations courtes de stock pour les paniers ouverts en caisse.
+ *
+ * Structure à chaud : livreId → (panierId → réservation), valeurs immuables
+ * remplacées via {@link ConcurrentHashMap#compute} — les lectures sont sans verrou,
+ * les écritures sont sérialisées par livre. Chaque écriture est recopiée dans
+ * reservations_stock pour reconstruire la structure au redémarrage.
+ *
+ * Disponible = stock - réservations actives des autres paniers.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ReservationStockService {
+
+    public record Reservation(String panierId, String livreId, int quantite, LocalDateTime expiresAt) {}
+
+    private final ReservationStockRepository reservationRepository;
+    private final LivreRepository            livreRepository;
+
+    @Value("${stock.reservation.ttl-minutes:15}")
+    private long ttlMinutes;
+
+    private final ConcurrentHashMap<String, Map<String, Reservation>> parLivre = new ConcurrentHashMap<>();
+
+    // ══════════════════════════════════════════════════════════════════
+    // RÉSERVATION
+    // ══════════════════════════════════════════════════════════════════
+
+    /**
+     * Fixe la quantité réservée par un panier pour un livre (0 = libérer).
+     * Échoue si le stock non réservé par les autres paniers est insuffisant.
+     */
+    @Transactional
+    public DisponibiliteResponse reserver(ReservationRequest request) {
+        String panierId = request.getPanierId();
+        String livreId  = request.getLivreId();
+        int quantite    = request.getQuantite();
+
+        if (quantite == 0) {
+            liberer(panierId, livreId);
+            return getDisponibilite(livreId, panierId);
+        }
+
+        LocalDateTime maintenant = LocalDateTime.now();
+        Reservation nouvelle = new Reservation(panierId, livreId, quantite, maintenant.plusMinutes(ttlMinutes));
+        Reservation[] precedente = new Reservation[1];
+
+        // Verrou de ligne sur le livre jusqu'au commit : ventes et réservations du
+        // même livre passent l'une après l'autre, une vente concurrente ne peut pas
+        // consommer ce stock entre la lecture et la réservation. La requête reste
+        // hors du compute(), qui bloquerait les autres livres du même segment.
+        int stock = livreRepository.findByIdPourMiseAJour(livreId)
+                .orElseThrow(() -> new ResourceNotFoundException("Livre", "id", livreId))
+                .getQuantiteStock();
+
+        parLivre.compute(livreId, (id, holds) -> {
+            int autres = sommeReservee(holds, panierId, maintenant);
+            if (quantite > stock - autres) {
+                throw new BadRequestException(String.format(
+                        "Stock insuffisant. Disponible: %d, Demandé: %d", Math.max(0, stock - autres), quantite));
+            }
+            Map<String, Reservation> copie = actives(holds, maintenant);
+            precedente[0] = copie.put(panierId, nouvelle);
+            return Map.copyOf(copie);
+        });
+
+        try {
+            persister(nouvelle);
+        } catch (RuntimeException e) {
+            restaurer(livreId, panierId, precedente[0]);
+            throw e;
+        }
+
+        return getDisponibilite(livreId, panierId);
+    }
+
+    /**
+     * Repousse l'expiration de toutes les réservations d'un panier.
+     */
+    @Transactional
+    public LocalDateTime prolonger(String panierId) {
+        LocalDateTime expiresAt = LocalDateTime.now().plusMinutes(ttlMinutes);
+
+        for (String livreId : parLivre.keySet()) {
+            parLivre.computeIfPresent(livreId, (id, holds) -> {
+                Reservation r = holds.get(panierId);
+                if (r == null) return holds;
+                Map<String, Reservation> copie = new HashMap<>(holds);
+                copie.put(panierId, new Reservation(panierId, id, r.quantite(), expiresAt));
+                return Map.copyOf(copie);
+            });
+        }
+        reservationRepository.prolongerPanier(panierId, expiresAt);
+        return expiresAt;
+    }
+
+    @Transactional
+    public void liberer(String panierId, String livreId) {
+        retirerMemoire(livreId, panierId);
+        reservationRepository.deleteByPanierIdAndLivreId(panierId, livreId);
+    }
+
+    @Transactional
+    public void liberer(String panierId) {
+        parLivre.keySet().forEach(livreId -> retirerMemoire(livreId, panierId));
+        reservationRepository.deleteByPanierId(panierId);
+    }
+
+    /**
+     * Consommation par une vente : la copie persistante est supprimée dans la
+     * transaction de la vente, la structure mémoire seulement après le commit
+     * (un rollback laisse donc les réservations intactes).
+     */
+    public void libererApresCommit(String panierId) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            liberer(panierId);
+            return;
+        }
+        reservationRepository.deleteByPanierId(panierId);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                parLivre.keySet().forEach(livreId -> retirerMemoire(livreId, panierId));
+            }
+        });
+    }
+
+    // ══════════════════════════════════════════════════════════════════
+    // LECTURES (sans verrou)
+    // ══════════════════════════════════════════════════════════════════
+
+    /**
+     * Quantités actives tenues par un panier, par livreId.
+     * Parcourt uniquement les livres ayant au moins une réservation.
+     */
+    public Map<String, Integer> getReservationsPanier(String panierId) {
+        LocalDateTime maintenant = LocalDateTime.now();
+        Map<String, Integer> result = new HashMap<>();
+        parLivre.forEach((livreId, holds) -> {
+            Reservation r = holds.get(panierId);
+            if (r != null && r.expiresAt().isAfter(maintenant)) {
+                result.put(livreId, r.quantite());
+            }
+        });
+        return result;
+    }
+
+    /**
+     * Quantité réservée par les paniers autres que panierExclu (null = tous).
+     */
+    public int getQuantiteReservee(String livreId, String panierExclu) {
+        return sommeReservee(parLivre.get(livreId), panierExclu, LocalDateTime.now());
+    }
+
+    @Transactional(readOnly = true)
+    public DisponibiliteResponse getDisponibilite(String livreId, String panierId) {
+        int stock = livreRepository.findQuantiteStockById(livreId)
+                .orElseThrow(() -> new ResourceNotFoundException("Livre", "id", livreId));
+        LocalDateTime maintenant = LocalDateTime.now();
+        Map<String, Reservation> holds = parLivre.get(livreId);
+        int autres = sommeReservee(holds, panierId, maintenant);
+
+        Reservation propre = panierId != null && holds != null ? holds.get(panierId) : null;
+        if (propre != null && !propre.expiresAt().isAfter(maintenant)) {
+            propre = null;
+        }
+
+        return DisponibiliteResponse.builder()
+                .livreId(livreId)
+                .quantiteStock(stock)
+                .quantiteReservee(autres)
+                .disponible(Math.max(0, stock - autres))
+                .reserveParPanier(propre != null ? propre.quantite() : 0)
+                .expiresAt(propre != null ? propre.expiresAt() : null)
+                .build();
+    }
+
+    // ══════════════════════════════════════════════════════════════════
+    // PURGE & RECHARGEMENT
+    // ══════════════════════════════════════════════════════════════════
+
+    @Scheduled(fixedDelayString = "${stock.reservation.purge-interval-ms:30000}")
+    @Transactional
+    public void purgerExpirees() {
+        LocalDateTime maintenant = LocalDateTime.now();
+        AtomicInteger retirees = new AtomicInteger();
+
+        for (String livreId : parLivre.keySet()) {
+            parLivre.computeIfPresent(livreId, (id, holds) -> {
+                Map<String, Reservation> restantes = actives(holds, maintenant);
+                retirees.addAndGet(holds.size() - restantes.size());
+                return restantes.isEmpty() ? null : Map.copyOf(restantes);
+            });
+        }
+        int supprimees = reservationRepository.deleteExpirees(maintenant);
+
+        if (retirees.get() > 0 || supprimees > 0) {
+            log.debug("Réservations expirées purgées : {} en mémoire, {} en base", retirees.get(), supprimees);
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void recharger() {
+        int total = 0;
+        for (Object[] row : reservationRepository.findActives(LocalDateTime.now())) {
+            Reservation r = new Reservation((String) row[0], (String) row[1],
+                    ((Number) row[2]).intValue(), (LocalDateTime) row[3]);
+            parLivre.merge(r.livreId(), Map.of(r.panierId(), r), (a, b) -> {
+                Map<String, Reservation> copie = new HashMap<>(a);
+                copie.putAll(b);
+                return Map.copyOf(copie);
+            });
+            total++;
+        }
+        if (total > 0) {
+            log.info("{} réservations de stock rechargées", total);
+        }
+    }
+
+    // ══════════════════════════════════════════════════════════════════
+    // HELPERS
+    // ══════════════════════════════════════════════════════════════════
+
+    private void persister(Reservation r) {
+        ReservationStock entity = reservationRepository.findByPanierIdAndLivreId(r.panierId(), r.livreId())
+                .orElseGet(() -> {
+                    ReservationStock nouvelle = new ReservationStock();
+                    nouvelle.setPanierId(r.panierId());
+                    nouvelle.setLivre(livreRepository.getReferenceById(r.livreId()));
+                    return nouvelle;
+                });
+        entity.setQuantite(r.quantite());
+        entity.setExpiresAt(r.expiresAt());
+        reservationRepository.saveAndFlush(entity);
+    }
+
+    private void restaurer(String livreId, String panierId, Reservation precedente) {
+        parLivre.computeIfPresent(livreId, (id, holds) -> {
+            Map<String, Reservation> copie = new HashMap<>(holds);
+            if (precedente != null) copie.put(panierId, precedente);
+            else                    copie.remove(panierId);
+            return copie.isEmpty() ? null : Map.copyOf(copie);
+        });
+    }
+
+    private void retirerMemoire(String livreId, String panierId) {
+        parLivre.computeIfPresent(livreId, (id, holds) -> {
+            if (!holds.containsKey(panierId)) return holds;
+            Map<String, Reservation> copie = new HashMap<>(holds);
+            copie.remove(panierId);
+            return copie.isEmpty() ? null : Map.copyOf(copie);
+        });
+    }
+
+    private static int sommeReservee(Map<String, Reservation> holds, String panierExclu, LocalDateTime maintenant) {
+        if (holds == null) return 0;
+        int total = 0;
+        for (Reservation r : holds.values()) {
+            if (!r.panierId().equals(panierExclu) && r.expiresAt().isAfter(maintenant)) {
+                total += r.quantite();
+            }
+        }
+        return total;
+    }
+
+    private static Map<String, Reservation> actives(Map<String, Reservation> holds, LocalDateTime maintenant) {
+        Map<String, Reservation> result = new HashMap<>();
+        if (holds != null) {
+            holds.forEach((panierId, r) -> {
+                if (r.expiresAt().isAfter(maintenant)) result.put(panierId, r);
+            });
+        }
+        return result;
+    }
+}
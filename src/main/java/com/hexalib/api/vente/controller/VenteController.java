@@ -1,11 +1,14 @@
 package com.hexalib.api.vente.controller;
 
 import com.hexalib.api.common.dto.ApiResponse;
+import com.hexalib.api.common.exception.BadRequestException;
 import com.hexalib.api.vente.dto.GlobalStatsResponse;
 import com.hexalib.api.vente.dto.VendeurStatsResponse;
 import com.hexalib.api.vente.dto.VenteRequest;
 import com.hexalib.api.vente.dto.VenteResponse;
-import com.hexalib.api.vente.service.FactureService;
+import com.hexalib.api.vente.service.FactureArchiveService;
+import com.hexalib.api.vente.service.FactureStockageService;
+import com.hexalib.api.vente.service.TicketService;
 import com.hexalib.api.vente.service.VenteService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
@@ -16,6 +19,8 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
 import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
@@ -23,8 +28,11 @@ import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
 import java.time.LocalDate;
+import java.util.Locale;
 import java.util.UUID;
 
 @RestController
@@ -35,7 +43,9 @@ import java.util.UUID;
 public class VenteController {
 
     private final VenteService venteService;
-    private final FactureService factureService;
+    private final FactureStockageService factureStockageService;
+    private final TicketService ticketService;
+    private final FactureArchiveService factureArchiveService;
 
     /**
      * Créer une nouvelle vente
@@ -141,12 +151,12 @@ public class VenteController {
     }
 
     /**
-     * Générer et télécharger la facture PDF
+     * Télécharger la facture PDF (pré-rendue après la vente ou l'annulation)
      */
     @GetMapping("/{id}/facture")
-    @Operation(summary = "Télécharger facture PDF", description = "Générer et télécharger la facture au format PDF")
-    public ResponseEntity<byte[]> getFacturePDF(@PathVariable String id) {
-        byte[] pdfBytes = factureService.genererFacturePDF(UUID.fromString(id));
+    @Operation(summary = "Télécharger facture PDF", description = "Télécharger la facture au format PDF (filigranée si la vente est annulée)")
+    public ResponseEntity<Resource> getFacturePDF(@PathVariable String id) throws IOException {
+        Resource fichier = new FileSystemResource(factureStockageService.obtenir(UUID.fromString(id)));
         
         HttpHeaders headers = new HttpHeaders();
         headers.setContentType(MediaType.APPLICATION_PDF);
@@ -154,7 +164,61 @@ public class VenteController {
         
         return ResponseEntity.ok()
                 .headers(headers)
-                .body(pdfBytes);
+                .body(fichier);
+    }
+
+    /**
+     * Archive ZIP des factures d'une période (Admin uniquement)
+     */
+    @GetMapping("/factures/archive")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Archive des factures", description = "Télécharger en un ZIP les factures PDF des ventes du début à la fin incluses (Admin)")
+    public ResponseEntity<StreamingResponseBody> getArchiveFactures(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate debut,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate fin) {
+
+        if (debut.isAfter(fin)) {
+            throw new BadRequestException("La date de début doit précéder la date de fin");
+        }
+        if (debut.plusYears(1).isBefore(fin)) {
+            throw new BadRequestException("La période ne peut pas dépasser un an");
+        }
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.parseMediaType("application/zip"));
+        headers.setContentDispositionFormData("attachment", "factures_" + debut + "_" + fin + ".zip");
+        headers.setCacheControl("no-store");
+
+        StreamingResponseBody corps = out -> factureArchiveService.ecrireArchive(debut, fin, out);
+        return new ResponseEntity<>(corps, headers, HttpStatus.OK);
+    }
+
+    /**
+     * Ticket de caisse pour imprimante thermique (ESC/POS ou texte)
+     */
+    @GetMapping("/{id}/ticket")
+    @Operation(summary = "Ticket de caisse", description = "Ticket pour imprimante thermique — format : escpos | text, largeur : 32 (58 mm) | 48 (80 mm)")
+    public ResponseEntity<byte[]> getTicket(
+            @PathVariable String id,
+            @RequestParam(defaultValue = "escpos") String format,
+            @RequestParam(defaultValue = "48") int largeur) {
+
+        TicketService.Format f;
+        try {
+            f = TicketService.Format.valueOf(format.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException("Format de ticket inconnu : " + format);
+        }
+
+        byte[] ticket = ticketService.genererTicket(UUID.fromString(id), f, largeur);
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.parseMediaType(f.getContentType()));
+        headers.setContentDispositionFormData("attachment", "ticket-" + id + "." + f.getExtension());
+
+        return ResponseEntity.ok()
+                .headers(headers)
+                .body(ticket);
     }
 
     /**
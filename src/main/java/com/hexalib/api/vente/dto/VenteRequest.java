@@ -16,4 +16,7 @@ public class VenteRequest {
     @NotEmpty(message = "La vente doit contenir au moins un livre")
     @Valid
     private List<LigneVenteRequest> lignes;
+
+    // Panier de caisse ayant réservé les exemplaires (optionnel)
+    private String panierId;
 }
\ No newline at end of file
@@ -22,4 +22,18 @@ public interface LigneVenteRepository extends JpaRepository<LigneVente, String>
         @Param("debut") LocalDateTime debut,
         @Param("fin") LocalDateTime fin
     );
-}
\ No newline at end of file
+
+    /**
+     * Projection à plat d'une vente pour le ticket de caisse, une ligne par
+     * article : [numeroFacture, dateVente, vendeur, statut, montantHT,
+     * montantReductions, montantTTC, titre, quantite, prixUnitaire,
+     * montantReduction, sousTotal].
+     */
+    @Query("SELECT v.numeroFacture, v.dateVente, u.nomComplet, v.statut, " +
+           "v.montantHT, v.montantReductions, v.montantTTC, " +
+           "lv.titreLivre, lv.quantite, lv.prixUnitaire, lv.montantReduction, lv.sousTotal " +
+           "FROM LigneVente lv JOIN lv.vente v JOIN v.vendeur u " +
+           "WHERE v.id = :venteId " +
+           "ORDER BY lv.createdAt, lv.id")
+    List<Object[]> findTicket(@Param("venteId") String venteId);
+}
@@ -21,6 +21,22 @@ public interface VenteRepository extends JpaRepository<Vente, String> {
 
     Optional<Vente> findByNumeroFacture(String numeroFacture);
 
+    /** Vente avec vendeur et lignes, en une requête (rendu de la facture). */
+    @Query("SELECT DISTINCT v FROM Vente v JOIN FETCH v.vendeur LEFT JOIN FETCH v.lignes WHERE v.id = :id")
+    Optional<Vente> findAvecLignes(@Param("id") String id);
+
+    @Query("SELECT v.statut FROM Vente v WHERE v.id = :id")
+    Optional<StatutVente> findStatutById(@Param("id") String id);
+
+    /** [id, numeroFacture, statut] des ventes de [debut, fin[, validées et annulées. */
+    @Query("SELECT v.id, v.numeroFacture, v.statut FROM Vente v " +
+           "WHERE v.dateVente >= :debut AND v.dateVente < :fin " +
+           "ORDER BY v.dateVente")
+    List<Object[]> findFacturesPeriode(
+        @Param("debut") LocalDateTime debut,
+        @Param("fin") LocalDateTime fin
+    );
+
     Page<Vente> findByVendeurIdOrderByDateVenteDesc(String vendeurId, Pageable pageable);
 
     Page<Vente> findByStatutOrderByDateVenteDesc(StatutVente statut, Pageable pageable);
@@ -0,0 +1,176 @@
+package com.hexalib.api.vente.service;
+
+import com.hexalib.api.common.exception.TooManyRequestsException;
+import com.hexalib.api.vente.model.StatutVente;
+import com.hexalib.api.vente.repository.VenteRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.Iterator;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.Deflater;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Archive ZIP des factures d'une période, écrite en flux.
+ *
+ * Les factures déjà stockées sont relues telles quelles, les autres sont
+ * rendues en parallèle (au plus {@code facture.archive.threads} à la fois
+ * par archive). Chaque PDF est ajouté au ZIP dès qu'il est prêt, dans
+ * l'ordre d'achèvement ; seule la liste des ventes est gardée en mémoire.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class FactureArchiveService {
+
+    /** File du moteur PDF pleine : nouvel essai après cette pause. */
+    private static final long PAUSE_SATURATION_MS = 200;
+    private static final int  ESSAIS_MAX = 25;
+
+    private final VenteRepository        venteRepository;
+    private final FactureStockageService factureStockageService;
+
+    @Value("${facture.archive.threads:4}")
+    private int threads;
+
+    private ThreadPoolExecutor executor;
+
+    private record Facture(String venteId, String numero, StatutVente statut) {}
+
+    private record Pret(Facture facture, Path fichier) {}
+
+    @PostConstruct
+    void demarrerExecutor() {
+        AtomicInteger compteur = new AtomicInteger();
+        // File non bornée : chaque archive n'y place jamais plus de `threads` tâches
+        executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(),
+                r -> {
+                    Thread t = new Thread(r, "archive-factures-" + compteur.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                });
+    }
+
+    @PreDestroy
+    void arreterExecutor() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Écrit le ZIP des factures des ventes datées du {@code debut} au
+     * {@code fin} inclus.
+     *
+     * @return nombre de factures archivées
+     */
+    public int ecrireArchive(LocalDate debut, LocalDate fin, OutputStream out) throws IOException {
+        long debutMs = System.currentTimeMillis();
+        List<Facture> factures = venteRepository
+                .findFacturesPeriode(debut.atStartOfDay(), fin.plusDays(1).atStartOfDay()).stream()
+                .map(r -> new Facture((String) r[0], (String) r[1], (StatutVente) r[2]))
+                .toList();
+
+        ZipOutputStream zip = new ZipOutputStream(out);
+        // Les flux d'un PDF sont déjà compressés : inutile d'y passer du temps
+        zip.setLevel(Deflater.BEST_SPEED);
+
+        CompletionService<Pret> termines = new ExecutorCompletionService<>(executor);
+        Iterator<Facture> restantes = factures.iterator();
+        int enCours = 0;
+        try {
+            while (enCours < threads && restantes.hasNext()) {
+                soumettre(termines, restantes.next());
+                enCours++;
+            }
+            while (enCours > 0) {
+                Pret pret = attendre(termines);
+                enCours--;
+                if (restantes.hasNext()) {
+                    soumettre(termines, restantes.next());
+                    enCours++;
+                }
+
+                zip.putNextEntry(new ZipEntry(nomEntree(pret.facture())));
+                try {
+                    Files.copy(pret.fichier(), zip);
+                } catch (NoSuchFileException e) {
+                    // Vente annulée entre-temps : la version stockée a été remplacée
+                    Files.copy(factureStockageService.obtenir(UUID.fromString(pret.facture().venteId())), zip);
+                }
+                zip.closeEntry();
+            }
+        } catch (IOException | RuntimeException e) {
+            // Client parti ou rendu en échec : les rendus encore en vol sont abandonnés
+            log.warn("Archive des factures du {} au {} interrompue : {}", debut, fin, e.getMessage());
+            throw e;
+        }
+        zip.finish();
+        zip.flush();
+
+        log.info("Archive des factures du {} au {} : {} factures en {} ms",
+                debut, fin, factures.size(), System.currentTimeMillis() - debutMs);
+        return factures.size();
+    }
+
+    // ══════════════════════════════════════════════════════════════════
+    // HELPERS
+    // ══════════════════════════════════════════════════════════════════
+
+    private void soumettre(CompletionService<Pret> termines, Facture facture) {
+        termines.submit(() -> new Pret(facture, obtenir(facture)));
+    }
+
+    /** Facture stockée ou rendue ; patiente tant que la file du moteur PDF est pleine. */
+    private Path obtenir(Facture facture) throws IOException, InterruptedException {
+        for (int essai = 1; ; essai++) {
+            try {
+                return factureStockageService.obtenir(facture.venteId(), facture.statut());
+            } catch (TooManyRequestsException e) {
+                if (essai >= ESSAIS_MAX) throw e;
+                Thread.sleep(PAUSE_SATURATION_MS);
+            }
+        }
+    }
+
+    private static Pret attendre(CompletionService<Pret> termines) throws IOException {
+        try {
+            Future<Pret> f = termines.take();
+            return f.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Archive des factures interrompue");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException io) throw io;
+            if (e.getCause() instanceof RuntimeException re) throw re;
+            throw new IOException(e.getCause());
+        }
+    }
+
+    private static String nomEntree(Facture facture) {
+        return facture.statut() == StatutVente.ANNULEE
+                ? facture.numero() + "-ANNULEE.pdf"
+                : facture.numero() + ".pdf";
+    }
+}
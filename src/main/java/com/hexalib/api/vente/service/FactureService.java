@@ -1,12 +1,15 @@
 package com.hexalib.api.vente.service;
 
+import com.itextpdf.kernel.colors.Color;
 import com.itextpdf.kernel.colors.ColorConstants;
 import com.itextpdf.kernel.colors.DeviceRgb;
+import com.itextpdf.kernel.events.PdfDocumentEvent;
+import com.itextpdf.kernel.geom.Rectangle;
+import com.itextpdf.kernel.pdf.PdfPage;
+import com.itextpdf.kernel.pdf.canvas.PdfCanvas;
+import com.itextpdf.kernel.pdf.extgstate.PdfExtGState;
+import com.itextpdf.layout.Canvas;
 import com.itextpdf.kernel.font.PdfFont;
-import com.itextpdf.kernel.font.PdfFontFactory;
-import com.itextpdf.kernel.geom.PageSize;
-import com.itextpdf.kernel.pdf.PdfDocument;
-import com.itextpdf.kernel.pdf.PdfWriter;
 import com.itextpdf.layout.Document;
 import com.itextpdf.layout.borders.Border;
 import com.itextpdf.layout.borders.SolidBorder;
@@ -15,19 +18,18 @@ import com.itextpdf.layout.element.Paragraph;
 import com.itextpdf.layout.element.Table;
 import com.itextpdf.layout.properties.TextAlignment;
 import com.itextpdf.layout.properties.UnitValue;
+import com.itextpdf.layout.properties.VerticalAlignment;
 import com.hexalib.api.common.exception.ResourceNotFoundException;
+import com.hexalib.api.common.pdf.PdfMoteur;
 import com.hexalib.api.vente.model.LigneVente;
+import com.hexalib.api.vente.model.StatutVente;
 import com.hexalib.api.vente.model.Vente;
 import com.hexalib.api.vente.repository.VenteRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 
-import java.io.ByteArrayOutputStream;
-import java.math.BigDecimal;
-import java.text.NumberFormat;
 import java.time.format.DateTimeFormatter;
-import java.util.Locale;
 import java.util.UUID;
 
 @Service
@@ -36,57 +38,52 @@ import java.util.UUID;
 public class FactureService {
 
     private final VenteRepository venteRepository;
+    private final PdfMoteur pdfMoteur;
 
-    // Infos librairie
-    private static final String LIBRAIRIE_NOM     = "HEXALIB";
-    private static final String LIBRAIRIE_ADRESSE = "123 Rue du Livre";
-    private static final String LIBRAIRIE_VILLE   = "Yaoundé, Cameroun";
-    private static final String LIBRAIRIE_TEL     = "Tél: +237 123 456 789";
+    // Infos librairie (reprises par le ticket de caisse)
+    static final String LIBRAIRIE_NOM     = "HEXALIB";
+    static final String LIBRAIRIE_ADRESSE = "123 Rue du Livre";
+    static final String LIBRAIRIE_VILLE   = "Yaoundé, Cameroun";
+    static final String LIBRAIRIE_TEL     = "Tél: +237 123 456 789";
 
     // Couleurs
     private static final DeviceRgb PRIMARY_COLOR  = new DeviceRgb(37, 99, 235);
     private static final DeviceRgb LIGHT_GRAY     = new DeviceRgb(249, 250, 251);
     private static final DeviceRgb BORDER_COLOR   = new DeviceRgb(229, 231, 235);
     private static final DeviceRgb SECONDARY_COLOR = new DeviceRgb(75, 85, 99);
-
-    // Formatter montants
-    private static final NumberFormat CURRENCY_FMT = NumberFormat.getInstance(Locale.FRANCE);
-    static {
-        CURRENCY_FMT.setMinimumFractionDigits(0);
-        CURRENCY_FMT.setMaximumFractionDigits(0);
-    }
+    private static final DeviceRgb SUCCESS_COLOR  = new DeviceRgb(16, 185, 129);
 
     private static final DateTimeFormatter DATE_FMT =
             DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm");
 
+    /**
+     * Rendu complet de la facture. Appelé par {@link FactureStockageService}
+     * (pré-rendu après commit ou premier téléchargement), y compris hors
+     * requête HTTP. La vente est chargée avec vendeur et lignes par une seule
+     * requête, dans la transaction courte du repository : aucune connexion
+     * n'est tenue pendant l'attente et la mise en page sur le pool du
+     * {@link PdfMoteur}. Le rendu ne lit que les associations chargées.
+     */
     public byte[] genererFacturePDF(UUID venteId) {
         log.info("Génération de la facture PDF pour la vente: {}", venteId);
 
-        Vente vente = venteRepository.findById(venteId.toString())
+        Vente vente = venteRepository.findAvecLignes(venteId.toString())
                 .orElseThrow(() -> new ResourceNotFoundException("Vente non trouvée"));
 
-        try (ByteArrayOutputStream baos = new ByteArrayOutputStream()) {
-            PdfWriter   writer  = new PdfWriter(baos);
-            PdfDocument pdfDoc  = new PdfDocument(writer);
-            Document    document = new Document(pdfDoc, PageSize.A4);
-            document.setMargins(40, 40, 40, 40);
+        return pdfMoteur.rendre("facture", (document, polices) -> {
+            PdfFont boldFont    = polices.gras();
+            PdfFont regularFont = polices.normal();
 
-            PdfFont boldFont    = PdfFontFactory.createFont("Helvetica-Bold");
-            PdfFont regularFont = PdfFontFactory.createFont("Helvetica");
+            if (vente.getStatut() == StatutVente.ANNULEE) {
+                document.getPdfDocument().addEventHandler(PdfDocumentEvent.END_PAGE,
+                        event -> ajouterFiligraneAnnulee((PdfDocumentEvent) event, boldFont));
+            }
 
             ajouterEntete(document, vente, boldFont, regularFont);
             ajouterTableauArticles(document, vente, boldFont, regularFont);
             ajouterTotaux(document, vente, boldFont, regularFont);
             ajouterPiedPage(document, regularFont);
-
-            document.close();
-            log.info("Facture PDF générée avec succès");
-            return baos.toByteArray();
-
-        } catch (Exception e) {
-            log.error("Erreur lors de la génération du PDF", e);
-            throw new RuntimeException("Erreur lors de la génération de la facture PDF", e);
-        }
+        });
     }
 
     // ─── EN-TÊTE ────────────────────────────────────────────────────────────────
@@ -144,25 +141,20 @@ public class FactureService {
 
         // En-têtes
         for (String h : new String[]{"CODE", "TITRE", "QTÉ", "P.U (XAF)", "RÉDUC. (XAF)", "TOTAL (XAF)"}) {
-            table.addHeaderCell(new Cell()
-                    .add(new Paragraph(h).setFont(boldFont).setFontSize(9).setFontColor(ColorConstants.WHITE))
-                    .setBackgroundColor(PRIMARY_COLOR)
-                    .setTextAlignment(TextAlignment.CENTER)
-                    .setPadding(6)
-                    .setBorder(Border.NO_BORDER));
+            table.addHeaderCell(PdfMoteur.celluleEntete(h, boldFont, PRIMARY_COLOR));
         }
 
         // Lignes
         boolean alternate = false;
         for (LigneVente ligne : vente.getLignes()) {
-            DeviceRgb bg = alternate ? LIGHT_GRAY : new DeviceRgb(255, 255, 255);
+            Color bg = PdfMoteur.fondLigne(alternate);
 
-            table.addCell(dataCell(ligne.getCodeLivre(),                          regularFont, TextAlignment.CENTER, bg));
-            table.addCell(dataCell(ligne.getTitreLivre(),                         regularFont, TextAlignment.LEFT,   bg));
-            table.addCell(dataCell(String.valueOf(ligne.getQuantite()),            regularFont, TextAlignment.CENTER, bg));
-            table.addCell(dataCell(formatMontant(ligne.getPrixUnitaire()),         regularFont, TextAlignment.RIGHT,  bg));
-            table.addCell(dataCell(formatMontant(ligne.getMontantReduction()),     regularFont, TextAlignment.RIGHT,  bg));
-            table.addCell(dataCell(formatMontant(ligne.getSousTotal()),            regularFont, TextAlignment.RIGHT,  bg));
+            table.addCell(PdfMoteur.celluleDonnee(ligne.getCodeLivre(),                            regularFont, TextAlignment.CENTER, bg));
+            table.addCell(PdfMoteur.celluleDonnee(ligne.getTitreLivre(),                           regularFont, TextAlignment.LEFT,   bg));
+            table.addCell(PdfMoteur.celluleDonnee(String.valueOf(ligne.getQuantite()),              regularFont, TextAlignment.CENTER, bg));
+            table.addCell(PdfMoteur.celluleDonnee(PdfMoteur.montant(ligne.getPrixUnitaire()),      regularFont, TextAlignment.RIGHT,  bg));
+            table.addCell(PdfMoteur.celluleDonnee(PdfMoteur.montant(ligne.getMontantReduction()),  regularFont, TextAlignment.RIGHT,  bg));
+            table.addCell(PdfMoteur.celluleDonnee(PdfMoteur.montant(ligne.getSousTotal()),         regularFont, TextAlignment.RIGHT,  bg));
 
             alternate = !alternate;
         }
@@ -181,13 +173,13 @@ public class FactureService {
 
         // Sous-total HT
         totauxTable.addCell(labelCell("Sous-total HT :", regularFont));
-        totauxTable.addCell(valueCell(formatMontant(vente.getMontantHT()) + " XAF", regularFont));
+        totauxTable.addCell(valueCell(PdfMoteur.montant(vente.getMontantHT()) + " XAF", regularFont));
 
         // Réductions
         totauxTable.addCell(labelCell("Total des réductions :", regularFont)
-                .setFontColor(new DeviceRgb(16, 185, 129)));
-        totauxTable.addCell(valueCell("- " + formatMontant(vente.getMontantReductions()) + " XAF", regularFont)
-                .setFontColor(new DeviceRgb(16, 185, 129)));
+                .setFontColor(SUCCESS_COLOR));
+        totauxTable.addCell(valueCell("- " + PdfMoteur.montant(vente.getMontantReductions()) + " XAF", regularFont)
+                .setFontColor(SUCCESS_COLOR));
 
         // Séparateur
         totauxTable.addCell(new Cell(1, 2)
@@ -210,7 +202,7 @@ public class FactureService {
                 .setBorder(Border.NO_BORDER)
                 .setTextAlignment(TextAlignment.CENTER)
                 .setPadding(8)
-                .add(new Paragraph(formatMontant(vente.getMontantTTC()) + " XAF")
+                .add(new Paragraph(PdfMoteur.montant(vente.getMontantTTC()) + " XAF")
                         .setFont(boldFont)
                         .setFontSize(14)
                         .setFontColor(ColorConstants.WHITE)));
@@ -241,6 +233,26 @@ public class FactureService {
                 .setTextAlignment(TextAlignment.CENTER));
     }
 
+    // ─── FILIGRANE ───────────────────────────────────────────────────────────────
+
+    private void ajouterFiligraneAnnulee(PdfDocumentEvent event, PdfFont boldFont) {
+        PdfPage   page = event.getPage();
+        Rectangle zone = page.getPageSize();
+        PdfCanvas pdfCanvas = new PdfCanvas(page.newContentStreamAfter(), page.getResources(), event.getDocument());
+
+        pdfCanvas.saveState().setExtGState(new PdfExtGState().setFillOpacity(0.2f));
+        try (Canvas canvas = new Canvas(pdfCanvas, zone)) {
+            canvas.showTextAligned(new Paragraph("ANNULÉE")
+                            .setFont(boldFont)
+                            .setFontSize(110)
+                            .setFontColor(ColorConstants.RED),
+                    zone.getWidth() / 2, zone.getHeight() / 2,
+                    event.getDocument().getPageNumber(page),
+                    TextAlignment.CENTER, VerticalAlignment.MIDDLE, (float) Math.toRadians(45));
+        }
+        pdfCanvas.restoreState();
+    }
+
     // ─── CELLULES UTILITAIRES ────────────────────────────────────────────────────
 
     private Cell infoCell(String label, String value, PdfFont boldFont, PdfFont regularFont) {
@@ -254,15 +266,6 @@ public class FactureService {
                         .setFont(boldFont).setFontSize(11));
     }
 
-    private Cell dataCell(String text, PdfFont font, TextAlignment align, DeviceRgb bg) {
-        return new Cell()
-                .add(new Paragraph(text != null ? text : "—").setFont(font).setFontSize(9))
-                .setTextAlignment(align)
-                .setBackgroundColor(bg)
-                .setPadding(6)
-                .setBorder(new SolidBorder(BORDER_COLOR, 0.5f));
-    }
-
     private Cell labelCell(String text, PdfFont font) {
         return new Cell()
                 .setBorder(Border.NO_BORDER)
@@ -278,11 +281,4 @@ public class FactureService {
                 .setPadding(5)
                 .add(new Paragraph(text).setFont(font).setFontSize(11).setBold());
     }
-
-    // ─── FORMATAGE ───────────────────────────────────────────────────────────────
-
-    private String formatMontant(BigDecimal montant) {
-        if (montant == null) return "0";
-        return CURRENCY_FMT.format(montant);
-    }
-}
\ No newline at end of file
+}
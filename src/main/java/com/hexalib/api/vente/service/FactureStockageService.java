@@ -0,0 +1,173 @@
+package com.hexalib.api.vente.service;
+
+import com.hexalib.api.common.exception.ResourceNotFoundException;
+import com.hexalib.api.vente.model.StatutVente;
+import com.hexalib.api.vente.repository.VenteRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Factures PDF rendues une fois et conservées sur disque, une par vente et
+ * par statut ({@code <venteId>_VALIDEE.pdf}, {@code <venteId>_ANNULEE.pdf}).
+ *
+ * La facture est pré-rendue en tâche de fond juste après le commit de la
+ * vente, puis à nouveau après une annulation (avec le filigrane « ANNULÉE »,
+ * la version validée étant alors supprimée). Un téléchargement se réduit
+ * ainsi à la lecture du statut et du fichier ; le rendu n'a lieu à la
+ * demande que si le pré-rendu n'est pas encore passé.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class FactureStockageService {
+
+    /** Verrous par vente, répartis sur un nombre fixe d'objets (mémoire bornée). */
+    private static final int NOMBRE_VERROUS = 64;
+
+    private final FactureService  factureService;
+    private final VenteRepository venteRepository;
+
+    @Value("${facture.stockage.repertoire:${java.io.tmpdir}/hexalib-factures}")
+    private String repertoire;
+
+    @Value("${facture.stockage.threads:2}")
+    private int threads;
+
+    @Value("${facture.stockage.file-attente:500}")
+    private int fileAttente;
+
+    private Path racine;
+    private ThreadPoolExecutor executor;
+
+    private final Object[] verrous = new Object[NOMBRE_VERROUS];
+
+    @PostConstruct
+    void initialiser() throws IOException {
+        racine = Paths.get(repertoire);
+        Files.createDirectories(racine);
+
+        for (int i = 0; i < NOMBRE_VERROUS; i++) verrous[i] = new Object();
+
+        AtomicInteger compteur = new AtomicInteger();
+        executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(fileAttente),
+                r -> {
+                    Thread t = new Thread(r, "rendu-factures-" + compteur.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                });
+    }
+
+    @PreDestroy
+    void arreterExecutor() {
+        executor.shutdownNow();
+    }
+
+    /** Facture de la vente dans son statut courant, rendue si elle ne l'est pas encore. */
+    public Path obtenir(UUID venteId) throws IOException {
+        String id = venteId.toString();
+        StatutVente statut = venteRepository.findStatutById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Vente non trouvée"));
+        return rendre(id, statut);
+    }
+
+    /** Idem, statut déjà connu (archive de factures). */
+    public Path obtenir(String venteId, StatutVente statut) throws IOException {
+        return rendre(venteId, statut);
+    }
+
+    /**
+     * Pré-rendu de la facture une fois la transaction courante commitée
+     * (création ou annulation). Rien n'est fait en cas de rollback.
+     */
+    public void preRendreApresCommit(String venteId, StatutVente statut) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            soumettre(venteId, statut);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                soumettre(venteId, statut);
+            }
+        });
+    }
+
+    // ══════════════════════════════════════════════════════════════════
+    // HELPERS
+    // ══════════════════════════════════════════════════════════════════
+
+    private void soumettre(String venteId, StatutVente statut) {
+        try {
+            executor.execute(() -> {
+                try {
+                    rendre(venteId, statut);
+                } catch (Exception e) {
+                    log.warn("Pré-rendu de la facture {} en échec : {}", venteId, e.getMessage());
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            // File pleine : la facture sera rendue au premier téléchargement
+            log.warn("Pré-rendu de la facture {} abandonné (file pleine)", venteId);
+        }
+    }
+
+    private Path rendre(String venteId, StatutVente statut) throws IOException {
+        Path fichier = fichier(venteId, statut);
+        if (Files.exists(fichier)) {
+            return fichier;
+        }
+
+        synchronized (verrous[Math.floorMod(venteId.hashCode(), NOMBRE_VERROUS)]) {
+            if (Files.exists(fichier)) {
+                return fichier;
+            }
+            // L'annulation est définitive : un pré-rendu VALIDEE passé après elle est sans objet
+            Path annulee = fichier(venteId, StatutVente.ANNULEE);
+            if (statut != StatutVente.ANNULEE && Files.exists(annulee)) {
+                return annulee;
+            }
+
+            byte[] pdf = factureService.genererFacturePDF(UUID.fromString(venteId));
+
+            // Écriture complète dans un .tmp puis renommage : jamais de fichier partiel servi
+            Path tmp = Files.createTempFile(racine, venteId + "_", ".tmp");
+            try {
+                Files.write(tmp, pdf);
+                Files.move(tmp, fichier, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } finally {
+                Files.deleteIfExists(tmp);
+            }
+
+            for (StatutVente autre : StatutVente.values()) {
+                if (autre != statut) {
+                    Files.deleteIfExists(fichier(venteId, autre));
+                }
+            }
+            log.debug("Facture {} ({}) stockée", venteId, statut);
+            return fichier;
+        }
+    }
+
+    private Path fichier(String venteId, StatutVente statut) {
+        return racine.resolve(venteId + "_" + statut.name() + ".pdf");
+    }
+}
@@ -0,0 +1,239 @@
+package com.hexalib.api.vente.service;
+
+import com.hexalib.api.common.exception.BadRequestException;
+import com.hexalib.api.common.exception.ResourceNotFoundException;
+import com.hexalib.api.vente.model.StatutVente;
+import com.hexalib.api.vente.repository.LigneVenteRepository;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Ticket de caisse pour imprimantes thermiques 58 mm (32 colonnes) et
+ * 80 mm (48 colonnes), en commandes ESC/POS ou en texte à chasse fixe.
+ *
+ * Pas de moteur de mise en page : le ticket est écrit ligne à ligne depuis
+ * une projection à plat de la vente, entre un en-tête et un pied encodés
+ * une fois pour toutes par format et par largeur.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class TicketService {
+
+    @Getter
+    public enum Format {
+        ESCPOS("application/octet-stream", "bin"),
+        TEXT("text/plain;charset=UTF-8", "txt");
+
+        private final String contentType;
+        private final String extension;
+
+        Format(String contentType, String extension) {
+            this.contentType = contentType;
+            this.extension = extension;
+        }
+    }
+
+    /** Largeurs en colonnes : 58 mm et 80 mm (police A). */
+    public static final List<Integer> LARGEURS = List.of(32, 48);
+
+    // ─── COMMANDES ESC/POS ───────────────────────────────────────────────────────
+
+    private static final byte[] INITIALISER     = {0x1B, 0x40};
+    private static final byte[] PAGE_CODE_850   = {0x1B, 0x74, 0x02};
+    private static final byte[] ALIGNER_GAUCHE  = {0x1B, 0x61, 0x00};
+    private static final byte[] ALIGNER_CENTRE  = {0x1B, 0x61, 0x01};
+    private static final byte[] GRAS            = {0x1B, 0x45, 0x01};
+    private static final byte[] NORMAL          = {0x1B, 0x45, 0x00};
+    private static final byte[] DOUBLE_TAILLE   = {0x1D, 0x21, 0x11};
+    private static final byte[] TAILLE_NORMALE  = {0x1D, 0x21, 0x00};
+    private static final byte[] AVANCER_COUPER  = {0x1D, 0x56, 0x42, 0x03};   // avance de 3 lignes puis coupe partielle
+
+    /** Page de code 850 de l'imprimante : couvre les accents français. */
+    private static final Charset CP850 = Charset.forName("IBM850");
+
+    private static final DateTimeFormatter DATE_FMT = DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm");
+
+    /** En-tête et pied pré-encodés, par format puis par largeur. */
+    private record Gabarit(byte[] entete, byte[] pied) {}
+
+    private static final Map<Format, Map<Integer, Gabarit>> GABARITS = Map.of(
+            Format.ESCPOS, Map.of(32, gabarit(Format.ESCPOS, 32), 48, gabarit(Format.ESCPOS, 48)),
+            Format.TEXT,   Map.of(32, gabarit(Format.TEXT, 32),   48, gabarit(Format.TEXT, 48)));
+
+    private final LigneVenteRepository ligneVenteRepository;
+
+    @Transactional(readOnly = true)
+    public byte[] genererTicket(UUID venteId, Format format, int largeur) {
+        if (!LARGEURS.contains(largeur)) {
+            throw new BadRequestException("Largeur de ticket non supportée : " + largeur + " (32 ou 48)");
+        }
+
+        List<Object[]> lignes = ligneVenteRepository.findTicket(venteId.toString());
+        if (lignes.isEmpty()) {
+            throw new ResourceNotFoundException("Vente non trouvée avec l'ID: " + venteId);
+        }
+
+        Gabarit gabarit = GABARITS.get(format).get(largeur);
+        // En-tête, pied, jusqu'à 3 lignes par article et une dizaine pour les totaux
+        int tailleEstimee = gabarit.entete().length + gabarit.pied().length + (lignes.size() * 3 + 12) * (largeur + 1);
+        Ticket t = new Ticket(format, largeur, tailleEstimee);
+        t.brut(gabarit.entete());
+
+        Object[] vente = lignes.get(0);
+        t.separateur();
+        t.colonnes("Facture", (String) vente[0]);
+        t.colonnes("Date", ((LocalDateTime) vente[1]).format(DATE_FMT));
+        t.colonnes("Vendeur", (String) vente[2]);
+        t.separateur();
+
+        for (Object[] l : lignes) {
+            t.ligne((String) l[7]);
+            t.colonnes("  " + l[8] + " x " + montant((BigDecimal) l[9]), montant((BigDecimal) l[11]));
+            BigDecimal reduction = (BigDecimal) l[10];
+            if (reduction != null && reduction.signum() != 0) {
+                t.colonnes("  Réduction", "-" + montant(reduction));
+            }
+        }
+
+        t.separateur();
+        t.colonnes("Sous-total HT", montant((BigDecimal) vente[4]));
+        t.colonnes("Réductions", "-" + montant((BigDecimal) vente[5]));
+        t.commande(GRAS);
+        t.colonnes("TOTAL", montant((BigDecimal) vente[6]) + " XAF");
+        t.commande(NORMAL);
+
+        if (vente[3] == StatutVente.ANNULEE) {
+            t.separateur();
+            t.commande(ALIGNER_CENTRE, GRAS);
+            t.ligne(centrer("*** VENTE ANNULÉE ***", format, largeur));
+            t.commande(NORMAL, ALIGNER_GAUCHE);
+        }
+
+        t.brut(gabarit.pied());
+        return t.octets();
+    }
+
+    // ══════════════════════════════════════════════════════════════════
+    // GABARITS
+    // ══════════════════════════════════════════════════════════════════
+
+    private static Gabarit gabarit(Format format, int largeur) {
+        Ticket entete = new Ticket(format, largeur, 256);
+        entete.commande(INITIALISER, PAGE_CODE_850, ALIGNER_CENTRE, DOUBLE_TAILLE, GRAS);
+        // En double taille, la ligne ne compte plus que largeur / 2 colonnes
+        entete.ligne(format == Format.ESCPOS ? FactureService.LIBRAIRIE_NOM
+                                              : centrer(FactureService.LIBRAIRIE_NOM, format, largeur));
+        entete.commande(TAILLE_NORMALE, NORMAL);
+        entete.ligne(centrer(FactureService.LIBRAIRIE_ADRESSE, format, largeur));
+        entete.ligne(centrer(FactureService.LIBRAIRIE_VILLE, format, largeur));
+        entete.ligne(centrer(FactureService.LIBRAIRIE_TEL, format, largeur));
+        entete.commande(ALIGNER_GAUCHE);
+
+        Ticket pied = new Ticket(format, largeur, 256);
+        pied.separateur();
+        pied.commande(ALIGNER_CENTRE);
+        pied.ligne(centrer("Merci de votre visite !", format, largeur));
+        pied.commande(ALIGNER_GAUCHE, AVANCER_COUPER);
+
+        return new Gabarit(entete.octets(), pied.octets());
+    }
+
+    /** Le centrage est fait par l'imprimante en ESC/POS, par des espaces en texte. */
+    private static String centrer(String texte, Format format, int largeur) {
+        if (format == Format.ESCPOS || texte.length() >= largeur) return texte;
+        return " ".repeat((largeur - texte.length()) / 2) + texte;
+    }
+
+    /** Montant arrondi à l'unité, milliers séparés par une espace simple (imprimable partout). */
+    private static String montant(BigDecimal valeur) {
+        if (valeur == null) return "0";
+        return String.format(Locale.ROOT, "%,d", valeur.setScale(0, RoundingMode.HALF_UP).longValue()).replace(',', ' ');
+    }
+
+    // ══════════════════════════════════════════════════════════════════
+    // ÉCRITURE
+    // ══════════════════════════════════════════════════════════════════
+
+    /** Tampon du ticket : texte encodé pour le format, commandes ignorées en texte. */
+    private static final class Ticket {
+
+        private final Format format;
+        private final int largeur;
+        private final Charset charset;
+        private final ByteArrayOutputStream out;
+
+        Ticket(Format format, int largeur, int tailleEstimee) {
+            this.format = format;
+            this.largeur = largeur;
+            this.charset = format == Format.ESCPOS ? CP850 : StandardCharsets.UTF_8;
+            this.out = new ByteArrayOutputStream(tailleEstimee);
+        }
+
+        void commande(byte[]... commandes) {
+            if (format != Format.ESCPOS) return;
+            for (byte[] c : commandes) out.writeBytes(c);
+        }
+
+        void brut(byte[] octets) {
+            out.writeBytes(octets);
+        }
+
+        /** Une ligne, tronquée à la largeur du papier. */
+        void ligne(String texte) {
+            String propre = imprimable(texte);
+            if (propre.length() > largeur) propre = propre.substring(0, largeur);
+            out.writeBytes(propre.getBytes(charset));
+            out.write('\n');
+        }
+
+        /** Libellé à gauche, valeur calée à droite ; le libellé est tronqué si besoin. */
+        void colonnes(String libelle, String valeur) {
+            String gauche = imprimable(libelle);
+            String droite = imprimable(valeur);
+            int place = largeur - droite.length() - 1;
+            if (place < 0) {
+                ligne(droite);
+                return;
+            }
+            if (gauche.length() > place) gauche = gauche.substring(0, place);
+            ligne(gauche + " ".repeat(largeur - gauche.length() - droite.length()) + droite);
+        }
+
+        void separateur() {
+            ligne("-".repeat(largeur));
+        }
+
+        byte[] octets() {
+            return out.toByteArray();
+        }
+
+        /** Les caractères de contrôle d'un titre ne doivent pas passer pour des commandes. */
+        private static String imprimable(String texte) {
+            if (texte == null) return "";
+            StringBuilder sb = null;
+            for (int i = 0; i < texte.length(); i++) {
+                if (Character.isISOControl(texte.charAt(i))) {
+                    if (sb == null) sb = new StringBuilder(texte);
+                    sb.setCharAt(i, ' ');
+                }
+            }
+            return sb != null ? sb.toString() : texte;
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package com.hexalib.api.vente.service;
 
+import com.hexalib.api.archivage.service.LimiteArchive;
 import com.hexalib.api.auth.model.User;
 import com.hexalib.api.auth.repository.UserRepository;
 import com.hexalib.api.common.exception.BadRequestException;
@@ -11,6 +12,7 @@ import com.hexalib.api.reduction.repository.ReductionRepository;
 import com.hexalib.api.stock.model.MouvementStock;
 import com.hexalib.api.stock.model.TypeMouvement;
 import com.hexalib.api.stock.repository.MouvementStockRepository;
+import com.hexalib.api.stock.service.ReservationStockService;
 import com.hexalib.api.vente.dto.LigneVenteRequest;
 import com.hexalib.api.vente.dto.LigneVenteResponse;
 import com.hexalib.api.vente.dto.VenteRequest;
@@ -36,7 +38,10 @@ import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
 import java.util.stream.Collectors;
 
@@ -52,6 +57,9 @@ public class VenteService {
     private final ReductionRepository reductionRepository;
     private final UserRepository userRepository;
     private final MouvementStockRepository mouvementStockRepository;
+    private final ReservationStockService reservationStockService;
+    private final LimiteArchive limiteArchive;
+    private final FactureStockageService factureStockageService;
 
     /**
      * Créer une nouvelle vente
@@ -62,8 +70,17 @@ public class VenteService {
         // Récupérer l'utilisateur connecté
         User vendeur = getCurrentUser();
 
+        // Charger et verrouiller tous les livres du panier en une requête
+        Map<String, Livre> livres = chargerLivres(request.getLignes());
+
+        // Quantités déjà garanties par les réservations du panier
+        String panierId = request.getPanierId();
+        Map<String, Integer> reservees = panierId != null && !panierId.isBlank()
+                ? reservationStockService.getReservationsPanier(panierId)
+                : Map.of();
+
         // Valider le stock avant de commencer
-        validateStock(request.getLignes());
+        validateStock(request.getLignes(), livres, reservees, panierId);
 
         // Créer la vente
         Vente vente = new Vente();
@@ -78,7 +95,7 @@ public class VenteService {
 
         // Traiter chaque ligne
         for (LigneVenteRequest ligneReq : request.getLignes()) {
-            LigneVente ligne = createLigneVente(ligneReq, vente);
+            LigneVente ligne = createLigneVente(ligneReq, vente, livres.get(ligneReq.getLivreId().toString()));
             vente.addLigne(ligne);
 
             montantHT = montantHT.add(ligne.getPrixUnitaire().multiply(BigDecimal.valueOf(ligne.getQuantite())));
@@ -95,6 +112,14 @@ public class VenteService {
         // Sauvegarder
         Vente saved = venteRepository.save(vente);
 
+        // Réservations consommées : libérées une fois la vente commitée
+        if (!reservees.isEmpty()) {
+            reservationStockService.libererApresCommit(panierId);
+        }
+
+        // Facture rendue en tâche de fond : le téléchargement lira le fichier
+        factureStockageService.preRendreApresCommit(saved.getId(), StatutVente.VALIDEE);
+
         log.info("Vente créée avec succès: {}", saved.getNumeroFacture());
         return mapToResponse(saved);
     }
@@ -157,17 +182,30 @@ public class VenteService {
             throw new BadRequestException("Cette vente est déjà annulée");
         }
 
+        // Les résumés du mois sont figés dès le début de son archivage
+        if (limiteArchive.estArchive(vente.getDateVente())) {
+            throw new BadRequestException("Cette vente appartient à une période archivée");
+        }
+
         User user = getCurrentUser();
 
-        // Restaurer le stock
+        // Restaurer le stock, livres verrouillés comme pour une vente
+        Set<String> livreIds = vente.getLignes().stream()
+                .map(l -> l.getLivre().getId())
+                .collect(Collectors.toSet());
+        Map<String, Livre> livres = livreRepository.findAllByIdPourMiseAJour(livreIds).stream()
+                .collect(Collectors.toMap(Livre::getId, l -> l));
         for (LigneVente ligne : vente.getLignes()) {
-            restaurerStock(ligne.getLivre(), ligne.getQuantite(), vente.getNumeroFacture(), user);
+            restaurerStock(livres.get(ligne.getLivre().getId()), ligne.getQuantite(), vente.getNumeroFacture(), user);
         }
 
         vente.setStatut(StatutVente.ANNULEE);
         vente.setMotifAnnulation(motif);
 
         Vente updated = venteRepository.save(vente);
+
+        // La facture stockée est remplacée par sa version filigranée
+        factureStockageService.preRendreApresCommit(updated.getId(), StatutVente.ANNULEE);
         log.info("Vente annulée avec succès: {}", vente.getNumeroFacture());
 
         return mapToResponse(updated);
@@ -216,21 +254,11 @@ public class VenteService {
  * Si reductionId est fourni → utiliser cette réduction
  * Sinon → aucune réduction (le vendeur n'a rien choisi)
  */
-private LigneVente createLigneVente(LigneVenteRequest request, Vente vente) {
+private LigneVente createLigneVente(LigneVenteRequest request, Vente vente, Livre livre) {
     log.debug("Création ligne vente pour livre ID: {}, quantité: {}, réductionId: {}",
             request.getLivreId(), request.getQuantite(), request.getReductionId());
 
-    Livre livre = livreRepository.findById(request.getLivreId().toString())
-            .orElseThrow(() -> new ResourceNotFoundException(
-                    "Livre non trouvé avec ID: " + request.getLivreId()));
-
-    // Vérifier le stock disponible
-    if (livre.getQuantiteStock() < request.getQuantite()) {
-        throw new BadRequestException(
-            String.format("Stock insuffisant pour '%s'. Disponible: %d, Demandé: %d",
-                livre.getTitre(), livre.getQuantiteStock(), request.getQuantite())
-        );
-    }
+    // Stock déjà vérifié pour tout le panier dans validateStock
 
     LigneVente ligne = new LigneVente();
     ligne.setVente(vente);
@@ -272,20 +300,57 @@ private LigneVente createLigneVente(LigneVenteRequest request, Vente vente) {
 }
 
     /**
-     * Valider le stock avant création de vente
+     * Charger les livres de toutes les lignes en une seule requête
      */
-    private void validateStock(List<LigneVenteRequest> lignes) {
-        List<String> erreurs = new ArrayList<>();
+    private Map<String, Livre> chargerLivres(List<LigneVenteRequest> lignes) {
+        Set<String> ids = lignes.stream()
+                .map(l -> l.getLivreId().toString())
+                .collect(Collectors.toSet());
+
+        // Verrou de ligne jusqu'au commit : le stock lu ici ne peut pas être
+        // consommé par une autre vente ou réservation avant la déduction
+        Map<String, Livre> livres = livreRepository.findAllByIdPourMiseAJour(ids).stream()
+                .collect(Collectors.toMap(Livre::getId, l -> l));
+
+        for (String id : ids) {
+            if (!livres.containsKey(id)) {
+                throw new ResourceNotFoundException("Livre non trouvé avec ID: " + id);
+            }
+        }
+        return livres;
+    }
 
+    /**
+     * Valider le stock avant création de vente (livres verrouillés).
+     * La quantité totale doit toujours tenir dans le stock ; la part non
+     * couverte par une réservation du panier doit en plus tenir dans le stock
+     * non réservé par les autres paniers.
+     */
+    private void validateStock(List<LigneVenteRequest> lignes,
+                               Map<String, Livre> livres,
+                               Map<String, Integer> reservees,
+                               String panierId) {
+        // Un même livre peut apparaître sur plusieurs lignes
+        Map<String, Integer> demandees = new LinkedHashMap<>();
         for (LigneVenteRequest ligne : lignes) {
-            Livre livre = livreRepository.findById(ligne.getLivreId().toString())
-                    .orElseThrow(() -> new ResourceNotFoundException("Livre non trouvé"));
+            demandees.merge(ligne.getLivreId().toString(), ligne.getQuantite(), Integer::sum);
+        }
 
-            if (livre.getQuantiteStock() < ligne.getQuantite()) {
+        List<String> erreurs = new ArrayList<>();
+
+        demandees.forEach((livreId, quantite) -> {
+            Livre livre = livres.get(livreId);
+            int stock = livre.getQuantiteStock();
+            int reservee = Math.min(quantite, reservees.getOrDefault(livreId, 0));
+            int nonReservee = quantite - reservee;
+
+            int disponible = nonReservee == 0 ? stock
+                    : stock - reservationStockService.getQuantiteReservee(livreId, panierId);
+            if (stock < quantite || disponible < nonReservee) {
                 erreurs.add(String.format("%s: stock insuffisant (disponible: %d)",
-                        livre.getTitre(), livre.getQuantiteStock()));
+                        livre.getTitre(), Math.max(0, Math.min(stock, disponible + reservee))));
             }
-        }
+        });
 
         if (!erreurs.isEmpty()) {
             throw new BadRequestException("Erreurs de stock: " + String.join(", ", erreurs));
@@ -298,6 +363,10 @@ private LigneVente createLigneVente(LigneVenteRequest request, Vente vente) {
     private void deduireStock(Livre livre, Integer quantite, String reference, User user) {
         int stockAvant = livre.getQuantiteStock();
         int stockApres = stockAvant - quantite;
+        if (stockApres < 0) {
+            // Ne doit pas arriver (livre verrouillé et validé) : jamais de stock négatif
+            throw new BadRequestException(livre.getTitre() + ": stock insuffisant (disponible: " + stockAvant + ")");
+        }
 
         livre.setQuantiteStock(stockApres);
         livreRepository.save(livre);
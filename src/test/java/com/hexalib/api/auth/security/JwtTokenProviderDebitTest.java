@@ -0,0 +1,108 @@
+package com.hexalib.api.auth.security;
+
+import com.hexalib.api.auth.model.User;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Débit d'émission et de validation des access tokens, sans contexte Spring.
+ * La référence reconstruit la clé et le parser à chaque validation, comme
+ * avant leur dérivation unique dans {@link JwtTokenProvider#initialiser()}.
+ */
+class JwtTokenProviderDebitTest {
+
+    private static final String SECRET =
+            "secret-de-test-suffisamment-long-pour-hmac-sha-256-0123456789";
+    private static final int ECHAUFFEMENT = 2_000;
+    private static final int ITERATIONS   = 20_000;
+
+    private JwtTokenProvider provider;
+    private User user;
+
+    @BeforeEach
+    void preparer() {
+        provider = new JwtTokenProvider(null);
+        ReflectionTestUtils.setField(provider, "jwtSecret", SECRET);
+        ReflectionTestUtils.setField(provider, "jwtExpirationMs", 3_600_000L);
+        provider.initialiser();
+
+        user = new User();
+        user.setId("7f3c2a10-0000-4000-8000-000000000001");
+        user.setEmail("vendeur@hexalib.test");
+        user.setRole(User.Role.VENDEUR);
+        user.setVersionSecurite(3);
+    }
+
+    @Test
+    void debitGenerationToken() {
+        for (int i = 0; i < ECHAUFFEMENT; i++) {
+            provider.generateToken(user);
+        }
+
+        long debut = System.nanoTime();
+        String dernier = null;
+        for (int i = 0; i < ITERATIONS; i++) {
+            dernier = provider.generateToken(user);
+        }
+        long duree = System.nanoTime() - debut;
+
+        assertThat(provider.parseAndValidate(dernier).getSubject()).isEqualTo(user.getEmail());
+        afficher("generateToken", duree);
+    }
+
+    @Test
+    void debitValidationTokenParserPartageContreParserReconstruit() {
+        String token = provider.generateToken(user);
+
+        for (int i = 0; i < ECHAUFFEMENT; i++) {
+            provider.parseAndValidate(token);
+            validerAvecParserReconstruit(token);
+        }
+
+        long debut = System.nanoTime();
+        Claims claims = null;
+        for (int i = 0; i < ITERATIONS; i++) {
+            claims = provider.parseAndValidate(token);
+        }
+        long dureePartage = System.nanoTime() - debut;
+
+        debut = System.nanoTime();
+        Claims reference = null;
+        for (int i = 0; i < ITERATIONS; i++) {
+            reference = validerAvecParserReconstruit(token);
+        }
+        long dureeReconstruit = System.nanoTime() - debut;
+
+        assertThat(provider.getPrincipal(claims).id()).isEqualTo(user.getId());
+        assertThat(provider.getVersion(claims)).isEqualTo(3);
+        assertThat(reference.getId()).isEqualTo(claims.getId());
+
+        afficher("parseAndValidate (parser partagé)", dureePartage);
+        afficher("parseAndValidate (parser reconstruit)", dureeReconstruit);
+    }
+
+    // ═══════════════════════════════════════════════════════════════════════
+    // Utilitaires
+    // ═══════════════════════════════════════════════════════════════════════
+
+    private static Claims validerAvecParserReconstruit(String token) {
+        return Jwts.parser()
+                .verifyWith(Keys.hmacShaKeyFor(SECRET.getBytes(StandardCharsets.UTF_8)))
+                .build()
+                .parseSignedClaims(token)
+                .getPayload();
+    }
+
+    private static void afficher(String operation, long dureeNanos) {
+        System.out.printf("%-40s %,10.0f tokens/s (%d itérations, %d ms)%n",
+                operation, ITERATIONS * 1e9 / dureeNanos, ITERATIONS, dureeNanos / 1_000_000);
+    }
+}
@@ -0,0 +1,130 @@
+package com.hexalib.api.common.pdf;
+
+import com.itextpdf.io.font.constants.StandardFonts;
+import com.itextpdf.kernel.font.PdfFont;
+import com.itextpdf.kernel.font.PdfFontFactory;
+import com.itextpdf.layout.element.Paragraph;
+import com.itextpdf.layout.element.Table;
+import com.itextpdf.layout.properties.TextAlignment;
+import com.itextpdf.layout.properties.UnitValue;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Débit du moteur PDF par type de document, sans contexte Spring. Chaque
+ * type est rendu avec les polices partagées du moteur, puis avec des
+ * polices recréées à chaque document comme le faisaient les trois services
+ * avant le moteur commun.
+ */
+class PdfMoteurDebitTest {
+
+    private PdfMoteur moteur;
+
+    @BeforeEach
+    void preparer() throws Exception {
+        moteur = new PdfMoteur(new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(moteur, "threads", 2);
+        ReflectionTestUtils.setField(moteur, "fileAttente", 8);
+        moteur.initialiser();
+    }
+
+    @AfterEach
+    void arreter() {
+        moteur.arreterExecutor();
+    }
+
+    @Test
+    void debitFacture() {
+        comparer("facture", 10, 300);
+    }
+
+    @Test
+    void debitBonDeCommande() {
+        comparer("commande", 40, 200);
+    }
+
+    @Test
+    void debitRapportPeriodiqueEnFichier() throws Exception {
+        int iterations = 20;
+        PdfMoteur.Contenu contenu = tableau(1_000, false);
+
+        for (int i = 0; i < 2; i++) {
+            moteur.rendre("rapport-periodique", new ByteArrayOutputStream(), contenu);
+        }
+        long debut = System.nanoTime();
+        ByteArrayOutputStream out = null;
+        for (int i = 0; i < iterations; i++) {
+            out = new ByteArrayOutputStream();
+            moteur.rendre("rapport-periodique", out, contenu);
+        }
+        long duree = System.nanoTime() - debut;
+
+        assertThat(new String(out.toByteArray(), 0, 5)).isEqualTo("%PDF-");
+        afficher("rapport-periodique (1000 lignes)", iterations, duree);
+    }
+
+    // ═══════════════════════════════════════════════════════════════════════
+    // Utilitaires
+    // ═══════════════════════════════════════════════════════════════════════
+
+    private void comparer(String type, int lignes, int iterations) {
+        long dureePartagee = mesurer(type, tableau(lignes, false), iterations);
+        long dureeRecreee  = mesurer(type + "-polices-recreees", tableau(lignes, true), iterations);
+
+        byte[] pdf = moteur.rendre(type, tableau(lignes, false));
+        assertThat(new String(pdf, 0, 5)).isEqualTo("%PDF-");
+
+        afficher(type + " (" + lignes + " lignes)", iterations, dureePartagee);
+        afficher(type + " (polices recréées)", iterations, dureeRecreee);
+    }
+
+    private long mesurer(String type, PdfMoteur.Contenu contenu, int iterations) {
+        for (int i = 0; i < iterations / 10; i++) {
+            moteur.rendre(type, contenu);
+        }
+        long debut = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            moteur.rendre(type, contenu);
+        }
+        return System.nanoTime() - debut;
+    }
+
+    /** Titre puis tableau à six colonnes, comme les documents de l'application. */
+    private static PdfMoteur.Contenu tableau(int lignes, boolean policesRecreees) {
+        return (document, polices) -> {
+            PdfFont gras   = policesRecreees ? PdfFontFactory.createFont(StandardFonts.HELVETICA_BOLD) : polices.gras();
+            PdfFont normal = policesRecreees ? PdfFontFactory.createFont(StandardFonts.HELVETICA)      : polices.normal();
+
+            document.add(new Paragraph("HEXALIB").setFont(gras).setFontSize(24));
+
+            Table table = new Table(UnitValue.createPercentArray(new float[]{2.5f, 5f, 1.5f, 2f, 2f, 2f}))
+                    .useAllAvailableWidth();
+            for (String h : new String[]{"CODE", "TITRE", "QTÉ", "P.U", "RÉDUC.", "TOTAL"}) {
+                table.addHeaderCell(PdfMoteur.celluleEntete(h, gras, PdfMoteur.GRIS_FONCE));
+            }
+            for (int i = 0; i < lignes; i++) {
+                var fond = PdfMoteur.fondLigne(i % 2 == 1);
+                table.addCell(PdfMoteur.celluleDonnee("LIV-" + i, normal, TextAlignment.CENTER, fond));
+                table.addCell(PdfMoteur.celluleDonnee("Livre de test " + i, normal, TextAlignment.LEFT, fond));
+                table.addCell(PdfMoteur.celluleDonnee(String.valueOf(i % 5 + 1), normal, TextAlignment.CENTER, fond));
+                table.addCell(PdfMoteur.celluleDonnee(PdfMoteur.montant(BigDecimal.valueOf(2_500L + i)), normal, TextAlignment.RIGHT, fond));
+                table.addCell(PdfMoteur.celluleDonnee("0", normal, TextAlignment.RIGHT, fond));
+                table.addCell(PdfMoteur.celluleDonnee(PdfMoteur.montant(BigDecimal.valueOf(12_500L + i)), normal, TextAlignment.RIGHT, fond));
+            }
+            document.add(table);
+        };
+    }
+
+    private static void afficher(String type, int iterations, long dureeNanos) {
+        System.out.printf("%-36s %,10.0f documents/s %,10.2f ms/document%n",
+                type, iterations * 1e9 / dureeNanos, dureeNanos / 1e6 / iterations);
+    }
+}
@@ -0,0 +1,98 @@
+package com.hexalib.api.livre.service;
+
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Catalogue fournisseur généré pour les tests de lecture : mêmes colonnes
+ * que les fichiers réels (A catégorie … G remarque), avec des prix
+ * numériques, au format « 1.000/100 » et « xx ».
+ */
+final class CatalogueDeTest {
+
+    private CatalogueDeTest() {
+    }
+
+    /** Classeur XLSX : quatre lignes d'en-tête puis {@code lignes} lignes de données. */
+    static void ecrireXlsx(Path fichier, int lignes) throws IOException {
+        try (XSSFWorkbook wb = new XSSFWorkbook(); OutputStream out = Files.newOutputStream(fichier)) {
+            Sheet sheet = wb.createSheet("Catalogue");
+            sheet.createRow(0).createCell(0).setCellValue("CATALOGUE FOURNISSEUR");
+            sheet.createRow(3).createCell(1).setCellValue("DÉSIGNATION");
+
+            for (int i = 0; i < lignes; i++) {
+                Row row = sheet.createRow(LivreXlsxReader.DATA_START_ROW + i);
+                row.createCell(0).setCellValue(categorie(i));
+                row.createCell(1).setCellValue(titre(i));
+                row.createCell(2).setCellValue(auteur(i));
+                row.createCell(3).setCellValue(editeur(i));
+                switch (i % 3) {
+                    case 0  -> row.createCell(4).setCellValue(prixVente(i));
+                    case 1  -> row.createCell(4).setCellValue(prixPaquet(i));
+                    default -> row.createCell(4).setCellValue("xx");
+                }
+                row.createCell(5).setCellValue(prixAchat(i));
+                if (i % 5 == 0) row.createCell(6).setCellValue(remarque(i));
+            }
+            wb.write(out);
+        }
+    }
+
+    /** Même catalogue en CSV « ; » : une ligne d'en-tête, remarques entre guillemets. */
+    static void ecrireCsv(Path fichier, int lignes) throws IOException {
+        try (BufferedWriter out = Files.newBufferedWriter(fichier, StandardCharsets.UTF_8)) {
+            out.write("Catégorie;Désignation;Auteur;Éditeur;Prix de vente;Prix net;Remarque\n");
+            for (int i = 0; i < lignes; i++) {
+                String prix = switch (i % 3) {
+                    case 0  -> String.valueOf(prixVente(i));
+                    case 1  -> prixPaquet(i);
+                    default -> "xx";
+                };
+                String remarque = i % 5 == 0 ? '"' + remarque(i).replace("\"", "\"\"") + '"' : "";
+                out.write(String.join(";", categorie(i), titre(i), auteur(i), editeur(i),
+                        prix, String.valueOf(prixAchat(i)), remarque));
+                out.write('\n');
+            }
+        }
+    }
+
+    static String categorie(int i) {
+        return "Catégorie " + (i % 12);
+    }
+
+    static String titre(int i) {
+        return "Livre de test n° " + i;
+    }
+
+    static String auteur(int i) {
+        return "Auteur " + (i % 400);
+    }
+
+    static String editeur(int i) {
+        return "Éditions " + (i % 30);
+    }
+
+    static long prixVente(int i) {
+        return 1_500L + (i % 50) * 100L;
+    }
+
+    static String prixPaquet(int i) {
+        return (1 + i % 4) + ".000/100";
+    }
+
+    static long prixAchat(int i) {
+        return 1_000L + (i % 40) * 100L;
+    }
+
+    static String remarque(int i) {
+        return "Remarque " + i + " ; réassort \"urgent\"";
+    }
+}
@@ -0,0 +1,91 @@
+package com.hexalib.api.livre.service;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Lecture CSV ({@link LivreCsvReader}) comparée à la lecture XLSX
+ * ({@link LivreXlsxReader}) sur le même catalogue : mêmes lignes parsées
+ * (au numéro de ligne près) et débit de chaque lecteur.
+ */
+class LivreCsvReaderDebitTest {
+
+    private static final int LIGNES = 20_000;
+    private static final int ITERATIONS = 5;
+
+    @TempDir
+    static Path dossier;
+
+    private static File csv;
+    private static File xlsx;
+
+    @BeforeAll
+    static void generer() throws Exception {
+        csv  = dossier.resolve("catalogue.csv").toFile();
+        xlsx = dossier.resolve("catalogue.xlsx").toFile();
+        CatalogueDeTest.ecrireCsv(csv.toPath(), LIGNES);
+        CatalogueDeTest.ecrireXlsx(xlsx.toPath(), LIGNES);
+    }
+
+    @Test
+    void lectureCsvIdentiqueALaLectureXlsx() throws Exception {
+        List<ImportJobStore.LigneParsee> depuisCsv = new ArrayList<>();
+        List<ImportJobStore.LigneParsee> depuisXlsx = new ArrayList<>();
+
+        assertThat(new LivreCsvReader().lire(csv, depuisCsv::add)).isEqualTo(LIGNES);
+        assertThat(new LivreXlsxReader().lire(xlsx, depuisXlsx::add)).isEqualTo(LIGNES);
+
+        assertThat(depuisCsv)
+                .usingRecursiveFieldByFieldElementComparatorIgnoringFields("numeroLigne")
+                .containsExactlyElementsOf(depuisXlsx);
+        assertThat(depuisCsv.get(0).numeroLigne()).isEqualTo(2);
+        assertThat(depuisCsv.get(0).description()).isEqualTo(CatalogueDeTest.remarque(0));
+    }
+
+    @Test
+    void debitCsvContreXlsx() throws Exception {
+        LivreCsvReader csvReader = new LivreCsvReader();
+        LivreXlsxReader xlsxReader = new LivreXlsxReader();
+
+        long dureeCsv  = mesurer(() -> csvReader.lire(csv, ligne -> { }));
+        long dureeXlsx = mesurer(() -> xlsxReader.lire(xlsx, ligne -> { }));
+
+        afficher("CSV (LivreCsvReader)", dureeCsv);
+        afficher("XLSX (LivreXlsxReader)", dureeXlsx);
+        System.out.printf("Rapport XLSX / CSV : %.1f%n", (double) dureeXlsx / dureeCsv);
+    }
+
+    // ═══════════════════════════════════════════════════════════════════════
+    // Mesure
+    // ═══════════════════════════════════════════════════════════════════════
+
+    @FunctionalInterface
+    interface Lecture {
+        int lire() throws Exception;
+    }
+
+    /** Meilleure durée sur quelques lectures, après une lecture d'échauffement. */
+    private static long mesurer(Lecture lecture) throws Exception {
+        assertThat(lecture.lire()).isEqualTo(LIGNES);
+        long meilleure = Long.MAX_VALUE;
+        for (int i = 0; i < ITERATIONS; i++) {
+            long debut = System.nanoTime();
+            lecture.lire();
+            meilleure = Math.min(meilleure, System.nanoTime() - debut);
+        }
+        return meilleure;
+    }
+
+    private static void afficher(String lecteur, long dureeNanos) {
+        System.out.printf("%-24s %,8.1f ms %,12.0f lignes/s%n",
+                lecteur, dureeNanos / 1e6, LIGNES * 1e9 / dureeNanos);
+    }
+}
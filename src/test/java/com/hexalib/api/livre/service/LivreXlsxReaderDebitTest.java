@@ -0,0 +1,142 @@
+package com.hexalib.api.livre.service;
+
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.CellType;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.ss.usermodel.Workbook;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.InputStream;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Lecture SAX ({@link LivreXlsxReader}) comparée à la lecture DOM
+ * (XSSFWorkbook) qu'elle remplace, sur le même classeur généré : lignes
+ * identiques, durée et mémoire allouée par lecture.
+ */
+class LivreXlsxReaderDebitTest {
+
+    private static final int LIGNES = 20_000;
+    private static final int ITERATIONS = 3;
+
+    @TempDir
+    static Path dossier;
+
+    private static Path fichier;
+
+    @BeforeAll
+    static void generer() throws Exception {
+        fichier = dossier.resolve("catalogue.xlsx");
+        CatalogueDeTest.ecrireXlsx(fichier, LIGNES);
+    }
+
+    @Test
+    void lectureSaxIdentiqueALaLectureDom() throws Exception {
+        List<ImportJobStore.LigneParsee> sax = new ArrayList<>();
+        int transmises = new LivreXlsxReader().lire(fichier.toFile(), sax::add);
+
+        List<ImportJobStore.LigneParsee> dom = lireDom(fichier);
+
+        assertThat(transmises).isEqualTo(LIGNES);
+        assertThat(sax).hasSize(LIGNES).isEqualTo(dom);
+        assertThat(sax.get(1).prixVente()).isEqualByComparingTo("2000");
+        assertThat(sax.get(1).description()).isEqualTo("2000 FCFA pour 100 unités");
+    }
+
+    @Test
+    void debitEtMemoireSaxContreDom() throws Exception {
+        LivreXlsxReader reader = new LivreXlsxReader();
+        int[] compteur = new int[1];
+
+        Mesure sax = mesurer(() -> {
+            compteur[0] = 0;
+            reader.lire(fichier.toFile(), ligne -> compteur[0]++);
+            return compteur[0];
+        });
+        Mesure dom = mesurer(() -> lireDom(fichier).size());
+
+        assertThat(sax.lignes()).isEqualTo(LIGNES);
+        assertThat(dom.lignes()).isEqualTo(LIGNES);
+        assertThat(sax.octetsAlloues()).isLessThan(dom.octetsAlloues());
+
+        afficher("SAX (LivreXlsxReader)", sax);
+        afficher("DOM (XSSFWorkbook)", dom);
+    }
+
+    // ═══════════════════════════════════════════════════════════════════════
+    // Référence DOM
+    // ═══════════════════════════════════════════════════════════════════════
+
+    /** Lecture d'avant le passage au SAX : classeur complet puis lignes en liste. */
+    private static List<ImportJobStore.LigneParsee> lireDom(Path fichier) throws Exception {
+        List<ImportJobStore.LigneParsee> lignes = new ArrayList<>();
+        try (InputStream in = Files.newInputStream(fichier); Workbook wb = new XSSFWorkbook(in)) {
+            Sheet sheet = wb.getSheetAt(0);
+            LivreXlsxReader.Cellule[] cellules = new LivreXlsxReader.Cellule[7];
+            for (int i = LivreXlsxReader.DATA_START_ROW; i <= sheet.getLastRowNum(); i++) {
+                Row row = sheet.getRow(i);
+                if (row == null) continue;
+                for (int c = 0; c < cellules.length; c++) {
+                    cellules[c] = cellule(row.getCell(c));
+                }
+                ImportJobStore.LigneParsee ligne = LivreXlsxReader.construireLigne(i + 1, cellules);
+                if (ligne != null) lignes.add(ligne);
+            }
+        }
+        return lignes;
+    }
+
+    private static LivreXlsxReader.Cellule cellule(Cell cell) {
+        if (cell == null) return LivreXlsxReader.Cellule.VIDE;
+        return switch (cell.getCellType()) {
+            case NUMERIC -> new LivreXlsxReader.Cellule(CellType.NUMERIC, Double.toString(cell.getNumericCellValue()));
+            case STRING  -> new LivreXlsxReader.Cellule(CellType.STRING, cell.getStringCellValue());
+            default      -> LivreXlsxReader.Cellule.VIDE;
+        };
+    }
+
+    // ═══════════════════════════════════════════════════════════════════════
+    // Mesure
+    // ═══════════════════════════════════════════════════════════════════════
+
+    @FunctionalInterface
+    interface Lecture {
+        int lire() throws Exception;
+    }
+
+    record Mesure(int lignes, long nanos, long octetsAlloues) {}
+
+    /** Meilleure durée et allocation moyenne sur quelques lectures, après une lecture d'échauffement. */
+    private static Mesure mesurer(Lecture lecture) throws Exception {
+        var threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().threadId();
+
+        int lignes = lecture.lire();
+        long meilleure = Long.MAX_VALUE;
+        long alloues = 0;
+        for (int i = 0; i < ITERATIONS; i++) {
+            long octetsAvant = threads.getThreadAllocatedBytes(threadId);
+            long debut = System.nanoTime();
+            lignes = lecture.lire();
+            meilleure = Math.min(meilleure, System.nanoTime() - debut);
+            alloues += threads.getThreadAllocatedBytes(threadId) - octetsAvant;
+        }
+        return new Mesure(lignes, meilleure, alloues / ITERATIONS);
+    }
+
+    private static void afficher(String lecteur, Mesure mesure) {
+        System.out.printf("%-24s %,7d lignes %,8.0f ms %,12.0f lignes/s %,8.1f Mo alloués%n",
+                lecteur, mesure.lignes(), mesure.nanos() / 1e6,
+                mesure.lignes() * 1e9 / mesure.nanos(), mesure.octetsAlloues() / 1e6);
+    }
+}
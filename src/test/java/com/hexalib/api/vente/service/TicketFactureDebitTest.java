@@ -0,0 +1,151 @@
+package com.hexalib.api.vente.service;
+
+import com.hexalib.api.auth.model.User;
+import com.hexalib.api.common.pdf.PdfMoteur;
+import com.hexalib.api.vente.model.LigneVente;
+import com.hexalib.api.vente.model.StatutVente;
+import com.hexalib.api.vente.model.Vente;
+import com.hexalib.api.vente.repository.LigneVenteRepository;
+import com.hexalib.api.vente.repository.VenteRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Débit du ticket de caisse comparé à la facture PDF pour la même vente,
+ * sans contexte Spring : les repositories sont simulés, seul le rendu est
+ * mesuré.
+ */
+class TicketFactureDebitTest {
+
+    private static final int ARTICLES = 8;
+
+    private PdfMoteur pdfMoteur;
+    private TicketService ticketService;
+    private FactureService factureService;
+
+    @BeforeEach
+    void preparer() {
+        pdfMoteur = new PdfMoteur(new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(pdfMoteur, "threads", 1);
+        ReflectionTestUtils.setField(pdfMoteur, "fileAttente", 4);
+        ReflectionTestUtils.invokeMethod(pdfMoteur, "initialiser");
+
+        Vente vente = vente();
+
+        LigneVenteRepository ligneVenteRepository = mock(LigneVenteRepository.class);
+        when(ligneVenteRepository.findTicket(anyString())).thenReturn(projectionTicket(vente));
+        ticketService = new TicketService(ligneVenteRepository);
+
+        VenteRepository venteRepository = mock(VenteRepository.class);
+        when(venteRepository.findAvecLignes(anyString())).thenReturn(Optional.of(vente));
+        factureService = new FactureService(venteRepository, pdfMoteur);
+    }
+
+    @AfterEach
+    void arreter() {
+        ReflectionTestUtils.invokeMethod(pdfMoteur, "arreterExecutor");
+    }
+
+    @Test
+    void debitTicketContreFacturePdf() {
+        UUID venteId = UUID.randomUUID();
+
+        long dureeEscPos = mesurer(20_000, () -> ticketService.genererTicket(venteId, TicketService.Format.ESCPOS, 48));
+        long dureeTexte  = mesurer(20_000, () -> ticketService.genererTicket(venteId, TicketService.Format.TEXT, 32));
+        long dureePdf    = mesurer(200,    () -> factureService.genererFacturePDF(venteId));
+
+        String ticket = new String(ticketService.genererTicket(venteId, TicketService.Format.TEXT, 32));
+        assertThat(ticket).contains("FAC-2026-000123", "Livre de test 8", "TOTAL");
+        assertThat(ticket.lines()).allMatch(ligne -> ligne.length() <= 32);
+
+        byte[] pdf = factureService.genererFacturePDF(venteId);
+        assertThat(new String(pdf, 0, 5)).isEqualTo("%PDF-");
+
+        afficher("ticket ESC/POS 80 mm", 20_000, dureeEscPos);
+        afficher("ticket texte 58 mm", 20_000, dureeTexte);
+        afficher("facture PDF A4", 200, dureePdf);
+    }
+
+    // ═══════════════════════════════════════════════════════════════════════
+    // Jeu de données
+    // ═══════════════════════════════════════════════════════════════════════
+
+    private static Vente vente() {
+        User vendeur = new User();
+        vendeur.setNomComplet("Vendeur Test");
+
+        Vente vente = new Vente();
+        vente.setNumeroFacture("FAC-2026-000123");
+        vente.setDateVente(LocalDateTime.of(2026, 3, 14, 10, 30));
+        vente.setVendeur(vendeur);
+        vente.setStatut(StatutVente.VALIDEE);
+
+        List<LigneVente> lignes = new ArrayList<>();
+        BigDecimal total = BigDecimal.ZERO;
+        for (int i = 1; i <= ARTICLES; i++) {
+            LigneVente ligne = new LigneVente();
+            ligne.setCodeLivre("LIV-" + i);
+            ligne.setTitreLivre("Livre de test " + i);
+            ligne.setQuantite(i % 3 + 1);
+            ligne.setPrixUnitaire(BigDecimal.valueOf(2_500L * i));
+            ligne.setMontantReduction(i % 2 == 0 ? BigDecimal.valueOf(500) : BigDecimal.ZERO);
+            ligne.setSousTotal(ligne.getPrixUnitaire().multiply(BigDecimal.valueOf(ligne.getQuantite()))
+                    .subtract(ligne.getMontantReduction()));
+            total = total.add(ligne.getSousTotal());
+            lignes.add(ligne);
+        }
+        vente.setLignes(lignes);
+        vente.setMontantHT(total);
+        vente.setMontantReductions(BigDecimal.ZERO);
+        vente.setMontantTTC(total);
+        return vente;
+    }
+
+    /** Même forme que {@link LigneVenteRepository#findTicket(String)}. */
+    private static List<Object[]> projectionTicket(Vente vente) {
+        List<Object[]> lignes = new ArrayList<>();
+        for (LigneVente l : vente.getLignes()) {
+            lignes.add(new Object[]{
+                    vente.getNumeroFacture(), vente.getDateVente(), vente.getVendeur().getNomComplet(),
+                    vente.getStatut(), vente.getMontantHT(), vente.getMontantReductions(), vente.getMontantTTC(),
+                    l.getTitreLivre(), l.getQuantite(), l.getPrixUnitaire(), l.getMontantReduction(), l.getSousTotal()});
+        }
+        return lignes;
+    }
+
+    // ═══════════════════════════════════════════════════════════════════════
+    // Utilitaires
+    // ═══════════════════════════════════════════════════════════════════════
+
+    /** Durée de {@code iterations} rendus après un échauffement d'un dixième. */
+    private static long mesurer(int iterations, Runnable rendu) {
+        for (int i = 0; i < iterations / 10; i++) {
+            rendu.run();
+        }
+        long debut = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            rendu.run();
+        }
+        return System.nanoTime() - debut;
+    }
+
+    private static void afficher(String rendu, int iterations, long dureeNanos) {
+        System.out.printf("%-24s %,12.0f documents/s %,10.1f µs/document%n",
+                rendu, iterations * 1e9 / dureeNanos, dureeNanos / 1e3 / iterations);
+    }
+}